@@ -18,10 +18,15 @@
 @CommandDefinition(name = Stats.CMD, description = "Shows cache and container statistics", activator = ConnectionActivator.class)
 public class Stats extends CliCommand {
    public static final String CMD = "stats";
+   public static final String HOT_KEYS = "hot-keys";
+   public static final int HOT_KEYS_LIMIT = 10;
 
    @Argument(description = "The path of the resource", completer = CdContextCompleter.class)
    String name;
 
+   @Option(description = "Shows the keys of the cache that are read, written and contended most often", hasValue = false, name = HOT_KEYS)
+   boolean hotKeys;
+
    @Option(shortName = 'h', hasValue = false, overrideRequired = true)
    protected boolean help;
 
@@ -32,7 +37,7 @@ public boolean isHelp() {
 
    @Override
    public CommandResult exec(ContextAwareCommandInvocation invocation) {
-      CommandInputLine cmd = new CommandInputLine(CMD).optionalArg("name", name);
+      CommandInputLine cmd = new CommandInputLine(CMD).optionalArg("name", name).option(HOT_KEYS, hotKeys);
       return invocation.execute(cmd);
    }
 }
@@ -599,7 +599,11 @@ public String execute(List<CommandInputLine> commands) throws IOException {
                   resource = pathToResource(command.arg(CliCommand.NAME));
                }
                if (resource instanceof CacheResource) {
-                  response = client.cache(resource.getName()).stats();
+                  if (command.boolOption(Stats.HOT_KEYS)) {
+                     response = client.cache(resource.getName()).hotKeys(Stats.HOT_KEYS_LIMIT);
+                  } else {
+                     response = client.cache(resource.getName()).stats();
+                  }
                } else if (resource instanceof ContainerResource) {
                   response = client.cacheManager(resource.getName()).stats();
                } else {
@@ -484,6 +484,20 @@ default ServerStatistics stats() {
     */
    public Map<K, V> getAll(Set<? extends K> keys);
 
+   /**
+    * Publishes the entries for the provided keys. The keys are split by the server owning them and the entries are
+    * published as soon as each server answers, so a slow server doesn't delay the entries of the other ones. A key
+    * will not be published if the entry was not found in the cache.
+    * <p>
+    * Any subscriber that subscribes to the returned Publisher must not block. It is therefore recommended to offload
+    * any blocking or long running operations to a different thread and not use the invoking one. Failure to do so
+    * may cause concurrent operations to stall.
+    * @param keys                  The keys to find values for
+    * @param maxConcurrentRequests The maximum number of requests sent to the servers at the same time
+    * @return Publisher for the entries that were present for the given keys
+    */
+   Publisher<Entry<K, V>> publishAll(Set<? extends K> keys, int maxConcurrentRequests);
+
    /**
     * Returns the HotRod protocol version supported by this RemoteCache implementation
     */
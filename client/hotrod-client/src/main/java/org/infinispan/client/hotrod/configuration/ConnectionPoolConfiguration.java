@@ -13,14 +13,20 @@ public class ConnectionPoolConfiguration {
    private final int minIdle;
    private final long minEvictableIdleTime;
    private final int maxPendingRequests;
+   private final boolean pipelining;
 
    ConnectionPoolConfiguration(ExhaustedAction exhaustedAction, int maxActive, long maxWait, int minIdle, long minEvictableIdleTime, int maxPendingRequests) {
+      this(exhaustedAction, maxActive, maxWait, minIdle, minEvictableIdleTime, maxPendingRequests, false);
+   }
+
+   ConnectionPoolConfiguration(ExhaustedAction exhaustedAction, int maxActive, long maxWait, int minIdle, long minEvictableIdleTime, int maxPendingRequests, boolean pipelining) {
       this.exhaustedAction = exhaustedAction;
       this.maxActive = maxActive;
       this.maxWait = maxWait;
       this.minIdle = minIdle;
       this.minEvictableIdleTime = minEvictableIdleTime;
       this.maxPendingRequests = maxPendingRequests;
+      this.pipelining = pipelining;
    }
 
    public ExhaustedAction exhaustedAction() {
@@ -47,6 +53,10 @@ public int maxPendingRequests() {
       return maxPendingRequests;
    }
 
+   public boolean pipelining() {
+      return pipelining;
+   }
+
    @Override
    public String toString() {
       return "ConnectionPoolConfiguration{" +
@@ -56,6 +66,7 @@ public String toString() {
             ", minIdle=" + minIdle +
             ", minEvictableIdleTime=" + minEvictableIdleTime +
             ", maxPendingRequests=" + maxPendingRequests +
+            ", pipelining=" + pipelining +
             '}';
    }
 }
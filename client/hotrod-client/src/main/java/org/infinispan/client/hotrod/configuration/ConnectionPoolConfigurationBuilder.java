@@ -19,6 +19,7 @@ public class ConnectionPoolConfigurationBuilder extends AbstractConfigurationChi
    private int minIdle = 1;
    private long minEvictableIdleTime = 1800000;
    private int maxPendingRequests = 5;
+   private boolean pipelining = false;
 
    ConnectionPoolConfigurationBuilder(ConfigurationBuilder builder) {
       super(builder);
@@ -95,6 +96,19 @@ public ConnectionPoolConfigurationBuilder maxPendingRequests(int maxPendingReque
       return this;
    }
 
+   /**
+    * Enables pipelining of the requests sent over the same connection. The flushes of the requests written concurrently
+    * to a connection are merged into a single flush at the end of the event loop iteration, and concurrent gets of the
+    * same key without flags share a single request. A get that joins a request sent before a write of the same key
+    * completed may return the value previous to the write. The client statistics count a single read, hit or miss, for
+    * the gets sharing a request.
+    * Default setting for this parameter is false.
+    */
+   public ConnectionPoolConfigurationBuilder pipelining(boolean pipelining) {
+      this.pipelining = pipelining;
+      return this;
+   }
+
    /**
     * Configures the connection pool parameter according to properties
     */
@@ -118,6 +132,7 @@ public ConnectionPoolConfigurationBuilder withPoolProperties(Properties properti
       maxPendingRequests(typed.getIntProperty(ConfigurationProperties.CONNECTION_POOL_MAX_PENDING_REQUESTS,
             typed.getIntProperty("maxPendingRequests", maxPendingRequests, true),
             true));
+      pipelining(typed.getBooleanProperty(ConfigurationProperties.CONNECTION_POOL_PIPELINING, pipelining, true));
 
       return this;
    }
@@ -128,7 +143,7 @@ public void validate() {
 
    @Override
    public ConnectionPoolConfiguration create() {
-      return new ConnectionPoolConfiguration(exhaustedAction, maxActive, maxWait, minIdle, minEvictableIdleTime, maxPendingRequests);
+      return new ConnectionPoolConfiguration(exhaustedAction, maxActive, maxWait, minIdle, minEvictableIdleTime, maxPendingRequests, pipelining);
    }
 
    @Override
@@ -139,6 +154,7 @@ public ConnectionPoolConfigurationBuilder read(ConnectionPoolConfiguration templ
       minIdle = template.minIdle();
       minEvictableIdleTime = template.minEvictableIdleTime();
       maxPendingRequests = template.maxPendingRequests();
+      pipelining = template.pipelining();
       return this;
    }
 
@@ -6,6 +6,7 @@ public class NearCacheConfiguration {
    // TODO: Consider an option to configure key equivalence function for near cache (e.g. for byte arrays)
    private final NearCacheMode mode;
    private final int maxEntries;
+   private final long maxWeight;
    private final Pattern cacheNamePattern;
 
    public NearCacheConfiguration(NearCacheMode mode, int maxEntries) {
@@ -13,8 +14,13 @@ public NearCacheConfiguration(NearCacheMode mode, int maxEntries) {
    }
 
    public NearCacheConfiguration(NearCacheMode mode, int maxEntries, Pattern cacheNamePattern) {
+      this(mode, maxEntries, -1, cacheNamePattern);
+   }
+
+   public NearCacheConfiguration(NearCacheMode mode, int maxEntries, long maxWeight, Pattern cacheNamePattern) {
       this.mode = mode;
       this.maxEntries = maxEntries;
+      this.maxWeight = maxWeight;
       this.cacheNamePattern = cacheNamePattern;
    }
 
@@ -22,6 +28,14 @@ public int maxEntries() {
       return maxEntries;
    }
 
+   /**
+    * @return the maximum total size, in bytes, of the marshalled values held in the near cache, or -1 if the near
+    * cache is bounded by {@link #maxEntries()} instead.
+    */
+   public long maxWeight() {
+      return maxWeight;
+   }
+
    public NearCacheMode mode() {
       return mode;
    }
@@ -35,6 +49,7 @@ public String toString() {
       return "NearCacheConfiguration{" +
             "mode=" + mode +
             ", maxEntries=" + maxEntries +
+            ", maxWeight=" + maxWeight +
             ", cacheNamePattern=" + cacheNamePattern +
             '}';
    }
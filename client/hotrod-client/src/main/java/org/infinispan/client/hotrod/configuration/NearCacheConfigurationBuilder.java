@@ -14,6 +14,7 @@ public class NearCacheConfigurationBuilder extends AbstractConfigurationChildBui
 
    private NearCacheMode mode = NearCacheMode.DISABLED;
    private Integer maxEntries = null; // undefined
+   private long maxWeight = -1; // undefined
    private Pattern cacheNamePattern = null; // matches all
 
    protected NearCacheConfigurationBuilder(ConfigurationBuilder builder) {
@@ -31,6 +32,20 @@ public NearCacheConfigurationBuilder maxEntries(int maxEntries) {
       return this;
    }
 
+   /**
+    * Specifies the maximum total size, in bytes, of the values held in the near cache, as an alternative to {@link
+    * #maxEntries(int)}. The size of a value is the length of its marshalled form, computed with the data format of the
+    * remote cache when the value is added to the near cache. This requires an additional marshalling of every value
+    * read from the server, so it is only worth it when the values vary widely in size.
+    *
+    * @param maxWeight maximum total size of the values in the near cache.
+    * @return an instance of the builder
+    */
+   public NearCacheConfigurationBuilder maxWeight(long maxWeight) {
+      this.maxWeight = maxWeight;
+      return this;
+   }
+
    /**
     * Specifies the near caching mode. See {@link NearCacheMode} for details on the available modes.
     *
@@ -71,19 +86,22 @@ public NearCacheConfigurationBuilder cacheNamePattern(Pattern pattern) {
 
    @Override
    public void validate() {
-      if (mode.enabled() && maxEntries == null)
+      if (mode.enabled() && maxEntries == null && maxWeight <= 0)
          throw HOTROD.nearCacheMaxEntriesUndefined();
+      if (maxEntries != null && maxEntries > 0 && maxWeight > 0)
+         throw HOTROD.nearCacheMaxEntriesAndMaxWeight();
    }
 
    @Override
    public NearCacheConfiguration create() {
-      return new NearCacheConfiguration(mode, maxEntries == null ? -1 : maxEntries, cacheNamePattern);
+      return new NearCacheConfiguration(mode, maxEntries == null ? -1 : maxEntries, maxWeight, cacheNamePattern);
    }
 
    @Override
    public Builder<?> read(NearCacheConfiguration template) {
       mode = template.mode();
       maxEntries = template.maxEntries();
+      maxWeight = template.maxWeight();
       cacheNamePattern = template.cacheNamePattern();
       return this;
    }
@@ -94,6 +112,9 @@ public ConfigurationBuilder withProperties(Properties properties) {
       if (typed.containsKey(ConfigurationProperties.NEAR_CACHE_MAX_ENTRIES)) {
          this.maxEntries(typed.getIntProperty(ConfigurationProperties.NEAR_CACHE_MAX_ENTRIES, -1));
       }
+      if (typed.containsKey(ConfigurationProperties.NEAR_CACHE_MAX_WEIGHT)) {
+         this.maxWeight(typed.getLongProperty(ConfigurationProperties.NEAR_CACHE_MAX_WEIGHT, -1));
+      }
       if (typed.containsKey(ConfigurationProperties.NEAR_CACHE_MODE)) {
          this.mode(NearCacheMode.valueOf(typed.getProperty(ConfigurationProperties.NEAR_CACHE_MODE)));
       }
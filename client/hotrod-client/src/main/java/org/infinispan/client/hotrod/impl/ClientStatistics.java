@@ -21,8 +21,10 @@ public final class ClientStatistics implements RemoteCacheClientStatisticsMXBean
       this.enabled = enabled;
       this.timeService = timeService;
       this.nearCacheService = nearCacheService;
-      if (nearCacheService != null)
+      if (nearCacheService != null) {
          nearCacheService.setInvalidationCallback(this::incrementNearCacheInvalidations);
+         nearCacheService.setEvictionCallback(this::incrementNearCacheEvictions);
+      }
    }
 
    ClientStatistics(boolean enabled, TimeService timeService) {
@@ -95,6 +97,11 @@ public long getNearCacheInvalidations() {
       return counters.get(StripeB.nearCacheInvalidationsFieldUpdater);
    }
 
+   @Override
+   public long getNearCacheEvictions() {
+      return counters.get(StripeB.nearCacheEvictionsFieldUpdater);
+   }
+
    @Override
    public long getNearCacheSize() {
       return nearCacheService != null ? nearCacheService.size() : 0;
@@ -142,6 +149,10 @@ public void incrementNearCacheInvalidations() {
       counters.increment(StripeB.nearCacheInvalidationsFieldUpdater, counters.stripeForCurrentThread());
    }
 
+   public void incrementNearCacheEvictions() {
+      counters.increment(StripeB.nearCacheEvictionsFieldUpdater, counters.stripeForCurrentThread());
+   }
+
    @Override
    public void resetStatistics() {
       counters.reset(StripeB.remoteCacheHitsFieldUpdater);
@@ -155,6 +166,7 @@ public void resetStatistics() {
       counters.reset(StripeB.nearCacheHitsFieldUpdater);
       counters.reset(StripeB.nearCacheMissesFieldUpdater);
       counters.reset(StripeB.nearCacheInvalidationsFieldUpdater);
+      counters.reset(StripeB.nearCacheEvictionsFieldUpdater);
 
       startNanoseconds.set(timeService.time());
       resetNanoseconds.set(startNanoseconds.get());
@@ -203,6 +215,8 @@ private static class StripeB extends StripeA {
             AtomicLongFieldUpdater.newUpdater(StripeB.class, "nearCacheMisses");
       static final AtomicLongFieldUpdater<StripeB> nearCacheInvalidationsFieldUpdater =
             AtomicLongFieldUpdater.newUpdater(StripeB.class, "nearCacheInvalidations");
+      static final AtomicLongFieldUpdater<StripeB> nearCacheEvictionsFieldUpdater =
+            AtomicLongFieldUpdater.newUpdater(StripeB.class, "nearCacheEvictions");
 
       private volatile long remoteCacheHits = 0;
       private volatile long remoteCacheHitsTime = 0;
@@ -215,6 +229,7 @@ private static class StripeB extends StripeA {
       private volatile long nearCacheHits = 0;
       private volatile long nearCacheMisses = 0;
       private volatile long nearCacheInvalidations = 0;
+      private volatile long nearCacheEvictions = 0;
    }
 
    private static final class StripeC extends StripeB {
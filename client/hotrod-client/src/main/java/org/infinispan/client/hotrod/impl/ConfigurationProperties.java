@@ -94,6 +94,7 @@ public class ConfigurationProperties {
    public static final String TRANSACTION_TIMEOUT = ICH + "transaction.timeout";
    // Near cache properties
    public static final String NEAR_CACHE_MAX_ENTRIES = ICH + "near_cache.max_entries";
+   public static final String NEAR_CACHE_MAX_WEIGHT = ICH + "near_cache.max_weight";
    public static final String NEAR_CACHE_MODE = ICH + "near_cache.mode";
    public static final String NEAR_CACHE_NAME_PATTERN = ICH + "near_cache.name_pattern";
    // Pool properties
@@ -103,6 +104,7 @@ public class ConfigurationProperties {
    public static final String CONNECTION_POOL_MAX_PENDING_REQUESTS = ICH + "connection_pool.max_pending_requests";
    public static final String CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME = ICH + "connection_pool.min_evictable_idle_time";
    public static final String CONNECTION_POOL_EXHAUSTED_ACTION = ICH + "connection_pool.exhausted_action";
+   public static final String CONNECTION_POOL_PIPELINING = ICH + "connection_pool.pipelining";
    // XSite properties
    public static final String CLUSTER_PROPERTIES_PREFIX = ICH + "cluster";
    public static final Pattern CLUSTER_PROPERTIES_PREFIX_REGEX =
@@ -527,6 +529,14 @@ public void setNearCacheMaxEntries(int nearCacheMaxEntries) {
       props.setProperty(NEAR_CACHE_MAX_ENTRIES, nearCacheMaxEntries);
    }
 
+   public long getNearCacheMaxWeight() {
+      return props.getLongProperty(NEAR_CACHE_MAX_WEIGHT, -1);
+   }
+
+   public void setNearCacheMaxWeight(long nearCacheMaxWeight) {
+      props.setProperty(NEAR_CACHE_MAX_WEIGHT, nearCacheMaxWeight);
+   }
+
    public String getNearCacheNamePattern() {
       return props.getProperty(NEAR_CACHE_NAME_PATTERN);
    }
@@ -567,6 +577,14 @@ public void setConnectionPoolMaxPendingRequests(int connectionPoolMaxPendingRequ
       props.setProperty(CONNECTION_POOL_MAX_PENDING_REQUESTS, connectionPoolMaxPendingRequests);
    }
 
+   public boolean getConnectionPoolPipelining() {
+      return props.getBooleanProperty(CONNECTION_POOL_PIPELINING, false);
+   }
+
+   public void setConnectionPoolPipelining(boolean connectionPoolPipelining) {
+      props.setProperty(CONNECTION_POOL_PIPELINING, connectionPoolPipelining);
+   }
+
    public long setConnectionPoolMinEvictableIdleTime() {
       return props.getLongProperty(CONNECTION_POOL_MIN_EVICTABLE_IDLE_TIME, DEFAULT_MIN_EVICTABLE_IDLE_TIME);
    }
@@ -238,6 +238,11 @@ public Publisher<Entry<K, MetadataValue<V>>> publishEntriesWithMetadata(Set<Inte
       return delegate.publishEntriesWithMetadata(segments, batchSize);
    }
 
+   @Override
+   public Publisher<Entry<K, V>> publishAll(Set<? extends K> keys, int maxConcurrentRequests) {
+      return delegate.publishAll(keys, maxConcurrentRequests);
+   }
+
    @Override
    public CompletableFuture<V> removeAsync(Object key) {
       return delegate.removeAsync(key);
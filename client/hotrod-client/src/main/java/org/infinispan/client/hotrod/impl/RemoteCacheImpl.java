@@ -12,6 +12,8 @@
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Function;
@@ -56,6 +58,7 @@
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.client.hotrod.near.NearCacheService;
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.CloseableIteratorCollection;
@@ -86,6 +89,8 @@
    private DataFormat dataFormat;
    protected ClientStatistics clientStatistics;
    private ObjectName mbeanObjectName;
+   // Gets sent and not completed yet, shared by concurrent gets of the same key when pipelining is enabled
+   private ConcurrentMap<WrappedByteArray, CompletableFuture<V>> inflightGets;
 
    public RemoteCacheImpl(RemoteCacheManager rcm, String name, TimeService timeService) {
       this(rcm, name, timeService, null);
@@ -124,15 +129,16 @@ public void init(Marshaller marshaller, OperationsFactory operationsFactory,
    @Override
    public void init(Marshaller marshaller, OperationsFactory operationsFactory, Configuration configuration) {
       init(marshaller, operationsFactory,
-           configuration.batchSize());
+           configuration.batchSize(), configuration.connectionPool().pipelining());
    }
 
    private void init(Marshaller marshaller, OperationsFactory operationsFactory,
-                     int batchSize) {
+                     int batchSize, boolean pipelining) {
       this.defaultMarshaller = marshaller;
       this.operationsFactory = operationsFactory;
       this.batchSize = batchSize;
       this.dataFormat = defaultDataFormat;
+      this.inflightGets = pipelining ? new ConcurrentHashMap<>() : null;
    }
 
    private void registerMBean(ObjectName jmxParent) {
@@ -467,6 +473,19 @@ public CompletableFuture<Map<K, V>> getAllAsync(Set<?> keys) {
       return op.execute().thenApply(Collections::unmodifiableMap);
    }
 
+   @Override
+   public Publisher<Entry<K, V>> publishAll(Set<? extends K> keys, int maxConcurrentRequests) {
+      assertRemoteCacheManagerIsStarted();
+      if (trace) {
+         log.tracef("About to publish entries (%s)", keys);
+      }
+      Set<byte[]> byteKeys = new HashSet<>(keys.size());
+      for (Object key : keys) {
+         byteKeys.add(keyToBytes(key));
+      }
+      return operationsFactory.newGetAllPublisher(byteKeys, dataFormat, maxConcurrentRequests);
+   }
+
    @Override
    public void start() {
       if (log.isDebugEnabled()) {
@@ -550,8 +569,13 @@ public InternalRemoteCache<K, V> withFlags(Flag... flags) {
    public CompletableFuture<V> getAsync(Object key) {
       assertRemoteCacheManagerIsStarted();
       byte[] keyBytes = keyToBytes(key);
-      GetOperation<V> gco = operationsFactory.newGetKeyOperation(keyAsObjectIfNeeded(key), keyBytes, dataFormat);
-      CompletableFuture<V> result = gco.execute();
+      CompletableFuture<V> result;
+      if (inflightGets != null && !operationsFactory.hasFlags()) {
+         result = coalescedGet(key, keyBytes);
+      } else {
+         GetOperation<V> gco = operationsFactory.newGetKeyOperation(keyAsObjectIfNeeded(key), keyBytes, dataFormat);
+         result = gco.execute();
+      }
       if (trace) {
          result.thenAccept(value -> log.tracef("For key(%s) returning %s", key, value));
       }
@@ -559,6 +583,35 @@ public CompletableFuture<V> getAsync(Object key) {
       return result;
    }
 
+   /**
+    * Sends a single get for all the concurrent gets of the same key. A get issued while another one of the same key is
+    * in flight returns the value read by the latter, which may precede a write completed in the meantime.
+    * <p>
+    * The statistics are updated by the {@link GetOperation}, so a single read is counted for all the gets sharing it.
+    */
+   private CompletableFuture<V> coalescedGet(Object key, byte[] keyBytes) {
+      WrappedByteArray wrappedKey = new WrappedByteArray(keyBytes);
+      CompletableFuture<V> future = new CompletableFuture<>();
+      CompletableFuture<V> existing = inflightGets.putIfAbsent(wrappedKey, future);
+      if (existing != null) {
+         if (trace) {
+            log.tracef("Joining get of key(%s) already in flight", key);
+         }
+         // Don't let the caller complete the shared future
+         return existing.thenApply(Function.identity());
+      }
+      GetOperation<V> gco = operationsFactory.newGetKeyOperation(keyAsObjectIfNeeded(key), keyBytes, dataFormat);
+      gco.execute().whenComplete((value, throwable) -> {
+         inflightGets.remove(wrappedKey, future);
+         if (throwable != null) {
+            future.completeExceptionally(throwable);
+         } else {
+            future.complete(value);
+         }
+      });
+      return future.thenApply(Function.identity());
+   }
+
    public CompletionStage<PingResponse> ping() {
       return operationsFactory.newFaultTolerantPingOperation().execute();
    }
@@ -649,7 +702,7 @@ public <T, U> InternalRemoteCache<T, U> withDataFormat(DataFormat newDataFormat)
 
    private <T, U> RemoteCacheImpl<T, U> newInstance() {
       RemoteCacheImpl<T, U> copy = new RemoteCacheImpl<>(this.remoteCacheManager, name, clientStatistics);
-      copy.init(this.defaultMarshaller, this.operationsFactory, this.batchSize);
+      copy.init(this.defaultMarshaller, this.operationsFactory, this.batchSize, this.inflightGets != null);
       return copy;
    }
 
@@ -0,0 +1,99 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.client.hotrod.DataFormat;
+import org.infinispan.client.hotrod.configuration.Configuration;
+import org.infinispan.client.hotrod.impl.ClientStatistics;
+import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.transport.netty.ChannelFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Publishes the entries of a getAll as soon as the server owning them answers, instead of waiting for all the servers
+ * like {@link GetAllParallelOperation} does. The keys are split by their primary owner, and up to
+ * {@code maxConcurrentRequests} {@link GetAllOperation}s are in flight at any time. A sub request that fails after the
+ * topology changed is split again against the new owners and retried once.
+ *
+ * @since 12.0
+ */
+public class GetAllPublisher<K, V> implements Publisher<Map.Entry<K, V>> {
+   private static final Log log = LogFactory.getLog(GetAllPublisher.class);
+
+   private final Codec codec;
+   private final ChannelFactory channelFactory;
+   private final Set<byte[]> keys;
+   private final byte[] cacheName;
+   private final AtomicInteger topologyId;
+   private final int flags;
+   private final Configuration cfg;
+   private final DataFormat dataFormat;
+   private final ClientStatistics clientStatistics;
+   private final int maxConcurrentRequests;
+
+   protected GetAllPublisher(Codec codec, ChannelFactory channelFactory, Set<byte[]> keys, byte[] cacheName,
+                             AtomicInteger topologyId, int flags, Configuration cfg, DataFormat dataFormat,
+                             ClientStatistics clientStatistics, int maxConcurrentRequests) {
+      if (maxConcurrentRequests <= 0) {
+         throw new IllegalArgumentException("maxConcurrentRequests must be greater than 0");
+      }
+      this.codec = codec;
+      this.channelFactory = channelFactory;
+      this.keys = keys;
+      this.cacheName = cacheName;
+      this.topologyId = topologyId;
+      this.flags = flags;
+      this.cfg = cfg;
+      this.dataFormat = dataFormat;
+      this.clientStatistics = clientStatistics;
+      this.maxConcurrentRequests = maxConcurrentRequests;
+   }
+
+   @Override
+   public void subscribe(Subscriber<? super Map.Entry<K, V>> subscriber) {
+      publish(keys, true).subscribe(subscriber);
+   }
+
+   private Flowable<Map.Entry<K, V>> publish(Set<byte[]> keys, boolean retry) {
+      return Flowable.defer(() -> Flowable.fromIterable(splitByOwner(keys).values()))
+            .flatMap(subset -> publishSubset(subset, retry), maxConcurrentRequests);
+   }
+
+   private Flowable<Map.Entry<K, V>> publishSubset(Set<byte[]> subset, boolean retry) {
+      return Flowable.defer(() -> {
+         int sentTopologyId = topologyId.get();
+         GetAllOperation<K, V> operation = new GetAllOperation<>(codec, channelFactory, subset, cacheName, topologyId,
+               flags, cfg, dataFormat, clientStatistics);
+         return Flowable.fromCompletionStage(operation.execute())
+               .concatMapIterable(Map::entrySet)
+               .onErrorResumeNext(t -> {
+                  if (!retry || sentTopologyId == topologyId.get()) {
+                     return Flowable.error(t);
+                  }
+                  if (log.isTraceEnabled()) {
+                     log.tracef(t, "Retrying getAll of %d keys with topology %d", subset.size(), topologyId.get());
+                  }
+                  return publish(subset, false);
+               });
+      });
+   }
+
+   private Map<SocketAddress, Set<byte[]>> splitByOwner(Set<byte[]> keys) {
+      Map<SocketAddress, Set<byte[]>> splittedKeys = new HashMap<>();
+      for (byte[] key : keys) {
+         SocketAddress socketAddress = channelFactory.getSocketAddress(key, cacheName);
+         splittedKeys.computeIfAbsent(socketAddress, k -> new HashSet<>()).add(key);
+      }
+      return splittedKeys;
+   }
+}
@@ -107,6 +107,11 @@ public <K, V> GetAllParallelOperation<K, V> newGetAllOperation(Set<byte[]> keys,
             cfg, dataFormat, clientStatistics);
    }
 
+   public <K, V> GetAllPublisher<K, V> newGetAllPublisher(Set<byte[]> keys, DataFormat dataFormat, int maxConcurrentRequests) {
+      return new GetAllPublisher<>(codec, channelFactory, keys, cacheNameBytes, topologyId, flags(),
+            cfg, dataFormat, clientStatistics, maxConcurrentRequests);
+   }
+
    public <V> RemoveOperation<V> newRemoveOperation(Object key, byte[] keyBytes, DataFormat dataFormat) {
       return new RemoveOperation<>(
             codec, channelFactory, key, keyBytes, cacheNameBytes, topologyId, flags(), cfg, dataFormat, clientStatistics);
@@ -273,6 +278,13 @@ public void setFlags(int intFlags) {
       this.flagsMap.set(intFlags);
    }
 
+   /**
+    * @return true if flags were set for the next operation invoked by the current thread
+    */
+   public boolean hasFlags() {
+      return flagsMap.get() != null;
+   }
+
    public boolean hasFlag(Flag flag) {
       Integer threadLocalFlags = this.flagsMap.get();
       return threadLocalFlags != null && (threadLocalFlags & flag.getFlagInt()) != 0;
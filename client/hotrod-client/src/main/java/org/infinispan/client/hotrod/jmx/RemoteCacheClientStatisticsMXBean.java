@@ -56,6 +56,12 @@ public interface RemoteCacheClientStatisticsMXBean {
     */
    long getNearCacheInvalidations();
 
+   /**
+    * Returns the number of entries evicted from the near-cache because it reached its maximum size. Returns a value of 0
+    * if near-caching is disabled or unbounded.
+    */
+   long getNearCacheEvictions();
+
    /**
     * Returns the number of entries currently stored in the near-cache. Returns a value of 0 if near-caching is disabled.
     */
@@ -360,4 +360,7 @@ public interface Log extends BasicLogger {
    @LogMessage(level = WARN)
    @Message(value = "Configuration property '%s' has been deprecated", id = 4101)
    void deprecatedConfigurationProperty(String property);
+
+   @Message(value = "Near cache max entries and max weight cannot be configured together", id = 4102)
+   CacheConfigurationException nearCacheMaxEntriesAndMaxWeight();
 }
@@ -1,15 +1,19 @@
 package org.infinispan.client.hotrod.near;
 
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToIntFunction;
 
 import org.infinispan.client.hotrod.MetadataValue;
 import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 
 /**
- * Near cache based on {@link BoundedConcurrentMapNearCache}
+ * Near cache based on a bounded Caffeine cache. Caffeine admits new entries with a W-TinyLFU policy, so an entry only
+ * replaces the eviction candidate if it was accessed more frequently, and a scan through many keys read only once does
+ * not evict the hot keys. The cache is bounded either by the number of entries or by the total weight of the values.
  *
  * @since 7.2
  */
@@ -23,8 +27,35 @@ private BoundedConcurrentMapNearCache(Cache<K, MetadataValue<V>> cache) {
       this.map = cache.asMap();
    }
 
+   /**
+    * Creates a near cache bounded by the number of entries. Use {@link #create(NearCacheConfiguration, ToIntFunction,
+    * Runnable)} if {@link NearCacheConfiguration#maxWeight()} is set, it requires a weigher.
+    */
    public static <K, V> NearCache<K, V> create(final NearCacheConfiguration config) {
-      Cache<K, MetadataValue<V>> cache = Caffeine.newBuilder().maximumSize(config.maxEntries()).build();
+      return create(config, null, null);
+   }
+
+   /**
+    * @param weigher computes the weight of a value, required if {@link NearCacheConfiguration#maxWeight()} is set
+    * @param evictionListener invoked after an entry is evicted because the cache is full, may be {@code null}
+    */
+   public static <K, V> NearCache<K, V> create(final NearCacheConfiguration config,
+                                               ToIntFunction<MetadataValue<V>> weigher, Runnable evictionListener) {
+      Caffeine<K, MetadataValue<V>> builder = Caffeine.newBuilder()
+            .removalListener((K key, MetadataValue<V> value, RemovalCause cause) -> {
+               if (evictionListener != null && cause.wasEvicted()) {
+                  evictionListener.run();
+               }
+            });
+      if (config.maxWeight() > 0) {
+         if (weigher == null) {
+            throw new IllegalArgumentException("A weigher is required to bound the near cache by weight");
+         }
+         builder.maximumWeight(config.maxWeight()).weigher((K key, MetadataValue<V> value) -> weigher.applyAsInt(value));
+      } else {
+         builder.maximumSize(config.maxEntries());
+      }
+      Cache<K, MetadataValue<V>> cache = builder.build();
       return new BoundedConcurrentMapNearCache<>(cache);
    }
 
@@ -32,6 +32,8 @@
    private byte[] listenerId;
    private NearCache<K, V> cache;
    private Runnable invalidationCallback;
+   private Runnable evictionCallback;
+   private RemoteCache<K, V> remote;
 
    protected NearCacheService(NearCacheConfiguration config, ClientListenerNotifier listenerNotifier) {
       this.config = config;
@@ -40,6 +42,7 @@ protected NearCacheService(NearCacheConfiguration config, ClientListenerNotifier
 
    public void start(RemoteCache<K, V> remote) {
       if (cache == null) {
+         this.remote = remote;
          // Create near cache
          cache = createNearCache(config);
          // Add a listener that updates the near cache
@@ -61,11 +64,21 @@ public void stop(RemoteCache<K, V> remote) {
    }
 
    protected NearCache<K, V> createNearCache(NearCacheConfiguration config) {
-      return config.maxEntries() > 0
-            ? BoundedConcurrentMapNearCache.create(config)
+      return config.maxEntries() > 0 || config.maxWeight() > 0
+            ? BoundedConcurrentMapNearCache.create(config, this::weigh, this::evicted)
             : ConcurrentMapNearCache.create();
    }
 
+   private int weigh(MetadataValue<V> value) {
+      return remote.getDataFormat().valueToBytes(value.getValue()).length;
+   }
+
+   private void evicted() {
+      if (evictionCallback != null) {
+         evictionCallback.run();
+      }
+   }
+
    public static <K, V> NearCacheService<K, V> create(
          NearCacheConfiguration config, ClientListenerNotifier listenerNotifier) {
       return new NearCacheService<>(config, listenerNotifier);
@@ -138,6 +151,10 @@ public void setInvalidationCallback(Runnable r) {
       this.invalidationCallback = r;
    }
 
+   public void setEvictionCallback(Runnable r) {
+      this.evictionCallback = r;
+   }
+
    @ClientListener
    private static class InvalidatedNearCacheListener<K, V> {
       private static final Log log = LogFactory.getLog(InvalidatedNearCacheListener.class);
@@ -6,6 +6,7 @@
 import static org.testng.AssertJUnit.assertEquals;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -19,6 +20,8 @@
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
+import io.reactivex.rxjava3.core.Flowable;
+
 /**
  * Tests functionality related to getting multiple entries from a HotRod server
  * using getAll method.
@@ -82,6 +85,19 @@ public void testBulkGetKeys() {
       }
    }
 
+   public void testPublishAll() {
+      Set<Integer> keys = new HashSet<>(populateCacheManager());
+      // Missing keys are not published
+      keys.add(100);
+      Map<Object, Object> map = Flowable.fromPublisher(remoteCache.publishAll(keys, 2))
+            .toMap(Entry::getKey, Entry::getValue)
+            .blockingGet();
+      assertEquals(100, map.size());
+      for (int i = 0; i < 100; i++) {
+         assertEquals(i, map.get(i));
+      }
+   }
+
    public void testBulkGetAfterLifespanExpire() throws InterruptedException {
       Map<String, String> dataIn = new HashMap<String, String>();
       dataIn.put("aKey", "aValue");
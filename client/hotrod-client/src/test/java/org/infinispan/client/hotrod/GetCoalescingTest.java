@@ -0,0 +1,176 @@
+package org.infinispan.client.hotrod;
+
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.infinispan.test.TestingUtil.extractInterceptorChain;
+import static org.infinispan.test.TestingUtil.k;
+import static org.infinispan.test.TestingUtil.v;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
+import org.infinispan.commands.read.GetCacheEntryCommand;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.test.Exceptions;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.DDAsyncInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that concurrent gets of the same key share a single request when pipelining is enabled.
+ *
+ * @since 12.0
+ */
+@Test(testName = "client.hotrod.GetCoalescingTest", groups = "functional")
+public class GetCoalescingTest extends SingleCacheManagerTest {
+
+   private static final int CONCURRENT_GETS = 10;
+   private final GetCountingInterceptor interceptor = new GetCountingInterceptor();
+   private RemoteCache<String, String> remoteCache;
+   private RemoteCacheManager remoteCacheManager;
+   private HotRodServer hotRodServer;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      cacheManager = TestCacheManagerFactory.createCacheManager(hotRodCacheConfiguration());
+      cache = cacheManager.getCache();
+      extractInterceptorChain(cache).addInterceptor(interceptor, 1);
+
+      hotRodServer = HotRodClientTestingUtil.startHotRodServer(cacheManager);
+
+      org.infinispan.client.hotrod.configuration.ConfigurationBuilder clientBuilder =
+            HotRodClientTestingUtil.newRemoteConfigurationBuilder();
+      clientBuilder.addServer().host("localhost").port(hotRodServer.getPort());
+      clientBuilder.connectionPool().pipelining(true);
+      clientBuilder.statistics().enable();
+      remoteCacheManager = new RemoteCacheManager(clientBuilder.build());
+      remoteCache = remoteCacheManager.getCache();
+      return cacheManager;
+   }
+
+   @Override
+   protected void teardown() {
+      HotRodClientTestingUtil.killRemoteCacheManager(remoteCacheManager);
+      remoteCacheManager = null;
+      HotRodClientTestingUtil.killServers(hotRodServer);
+      hotRodServer = null;
+      super.teardown();
+   }
+
+   public void testConcurrentGetsShareRequest(Method method) throws Exception {
+      final String key = k(method);
+      remoteCache.put(key, v(method));
+      remoteCache.clientStatistics().resetStatistics();
+
+      CompletableFuture<Void> blocker = interceptor.block();
+      List<CompletableFuture<String>> gets = concurrentGets(key);
+      assertEquals(1, inflightGets().size());
+
+      blocker.complete(null);
+      for (CompletableFuture<String> get : gets) {
+         assertEquals(v(method), get.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, interceptor.gets.get());
+      assertTrue(inflightGets().isEmpty());
+      // A single read is counted for all the gets sharing the request
+      assertEquals(1, remoteCache.clientStatistics().getRemoteHits());
+   }
+
+   public void testFailureReachesAllGets(Method method) {
+      final String key = k(method);
+      remoteCache.put(key, v(method));
+
+      CompletableFuture<Void> blocker = interceptor.block();
+      List<CompletableFuture<String>> gets = concurrentGets(key);
+
+      blocker.completeExceptionally(new CacheException("Injected failure"));
+      for (CompletableFuture<String> get : gets) {
+         Exceptions.expectExecutionException(HotRodClientException.class, ".*Injected failure.*", get, 10,
+               TimeUnit.SECONDS);
+      }
+      assertEquals(1, interceptor.gets.get());
+      assertTrue(inflightGets().isEmpty());
+
+      // The next get sends a new request
+      interceptor.unblock();
+      assertEquals(v(method), remoteCache.get(key));
+      assertEquals(2, interceptor.gets.get());
+   }
+
+   public void testGetWithFlagsNotShared(Method method) throws Exception {
+      final String key = k(method);
+      remoteCache.put(key, v(method));
+
+      CompletableFuture<Void> blocker = interceptor.block();
+      CompletableFuture<String> get = remoteCache.getAsync(key);
+      eventuallyEquals(1, interceptor.gets::get);
+
+      CompletableFuture<String> flaggedGet = remoteCache.withFlags(Flag.SKIP_CACHE_LOAD).getAsync(key);
+      eventuallyEquals(2, interceptor.gets::get);
+      assertEquals(1, inflightGets().size());
+
+      blocker.complete(null);
+      assertEquals(v(method), get.get(10, TimeUnit.SECONDS));
+      assertEquals(v(method), flaggedGet.get(10, TimeUnit.SECONDS));
+      assertTrue(inflightGets().isEmpty());
+   }
+
+   private List<CompletableFuture<String>> concurrentGets(String key) {
+      List<CompletableFuture<String>> gets = new ArrayList<>(CONCURRENT_GETS);
+      gets.add(remoteCache.getAsync(key));
+      // The first get is blocked in the server, the remaining join it
+      eventuallyEquals(1, interceptor.gets::get);
+      for (int i = 1; i < CONCURRENT_GETS; ++i) {
+         gets.add(remoteCache.getAsync(key));
+      }
+      return gets;
+   }
+
+   private Map<?, ?> inflightGets() {
+      return TestingUtil.extractField(remoteCache, "inflightGets");
+   }
+
+   static class GetCountingInterceptor extends DDAsyncInterceptor {
+
+      private final AtomicInteger gets = new AtomicInteger();
+      private volatile CompletableFuture<Void> blocker = CompletableFutures.completedNull();
+
+      CompletableFuture<Void> block() {
+         gets.set(0);
+         CompletableFuture<Void> newBlocker = new CompletableFuture<>();
+         blocker = newBlocker;
+         return newBlocker;
+      }
+
+      void unblock() {
+         blocker = CompletableFutures.completedNull();
+      }
+
+      @Override
+      public Object visitGetKeyValueCommand(InvocationContext ctx, GetKeyValueCommand command) {
+         gets.incrementAndGet();
+         return asyncInvokeNext(ctx, command, blocker);
+      }
+
+      @Override
+      public Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEntryCommand command) {
+         gets.incrementAndGet();
+         return asyncInvokeNext(ctx, command, blocker);
+      }
+   }
+}
@@ -0,0 +1,66 @@
+package org.infinispan.client.hotrod.near;
+
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.client.hotrod.MetadataValue;
+import org.infinispan.client.hotrod.configuration.NearCacheConfiguration;
+import org.infinispan.client.hotrod.configuration.NearCacheMode;
+import org.infinispan.client.hotrod.impl.MetadataValueImpl;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "client.hotrod.near.BoundedNearCacheTest")
+public class BoundedNearCacheTest extends AbstractInfinispanTest {
+
+   public void testHotKeysSurviveScan() {
+      NearCache<Integer, String> nearCache = BoundedConcurrentMapNearCache.create(
+            new NearCacheConfiguration(NearCacheMode.INVALIDATED, 100));
+      int hotKeys = 50;
+      for (int i = 0; i < 10; i++) {
+         for (int k = 0; k < hotKeys; k++) {
+            if (nearCache.get(k) == null) {
+               nearCache.putIfAbsent(k, value("hot" + k));
+            }
+         }
+      }
+      // Keys read only once, as a batch job scanning the cache would
+      for (int k = hotKeys; k < 10_000; k++) {
+         if (nearCache.get(k) == null) {
+            nearCache.putIfAbsent(k, value("cold" + k));
+         }
+      }
+
+      assertTrue(nearCache.size() <= 100);
+      int resident = 0;
+      for (int k = 0; k < hotKeys; k++) {
+         if (nearCache.get(k) != null) {
+            resident++;
+         }
+      }
+      assertTrue("Only " + resident + " hot keys are still in the near cache", resident >= hotKeys * 4 / 5);
+   }
+
+   public void testMaxWeight() {
+      AtomicInteger evictions = new AtomicInteger();
+      NearCache<Integer, String> nearCache = BoundedConcurrentMapNearCache.create(
+            new NearCacheConfiguration(NearCacheMode.INVALIDATED, -1, 100, null),
+            v -> v.getValue().length(), evictions::incrementAndGet);
+      for (int k = 0; k < 20; k++) {
+         nearCache.put(k, value("0123456789"));
+      }
+
+      assertTrue(nearCache.size() <= 10);
+      eventually(() -> evictions.get() >= 10);
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testMaxWeightWithoutWeigher() {
+      BoundedConcurrentMapNearCache.create(new NearCacheConfiguration(NearCacheMode.INVALIDATED, -1, 100, null));
+   }
+
+   private static MetadataValue<String> value(String value) {
+      return new MetadataValueImpl<>(-1, -1, -1, -1, 0, value);
+   }
+}
@@ -50,6 +50,19 @@ public interface RestCacheClient {
     */
    CompletionStage<RestResponse> entries(int limit, boolean metadata);
 
+   /**
+    * Exports all the entries as newline-delimited JSON, one entry per line
+    * @param metadata: if true, includes the metadata for each entry
+    */
+   CompletionStage<RestResponse> exportEntries(boolean metadata);
+
+   /**
+    * Imports the entries of a newline-delimited JSON document, in the format produced by {@link #exportEntries(boolean)}
+    * @param entries: the document
+    * @param batch: the number of entries written to the cache at once
+    */
+   CompletionStage<RestResponse> importEntries(RestEntity entries, int batch);
+
    /**
     * Retrieves all keys from the cache with a specific MediaType or list of MediaTypes.
     */
@@ -232,6 +245,13 @@ default CompletionStage<RestResponse> configuration() {
     */
    CompletionStage<RestResponse> stats();
 
+   /**
+    * Obtains the keys that are read, written and whose lock is contended most often, as estimated by the server handling the request
+    *
+    * @param limit the maximum number of keys of each kind
+    */
+   CompletionStage<RestResponse> hotKeys(int limit);
+
    /**
     * Creates the cache using the supplied configuration
     *
@@ -343,6 +363,11 @@ default CompletionStage<RestResponse> configuration() {
     */
    CompletionStage<RestResponse> reindex();
 
+   /**
+    * Obtain the progress of the index rebuild on the node receiving the request.
+    */
+   CompletionStage<RestResponse> reindexProgress();
+
    /**
     * Deletes all the indexes from the cache.
     */
@@ -292,6 +292,20 @@ public CompletionStage<RestResponse> entries(int limit, boolean metadata) {
       return client.execute(builder);
    }
 
+   @Override
+   public CompletionStage<RestResponse> exportEntries(boolean metadata) {
+      Request.Builder builder = new Request.Builder();
+      builder.url(cacheUrl + "?action=export&metadata=" + metadata).get();
+      return client.execute(builder);
+   }
+
+   @Override
+   public CompletionStage<RestResponse> importEntries(RestEntity entries, int batch) {
+      Request.Builder builder = new Request.Builder();
+      builder.url(cacheUrl + "?action=import&batch=" + batch).post(((RestEntityAdaptorOkHttp) entries).toRequestBody());
+      return client.execute(builder);
+   }
+
    @Override
    public CompletionStage<RestResponse> keys(String mediaType) {
       Request.Builder builder = new Request.Builder();
@@ -317,6 +331,13 @@ public CompletionStage<RestResponse> stats() {
       return client.execute(builder);
    }
 
+   @Override
+   public CompletionStage<RestResponse> hotKeys(int limit) {
+      Request.Builder builder = new Request.Builder();
+      builder.url(cacheUrl + "?action=hot-keys&limit=" + limit).get();
+      return client.execute(builder);
+   }
+
    @Override
    public CompletionStage<RestResponse> query(String query) {
       Request.Builder builder = new Request.Builder();
@@ -414,6 +435,13 @@ public CompletionStage<RestResponse> reindex() {
       return executeIndexOperation("mass-index");
    }
 
+   @Override
+   public CompletionStage<RestResponse> reindexProgress() {
+      Request.Builder builder = new Request.Builder();
+      builder.url(String.format("%s/search/indexes/mass-index", cacheUrl));
+      return client.execute(builder);
+   }
+
    @Override
    public CompletionStage<RestResponse> clearIndex() {
       return executeIndexOperation("clear");
@@ -0,0 +1,177 @@
+package org.infinispan.commons.util.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.infinispan.commons.util.ProcessorInfo;
+
+/**
+ * A set of histograms of non-negative {@code long} values, with buckets of logarithmically increasing width like an
+ * HDR histogram. Each power of 2 is split into 16 linear sub-buckets, so the percentiles are reported with a relative
+ * error of at most 1/16 (about 6%). Values above 2<sup>36</sup> - 1 (about 68 seconds in nanoseconds) are recorded in
+ * the last bucket.
+ * <p>
+ * A histogram can hold several series, e.g. one per operation type, which share the same stripes. The buckets are
+ * duplicated in a set of stripes, in the same way as {@link StripedCounters}, so that multiple threads can record
+ * values without too much contention. The stripes are only allocated when a thread first records a value in them,
+ * and each one takes 528 counters per series.
+ *
+ * @since 12.0
+ */
+public final class StripedHistogram {
+   private static final int STRIPE_COUNT = (int) Math.min(4, Long.highestOneBit(ProcessorInfo.availableProcessors()) << 1);
+   private static final int STRIPE_MASK = STRIPE_COUNT - 1;
+
+   private static final int SUB_BUCKET_BITS = 4;
+   private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+   private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+   static final long MAX_VALUE = (1L << 36) - 1;
+   private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+   private final int series;
+   private final AtomicReferenceArray<AtomicLongArray> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+
+   public StripedHistogram() {
+      this(1);
+   }
+
+   /**
+    * @param series the number of series, each one is identified by an index between 0 and {@code series - 1}
+    */
+   public StripedHistogram(int series) {
+      if (series <= 0)
+         throw new IllegalArgumentException("series must be positive");
+      this.series = series;
+   }
+
+   /**
+    * Records a value in the first series. Negative values are recorded as 0.
+    */
+   public void record(long value) {
+      record(0, value);
+   }
+
+   /**
+    * Records a value in a series. Negative values are recorded as 0.
+    */
+   public void record(int series, long value) {
+      int index = bucketIndex(Math.min(Math.max(value, 0), MAX_VALUE));
+      stripeForCurrentThread().incrementAndGet(offset(series) + index);
+   }
+
+   /**
+    * @return the number of values recorded in the first series since the creation or the last {@link #reset()}
+    */
+   public long getCount() {
+      return getCount(0);
+   }
+
+   /**
+    * @return the number of values recorded in a series since the creation or the last {@link #reset()}
+    */
+   public long getCount(int series) {
+      long count = 0;
+      for (long bucketCount : snapshot(series)) {
+         count += bucketCount;
+      }
+      return count;
+   }
+
+   /**
+    * @see #getValueAtPercentile(int, double)
+    */
+   public long getValueAtPercentile(double percentile) {
+      return getValueAtPercentile(0, percentile);
+   }
+
+   /**
+    * Returns the highest value that is equivalent to the recorded value at the given percentile of a series, or 0 if
+    * no values were recorded in it.
+    *
+    * @param percentile a percentile between 0 and 100, e.g. 99.9
+    */
+   public long getValueAtPercentile(int series, double percentile) {
+      long[] counts = snapshot(series);
+      long total = 0;
+      for (long count : counts) {
+         total += count;
+      }
+      if (total == 0) {
+         return 0;
+      }
+      long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+      long cumulative = 0;
+      for (int i = 0; i < counts.length; i++) {
+         cumulative += counts[i];
+         if (cumulative >= target) {
+            return highestEquivalentValue(i);
+         }
+      }
+      return highestEquivalentValue(counts.length - 1);
+   }
+
+   /**
+    * Discards all the recorded values of all the series. Values recorded concurrently may or may not be discarded.
+    */
+   public void reset() {
+      for (int i = 0; i < STRIPE_COUNT; i++) {
+         AtomicLongArray stripe = stripes.get(i);
+         if (stripe != null) {
+            for (int j = 0; j < stripe.length(); j++) {
+               stripe.set(j, 0);
+            }
+         }
+      }
+   }
+
+   private int offset(int series) {
+      if (series < 0 || series >= this.series)
+         throw new IndexOutOfBoundsException("series " + series);
+      return series * BUCKET_COUNT;
+   }
+
+   private long[] snapshot(int series) {
+      int offset = offset(series);
+      long[] counts = new long[BUCKET_COUNT];
+      for (int i = 0; i < STRIPE_COUNT; i++) {
+         AtomicLongArray stripe = stripes.get(i);
+         if (stripe != null) {
+            for (int j = 0; j < BUCKET_COUNT; j++) {
+               counts[j] += stripe.get(offset + j);
+            }
+         }
+      }
+      return counts;
+   }
+
+   private AtomicLongArray stripeForCurrentThread() {
+      // Spread the thread id a bit, in case it's always a multiple of 16
+      long id = Thread.currentThread().getId();
+      id ^= id >>> 7 ^ id >>> 4;
+      int index = (int) (id & STRIPE_MASK);
+      AtomicLongArray stripe = stripes.get(index);
+      if (stripe == null) {
+         stripes.compareAndSet(index, null, new AtomicLongArray(series * BUCKET_COUNT));
+         stripe = stripes.get(index);
+      }
+      return stripe;
+   }
+
+   static int bucketIndex(long value) {
+      if (value < SUB_BUCKET_COUNT) {
+         return (int) value;
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & SUB_BUCKET_MASK;
+      return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+   }
+
+   static long highestEquivalentValue(int index) {
+      if (index < SUB_BUCKET_COUNT) {
+         return index;
+      }
+      int shift = index / SUB_BUCKET_COUNT - 1;
+      long lowest = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+      return lowest + (1L << shift) - 1;
+   }
+}
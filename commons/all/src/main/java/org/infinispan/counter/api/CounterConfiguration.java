@@ -27,16 +27,20 @@ public class CounterConfiguration {
    private final int concurrencyLevel;
    private final CounterType type;
    private final Storage storage;
+   private final long flushInterval;
+   private final long flushThreshold;
 
    @ProtoFactory
    CounterConfiguration(long initialValue, long lowerBound, long upperBound, int concurrencyLevel, CounterType type,
-         Storage storage) {
+         Storage storage, long flushInterval, long flushThreshold) {
       this.initialValue = initialValue;
       this.upperBound = upperBound;
       this.lowerBound = lowerBound;
       this.concurrencyLevel = concurrencyLevel;
       this.type = type;
       this.storage = storage;
+      this.flushInterval = flushInterval;
+      this.flushThreshold = flushThreshold;
    }
 
    public static Builder builder(CounterType type) {
@@ -73,6 +77,16 @@ public Storage storage() {
       return storage;
    }
 
+   @ProtoField(number = 7, defaultValue = "0")
+   public long flushInterval() {
+      return flushInterval;
+   }
+
+   @ProtoField(number = 8, defaultValue = "0")
+   public long flushThreshold() {
+      return flushThreshold;
+   }
+
    @Override
    public String toString() {
       return "CounterConfiguration{" +
@@ -82,6 +96,8 @@ public String toString() {
             ", concurrencyLevel=" + concurrencyLevel +
             ", type=" + type +
             ", storage=" + storage +
+            ", flushInterval=" + flushInterval +
+            ", flushThreshold=" + flushThreshold +
             '}';
    }
 
@@ -101,7 +117,9 @@ public boolean equals(Object o) {
             lowerBound == that.lowerBound &&
             concurrencyLevel == that.concurrencyLevel &&
             type == that.type &&
-            storage == that.storage;
+            storage == that.storage &&
+            flushInterval == that.flushInterval &&
+            flushThreshold == that.flushThreshold;
    }
 
    @Override
@@ -112,6 +130,8 @@ public int hashCode() {
       result = 31 * result + concurrencyLevel;
       result = 31 * result + type.hashCode();
       result = 31 * result + storage.hashCode();
+      result = 31 * result + (int) (flushInterval ^ (flushInterval >>> 32));
+      result = 31 * result + (int) (flushThreshold ^ (flushThreshold >>> 32));
       return result;
    }
 
@@ -125,6 +145,8 @@ public static class Builder {
       private long upperBound = Long.MAX_VALUE;
       private Storage storage = Storage.VOLATILE;
       private int concurrencyLevel = 16;
+      private long flushInterval = 0;
+      private long flushThreshold = 0;
 
       private Builder(CounterType type) {
          this.type = type;
@@ -202,11 +224,44 @@ public Builder concurrencyLevel(int concurrencyLevel) {
          return this;
       }
 
+      /**
+       * Sets the interval, in milliseconds, to flush the updates accumulated locally.
+       * <p>
+       * Only for {@link CounterType#WEAK}.
+       * <p>
+       * When the interval or the {@link #flushThreshold(long) threshold} are positive, each node accumulates the
+       * updates locally and applies their sum to the counter in batches. An update completes as soon as it is
+       * accumulated and it is not visible to the other nodes until it is flushed.
+       * <p>
+       * The default value is zero, which flushes each update immediately.
+       *
+       * @param flushInterval the new flush interval in milliseconds.
+       */
+      public Builder flushInterval(long flushInterval) {
+         this.flushInterval = flushInterval;
+         return this;
+      }
+
+      /**
+       * Sets the absolute value of the updates accumulated locally that triggers a flush.
+       * <p>
+       * Only for {@link CounterType#WEAK}.
+       * <p>
+       * The default value is zero, which flushes only every {@link #flushInterval(long) interval}.
+       *
+       * @param flushThreshold the new flush threshold.
+       */
+      public Builder flushThreshold(long flushThreshold) {
+         this.flushThreshold = flushThreshold;
+         return this;
+      }
+
       /**
        * @return the {@link CounterConfiguration} with this configuration.
        */
       public CounterConfiguration build() {
-         return new CounterConfiguration(initialValue, lowerBound, upperBound, concurrencyLevel, type, storage);
+         return new CounterConfiguration(initialValue, lowerBound, upperBound, concurrencyLevel, type, storage,
+               flushInterval, flushThreshold);
       }
    }
 
@@ -34,6 +34,12 @@ public Properties format(CounterConfiguration configuration) {
             break;
          case WEAK:
             PropertyKey.CONCURRENCY.setProperty(configuration, properties);
+            if (configuration.flushInterval() > 0) {
+               PropertyKey.FLUSH_INTERVAL.setProperty(configuration, properties);
+            }
+            if (configuration.flushThreshold() > 0) {
+               PropertyKey.FLUSH_THRESHOLD.setProperty(configuration, properties);
+            }
             break;
          default:
             throw new IllegalStateException();
@@ -49,6 +55,8 @@ public CounterConfiguration.Builder from(Properties properties) {
       switch (type) {
          case WEAK:
             fromProperty(properties, PropertyKey.CONCURRENCY, Integer::valueOf, builder::concurrencyLevel);
+            fromProperty(properties, PropertyKey.FLUSH_INTERVAL, Long::valueOf, builder::flushInterval);
+            fromProperty(properties, PropertyKey.FLUSH_THRESHOLD, Long::valueOf, builder::flushThreshold);
             break;
          case BOUNDED_STRONG:
             fromProperty(properties, PropertyKey.UPPER_BOUND, Long::valueOf, builder::upperBound);
@@ -105,6 +113,18 @@ void setProperty(CounterConfiguration config, Properties properties) {
          void setProperty(CounterConfiguration config, Properties properties) {
             properties.setProperty(key, String.valueOf(config.concurrencyLevel()));
          }
+      },
+      FLUSH_INTERVAL("flush-interval") {
+         @Override
+         void setProperty(CounterConfiguration config, Properties properties) {
+            properties.setProperty(key, String.valueOf(config.flushInterval()));
+         }
+      },
+      FLUSH_THRESHOLD("flush-threshold") {
+         @Override
+         void setProperty(CounterConfiguration config, Properties properties) {
+            properties.setProperty(key, String.valueOf(config.flushThreshold()));
+         }
       };
       final String key;
 
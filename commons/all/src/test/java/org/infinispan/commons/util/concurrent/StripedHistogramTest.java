@@ -0,0 +1,90 @@
+package org.infinispan.commons.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class StripedHistogramTest {
+
+   @Test
+   public void testEmpty() {
+      StripedHistogram histogram = new StripedHistogram();
+      assertEquals(0, histogram.getCount());
+      assertEquals(0, histogram.getValueAtPercentile(99));
+   }
+
+   @Test
+   public void testSmallValuesAreExact() {
+      StripedHistogram histogram = new StripedHistogram();
+      for (int i = 1; i <= 20; i++) {
+         histogram.record(i);
+      }
+      assertEquals(20, histogram.getCount());
+      assertEquals(10, histogram.getValueAtPercentile(50));
+      assertEquals(20, histogram.getValueAtPercentile(100));
+   }
+
+   @Test
+   public void testPercentilesWithinRelativeError() throws InterruptedException {
+      StripedHistogram histogram = new StripedHistogram();
+      Thread[] threads = new Thread[4];
+      for (int t = 0; t < threads.length; t++) {
+         threads[t] = new Thread(() -> {
+            for (long i = 1; i <= 25_000; i++) {
+               histogram.record(i * 1000);
+            }
+         });
+         threads[t].start();
+      }
+      for (Thread thread : threads) {
+         thread.join();
+      }
+      assertEquals(100_000, histogram.getCount());
+      assertWithinError(12_500_000, histogram.getValueAtPercentile(50));
+      assertWithinError(24_750_000, histogram.getValueAtPercentile(99));
+      assertWithinError(24_975_000, histogram.getValueAtPercentile(99.9));
+   }
+
+   @Test
+   public void testSeriesAreIndependent() {
+      StripedHistogram histogram = new StripedHistogram(3);
+      histogram.record(1, 5);
+      histogram.record(2, 7);
+      histogram.record(2, 9);
+      assertEquals(0, histogram.getCount(0));
+      assertEquals(1, histogram.getCount(1));
+      assertEquals(2, histogram.getCount(2));
+      assertEquals(5, histogram.getValueAtPercentile(1, 100));
+      assertEquals(9, histogram.getValueAtPercentile(2, 100));
+
+      histogram.reset();
+      assertEquals(0, histogram.getCount(2));
+   }
+
+   @Test
+   public void testReset() {
+      StripedHistogram histogram = new StripedHistogram();
+      histogram.record(Long.MAX_VALUE);
+      histogram.record(-1);
+      assertEquals(2, histogram.getCount());
+      assertEquals(StripedHistogram.MAX_VALUE, histogram.getValueAtPercentile(100));
+      assertEquals(0, histogram.getValueAtPercentile(50));
+
+      histogram.reset();
+      assertEquals(0, histogram.getCount());
+   }
+
+   @Test
+   public void testBucketBoundaries() {
+      for (long value : new long[]{0, 31, 32, 63, 64, 65, 1000, 123_456_789, StripedHistogram.MAX_VALUE}) {
+         long highest = StripedHistogram.highestEquivalentValue(StripedHistogram.bucketIndex(value));
+         assertTrue(value + " -> " + highest, highest >= value);
+         assertEquals(StripedHistogram.bucketIndex(value), StripedHistogram.bucketIndex(highest));
+      }
+   }
+
+   private static void assertWithinError(long expected, long actual) {
+      assertTrue(expected + " vs " + actual, actual >= expected && actual <= expected + expected / 16);
+   }
+}
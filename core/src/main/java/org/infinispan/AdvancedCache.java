@@ -646,6 +646,19 @@ default CompletableFuture<CacheEntry<K, V>> getCacheEntryAsync(Object key) {
     */
    Map<K, CacheEntry<K, V>> getAllCacheEntries(Set<?> keys);
 
+   /**
+    * Asynchronous version of {@link #getAllCacheEntries(Set)}. Unlike the synchronous version, keys not found in the
+    * cache are not present in the returned map.
+    *
+    * @param keys The keys whose associated entries are to be returned.
+    * @return a future with a map of the entries that were found for the given keys
+    * @throws NullPointerException if keys is null or if keys contains a null
+    * @since 12.0
+    */
+   default CompletableFuture<Map<K, CacheEntry<K, V>>> getAllCacheEntriesAsync(Set<?> keys) {
+      throw new UnsupportedOperationException("getAllCacheEntriesAsync");
+   }
+
    /**
     * Executes an equivalent of {@link Map#putAll(Map)}, returning previous values of the modified entries.
     *
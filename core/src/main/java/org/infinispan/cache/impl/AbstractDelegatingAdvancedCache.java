@@ -305,6 +305,11 @@ public Map<K, CacheEntry<K, V>> getAllCacheEntries(Set<?> keys) {
       return cache.getAllCacheEntries(keys);
    }
 
+   @Override
+   public CompletableFuture<Map<K, CacheEntry<K, V>>> getAllCacheEntriesAsync(Set<?> keys) {
+      return cache.getAllCacheEntriesAsync(keys);
+   }
+
    @Override
    public Map<K, V> getAndPutAll(Map<? extends K, ? extends V> map) {
       return cache.getAndPutAll(map);
@@ -35,6 +35,7 @@
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.InternalEntryFactory;
 import org.infinispan.encoding.DataConversion;
+import org.infinispan.encoding.impl.TranscodedValueCache;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.impl.BasicComponentRegistry;
 import org.infinispan.factories.scopes.Scope;
@@ -60,6 +61,7 @@
    // and every other caller of the constructor passes non-null values.
    @Inject InternalEntryFactory entryFactory;
    @Inject BasicComponentRegistry componentRegistry;
+   @Inject TranscodedValueCache transcodedValueCache;
 
    private final DataConversion keyDataConversion;
    private final DataConversion valueDataConversion;
@@ -74,6 +76,9 @@ public EncoderCache(AdvancedCache<K, V> cache, InternalEntryFactory entryFactory
       this.componentRegistry = componentRegistry;
       this.keyDataConversion = keyDataConversion;
       this.valueDataConversion = valueDataConversion;
+      if (componentRegistry != null) {
+         this.transcodedValueCache = componentRegistry.getComponent(TranscodedValueCache.class).running();
+      }
    }
 
    @Override
@@ -115,6 +120,18 @@ public V valueFromStorage(Object value) {
       return (V) valueDataConversion.fromStorage(value);
    }
 
+   /**
+    * Converts a value read from the cache, which may still be stored, reusing the result of a previous conversion of
+    * the same stored value when the {@link TranscodedValueCache} is enabled. Previous values returned by writes are
+    * not stored anymore, so they are converted with {@link #valueFromStorage(Object)} instead.
+    *
+    * @param key      the key of the entry in the storage format
+    * @param metadata the metadata of the entry, or {@code null} if not known
+    */
+   private V storedValueFromStorage(Object key, Object value, Metadata metadata) {
+      return (V) transcodedValueCache.fromStorage(key, value, metadata, valueDataConversion);
+   }
+
    @Inject
    public void wireRealCache() {
       componentRegistry.wireDependencies(keyDataConversion, false);
@@ -130,7 +147,7 @@ private Map<K, V> encodeMapForWrite(Map<? extends K, ? extends V> map) {
 
    private Map<K, V> decodeMapForRead(Map<? extends K, ? extends V> map) {
       Map<K, V> newMap = new LinkedHashMap<>(map.size());
-      map.forEach((k, v) -> newMap.put(keyFromStorage(k), valueFromStorage(v)));
+      map.forEach((k, v) -> newMap.put(keyFromStorage(k), storedValueFromStorage(k, v, null)));
       return newMap;
    }
 
@@ -154,7 +171,7 @@ private Map<K, CacheEntry<K, V>> decodeEntryMapForRead(Map<K, CacheEntry<K, V>>
          K originalKey = v.getKey();
          K unwrappedKey = keyFromStorage(originalKey);
          V originalValue = v.getValue();
-         V unwrappedValue = valueFromStorage(originalValue);
+         V unwrappedValue = storedValueFromStorage(originalKey, originalValue, v.getMetadata());
          CacheEntry<K, V> entryToPut;
          if (unwrappedKey != originalKey || unwrappedValue != originalValue) {
             entryToPut = convertEntry(unwrappedKey, unwrappedValue, v);
@@ -385,7 +402,7 @@ public CompletableFuture<CacheEntry<K, V>> getCacheEntryAsync(Object key) {
    private CacheEntry<K, V> unwrapCacheEntry(Object key, K keyToStorage, CacheEntry<K, V> returned) {
       if (returned != null) {
          V originalValue = returned.getValue();
-         V valueFromStorage = valueFromStorage(originalValue);
+         V valueFromStorage = storedValueFromStorage(keyToStorage, originalValue, returned.getMetadata());
          if (keyToStorage != key || valueFromStorage != originalValue) {
             return convertEntry((K) key, valueFromStorage, returned);
          }
@@ -405,6 +422,11 @@ public Map<K, CacheEntry<K, V>> getAllCacheEntries(Set<?> keys) {
       return decodeEntryMapForRead(returned);
    }
 
+   @Override
+   public CompletableFuture<Map<K, CacheEntry<K, V>>> getAllCacheEntriesAsync(Set<?> keys) {
+      return super.getAllCacheEntriesAsync(encodeKeysForWrite(keys)).thenApply(this::decodeEntryMapForRead);
+   }
+
    @Override
    public Map<K, V> getGroup(String groupName) {
       Map<K, V> ret = super.getGroup(groupName);
@@ -697,17 +719,19 @@ public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction
 
    @Override
    public V get(Object key) {
-      V v = super.get(keyToStorage(key));
-      return valueFromStorage(v);
+      K keyToStorage = keyToStorage(key);
+      V v = super.get(keyToStorage);
+      return storedValueFromStorage(keyToStorage, v, null);
    }
 
    @Override
    public V getOrDefault(Object key, V defaultValue) {
-      V returned = super.getOrDefault(keyToStorage(key), defaultValue);
+      K keyToStorage = keyToStorage(key);
+      V returned = super.getOrDefault(keyToStorage, defaultValue);
       if (returned == defaultValue) {
          return returned;
       }
-      return valueFromStorage(returned);
+      return storedValueFromStorage(keyToStorage, returned, null);
    }
 
    @Override
@@ -880,7 +904,8 @@ public B setValue(B value) {
 
    @Override
    public CompletableFuture<V> getAsync(K key) {
-      return super.getAsync(keyToStorage(key)).thenApply(decodedValueForRead);
+      K keyToStorage = keyToStorage(key);
+      return super.getAsync(keyToStorage).thenApply(v -> storedValueFromStorage(keyToStorage, v, null));
    }
 
    @Override
@@ -26,6 +26,7 @@
 import org.infinispan.commands.functional.WriteOnlyKeyValueCommand;
 import org.infinispan.commands.functional.WriteOnlyManyCommand;
 import org.infinispan.commands.functional.WriteOnlyManyEntriesCommand;
+import org.infinispan.commands.irac.IracBatchUpdateCommand;
 import org.infinispan.commands.irac.IracCleanupKeyCommand;
 import org.infinispan.commands.irac.IracClearKeysCommand;
 import org.infinispan.commands.irac.IracMetadataRequestCommand;
@@ -34,6 +35,7 @@
 import org.infinispan.commands.irac.IracRequestStateCommand;
 import org.infinispan.commands.irac.IracStateResponseCommand;
 import org.infinispan.commands.irac.IracTouchKeyCommand;
+import org.infinispan.commands.irac.IracUpdateKeyCommand;
 import org.infinispan.commands.irac.IracUpdateVersionCommand;
 import org.infinispan.commands.read.EntrySetCommand;
 import org.infinispan.commands.read.GetAllCommand;
@@ -719,6 +721,11 @@ public IracClearKeysCommand buildIracClearKeysCommand() {
       return new IracClearKeysCommand(cacheName);
    }
 
+   @Override
+   public IracBatchUpdateCommand buildIracBatchUpdateCommand(List<IracUpdateKeyCommand> updates) {
+      return new IracBatchUpdateCommand(cacheName, updates);
+   }
+
    @Override
    public IracCleanupKeyCommand buildIracCleanupKeyCommand(Object key, Object lockOwner, IracMetadata tombstone) {
       return new IracCleanupKeyCommand(cacheName, key, lockOwner, tombstone);
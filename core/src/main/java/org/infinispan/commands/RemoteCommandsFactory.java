@@ -15,6 +15,7 @@
 import org.infinispan.commands.functional.WriteOnlyKeyValueCommand;
 import org.infinispan.commands.functional.WriteOnlyManyCommand;
 import org.infinispan.commands.functional.WriteOnlyManyEntriesCommand;
+import org.infinispan.commands.irac.IracBatchUpdateCommand;
 import org.infinispan.commands.irac.IracCleanupKeyCommand;
 import org.infinispan.commands.irac.IracClearKeysCommand;
 import org.infinispan.commands.irac.IracMetadataRequestCommand;
@@ -471,6 +472,9 @@ public CacheRpcCommand fromStream(byte id, byte type, ByteString cacheName) {
             case IracUpdateVersionCommand.COMMAND_ID:
                command = new IracUpdateVersionCommand(cacheName);
                break;
+            case IracBatchUpdateCommand.COMMAND_ID:
+               command = new IracBatchUpdateCommand(cacheName);
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
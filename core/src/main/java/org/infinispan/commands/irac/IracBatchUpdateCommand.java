@@ -0,0 +1,108 @@
+package org.infinispan.commands.irac;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.util.ByteString;
+import org.infinispan.util.concurrent.AggregateCompletionStage;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.infinispan.xsite.BackupReceiver;
+import org.infinispan.xsite.irac.IracManager;
+
+/**
+ * Several put and remove key requests sent together to the remote site by {@link IracManager}.
+ * <p>
+ * The updates are applied independently, the command completes when all of them are applied or discarded.
+ *
+ * @since 12.0
+ */
+public class IracBatchUpdateCommand extends IracUpdateKeyCommand {
+
+   public static final byte COMMAND_ID = 34;
+
+   private List<IracUpdateKeyCommand> updates;
+
+   @SuppressWarnings("unused")
+   public IracBatchUpdateCommand() {
+      super(COMMAND_ID, null);
+   }
+
+   public IracBatchUpdateCommand(ByteString cacheName) {
+      super(COMMAND_ID, cacheName);
+   }
+
+   public IracBatchUpdateCommand(ByteString cacheName, List<IracUpdateKeyCommand> updates) {
+      super(COMMAND_ID, cacheName);
+      this.updates = updates;
+   }
+
+   public CompletionStage<Void> executeOperation(BackupReceiver receiver) {
+      AggregateCompletionStage<Void> stage = CompletionStages.aggregateCompletionStage();
+      for (IracUpdateKeyCommand update : updates) {
+         stage.dependsOn(update.executeOperation(receiver));
+      }
+      return stage.freeze();
+   }
+
+   public List<IracUpdateKeyCommand> getUpdates() {
+      return updates;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      MarshallUtil.marshallSize(output, updates.size());
+      for (IracUpdateKeyCommand update : updates) {
+         output.writeByte(update.getCommandId());
+         update.writeTo(output);
+      }
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      int size = MarshallUtil.unmarshallSize(input);
+      updates = new ArrayList<>(size);
+      for (int i = 0; i < size; ++i) {
+         IracUpdateKeyCommand update = newUpdate(input.readByte());
+         update.readFrom(input);
+         updates.add(update);
+      }
+   }
+
+   @Override
+   public void setOriginSite(String originSite) {
+      super.setOriginSite(originSite);
+      if (updates != null) {
+         updates.forEach(update -> update.setOriginSite(originSite));
+      }
+   }
+
+   private IracUpdateKeyCommand newUpdate(byte commandId) throws IOException {
+      switch (commandId) {
+         case IracPutKeyCommand.COMMAND_ID:
+            return new IracPutKeyCommand(cacheName);
+         case IracRemoveKeyCommand.COMMAND_ID:
+            return new IracRemoveKeyCommand(cacheName);
+         default:
+            throw new IOException("Unknown IRAC update command id " + commandId);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "IracBatchUpdateCommand{" +
+            "updates=" + updates +
+            ", originSite='" + originSite + '\'' +
+            ", cacheName=" + cacheName +
+            '}';
+   }
+}
@@ -20,6 +20,7 @@
 public final class EncodingConfiguration implements Matchable<EncodingConfiguration>, ConfigurationInfo {
 
    static final AttributeDefinition<String> MEDIA_TYPE = AttributeDefinition.builder("mediaType", null, String.class).build();
+   public static final AttributeDefinition<Integer> TRANSCODING_CACHE_SIZE = AttributeDefinition.builder("transcodingCacheSize", 0).immutable().build();
    private final AttributeSet attributes;
 
    private final ContentTypeConfiguration keyDataType, valueDataType;
@@ -28,7 +29,7 @@ public final class EncodingConfiguration implements Matchable<EncodingConfigurat
    static final ElementDefinition<EncodingConfiguration> ELEMENT_DEFINITION = new DefaultElementDefinition<>(ENCODING.getLocalName());
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(EncodingConfiguration.class, MEDIA_TYPE);
+      return new AttributeSet(EncodingConfiguration.class, MEDIA_TYPE, TRANSCODING_CACHE_SIZE);
    }
 
    public EncodingConfiguration(AttributeSet attributes, ContentTypeConfiguration keyDataType, ContentTypeConfiguration valueDataType) {
@@ -51,6 +52,14 @@ public ContentTypeConfiguration valueDataType() {
       return valueDataType;
    }
 
+   /**
+    * @return the maximum number of values transcoded to each request media type that are kept for subsequent reads, or
+    * {@code 0} if the transcoded values are not cached.
+    */
+   public int transcodingCacheSize() {
+      return attributes.attribute(TRANSCODING_CACHE_SIZE).get();
+   }
+
    @Override
    public String toString() {
       return "EncodingConfiguration{" +
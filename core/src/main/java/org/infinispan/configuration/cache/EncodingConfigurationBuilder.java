@@ -1,6 +1,7 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.EncodingConfiguration.MEDIA_TYPE;
+import static org.infinispan.configuration.cache.EncodingConfiguration.TRANSCODING_CACHE_SIZE;
 import static org.infinispan.util.logging.Log.CONFIG;
 
 import java.util.ArrayList;
@@ -52,6 +53,9 @@ public void validate() {
          keyContentTypeBuilder.mediaType(globalMediaType);
          valueContentTypeBuilder.mediaType(globalMediaType);
       }
+      if (attributes.attribute(TRANSCODING_CACHE_SIZE).get() < 0) {
+         throw CONFIG.invalidTranscodingCacheSize(attributes.attribute(TRANSCODING_CACHE_SIZE).get());
+      }
       keyContentTypeBuilder.validate();
       valueContentTypeBuilder.validate();
    }
@@ -73,6 +77,16 @@ public EncodingConfigurationBuilder mediaType(String keyValueMediaType) {
       return this;
    }
 
+   /**
+    * Keeps up to {@code size} values transcoded to each request media type, so that reading the same entries again in
+    * a media type other than the storage one does not transcode them every time. The transcoded values are discarded
+    * when their entries are written. Defaults to {@code 0}, which disables the cache.
+    */
+   public EncodingConfigurationBuilder transcodingCacheSize(int size) {
+      attributes.attribute(TRANSCODING_CACHE_SIZE).set(size);
+      return this;
+   }
+
    public boolean isStorageBinary() {
       String keyMediaType = keyContentTypeBuilder.mediaType();
       String valueMediaType = valueContentTypeBuilder.mediaType();
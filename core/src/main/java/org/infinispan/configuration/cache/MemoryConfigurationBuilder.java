@@ -252,6 +252,24 @@ public EvictionStrategy whenFull() {
       return attributes.attribute(MemoryConfiguration.WHEN_FULL).get();
    }
 
+   /**
+    * Sets how the memory for the entries is allocated when the storage is {@link StorageType#OFF_HEAP}:
+    * <ul>
+    *    <li>UNPOOLED - each entry is allocated directly from the native allocator</li>
+    *    <li>POOLED - entries are allocated from slabs grouped in size classes, reducing native allocations and fragmentation</li>
+    * </ul>
+    * @param allocator the allocator type
+    * @return this
+    */
+   public MemoryConfigurationBuilder allocator(OffHeapAllocatorType allocator) {
+      attributes.attribute(MemoryConfiguration.ALLOCATOR).set(allocator);
+      return this;
+   }
+
+   public OffHeapAllocatorType allocator() {
+      return attributes.attribute(MemoryConfiguration.ALLOCATOR).get();
+   }
+
    /**
     * The configured eviction strategy, please see {@link MemoryConfigurationBuilder#evictionStrategy(EvictionStrategy)}.
     * @return the configured eviction stategy
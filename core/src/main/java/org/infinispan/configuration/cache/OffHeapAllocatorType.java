@@ -0,0 +1,20 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Enumeration defining how memory is allocated for the entries of a data container using
+ * {@link StorageType#OFF_HEAP} storage.
+ *
+ * @since 12.0
+ */
+public enum OffHeapAllocatorType {
+   /**
+    * Every entry is allocated directly from the native allocator.
+    */
+   UNPOOLED,
+
+   /**
+    * Entries are allocated from slabs kept by the cache, grouped in size classes and cached per thread. This reduces
+    * the number of native allocations and the fragmentation of the native heap.
+    */
+   POOLED
+}
@@ -0,0 +1,85 @@
+package org.infinispan.configuration.cache;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.infinispan.commons.configuration.BuiltBy;
+import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.configuration.ConfigurationInfo;
+import org.infinispan.commons.configuration.attributes.Attribute;
+import org.infinispan.commons.configuration.attributes.AttributeDefinition;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.commons.configuration.elements.ElementDefinition;
+import org.infinispan.commons.util.Experimental;
+import org.infinispan.persistence.file.SegmentedFileStore;
+
+/**
+ * Defines the configuration for the {@link SegmentedFileStore}.
+ *
+ * @since 12.0
+ */
+@Experimental
+@BuiltBy(SegmentedFileStoreConfigurationBuilder.class)
+@ConfigurationFor(SegmentedFileStore.class)
+public class SegmentedFileStoreConfiguration extends AbstractStoreConfiguration implements ConfigurationInfo {
+   public static final AttributeDefinition<String> LOCATION = SingleFileStoreConfiguration.LOCATION;
+   public static final AttributeDefinition<Float> FRAGMENTATION_FACTOR = SingleFileStoreConfiguration.FRAGMENTATION_FACTOR;
+
+   public static AttributeSet attributeDefinitionSet() {
+      return new AttributeSet(SegmentedFileStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), LOCATION, FRAGMENTATION_FACTOR);
+   }
+
+   static ElementDefinition ELEMENT_DEFINITION = new ElementDefinition() {
+      @Override
+      public boolean isTopLevel() {
+         return true;
+      }
+
+      @Override
+      public ElementOutput toExternalName(ConfigurationInfo configuration) {
+         return new ElementOutput("store", SegmentedFileStore.class.getName());
+      }
+
+      @Override
+      public boolean supports(String name) {
+         return false;
+      }
+   };
+
+   private final Attribute<String> location;
+   private final Attribute<Float> fragmentationFactor;
+
+   public SegmentedFileStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration async) {
+      super(attributes, async);
+      location = attributes.attribute(LOCATION);
+      fragmentationFactor = attributes.attribute(FRAGMENTATION_FACTOR);
+   }
+
+   @Override
+   public ElementDefinition getElementDefinition() {
+      return ELEMENT_DEFINITION;
+   }
+
+   @Override
+   public List<ConfigurationInfo> subElements() {
+      return Collections.singletonList(async());
+   }
+
+   public String location() {
+      return location.get();
+   }
+
+   public float fragmentationFactor() {
+      return fragmentationFactor.get();
+   }
+
+   @Override
+   public AttributeSet attributes() {
+      return attributes;
+   }
+
+   @Override
+   public String toString() {
+      return "SegmentedFileStoreConfiguration [attributes=" + attributes + "]";
+   }
+}
@@ -0,0 +1,80 @@
+package org.infinispan.configuration.cache;
+
+import static org.infinispan.configuration.cache.SegmentedFileStoreConfiguration.FRAGMENTATION_FACTOR;
+import static org.infinispan.configuration.cache.SegmentedFileStoreConfiguration.LOCATION;
+
+import org.infinispan.commons.configuration.Builder;
+import org.infinispan.commons.configuration.ConfigurationBuilderInfo;
+import org.infinispan.commons.configuration.attributes.AttributeSet;
+import org.infinispan.commons.configuration.elements.ElementDefinition;
+import org.infinispan.commons.util.Experimental;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.persistence.PersistenceUtil;
+import org.infinispan.persistence.file.SegmentedFileStore;
+
+/**
+ * Segmented file store configuration builder.
+ *
+ * @since 12.0
+ */
+@Experimental
+public class SegmentedFileStoreConfigurationBuilder
+      extends AbstractStoreConfigurationBuilder<SegmentedFileStoreConfiguration, SegmentedFileStoreConfigurationBuilder> implements ConfigurationBuilderInfo {
+
+   public SegmentedFileStoreConfigurationBuilder(PersistenceConfigurationBuilder builder) {
+      this(builder, SegmentedFileStoreConfiguration.attributeDefinitionSet());
+   }
+
+   public SegmentedFileStoreConfigurationBuilder(PersistenceConfigurationBuilder builder, AttributeSet attributeSet) {
+      super(builder, attributeSet);
+   }
+
+   @Override
+   public ElementDefinition getElementDefinition() {
+      return SegmentedFileStoreConfiguration.ELEMENT_DEFINITION;
+   }
+
+   @Override
+   public AttributeSet attributes() {
+      return attributes;
+   }
+
+   @Override
+   public SegmentedFileStoreConfigurationBuilder self() {
+      return this;
+   }
+
+   /**
+    * Sets a location on disk where the store can write.
+    */
+   public SegmentedFileStoreConfigurationBuilder location(String location) {
+      attributes.attribute(LOCATION).set(location);
+      return this;
+   }
+
+   /**
+    * The fragmentation factor decides when a free entry is split to fit a new entry, see
+    * {@link SingleFileStoreConfigurationBuilder#fragmentationFactor(float)}.
+    */
+   public SegmentedFileStoreConfigurationBuilder fragmentationFactor(float fragmentationFactor) {
+      attributes.attribute(FRAGMENTATION_FACTOR).set(fragmentationFactor);
+      return this;
+   }
+
+   @Override
+   public void validate(GlobalConfiguration globalConfig) {
+      PersistenceUtil.validateGlobalStateStoreLocation(globalConfig, SegmentedFileStore.class.getSimpleName(), attributes.attribute(LOCATION));
+      super.validate(globalConfig);
+   }
+
+   @Override
+   public SegmentedFileStoreConfiguration create() {
+      return new SegmentedFileStoreConfiguration(attributes.protect(), async.create());
+   }
+
+   @Override
+   public Builder<?> read(SegmentedFileStoreConfiguration template) {
+      super.read(template);
+      return this;
+   }
+}
@@ -39,10 +39,11 @@ public class SitesConfiguration implements Matchable<SitesConfiguration>, Config
          .serializer(new MergePolicySerializer())
          .immutable()
          .build();
+   public static final AttributeDefinition<Long> BATCH_DELAY = AttributeDefinition.builder("batch-delay", 0L).immutable().build();
    public static final ElementDefinition<?> ELEMENT_DEFINITION = new DefaultElementDefinition<>(BACKUPS.getLocalName());
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SitesConfiguration.class, DISABLE_BACKUPS, IN_USE_BACKUP_SITES, MERGE_POLICY);
+      return new AttributeSet(SitesConfiguration.class, DISABLE_BACKUPS, IN_USE_BACKUP_SITES, MERGE_POLICY, BATCH_DELAY);
    }
 
    private final BackupForConfiguration backupFor;
@@ -160,6 +161,14 @@ public Set<String> inUseBackupSites() {
       return mergePolicy.get();
    }
 
+   /**
+    * @return How long, in milliseconds, the updates are collected before they are sent to the asynchronous backups.
+    * @see SitesConfigurationBuilder#batchDelay(long)
+    */
+   public long batchDelay() {
+      return attributes.attribute(BATCH_DELAY).get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -1,5 +1,6 @@
 package org.infinispan.configuration.cache;
 
+import static org.infinispan.configuration.cache.SitesConfiguration.BATCH_DELAY;
 import static org.infinispan.configuration.cache.SitesConfiguration.MERGE_POLICY;
 import static org.infinispan.configuration.cache.SitesConfiguration.DISABLE_BACKUPS;
 import static org.infinispan.configuration.cache.SitesConfiguration.IN_USE_BACKUP_SITES;
@@ -111,6 +112,20 @@ public SitesConfigurationBuilder mergePolicy(XSiteEntryMergePolicy<?, ?> mergePo
       return this;
    }
 
+   /**
+    * Sets how long, in milliseconds, the updates are collected before they are sent to the asynchronous backups.
+    * Several updates of the same key in that time are sent only once, at the cost of a higher replication lag.
+    * <p>
+    * Defaults to 0, which sends the updates as soon as possible.
+    *
+    * @param batchDelay The delay in milliseconds.
+    * @return {@code this}.
+    */
+   public SitesConfigurationBuilder batchDelay(long batchDelay) {
+      attributes.attribute(BATCH_DELAY).set(batchDelay);
+      return this;
+   }
+
    @Override
    public void validate() {
       backupForBuilder.validate();
@@ -134,6 +149,10 @@ public void validate() {
          throw CONFIG.missingXSiteEntryMergePolicy();
       }
 
+      if (attributes.attribute(BATCH_DELAY).get() < 0) {
+         throw CONFIG.invalidXSiteBatchDelay(attributes.attribute(BATCH_DELAY).get());
+      }
+
       for (String site : attributes.attribute(IN_USE_BACKUP_SITES).get()) {
          boolean found = false;
          for (BackupConfigurationBuilder bcb : backups) {
@@ -2,6 +2,7 @@
 
 import static org.infinispan.configuration.cache.StateTransferConfiguration.AWAIT_INITIAL_TRANSFER;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_SIZE;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.MAX_IN_FLIGHT_CHUNKS;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.FETCH_IN_MEMORY_STATE;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.TIMEOUT;
 import static org.infinispan.util.logging.Log.CONFIG;
@@ -92,12 +93,25 @@ public StateTransferConfigurationBuilder timeout(long l, TimeUnit unit) {
       return timeout(unit.toMillis(l));
    }
 
+   /**
+    * The maximum number of batches of cache entries sent to a single node and not yet applied by it. Increasing it
+    * lets the sender read the next batches while the receiver is applying the previous ones.
+    */
+   public StateTransferConfigurationBuilder maxInFlightChunks(int i) {
+      attributes.attribute(MAX_IN_FLIGHT_CHUNKS).set(i);
+      return this;
+   }
+
    @Override
    public void validate() {
       int chunkSize = attributes.attribute(CHUNK_SIZE).get();
       if (chunkSize <= 0) {
          throw CONFIG.invalidChunkSize(chunkSize);
       }
+      int maxInFlightChunks = attributes.attribute(MAX_IN_FLIGHT_CHUNKS).get();
+      if (maxInFlightChunks <= 0) {
+         throw CONFIG.invalidMaxInFlightChunks(maxInFlightChunks);
+      }
 
       if (clustering().cacheMode().isInvalidation()) {
          Attribute<Boolean> fetchAttribute = attributes.attribute(FETCH_IN_MEMORY_STATE);
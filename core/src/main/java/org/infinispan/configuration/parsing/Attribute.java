@@ -18,6 +18,7 @@ public enum Attribute {
     ADDRESS_COUNT,
     AFTER,
     ALIASES,
+    ALLOCATOR,
     @Deprecated
     ALLOW_DUPLICATE_DOMAINS("duplicate-domains"),
     @Deprecated
@@ -31,6 +32,7 @@ public enum Attribute {
     AVAILABILITY_INTERVAL,
     AWAIT_INITIAL_TRANSFER,
     BACKUP_FAILURE_POLICY("failure-policy"),
+    BATCH_DELAY,
     BEFORE,
     BIAS_ACQUISITION,
     BIAS_LIFESPAN,
@@ -97,6 +99,7 @@ public enum Attribute {
     MAX_COUNT,
     MAX_ENTRIES,
     MAX_IDLE,
+    MAX_IN_FLIGHT_CHUNKS,
     MAX_RETRIES,
     MAX_SIZE,
     MAX_THREADS,
@@ -178,6 +181,7 @@ public enum Attribute {
     TRANSACTION_MANAGER_LOOKUP_CLASS("transaction-manager-lookup"),
     TRANSACTION_PROTOCOL("protocol"),
     TRANSACTIONAL,
+    TRANSCODING_CACHE_SIZE,
     TRANSFORMER,
     TRANSPORT,
     TYPE,
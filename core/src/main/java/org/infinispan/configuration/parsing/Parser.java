@@ -52,6 +52,7 @@
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfigurationBuilder;
 import org.infinispan.configuration.cache.MemoryConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.PartitionHandlingConfigurationBuilder;
 import org.infinispan.configuration.cache.SecurityConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
@@ -1273,6 +1274,8 @@ private void parseBackups(XMLExtendedStreamReader reader, ConfigurationBuilderHo
          Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
          if (attribute == Attribute.MERGE_POLICY) {
             builder.sites().mergePolicy(XSiteMergePolicy.instanceFromString(value, holder.getClassLoader()));
+         } else if (attribute == Attribute.BATCH_DELAY && reader.getSchema().since(12, 0)) {
+            builder.sites().batchDelay(Long.parseLong(value));
          } else {
             throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -1635,6 +1638,13 @@ private void parseMemory(final XMLExtendedStreamReader reader, final Configurati
                case WHEN_FULL:
                   memoryBuilder.whenFull(EvictionStrategy.valueOf(value));
                   break;
+               case ALLOCATOR:
+                  if (reader.getSchema().since(12, 0)) {
+                     memoryBuilder.allocator(OffHeapAllocatorType.valueOf(value));
+                  } else {
+                     throw ParseUtils.unexpectedAttribute(reader, i);
+                  }
+                  break;
                default:
                   throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1964,6 +1974,8 @@ protected void parseDataType(XMLExtendedStreamReader reader, ConfigurationBuilde
          Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
          if (attribute == Attribute.MEDIA_TYPE && reader.getSchema().since(11, 0)) {
             encodingBuilder.mediaType(value);
+         } else if (attribute == Attribute.TRANSCODING_CACHE_SIZE && reader.getSchema().since(12, 0)) {
+            encodingBuilder.transcodingCacheSize(Integer.parseInt(value));
          } else {
             throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -2204,6 +2216,10 @@ private void parseStateTransfer(XMLExtendedStreamReader reader, ConfigurationBui
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
             }
+            case MAX_IN_FLIGHT_CHUNKS: {
+               builder.clustering().stateTransfer().maxInFlightChunks(Integer.parseInt(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
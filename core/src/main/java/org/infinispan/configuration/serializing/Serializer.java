@@ -37,6 +37,7 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.CustomInterceptorsConfiguration;
 import org.infinispan.configuration.cache.CustomStoreConfiguration;
+import org.infinispan.configuration.cache.EncodingConfiguration;
 import org.infinispan.configuration.cache.GroupsConfiguration;
 import org.infinispan.configuration.cache.IndexingConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
@@ -577,8 +578,10 @@ private void writeCommonCacheAttributesElements(XMLExtendedStreamWriter writer,
    private void writeEncoding(XMLExtendedStreamWriter writer, Configuration configuration) throws XMLStreamException {
       MediaType keyDataType = configuration.encoding().keyDataType().mediaType();
       MediaType valueDataType = configuration.encoding().valueDataType().mediaType();
-      if(keyDataType != null || valueDataType != null) {
+      AttributeSet attributes = configuration.encoding().attributes();
+      if(keyDataType != null || valueDataType != null || attributes.attribute(EncodingConfiguration.TRANSCODING_CACHE_SIZE).isModified()) {
          writer.writeStartElement(Element.ENCODING);
+         attributes.write(writer, EncodingConfiguration.TRANSCODING_CACHE_SIZE, Attribute.TRANSCODING_CACHE_SIZE);
          if(keyDataType != null) {
             writer.writeStartElement(Element.KEY_DATA_TYPE);
             writer.writeAttribute(Attribute.MEDIA_TYPE, keyDataType.toString());
@@ -640,6 +643,7 @@ private void writeMemory(XMLExtendedStreamWriter writer, Configuration configura
             attributes.write(writer, MemoryConfiguration.MAX_SIZE, Attribute.MAX_SIZE);
          }
          attributes.write(writer, MemoryConfiguration.WHEN_FULL, Attribute.WHEN_FULL);
+         attributes.write(writer, MemoryConfiguration.ALLOCATOR, Attribute.ALLOCATOR);
          writer.writeEndElement();
       }
    }
@@ -724,6 +728,7 @@ private void writeBackup(XMLExtendedStreamWriter writer, Configuration configura
       SitesConfiguration sites = configuration.sites();
       if (sites.allBackups().size() > 0) {
          writer.writeStartElement(Element.BACKUPS);
+         sites.attributes().write(writer, SitesConfiguration.BATCH_DELAY, Attribute.BATCH_DELAY);
          for (BackupConfiguration backup : sites.allBackups()) {
             writer.writeStartElement(Element.BACKUP);
             backup.attributes().write(writer);
@@ -39,6 +39,13 @@ public long getMemoryAddressOffsetNoTraceIfAbsent(int offset) {
       return MEMORY.getLongNoTraceIfAbsent(memory,((long) offset) << 3);
    }
 
+   /**
+    * Sets all the addresses to 0, without returning them.
+    */
+   public void zero() {
+      UNSAFE.setMemory(memory, ((long) pointerCount) << 3, (byte) 0);
+   }
+
    public void deallocate() {
       allocator.deallocate(memory, pointerCount << 3);
    }
@@ -7,6 +7,7 @@
 import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
@@ -70,6 +71,14 @@
  * write lock for the lock region, are ({@code put}, {@code remove}, {@code replace}, {@code compute}. A clear
  * will acquire all write locks when invoked. This allows the clear to also resize the map down to the initial size.
  * <p>
+ * When the allocator keeps deallocated memory readable (see {@link OffHeapMemoryAllocator#retainsDeallocatedMemory()})
+ * {@code peek}, and {@code get} when there is no {@link EntryListener}, do not acquire the read lock at all. They read
+ * optimistically, validating the stamp of the lock region before following any address or using any length read from
+ * the native memory, and decode the entry in place, validating the stamp again before returning it. Only if a writer
+ * acquired the lock region in the meantime is the read repeated while holding the read lock. This way readers never write to the shared lock state. Entries
+ * whose memory is freed as soon as they are deallocated (see {@link OffHeapMemoryAllocator#retainsDeallocatedMemory(long)})
+ * are always read with the lock, and replaced bucket arrays are kept for reuse until the map is closed.
+ * <p>
  * When this map is constructed it is also possible to provide an {@link EntryListener} that is invoked when various
  * operations are performed in the map. Note that the various modification callbacks <b>MUST</b> free the old address,
  * or else a memory leak will occur. Please see the various methods for clarification on these methods.
@@ -97,6 +106,7 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
 
    private static final Log log = LogFactory.getLog(MethodHandles.lookup().lookupClass());
    private static final boolean trace = log.isTraceEnabled();
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
 
    // We always have to have more buckets than locks
    public final static int INITIAL_SIZE = 256;
@@ -105,6 +115,8 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
          INITIAL_SIZE);
    // This is the largest power of 2 positive integer value
    private final static int MAX_ADDRESS_COUNT = 1 << 31;
+   // Returned instead of an address when an optimistic read was invalidated by a writer
+   private final static long OPTIMISTIC_READ_FAILED = -1;
    // Since lockCount is always a power of 2 - We can just shift by this many bits which is the same as dividing by
    // the number of locks
    private final static int LOCK_SHIFT = 31 - Integer.numberOfTrailingZeros(LOCK_COUNT);
@@ -118,6 +130,7 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    private final OffHeapEntryFactory offHeapEntryFactory;
 
    private final EntryListener listener;
+   private final boolean optimisticReads;
 
    // Once this threshold size is met, the underlying buckets will be re-sized if possible
    // This variable can be read outside of locks - thus is volatile, however should only be modified while holding
@@ -141,12 +154,18 @@ public class OffHeapConcurrentMap implements ConcurrentMap<WrappedBytes, Interna
    private MemoryAddressHash oldMemoryLookup;
    @GuardedBy("locks")
    private int oldMemoryShift;
+   // Lookups replaced while optimistic readers may still access them, by pointer count. A lookup is reused by the next
+   // lookup of the same size, so there is at most one per size.
+   @GuardedBy("locks#lockAll")
+   private final Map<Integer, MemoryAddressHash> retiredLookups = new HashMap<>();
 
    public OffHeapConcurrentMap(OffHeapMemoryAllocator allocator,
          OffHeapEntryFactory offHeapEntryFactory, EntryListener listener) {
       this.allocator = Objects.requireNonNull(allocator);
       this.offHeapEntryFactory = Objects.requireNonNull(offHeapEntryFactory);
       this.listener = listener;
+      // Tracking the allocated blocks would reject reads of blocks that were freed concurrently
+      this.optimisticReads = allocator.retainsDeallocatedMemory() && !MEMORY.checksAddresses();
 
       locks = new StripedLock(LOCK_COUNT);
 
@@ -370,13 +389,36 @@ private boolean sizeMemoryBuckets(int bucketCount) {
 
       oldMemoryLookup = memoryLookup;
       oldMemoryShift = memoryShift;
-      memoryLookup = new MemoryAddressHash(bucketCount, allocator);
+      memoryLookup = newMemoryLookup(bucketCount);
       // Max capacity is 2^31 (thus find the bit position that would be like dividing evenly into that)
       memoryShift = 31 - Integer.numberOfTrailingZeros(bucketCount);
 
       return true;
    }
 
+   @GuardedBy("locks#lockAll")
+   private MemoryAddressHash newMemoryLookup(int bucketCount) {
+      MemoryAddressHash lookup = retiredLookups.remove(Util.findNextHighestPowerOfTwo(bucketCount));
+      if (lookup == null) {
+         return new MemoryAddressHash(bucketCount, allocator);
+      }
+      lookup.zero();
+      return lookup;
+   }
+
+   /**
+    * Deallocates a lookup that is no longer used, unless optimistic readers may still read it.
+    */
+   @GuardedBy("locks#lockAll")
+   private void retireMemoryLookup(MemoryAddressHash lookup) {
+      if (optimisticReads) {
+         MemoryAddressHash previous = retiredLookups.put(lookup.getPointerCount(), lookup);
+         assert previous == null : "A lookup of the same size was retired twice!";
+      } else {
+         lookup.deallocate();
+      }
+   }
+
    /**
     * Computes the threshold for when a resize should occur. The returned value will be 75% of provided number, assuming
     * it is a power of two (provides a .75 load factor)
@@ -467,7 +509,7 @@ private void transferComplete() {
       }
       this.oldMemoryLookup = null;
 
-      oldMemoryLookup.deallocate();
+      retireMemoryLookup(oldMemoryLookup);
    }
 
    /**
@@ -551,6 +593,8 @@ public void close() {
          actualClear();
          memoryLookup.deallocate();
          memoryLookup = null;
+         retiredLookups.values().forEach(MemoryAddressHash::deallocate);
+         retiredLookups.clear();
       } finally {
          locks.unlockAll();
       }
@@ -623,6 +667,23 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> peekOrGet(WrappedBytes k,
       int hashCode = k.hashCode();
       int lockOffset = getLockOffset(hashCode);
       StampedLock stampedLock = locks.getLockWithOffset(lockOffset);
+      // The listener may act on the address of a retrieved entry, which requires the lock
+      if (optimisticReads && (peek || listener == null)) {
+         long stamp = stampedLock.tryOptimisticRead();
+         if (stamp != 0) {
+            long address = optimisticFind(stampedLock, stamp, lockOffset, hashCode);
+            if (address == 0) {
+               return null;
+            }
+            if (address != OPTIMISTIC_READ_FAILED) {
+               InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(address, k,
+                     stampedLock, stamp);
+               if (ice != null) {
+                  return ice;
+               }
+            }
+         }
+      }
       long readStamp = stampedLock.readLock();
       try {
          checkDeallocation();
@@ -638,6 +699,47 @@ private InternalCacheEntry<WrappedBytes, WrappedBytes> peekOrGet(WrappedBytes k,
       }
    }
 
+   /**
+    * Finds the first entry with the given hash code without holding any lock. Entries may be removed and their memory
+    * reused concurrently, so the stamp is validated before following an address read from the native memory. Reading
+    * the fixed offsets of an entry is always safe, as the allocator only reuses its memory for blocks of the same size.
+    * The entry must then be read with {@link OffHeapEntryFactory#fromMemory(long, WrappedBytes, StampedLock, long)},
+    * which also checks the key.
+    * @return the address of the entry, 0 if no entry has the hash code or {@link #OPTIMISTIC_READ_FAILED} if a
+    *         writer acquired the lock in the meantime
+    */
+   private long optimisticFind(StampedLock stampedLock, long stamp, int lockOffset, int hashCode) {
+      IntSet pendingBlocks = this.pendingBlocks;
+      MemoryAddressHash memoryLookup;
+      if (pendingBlocks != null && pendingBlocks.contains(lockOffset)) {
+         memoryLookup = this.oldMemoryLookup;
+      } else {
+         memoryLookup = this.memoryLookup;
+      }
+      if (!stampedLock.validate(stamp)) {
+         return OPTIMISTIC_READ_FAILED;
+      }
+      if (memoryLookup == null) {
+         checkDeallocation();
+         return OPTIMISTIC_READ_FAILED;
+      }
+      // The shift fields may not match the lookup read above, so derive the offset from the lookup itself
+      int memoryShift = 31 - Integer.numberOfTrailingZeros(memoryLookup.getPointerCount());
+      long address = memoryLookup.getMemoryAddressOffset(getOffset(hashCode, memoryShift));
+      while (address != 0) {
+         // Checking before validating ensures the address was not deallocated yet when it was checked
+         if (!allocator.retainsDeallocatedMemory(address) || !stampedLock.validate(stamp)) {
+            return OPTIMISTIC_READ_FAILED;
+         }
+         if (offHeapEntryFactory.getHashCode(address) == hashCode) {
+            // Another key with the same hash code is rare, the lock is acquired in that case
+            return address;
+         }
+         address = offHeapEntryFactory.getNext(address);
+      }
+      return stampedLock.validate(stamp) ? 0 : OPTIMISTIC_READ_FAILED;
+   }
+
    @GuardedBy("locks#readLock")
    private InternalCacheEntry<WrappedBytes, WrappedBytes> lockedPeekOrGet(MemoryAddressHash memoryLookup,
          WrappedBytes k, int hashCode, boolean peek) {
@@ -925,7 +1027,7 @@ private void actualClear() {
       };
       int pointerCount = memoryLookup.getPointerCount();
       memoryLookup.removeAll().forEach(removeEntries);
-      memoryLookup.deallocate();
+      retireMemoryLookup(memoryLookup);
       memoryLookup = null;
       if (listener != null) {
          boolean resized = listener.resize(-pointerCount);
@@ -1,5 +1,7 @@
 package org.infinispan.container.offheap;
 
+import java.util.concurrent.locks.StampedLock;
+
 import org.infinispan.commons.marshall.WrappedBytes;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.impl.KeyValueMetadataSizeCalculator;
@@ -67,6 +69,22 @@ public interface OffHeapEntryFactory extends KeyValueMetadataSizeCalculator<Wrap
     */
    InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address);
 
+   /**
+    * Create an entry from the off heap pointer without holding the lock protecting it, so the entry may be removed and
+    * its memory reused concurrently. The memory must stay readable once deallocated. No length read from the memory is
+    * used before the stamp is validated, and the stamp is validated again before the entry is created.
+    * @param address the address of the entry to read
+    * @param key the key the entry is expected to have
+    * @param stampedLock the lock protecting the entry
+    * @param stamp the optimistic read stamp obtained before reading the address of the entry
+    * @return the entry created on heap from off heap or {@code null} if the entry does not have the given key or the
+    *         stamp was invalidated, in which case the entry must be read again holding the lock
+    */
+   default InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address, WrappedBytes key,
+         StampedLock stampedLock, long stamp) {
+      return null;
+   }
+
    /**
     * Returns whether the given key as bytes is the same key as the key stored in the entry for the given address.
     * @param address the address of the entry's key to check
@@ -5,6 +5,7 @@
 
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
 
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -313,25 +314,96 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
       MEMORY.getBytes(address, offset, metadataBytes, 0, metadataBytes.length);
       offset += metadataBytes.length;
 
-      WrappedBytes valueWrappedBytes;
+      byte[] valueBytes = null;
       if (valueSize > 0) {
-         byte[] valueBytes = new byte[valueSize];
+         valueBytes = new byte[valueSize];
          MEMORY.getBytes(address, offset, valueBytes, 0, valueBytes.length);
          offset += valueBytes.length;
+      }
 
-         valueWrappedBytes = new WrappedByteArray(valueBytes);
-      } else {
-         valueWrappedBytes = null;
+      byte[] internalMetadataBytes = null;
+      if (internalMetadataSize > 0) {
+         internalMetadataBytes = new byte[internalMetadataSize];
+         MEMORY.getBytes(address, offset, internalMetadataBytes, 0, internalMetadataSize);
+      }
+      return toEntry(metadataType, hashCode, keyBytes, metadataBytes, valueBytes, internalMetadataBytes);
+   }
+
+   @Override
+   public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address, WrappedBytes key,
+         StampedLock stampedLock, long stamp) {
+      // Same as fromMemory(long), but the header may belong to an entry that was removed, or to one that is being
+      // written, until the stamp is validated
+      int offset = evictionEnabled ? 24 : 8;
+
+      byte metadataType = MEMORY.getByte(address, offset);
+      offset += 1;
+      int hashCode = MEMORY.getInt(address, offset);
+      offset += 4;
+      int keyLength = MEMORY.getInt(address, offset);
+      offset += 4;
+      int metadataLength;
+      switch (metadataType) {
+         case IMMORTAL:
+            metadataLength = 0;
+            break;
+         case MORTAL:
+         case TRANSIENT:
+            metadataLength = 16;
+            break;
+         case TRANSIENT_MORTAL:
+            metadataLength = 32;
+            break;
+         default:
+            metadataLength = MEMORY.getInt(address, offset);
+            offset += 4;
       }
+      int valueSize = MEMORY.getInt(address, offset);
+      offset += 4;
+      int internalMetadataSize = MEMORY.getInt(address, offset);
+      offset += 4;
 
-      PrivateMetadata internalMetadata = PrivateMetadata.empty();
+      // The lengths are only consistent if no writer acquired the lock in the meantime. The memory may be reused by
+      // another entry afterwards, but only one of the same size, so reading within these lengths stays in the block.
+      if (!stampedLock.validate(stamp) || hashCode != key.hashCode() || keyLength != key.getLength()) {
+         return null;
+      }
+      byte[] keyBytes = new byte[keyLength];
+      MEMORY.getBytes(address, offset, keyBytes, 0, keyLength);
+      offset += keyLength;
+      byte[] metadataBytes = metadataLength == 0 ? Util.EMPTY_BYTE_ARRAY : new byte[metadataLength];
+      MEMORY.getBytes(address, offset, metadataBytes, 0, metadataLength);
+      offset += metadataLength;
+      byte[] valueBytes = null;
+      if (valueSize > 0) {
+         valueBytes = new byte[valueSize];
+         MEMORY.getBytes(address, offset, valueBytes, 0, valueSize);
+         offset += valueSize;
+      }
+      byte[] internalMetadataBytes = null;
       if (internalMetadataSize > 0) {
-         byte[] internalMetadataBytes = new byte[internalMetadataSize];
+         internalMetadataBytes = new byte[internalMetadataSize];
          MEMORY.getBytes(address, offset, internalMetadataBytes, 0, internalMetadataSize);
-         offset += internalMetadataSize;
-         internalMetadata = unmarshall(internalMetadataBytes);
       }
 
+      // Nothing is unmarshalled until the bytes are known to belong to the entry
+      if (!stampedLock.validate(stamp)) {
+         return null;
+      }
+      for (int i = 0; i < keyLength; i++) {
+         if (keyBytes[i] != key.getByte(i)) {
+            return null;
+         }
+      }
+      return toEntry(metadataType, hashCode, keyBytes, metadataBytes, valueBytes, internalMetadataBytes);
+   }
+
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> toEntry(byte metadataType, int hashCode, byte[] keyBytes,
+         byte[] metadataBytes, byte[] valueBytes, byte[] internalMetadataBytes) {
+      WrappedBytes valueWrappedBytes = valueBytes == null ? null : new WrappedByteArray(valueBytes);
+      PrivateMetadata internalMetadata = internalMetadataBytes == null ?
+            PrivateMetadata.empty() :
+            unmarshall(internalMetadataBytes);
 
       Metadata metadata;
       // This is a custom metadata
@@ -346,7 +418,7 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
          long maxIdle;
          long created;
          long lastUsed;
-         offset = 0;
+         int offset = 0;
          boolean hasVersion = (metadataType & HAS_VERSION) == HAS_VERSION;
          // Ignore CUSTOM and VERSION to find type
          switch (metadataType & 0xFC) {
@@ -613,7 +685,7 @@ public long updateMaxIdle(long address, long currentTimeMillis) {
       if (newMetadataSize != metadataSize) {
          // The new marshalled size is different then before, we have to rewrite the object!
          // Offset is still set to the end of the key bytes (before metadata)
-         long newPointer = MEMORY.allocate(newMetadataSize + offset + valueSize + internalMetadataSize);
+         long newPointer = allocator.allocate(newMetadataSize + offset + valueSize + internalMetadataSize);
          // This writes the next pointer, eviction pointers (if applicable),
          // type, hashCode, keyLength, metadataLength, valueLength and key bytes.
          MEMORY.copy(address, 0, newPointer, 0, offset);
@@ -176,4 +176,33 @@ void free(long address) {
       }
       UNSAFE.freeMemory(address);
    }
+
+   /**
+    * Registers a block carved out of memory not allocated through this class, so that accesses to it can be checked
+    * when trace is enabled.
+    */
+   void track(long address, long size) {
+      if (trace) {
+         Long prev = allocatedBlocks.put(address, size);
+         if (prev != null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
+
+   /**
+    * Whether every access is checked against the tracked blocks, which fails for blocks that were already freed.
+    */
+   boolean checksAddresses() {
+      return trace;
+   }
+
+   void untrack(long address) {
+      if (trace) {
+         Long prev = allocatedBlocks.remove(address);
+         if (prev == null) {
+            throw new IllegalArgumentException();
+         }
+      }
+   }
 }
@@ -23,4 +23,26 @@ public interface OffHeapMemoryAllocator {
    void deallocate(long memoryAddress, long size);
 
    long getAllocatedAmount();
+
+   /**
+    * Returns whether memory passed to {@link #deallocate(long, long)} stays readable, possibly holding the contents of
+    * a later allocation, until the allocator is stopped. Readers that validate what they read afterwards, such as
+    * the optimistic reads of {@link OffHeapConcurrentMap}, require this to access entries that may be removed
+    * concurrently.
+    * @return whether deallocated memory can still be read
+    */
+   default boolean retainsDeallocatedMemory() {
+      return false;
+   }
+
+   /**
+    * Returns whether the given allocation stays readable after it is passed to {@link #deallocate(long, long)}, when
+    * {@link #retainsDeallocatedMemory()} only holds for some of the allocations. The address must not have been
+    * deallocated yet, so readers must validate the address afterwards.
+    * @param memoryAddress the address returned by {@link #allocate(long)}
+    * @return whether the memory at the given address can still be read after it is deallocated
+    */
+   default boolean retainsDeallocatedMemory(long memoryAddress) {
+      return retainsDeallocatedMemory();
+   }
 }
@@ -0,0 +1,332 @@
+package org.infinispan.container.offheap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import sun.misc.Unsafe;
+
+/**
+ * Memory allocator that carves the memory for entries out of larger slabs instead of calling {@link Unsafe} for every
+ * allocation.
+ * <p>
+ * Requests are rounded up to a size class: multiples of 16 bytes up to 512 bytes and then 4 classes per power of two.
+ * Each size class owns its slabs and keeps the freed chunks in a free list linked through the first 8 bytes of each
+ * chunk. Up to {@link #MAX_POOLED_SIZE} every thread keeps a small cache of chunks per size class, so that most
+ * allocations and deallocations do not need to synchronize; chunks move between the thread caches and the size class in
+ * batches. Larger allocations are not pooled: they are allocated and freed directly, so that a few large entries do not
+ * pin their memory after they are removed.
+ * <p>
+ * Slabs are only returned to the operating system when the cache is stopped, so the reserved memory follows the peak
+ * usage of each pooled size class. Chunks cached by a thread that terminates are not reused until then either. As a
+ * consequence deallocated pooled chunks stay readable while the allocator is running, see
+ * {@link #retainsDeallocatedMemory(long)}.
+ *
+ * @since 12.0
+ */
+@MBean(objectName = "OffHeapMemoryAllocator", description = "Pooled allocator of the off-heap memory used by the data container")
+@Scope(Scopes.NAMED_CACHE)
+public class PooledOffHeapMemoryAllocator implements OffHeapMemoryAllocator {
+   private static final Log log = LogFactory.getLog(PooledOffHeapMemoryAllocator.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+   private static final OffHeapMemory MEMORY = OffHeapMemory.INSTANCE;
+
+   /**
+    * Allocations larger than this are not pooled, they are allocated and freed directly.
+    */
+   public static final int MAX_POOLED_SIZE = 16 * 1024;
+   private static final int MIN_SLAB_SIZE = 64 * 1024;
+   private static final int CHUNKS_PER_SLAB = 64;
+   private static final int THREAD_CACHE_BYTES = 32 * 1024;
+   // Classes up to and including MAX_POOLED_SIZE
+   private static final int POOLED_CLASS_COUNT = sizeClass(MAX_POOLED_SIZE) + 1;
+
+   private final LongAdder allocated = new LongAdder();
+   private final AtomicLong reserved = new AtomicLong();
+   private final List<Long> slabs = new ArrayList<>();
+   // Allocations larger than MAX_POOLED_SIZE that were not deallocated yet, with their size
+   private final ConcurrentMap<Long, Long> largeChunks = new ConcurrentHashMap<>();
+   private volatile SizeClass[] sizeClasses;
+   private volatile ThreadLocal<ThreadCache> threadCaches;
+   private volatile boolean running;
+
+   public PooledOffHeapMemoryAllocator() {
+      start();
+   }
+
+   @Start
+   public void start() {
+      if (running) {
+         return;
+      }
+      SizeClass[] classes = new SizeClass[POOLED_CLASS_COUNT];
+      for (int i = 0; i < classes.length; i++) {
+         classes[i] = new SizeClass(classSize(i));
+      }
+      sizeClasses = classes;
+      // A new thread local discards the caches filled before a restart
+      threadCaches = ThreadLocal.withInitial(ThreadCache::new);
+      running = true;
+   }
+
+   /**
+    * Releases all the slabs and large allocations. Memory allocated from this allocator must not be accessed afterwards.
+    */
+   @Stop
+   public void stop() {
+      running = false;
+      synchronized (slabs) {
+         for (long slab : slabs) {
+            UNSAFE.freeMemory(slab);
+         }
+         if (trace) {
+            log.tracef("Released %d slabs and %d large allocations with %d bytes", slabs.size(), largeChunks.size(),
+                  reserved.get());
+         }
+         slabs.clear();
+      }
+      largeChunks.keySet().removeIf(address -> {
+         UNSAFE.freeMemory(address);
+         return true;
+      });
+      reserved.set(0);
+      allocated.reset();
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      long chunkSize;
+      long memoryLocation;
+      if (memoryLength <= MAX_POOLED_SIZE) {
+         int sizeClass = sizeClass(memoryLength);
+         chunkSize = classSize(sizeClass);
+         memoryLocation = threadCaches.get().allocate(sizeClass);
+      } else {
+         chunkSize = memoryLength;
+         memoryLocation = allocateLarge(memoryLength);
+      }
+      allocated.add(chunkSize);
+      MEMORY.track(memoryLocation, chunkSize);
+      if (trace) {
+         log.tracef("Allocated pooled off heap memory at 0x%016x with %d bytes. Total size: %d", memoryLocation,
+               chunkSize, allocated.sum());
+      }
+      return memoryLocation;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress, long size) {
+      int sizeClass = size <= MAX_POOLED_SIZE ? sizeClass(size) : -1;
+      long chunkSize = sizeClass < 0 ? size : classSize(sizeClass);
+      if (trace) {
+         log.tracef("Deallocating pooled off heap memory at 0x%016x with %d bytes. Total size: %d", memoryAddress,
+               chunkSize, allocated.sum());
+      }
+      MEMORY.untrack(memoryAddress);
+      if (!running) {
+         // The slab holding the chunk has already been released
+         return;
+      }
+      allocated.add(-chunkSize);
+      if (sizeClass < 0) {
+         deallocateLarge(memoryAddress);
+      } else {
+         threadCaches.get().deallocate(sizeClass, memoryAddress);
+      }
+   }
+
+   /**
+    * Deallocated pooled chunks are only reused as chunks of the same size class and slabs are only freed by
+    * {@link #stop()}. Large allocations are freed right away, see {@link #retainsDeallocatedMemory(long)}.
+    */
+   @Override
+   public boolean retainsDeallocatedMemory() {
+      return running;
+   }
+
+   /**
+    * Only the allocations up to {@link #MAX_POOLED_SIZE} stay readable after they are deallocated.
+    */
+   @Override
+   public boolean retainsDeallocatedMemory(long memoryAddress) {
+      return running && (largeChunks.isEmpty() || !largeChunks.containsKey(memoryAddress));
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory in use by entries, with the pooled allocations rounded up to their size classes",
+         displayName = "Allocated off-heap memory",
+         units = Units.BYTES
+   )
+   @Override
+   public long getAllocatedAmount() {
+      return allocated.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory reserved from the operating system, including free pooled chunks",
+         displayName = "Reserved off-heap memory",
+         units = Units.BYTES
+   )
+   public long getReservedAmount() {
+      return reserved.get();
+   }
+
+   @ManagedAttribute(
+         description = "Number of slabs allocated to hold pooled chunks",
+         displayName = "Number of slabs"
+   )
+   public int getSlabCount() {
+      synchronized (slabs) {
+         return slabs.size();
+      }
+   }
+
+   private long allocateSlab(long slabSize) {
+      long slab = UNSAFE.allocateMemory(slabSize);
+      synchronized (slabs) {
+         slabs.add(slab);
+      }
+      reserved.addAndGet(slabSize);
+      if (trace) {
+         log.tracef("Allocated slab at 0x%016x with %d bytes", slab, slabSize);
+      }
+      return slab;
+   }
+
+   private long allocateLarge(long size) {
+      long address = UNSAFE.allocateMemory(size);
+      largeChunks.put(address, size);
+      reserved.addAndGet(size);
+      return address;
+   }
+
+   private void deallocateLarge(long address) {
+      Long size = largeChunks.remove(address);
+      if (size != null) {
+         reserved.addAndGet(-size);
+         UNSAFE.freeMemory(address);
+      }
+   }
+
+   /**
+    * Returns the index of the smallest size class that fits the given size.
+    */
+   static int sizeClass(long size) {
+      if (size <= 512) {
+         return size <= 16 ? 0 : (int) ((size + 15) >>> 4) - 1;
+      }
+      // base < size <= 2 * base, split in 4 steps of base / 4
+      int shift = 63 - Long.numberOfLeadingZeros(size - 1);
+      long base = 1L << shift;
+      int step = (int) ((size - base + (base >> 2) - 1) >>> (shift - 2));
+      return 32 + 4 * (shift - 9) + step - 1;
+   }
+
+   static long classSize(int sizeClass) {
+      if (sizeClass < 32) {
+         return (sizeClass + 1) << 4;
+      }
+      int shift = 9 + ((sizeClass - 32) >> 2);
+      int step = ((sizeClass - 32) & 3) + 1;
+      return (1L << shift) + ((long) step << (shift - 2));
+   }
+
+   /**
+    * Chunks of a single size, shared by all threads.
+    */
+   private final class SizeClass {
+      private final long chunkSize;
+      private final long slabSize;
+      private final int threadCacheSize;
+      // Free chunks, linked through their first 8 bytes
+      private long freeList;
+      // Remaining part of the last slab that was never handed out
+      private long bumpAddress;
+      private long bumpLimit;
+
+      SizeClass(long chunkSize) {
+         this.chunkSize = chunkSize;
+         // Whole number of chunks per slab
+         this.slabSize = Math.max(MIN_SLAB_SIZE / chunkSize, CHUNKS_PER_SLAB) * chunkSize;
+         this.threadCacheSize = (int) Math.min(64, Math.max(4, THREAD_CACHE_BYTES / chunkSize));
+      }
+
+      synchronized int take(long[] chunks, int count) {
+         for (int i = 0; i < count; i++) {
+            long chunk = freeList;
+            if (chunk != 0) {
+               freeList = UNSAFE.getLong(chunk);
+            } else {
+               if (bumpAddress >= bumpLimit) {
+                  bumpAddress = allocateSlab(slabSize);
+                  bumpLimit = bumpAddress + slabSize;
+               }
+               chunk = bumpAddress;
+               bumpAddress += chunkSize;
+            }
+            chunks[i] = chunk;
+         }
+         return count;
+      }
+
+      synchronized void give(long[] chunks, int offset, int count) {
+         for (int i = offset; i < offset + count; i++) {
+            UNSAFE.putLong(chunks[i], freeList);
+            freeList = chunks[i];
+         }
+      }
+   }
+
+   /**
+    * Per thread stacks of chunks, one per size class.
+    */
+   private final class ThreadCache {
+      private final SizeClass[] classes = sizeClasses;
+      private final long[][] chunks = new long[POOLED_CLASS_COUNT][];
+      private final int[] counts = new int[POOLED_CLASS_COUNT];
+
+      long allocate(int sizeClass) {
+         long[] cached = chunks[sizeClass];
+         if (cached == null) {
+            cached = chunks[sizeClass] = new long[classes[sizeClass].threadCacheSize];
+         }
+         int count = counts[sizeClass];
+         if (count == 0) {
+            count = classes[sizeClass].take(cached, Math.max(1, cached.length >> 1));
+         }
+         counts[sizeClass] = --count;
+         return cached[count];
+      }
+
+      void deallocate(int sizeClass, long address) {
+         long[] cached = chunks[sizeClass];
+         if (cached == null) {
+            cached = chunks[sizeClass] = new long[classes[sizeClass].threadCacheSize];
+         }
+         int count = counts[sizeClass];
+         if (count == cached.length) {
+            // Keep the most recently freed chunks, they are more likely to be in the CPU caches
+            int half = cached.length >> 1;
+            classes[sizeClass].give(cached, 0, half);
+            System.arraycopy(cached, half, cached, 0, count - half);
+            count -= half;
+         }
+         cached[count++] = address;
+         counts[sizeClass] = count;
+      }
+   }
+}
@@ -250,6 +250,13 @@ public MediaType getStorageMediaType() {
       return storageMediaType;
    }
 
+   /**
+    * @return {@code true} if {@link #fromStorage(Object)} transcodes the stored objects to the request media type.
+    */
+   public boolean isTranscoding() {
+      return transcoder != null;
+   }
+
    public Encoder getEncoder() {
       return encoder;
    }
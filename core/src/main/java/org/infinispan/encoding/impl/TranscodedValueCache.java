@@ -0,0 +1,258 @@
+package org.infinispan.encoding.impl;
+
+import static org.infinispan.util.logging.Log.CONTAINER;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.encoding.DataConversion;
+import org.infinispan.factories.AbstractNamedCacheComponentFactory;
+import org.infinispan.factories.AutoInstantiableFactory;
+import org.infinispan.factories.annotations.DefaultFactoryFor;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.factories.annotations.SurvivesRestarts;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.JmxStatisticsExposer;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.metadata.Metadata;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Keeps the values of a cache already transcoded to the media types requested by its readers, so that reading the same
+ * entry repeatedly in a media type other than the storage one, e.g. {@code application/json} from a cache stored as
+ * {@code application/x-protostream}, only transcodes it once.
+ * <p>
+ * The transcoded values are kept in a single bounded cache, with at most
+ * {@link org.infinispan.configuration.cache.EncodingConfiguration#transcodingCacheSize()} transcoded values across all
+ * the media types. The entries are keyed by the identity of the stored value: every write of a binary value stores a
+ * new instance, so a transcoded value is never returned after its entry is modified, and it is discarded when the
+ * stored value is garbage collected. When the reader has the metadata of the entry and it has a version, the version
+ * must match too.
+ * <p>
+ * The identity is not a reliable key for the stored values that are not binary, which can be modified in place, nor
+ * for the values read from another node, which are a new instance on every read, so those values are always
+ * transcoded. Only the {@code byte[]} and {@link String} results are cached, because they are the only ones that can
+ * be shared safely: the arrays are copied before they are returned. The cache is disabled with off-heap storage, where
+ * every read creates a new stored value.
+ *
+ * @since 12.0
+ */
+@MBean(objectName = "TranscodedValueCache", description = "Caches the values transcoded to the media types requested by the readers")
+@Scope(Scopes.NAMED_CACHE)
+public class TranscodedValueCache implements JmxStatisticsExposer {
+   @Inject Configuration configuration;
+   @Inject DistributionManager distributionManager;
+
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private volatile Cache<Object, TranscodedValues> cache;
+   private volatile boolean statisticsEnabled;
+
+   @Start
+   public void start() {
+      boolean offHeap = configuration.memory().storageType() == StorageType.OFF_HEAP;
+      int maxEntries = offHeap ? 0 : configuration.encoding().transcodingCacheSize();
+      if (maxEntries > 0) {
+         // Weighted by the number of transcoded values of each stored value
+         cache = Caffeine.newBuilder()
+               .weakKeys()
+               .maximumWeight(maxEntries)
+               .<Object, TranscodedValues>weigher((stored, values) -> values.size())
+               .build();
+      }
+      statisticsEnabled = configuration.statistics().enabled();
+   }
+
+   @Stop
+   public void stop() {
+      Cache<Object, TranscodedValues> cache = this.cache;
+      if (cache != null) {
+         cache.invalidateAll();
+      }
+   }
+
+   /**
+    * @param key      the key of the entry in the storage format
+    * @param stored   the value of the entry in the storage format
+    * @param metadata the metadata of the entry, or {@code null} if not known
+    * @return the stored value converted by {@code conversion}, transcoding it only if it is not cached already
+    */
+   public Object fromStorage(Object key, Object stored, Metadata metadata, DataConversion conversion) {
+      Cache<Object, TranscodedValues> cache = this.cache;
+      if (cache == null || stored == null || !conversion.isTranscoding() || !isCacheable(key, conversion)) {
+         return conversion.fromStorage(stored);
+      }
+      EntryVersion version = metadata == null ? null : metadata.version();
+      TranscodedValues values = cache.getIfPresent(stored);
+      Object transcoded = values == null ? null : values.get(version, conversion);
+      if (transcoded != null) {
+         if (statisticsEnabled) hits.increment();
+         return share(transcoded);
+      }
+      if (statisticsEnabled) misses.increment();
+      transcoded = conversion.fromStorage(stored);
+      if (transcoded instanceof byte[] || transcoded instanceof String) {
+         // A concurrent read in another media type may be lost, it is transcoded again on the next read
+         cache.put(stored, values == null || !values.matches(version) ?
+               new TranscodedValues(version, conversion, transcoded) : values.with(conversion, transcoded));
+         return share(transcoded);
+      }
+      return transcoded;
+   }
+
+   private boolean isCacheable(Object key, DataConversion conversion) {
+      if (conversion.getStorageMediaType().match(MediaType.APPLICATION_OBJECT)) {
+         return false;
+      }
+      return distributionManager == null || distributionManager.getCacheTopology().isReadOwner(key);
+   }
+
+   private static Object share(Object transcoded) {
+      if (transcoded instanceof byte[]) {
+         byte[] bytes = (byte[]) transcoded;
+         return Arrays.copyOf(bytes, bytes.length);
+      }
+      return transcoded;
+   }
+
+   public boolean isEnabled() {
+      return cache != null;
+   }
+
+   @ManagedAttribute(description = "Number of reads that found the transcoded value in the cache",
+         displayName = "Transcoded value cache hits", measurementType = MeasurementType.TRENDSUP)
+   public long getHits() {
+      return hits.sum();
+   }
+
+   @ManagedAttribute(description = "Number of reads that had to transcode the stored value",
+         displayName = "Transcoded value cache misses", measurementType = MeasurementType.TRENDSUP)
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   @ManagedAttribute(description = "Percentage of the reads that found the transcoded value in the cache",
+         displayName = "Transcoded value cache hit ratio", units = Units.PERCENTAGE)
+   public double getHitRatio() {
+      long hits = this.hits.sum();
+      long total = hits + misses.sum();
+      return total == 0 ? 0 : (double) hits / total;
+   }
+
+   @ManagedAttribute(description = "Approximate number of transcoded values in the cache",
+         displayName = "Transcoded value cache size")
+   public long getSize() {
+      Cache<Object, TranscodedValues> cache = this.cache;
+      if (cache == null) {
+         return 0;
+      }
+      long size = 0;
+      for (TranscodedValues values : cache.asMap().values()) {
+         size += values.size();
+      }
+      return size;
+   }
+
+   @ManagedOperation(description = "Removes all the transcoded values from the cache", displayName = "Clear")
+   public void clear() {
+      Cache<Object, TranscodedValues> cache = this.cache;
+      if (cache != null) {
+         cache.invalidateAll();
+      }
+   }
+
+   @Override
+   public boolean getStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", writable = true)
+   @Override
+   public void setStatisticsEnabled(boolean enabled) {
+      statisticsEnabled = enabled;
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   @Override
+   public void resetStatistics() {
+      hits.reset();
+      misses.reset();
+   }
+
+   /**
+   * The values transcoded from the same stored value, one per conversion. Immutable, so that the cache weighs it again
+   * when a conversion is added.
+   */
+   private static final class TranscodedValues {
+      final EntryVersion version;
+      final DataConversion[] conversions;
+      final Object[] values;
+
+      TranscodedValues(EntryVersion version, DataConversion conversion, Object value) {
+         this(version, new DataConversion[]{conversion}, new Object[]{value});
+      }
+
+      private TranscodedValues(EntryVersion version, DataConversion[] conversions, Object[] values) {
+         this.version = version;
+         this.conversions = conversions;
+         this.values = values;
+      }
+
+      boolean matches(EntryVersion version) {
+         // Without a version, the identity of the stored value is enough
+         return version == null || version.equals(this.version);
+      }
+
+      Object get(EntryVersion version, DataConversion conversion) {
+         if (!matches(version)) {
+            return null;
+         }
+         for (int i = 0; i < conversions.length; i++) {
+            if (conversions[i].equals(conversion)) {
+               return values[i];
+            }
+         }
+         return null;
+      }
+
+      TranscodedValues with(DataConversion conversion, Object value) {
+         int size = conversions.length;
+         DataConversion[] newConversions = Arrays.copyOf(conversions, size + 1);
+         Object[] newValues = Arrays.copyOf(values, size + 1);
+         newConversions[size] = conversion;
+         newValues[size] = value;
+         return new TranscodedValues(version, newConversions, newValues);
+      }
+
+      int size() {
+         return conversions.length;
+      }
+   }
+
+   @DefaultFactoryFor(classes = TranscodedValueCache.class)
+   @SurvivesRestarts
+   public static class Factory extends AbstractNamedCacheComponentFactory implements AutoInstantiableFactory {
+      @Override
+      public Object construct(String componentName) {
+         if (componentName.equals(TranscodedValueCache.class.getName())) {
+            return new TranscodedValueCache();
+         } else {
+            throw CONTAINER.factoryCannotConstructComponent(componentName);
+         }
+      }
+   }
+}
@@ -290,6 +290,22 @@ protected void postStop() {
       // Do nothing, ModulesOuterLifecycle invokes modulesManagerStopped automatically
    }
 
+   /**
+    * Notifies the modules that the cache manager is about to stop its caches.
+    */
+   public void notifyCachesStopping() {
+      for (ModuleLifecycle l : moduleLifecycles) {
+         if (log.isTraceEnabled()) {
+            log.tracef("Invoking %s.cacheManagerStoppingCaches()", l);
+         }
+         try {
+            l.cacheManagerStoppingCaches(this);
+         } catch (Throwable t) {
+            CONTAINER.moduleStopError(l.getClass().getName(), t);
+         }
+      }
+   }
+
    private void modulesManagerStopping() {
       for (ModuleLifecycle l : moduleLifecycles) {
          if (log.isTraceEnabled()) {
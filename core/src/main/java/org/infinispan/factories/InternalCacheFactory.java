@@ -45,6 +45,7 @@
 import org.infinispan.notifications.cachelistener.cluster.impl.ClusterEventManagerStub;
 import org.infinispan.partitionhandling.PartitionHandling;
 import org.infinispan.partitionhandling.impl.PartitionHandlingManager;
+import org.infinispan.stats.impl.HotKeyTracker;
 import org.infinispan.transaction.xa.recovery.RecoveryAdminOperations;
 import org.infinispan.upgrade.RollingUpgradeManager;
 import org.infinispan.util.concurrent.CompletionStages;
@@ -346,6 +347,7 @@ public AdvancedCache<K, V> noFlags() {
    static class StatsCache<K, V> extends AbstractGetAdvancedCache<K, V, StatsCache<K, V>> {
 
       @Inject TimeService timeService;
+      @Inject HotKeyTracker hotKeyTracker;
       private CacheMgmtInterceptor interceptor;
 
       public StatsCache(AdvancedCache<K, V> cache) {
@@ -363,6 +365,7 @@ public AdvancedCache rewrap(AdvancedCache newDelegate) {
       @Override
       protected void internalWire(StatsCache<K, V> cache) {
          this.timeService = cache.timeService;
+         this.hotKeyTracker = cache.hotKeyTracker;
          super.internalWire(cache);
       }
 
@@ -378,6 +381,7 @@ public V get(Object key) {
             interceptorStart();
          }
          if (interceptor.getStatisticsEnabled()) {
+            hotKeyTracker.recordRead(key);
             long beginTime = timeService.time();
             value = cache.get(key);
             interceptor.addDataRead(value != null, timeService.timeDuration(beginTime, TimeUnit.NANOSECONDS));
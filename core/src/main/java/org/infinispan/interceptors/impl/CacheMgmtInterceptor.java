@@ -38,6 +38,7 @@
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.ByRef;
 import org.infinispan.commons.util.concurrent.StripedCounters;
+import org.infinispan.commons.util.concurrent.StripedHistogram;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ClusteringConfiguration;
 import org.infinispan.configuration.cache.Configuration;
@@ -59,6 +60,7 @@
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.jmx.annotations.Units;
+import org.infinispan.stats.impl.HotKeyTracker;
 import org.infinispan.topology.CacheTopology;
 
 /**
@@ -69,12 +71,19 @@
  */
 @MBean(objectName = "Statistics", description = "General statistics such as timings, hit/miss ratio, etc.")
 public final class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
+   // The series of the latency histogram
+   private static final int READ = 0;
+   private static final int WRITE = 1;
+   private static final int REMOVE = 2;
+   private static final int READ_ALL = 3;
+   private static final int WRITE_ALL = 4;
 
    @Inject ComponentRef<AdvancedCache> cache;
    @Inject InternalDataContainer dataContainer;
    @Inject TimeService timeService;
    @Inject OffHeapMemoryAllocator allocator;
    @Inject ComponentRegistry componentRegistry;
+   @Inject HotKeyTracker hotKeyTracker;
 
    private final AtomicLong startNanoseconds = new AtomicLong(0);
    private final AtomicLong resetNanoseconds = new AtomicLong(0);
@@ -85,6 +94,10 @@ public final class CacheMgmtInterceptor extends JmxStatsCommandInterceptor {
    private Timer storeTimes;
    private Timer removeTimes;
 
+   // Latency distribution of each operation, including hits and misses, successful and unsuccessful writes.
+   // The MicroProfile timers above already have the quantiles of the hits, misses, stores and removes.
+   private final StripedHistogram latencies = new StripedHistogram(5);
+
    @Start
    public void start() {
       startNanoseconds.set(timeService.time());
@@ -129,6 +142,7 @@ public final Object visitGetCacheEntryCommand(InvocationContext ctx, GetCacheEnt
    }
 
    public void addDataRead(boolean foundValue, long timeNanoSeconds) {
+      latencies.record(READ, timeNanoSeconds);
       StripeB stripe = counters.stripeForCurrentThread();
       if (foundValue) {
          counters.add(StripeB.hitTimesFieldUpdater, stripe, timeNanoSeconds);
@@ -146,6 +160,7 @@ private Object visitDataReadCommand(InvocationContext ctx, AbstractDataCommand c
       if (!statisticsEnabled || !ctx.isOriginLocal())
          return invokeNext(ctx, command);
 
+      hotKeyTracker.recordRead(command.getKey());
       long start = timeService.time();
       return invokeNextAndFinally(ctx, command,
             (rCtx, rCommand, rv, t) -> addDataRead(rv != null, timeService.timeDuration(start, TimeUnit.NANOSECONDS)));
@@ -157,9 +172,11 @@ public Object visitGetAllCommand(InvocationContext ctx, GetAllCommand command) {
       if (!statisticsEnabled || !ctx.isOriginLocal())
          return invokeNext(ctx, command);
 
+      hotKeyTracker.recordReads(command.getKeys());
       long start = timeService.time();
       return invokeNextAndFinally(ctx, command, (rCtx, rCommand, rv, t) -> {
          long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+         latencies.record(READ_ALL, intervalNanos);
          int requests = rCommand.getKeys().size();
          int hitCount = 0;
          if (t == null) {
@@ -193,9 +210,11 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) {
       if (!statisticsEnabled || !ctx.isOriginLocal())
          return invokeNext(ctx, command);
 
+      hotKeyTracker.recordWrites(command.getAffectedKeys());
       long start = timeService.time();
       return invokeNextAndFinally(ctx, command, (rCtx, rCommand, rv, t) -> {
          final long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+         latencies.record(WRITE_ALL, intervalNanos);
          final Map<Object, Object> data = rCommand.getMap();
          if (data != null && !data.isEmpty()) {
             StripeB stripe = counters.stripeForCurrentThread();
@@ -227,12 +246,14 @@ public Object visitComputeCommand(InvocationContext ctx, ComputeCommand command)
       if (!statisticsEnabled || !ctx.isOriginLocal())
          return invokeNext(ctx, command);
 
+      hotKeyTracker.recordWrite(command.getKey());
       long start = timeService.time();
       return invokeNextAndFinally(ctx, command, (rCtx, rCommand, rv, t) -> {
+         long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+         latencies.record(WRITE, intervalNanos);
          if (rv == null && rCommand.isSuccessful()) {
             increaseRemoveMisses();
          } else if (rCommand.isSuccessful()) {
-            long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
             StripeB stripe = counters.stripeForCurrentThread();
             counters.add(StripeB.storeTimesFieldUpdater, stripe, intervalNanos);
             counters.increment(StripeB.storesFieldUpdater, stripe);
@@ -251,10 +272,12 @@ private Object updateStoreStatistics(InvocationContext ctx, WriteCommand command
       if (!statisticsEnabled || !ctx.isOriginLocal())
          return invokeNext(ctx, command);
 
+      hotKeyTracker.recordWrites(command.getAffectedKeys());
       long start = timeService.time();
       return invokeNextAndFinally(ctx, command, (rCtx, rCommand, rv, t) -> {
+         long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+         latencies.record(WRITE, intervalNanos);
          if (rCommand.isSuccessful()) {
-            long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
             StripeB stripe = counters.stripeForCurrentThread();
             counters.add(StripeB.storeTimesFieldUpdater, stripe, intervalNanos);
             counters.increment(StripeB.storesFieldUpdater, stripe);
@@ -271,9 +294,11 @@ public Object visitReadOnlyKeyCommand(InvocationContext ctx, ReadOnlyKeyCommand
       if (!getStatisticsEnabled())
          return invokeNextThenApply(ctx, command, StatsEnvelope::unpack);
 
+      hotKeyTracker.recordRead(command.getKey());
       long start = timeService.time();
       return invokeNextThenApply(ctx, command, (rCtx, rCommand, rv) -> {
          long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+         latencies.record(READ, intervalNanos);
          StripeB stripe = counters.stripeForCurrentThread();
          StatsEnvelope envelope = (StatsEnvelope) rv;
          if (envelope.isMiss()) {
@@ -297,9 +322,11 @@ public Object visitReadOnlyManyCommand(InvocationContext ctx, ReadOnlyManyComman
       if (!getStatisticsEnabled())
          return invokeNextThenApply(ctx, command, StatsEnvelope::unpackStream);
 
+      hotKeyTracker.recordReads(command.getKeys());
       long start = timeService.time();
       return invokeNextThenApply(ctx, command, (rCtx, rCommand, rv) -> {
          long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
+         latencies.record(READ_ALL, intervalNanos);
          StripeB stripe = counters.stripeForCurrentThread();
          ByRef.Integer hitCount = new ByRef.Integer(0);
          ByRef.Integer missCount = new ByRef.Integer(0);
@@ -338,6 +365,7 @@ private Object updateStatisticsWriteOnly(InvocationContext ctx, AbstractDataComm
       if (!getStatisticsEnabled())
          return invokeNextThenApply(ctx, command, StatsEnvelope::unpack);
 
+      hotKeyTracker.recordWrite(command.getKey());
       long start = timeService.time();
       return invokeNextThenApply(ctx, command, (rCtx, rCommand, rv) -> {
          long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
@@ -370,6 +398,7 @@ private Object updateStatisticsReadWrite(InvocationContext ctx, AbstractDataComm
       if (!getStatisticsEnabled())
          return invokeNextThenApply(ctx, command, StatsEnvelope::unpack);
 
+      hotKeyTracker.recordWrite(command.getKey());
       long start = timeService.time();
       return invokeNextThenApply(ctx, command, (rCtx, rCommand, rv) -> {
          // FAIL_SILENTLY makes the return value null
@@ -427,6 +456,7 @@ private Object updateStatisticsReadWrite(InvocationContext ctx, AbstractWriteMan
       if (!getStatisticsEnabled())
          return invokeNextThenApply(ctx, command, StatsEnvelope::unpackCollection);
 
+      hotKeyTracker.recordWrites(command.getAffectedKeys());
       long start = timeService.time();
       return invokeNextThenApply(ctx, command, (rCtx, rCommand, rv) -> {
          long intervalNanos = timeService.timeDuration(start, TimeUnit.NANOSECONDS);
@@ -490,8 +520,10 @@ public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) {
       if (!statisticsEnabled || !ctx.isOriginLocal())
          return invokeNext(ctx, command);
 
+      hotKeyTracker.recordWrite(command.getKey());
       long start = timeService.time();
       return invokeNextAndFinally(ctx, command, (rCtx, removeCommand, rv, t) -> {
+         latencies.record(REMOVE, timeService.timeDuration(start, TimeUnit.NANOSECONDS));
          if (removeCommand.isConditional()) {
             if (removeCommand.isSuccessful())
                increaseRemoveHits(start);
@@ -671,6 +703,96 @@ public long getAverageRemoveTimeNanos() {
       return counters.get(StripeB.removeTimesFieldUpdater) / removes;
    }
 
+   @ManagedAttribute(
+         description = "99th percentile of the nanoseconds for a read operation in the cache",
+         displayName = "99th percentile read time",
+         units = Units.NANOSECONDS
+   )
+   public long getReadTimeP99() {
+      return latencies.getValueAtPercentile(READ, 99);
+   }
+
+   @ManagedAttribute(
+         description = "99.9th percentile of the nanoseconds for a read operation in the cache",
+         displayName = "99.9th percentile read time",
+         units = Units.NANOSECONDS
+   )
+   public long getReadTimeP999() {
+      return latencies.getValueAtPercentile(READ, 99.9);
+   }
+
+   @ManagedAttribute(
+         description = "99th percentile of the nanoseconds for a write operation in the cache",
+         displayName = "99th percentile write time",
+         units = Units.NANOSECONDS
+   )
+   public long getWriteTimeP99() {
+      return latencies.getValueAtPercentile(WRITE, 99);
+   }
+
+   @ManagedAttribute(
+         description = "99.9th percentile of the nanoseconds for a write operation in the cache",
+         displayName = "99.9th percentile write time",
+         units = Units.NANOSECONDS
+   )
+   public long getWriteTimeP999() {
+      return latencies.getValueAtPercentile(WRITE, 99.9);
+   }
+
+   @ManagedAttribute(
+         description = "99th percentile of the nanoseconds for a remove operation in the cache",
+         displayName = "99th percentile remove time",
+         units = Units.NANOSECONDS
+   )
+   public long getRemoveTimeP99() {
+      return latencies.getValueAtPercentile(REMOVE, 99);
+   }
+
+   @ManagedAttribute(
+         description = "99.9th percentile of the nanoseconds for a remove operation in the cache",
+         displayName = "99.9th percentile remove time",
+         units = Units.NANOSECONDS
+   )
+   public long getRemoveTimeP999() {
+      return latencies.getValueAtPercentile(REMOVE, 99.9);
+   }
+
+   @ManagedAttribute(
+         description = "99th percentile of the nanoseconds for a getAll operation in the cache",
+         displayName = "99th percentile read all time",
+         units = Units.NANOSECONDS
+   )
+   public long getReadAllTimeP99() {
+      return latencies.getValueAtPercentile(READ_ALL, 99);
+   }
+
+   @ManagedAttribute(
+         description = "99.9th percentile of the nanoseconds for a getAll operation in the cache",
+         displayName = "99.9th percentile read all time",
+         units = Units.NANOSECONDS
+   )
+   public long getReadAllTimeP999() {
+      return latencies.getValueAtPercentile(READ_ALL, 99.9);
+   }
+
+   @ManagedAttribute(
+         description = "99th percentile of the nanoseconds for a putAll operation in the cache",
+         displayName = "99th percentile write all time",
+         units = Units.NANOSECONDS
+   )
+   public long getWriteAllTimeP99() {
+      return latencies.getValueAtPercentile(WRITE_ALL, 99);
+   }
+
+   @ManagedAttribute(
+         description = "99.9th percentile of the nanoseconds for a putAll operation in the cache",
+         displayName = "99.9th percentile write all time",
+         units = Units.NANOSECONDS
+   )
+   public long getWriteAllTimeP999() {
+      return latencies.getValueAtPercentile(WRITE_ALL, 99.9);
+   }
+
    @ManagedAttribute(
          description = "Number of entries in the cache including passivated entries",
          displayName = "Number of current cache entries"
@@ -810,6 +932,8 @@ public void resetStatistics() {
       counters.reset(StripeB.removeHitsFieldUpdater);
       counters.reset(StripeB.removeTimesFieldUpdater);
       counters.reset(StripeB.removeMissesFieldUpdater);
+      latencies.reset();
+      hotKeyTracker.resetStatistics();
       resetNanoseconds.set(timeService.time());
 
       //todo [anistor] how do we reset microprofile metrics ?
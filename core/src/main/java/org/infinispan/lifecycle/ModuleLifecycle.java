@@ -25,6 +25,13 @@ default void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfigurati
 
     default void cacheManagerStarted(GlobalComponentRegistry gcr) {}
 
+    /**
+     * Invoked when the cache manager is stopping, before its caches are stopped. The caches can still be used.
+     *
+     * @since 12.0
+     */
+    default void cacheManagerStoppingCaches(GlobalComponentRegistry gcr) {}
+
     default void cacheManagerStopping(GlobalComponentRegistry gcr) {}
 
     default void cacheManagerStopped(GlobalComponentRegistry gcr) {}
@@ -814,6 +814,7 @@ private void internalStop() {
       }
 
       try {
+         globalComponentRegistry.notifyCachesStopping();
          stopCaches();
          globalComponentRegistry.getComponent(CacheManagerJmxRegistration.class).stop();
          globalComponentRegistry.stop();
@@ -17,7 +17,14 @@ final class BytesObjectOutput implements ObjectOutput {
    int pos;
 
    BytesObjectOutput(int size, GlobalMarshaller marshaller) {
-      this.bytes = new byte[size];
+      this(new byte[size], marshaller);
+   }
+
+   /**
+    * Writes into the given buffer, replacing it with a larger copy if needed.
+    */
+   BytesObjectOutput(byte[] bytes, GlobalMarshaller marshaller) {
+      this.bytes = bytes;
       this.marshaller = marshaller;
    }
 
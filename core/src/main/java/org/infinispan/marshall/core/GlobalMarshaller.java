@@ -104,6 +104,14 @@ public class GlobalMarshaller implements StreamingMarshaller {
    static final int FLAG_ARRAY_LARGE               = 0xC0;
 
 
+   // The scratch buffers start small and are only kept while they stay below the maximum
+   private static final int SCRATCH_BUFFER_SIZE = 512;
+   private static final int MAX_SCRATCH_BUFFER_SIZE = 64 * 1024;
+   // Reused by the operations whose output is copied or discarded, so the buffer never escapes the call.
+   // Only plain arrays are kept, so a thread never keeps a stopped marshaller alive. The buffer is taken from the
+   // thread while in use, leaving null for a nested invocation from an externalizer.
+   private static final ThreadLocal<byte[]> SCRATCH_BUFFER = ThreadLocal.withInitial(() -> new byte[SCRATCH_BUFFER_SIZE]);
+
    private final MarshallableTypeHints marshallableTypeHints = new MarshallableTypeHints();
 
    @Inject GlobalComponentRegistry gcr;
@@ -161,14 +169,44 @@ public PersistenceMarshaller getPersistenceMarshaller() {
    @Override
    public byte[] objectToByteBuffer(Object obj) throws IOException, InterruptedException {
       try {
-         BytesObjectOutput out = writeObjectOutput(obj);
-         return out.toBytes(); // trim out unused bytes
+         BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj);
+         return writeScratchOutput(obj, sizePredictor.nextSize(obj), sizePredictor, true);
       } catch (java.io.NotSerializableException nse) {
          if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
          throw new NotSerializableException(nse.getMessage(), nse.getCause());
       }
    }
 
+   /**
+    * Marshalls the object into the scratch buffer of the current thread, so that the only allocation is the exact-size
+    * copy of the result. Objects expected to be larger than the scratch buffer, and nested invocations from an
+    * externalizer, are written to a new buffer of {@code estimatedSize} bytes instead.
+    *
+    * @param sizePredictor records the size of the object, may be {@code null}
+    * @return the marshalled bytes, or {@code null} if {@code copy} is {@code false}
+    */
+   private byte[] writeScratchOutput(Object obj, int estimatedSize, BufferSizePredictor sizePredictor, boolean copy)
+         throws IOException {
+      byte[] scratch = estimatedSize > MAX_SCRATCH_BUFFER_SIZE ? null : SCRATCH_BUFFER.get();
+      BytesObjectOutput out;
+      if (scratch == null) {
+         out = writeObjectOutput(obj, estimatedSize);
+      } else {
+         SCRATCH_BUFFER.set(null);
+         out = new BytesObjectOutput(scratch, this);
+         try {
+            writeNullableObject(obj, out);
+         } finally {
+            // Keep the buffer if it grew, unless it is too large to be kept by an idle thread
+            SCRATCH_BUFFER.set(out.bytes.length <= MAX_SCRATCH_BUFFER_SIZE ? out.bytes : scratch);
+         }
+      }
+      if (sizePredictor != null) {
+         sizePredictor.recordSize(out.pos);
+      }
+      return copy ? out.toBytes() : null;
+   }
+
    private BytesObjectOutput writeObjectOutput(Object obj) throws IOException {
       BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj);
       BytesObjectOutput out = writeObjectOutput(obj, sizePredictor.nextSize(obj));
@@ -257,7 +295,9 @@ public boolean isMarshallable(Object o) throws Exception {
          if (isMarshallableCandidate(o)) {
             boolean isMarshallable = true;
             try {
-               objectToBuffer(o);
+               // Only checks that the object can be written
+               BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(o);
+               writeScratchOutput(o, sizePredictor.nextSize(o), sizePredictor, false);
             } catch (Exception e) {
                isMarshallable = false;
                throw e;
@@ -310,8 +350,7 @@ public ByteBuffer objectToBuffer(Object o) throws IOException, InterruptedExcept
    @Override
    public byte[] objectToByteBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
       try {
-         BytesObjectOutput out = writeObjectOutput(obj, estimatedSize);
-         return out.toBytes();
+         return writeScratchOutput(obj, estimatedSize, null, true);
       } catch (java.io.NotSerializableException nse) {
          if (log.isDebugEnabled()) log.debug("Object is not serializable", nse);
          throw new NotSerializableException(nse.getMessage(), nse.getCause());
@@ -6,6 +6,7 @@
 import java.util.Set;
 
 import org.infinispan.commands.control.LockControlCommand;
+import org.infinispan.commands.irac.IracBatchUpdateCommand;
 import org.infinispan.commands.irac.IracCleanupKeyCommand;
 import org.infinispan.commands.irac.IracClearKeysCommand;
 import org.infinispan.commands.irac.IracMetadataRequestCommand;
@@ -121,7 +122,7 @@ public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
             IracPutKeyCommand.class, IracRemoveKeyCommand.class, IracClearKeysCommand.class,
             IracCleanupKeyCommand.class, IracMetadataRequestCommand.class,
             IracRequestStateCommand.class, IracStateResponseCommand.class, IracTouchKeyCommand.class,
-            IracUpdateVersionCommand.class);
+            IracUpdateVersionCommand.class, IracBatchUpdateCommand.class);
       // Only interested in cache specific replicable commands
       coreCommands.addAll(gcr.getModuleProperties().moduleCacheRpcCommands());
       return coreCommands;
@@ -8,6 +8,7 @@
 import java.util.function.Supplier;
 
 import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Histogram;
 import org.eclipse.microprofile.metrics.Metadata;
 import org.eclipse.microprofile.metrics.MetadataBuilder;
 import org.eclipse.microprofile.metrics.Metric;
@@ -16,7 +17,6 @@
 import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.MetricUnits;
 import org.eclipse.microprofile.metrics.Tag;
-import org.eclipse.microprofile.metrics.Timer;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.configuration.global.GlobalMetricsConfiguration;
 import org.infinispan.factories.annotations.Inject;
@@ -153,9 +153,11 @@ public Set<MetricID> registerMetrics(Object instance, MBeanMetadata beanMetadata
                }
             } else {
                if (metricsCfg.histograms()) {
+                  // DataType.HISTOGRAM attributes accept a Histogram, DataType.TIMER attributes a Timer
+                  boolean histogram = Histogram.class.getName().equals(attr.getType());
                   Metadata metadata = new MetadataBuilder()
-                        .withType(MetricType.TIMER)
-                        .withUnit(MetricUnits.NANOSECONDS)
+                        .withType(histogram ? MetricType.HISTOGRAM : MetricType.TIMER)
+                        .withUnit(histogram ? MetricUnits.NONE : MetricUnits.NANOSECONDS)
                         .withName(metricName)
                         .withDisplayName(attr.getName())
                         .withDescription(attr.getDescription())
@@ -164,8 +166,8 @@ public Set<MetricID> registerMetrics(Object instance, MBeanMetadata beanMetadata
                   if (log.isTraceEnabled()) {
                      log.tracef("Registering histogram metric %s", metricId);
                   }
-                  Timer timerMetric = registry.timer(metadata, tags);
-                  setter.accept(timerMetric);
+                  Metric metric = histogram ? registry.histogram(metadata, tags) : registry.timer(metadata, tags);
+                  setter.accept(metric);
                   metricIds.add(metricId);
                }
             }
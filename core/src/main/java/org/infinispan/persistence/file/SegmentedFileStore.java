@@ -0,0 +1,810 @@
+package org.infinispan.persistence.file;
+
+import static org.infinispan.persistence.file.SingleFileStore.KEY_POS_11_0;
+import static org.infinispan.persistence.file.SingleFileStore.MAGIC_11_0;
+import static org.infinispan.util.logging.Log.PERSISTENCE;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.infinispan.commons.configuration.ConfiguredBy;
+import org.infinispan.commons.io.ByteBufferFactory;
+import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.Experimental;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.configuration.cache.SegmentedFileStoreConfiguration;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.persistence.spi.InitializationContext;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.spi.MarshallableEntryFactory;
+import org.infinispan.persistence.spi.NonBlockingStore;
+import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.util.KeyValuePair;
+import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.reactivestreams.Publisher;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * A {@link NonBlockingStore} that keeps all the entries in a single file, using the same file format as
+ * {@link SingleFileStore}, but with one in-memory index and one free space list per cache segment.
+ * <p/>
+ * Writers only serialize with other writers of the same segment, while readers don't acquire any lock: a reader
+ * looks up the file position in the segment index, reads the entry with a positional
+ * {@link FileChannel#read(ByteBuffer, long)} and then checks that the index still maps the key to the same position.
+ * The space used by an entry is only returned to the free list after the entry has been removed from the index,
+ * so a successful check means the bytes could not have been overwritten in the meantime. Otherwise the read is
+ * retried with the current position of the key.
+ * <p/>
+ * Free space is not shared between segments. Adjacent free blocks are merged when the file is opened,
+ * and within a segment when expired entries are purged.
+ * <p/>
+ * Files written by {@link SingleFileStore} before Infinispan 11 must be migrated by starting the cache
+ * with {@link SingleFileStore} once.
+ *
+ * @since 12.0
+ */
+@Experimental
+@ConfiguredBy(SegmentedFileStoreConfiguration.class)
+public class SegmentedFileStore<K, V> implements NonBlockingStore<K, V> {
+   private static final Log log = LogFactory.getLog(SegmentedFileStore.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final byte[] ZERO_INT = {0, 0, 0, 0};
+   private static final int KEYLEN_POS = 4;
+   // bytes required by created and lastUsed timestamps
+   private static final int TIMESTAMP_BYTES = 8 + 8;
+   private static final int SMALLEST_ENTRY_SIZE = 128;
+
+   private SegmentedFileStoreConfiguration configuration;
+   private InitializationContext ctx;
+   private TimeService timeService;
+   private MarshallableEntryFactory<K, V> entryFactory;
+   private KeyPartitioner keyPartitioner;
+   private BlockingManager blockingManager;
+
+   private File file;
+   private FileChannel channel;
+   private Segment<K>[] segments;
+   private final AtomicLong filePos = new AtomicLong(MAGIC_11_0.length);
+   private float fragmentationFactor;
+
+   @Override
+   public CompletionStage<Void> start(InitializationContext ctx) {
+      this.ctx = ctx;
+      this.configuration = ctx.getConfiguration();
+      this.timeService = ctx.getTimeService();
+      this.entryFactory = ctx.getMarshallableEntryFactory();
+      this.keyPartitioner = ctx.getKeyPartitioner();
+      this.blockingManager = ctx.getBlockingManager();
+      this.fragmentationFactor = configuration.fragmentationFactor();
+
+      int numSegments = configuration.segmented() ?
+            ctx.getCache().getCacheConfiguration().clustering().hash().numSegments() : 1;
+      //noinspection unchecked
+      segments = new Segment[numSegments];
+      for (int i = 0; i < numSegments; ++i) {
+         segments[i] = new Segment<>();
+      }
+      return blockingManager.runBlocking(this::blockingStart, "sfs-start");
+   }
+
+   private void blockingStart() {
+      try {
+         file = SingleFileStore.getStoreFile(ctx.getGlobalConfiguration(), configuration.location(), ctx.getCache().getName());
+         if (!file.exists()) {
+            File dir = file.getParentFile();
+            if (!dir.mkdirs() && !dir.exists()) {
+               throw PERSISTENCE.directoryCannotBeCreated(dir.getAbsolutePath());
+            }
+         }
+         channel = new RandomAccessFile(file, "rw").getChannel();
+
+         byte[] header = new byte[MAGIC_11_0.length];
+         if (!configuration.purgeOnStartup() && readFully(ByteBuffer.wrap(header), 0) && Arrays.equals(MAGIC_11_0, header)) {
+            rebuildIndex();
+         } else {
+            // otherwise (unknown file format or no preload) just reset the file
+            resetFile();
+         }
+      } catch (PersistenceException e) {
+         throw e;
+      } catch (Throwable t) {
+         throw new PersistenceException(t);
+      }
+   }
+
+   @Override
+   public CompletionStage<Void> stop() {
+      return blockingManager.runBlocking(() -> {
+         try {
+            if (channel != null) {
+               if (trace) log.tracef("Stopping store %s, file size = %d", ctx.getCache().getName(), channel.size());
+               channel.close();
+               channel = null;
+               filePos.set(MAGIC_11_0.length);
+            }
+         } catch (IOException e) {
+            throw new PersistenceException(e);
+         }
+      }, "sfs-stop");
+   }
+
+   @Override
+   public Set<Characteristic> characteristics() {
+      return EnumSet.of(Characteristic.BULK_READ, Characteristic.SEGMENTABLE, Characteristic.EXPIRATION);
+   }
+
+   @Override
+   public CompletionStage<Boolean> isAvailable() {
+      return blockingManager.supplyBlocking(() -> file.exists(), "sfs-available");
+   }
+
+   private Segment<K> segment(int segment) {
+      // A non segmented store keeps everything in a single index
+      return segments.length == 1 ? segments[0] : segments[segment];
+   }
+
+   /**
+    * Rebuilds the in-memory indexes from file.
+    */
+   private void rebuildIndex() throws Exception {
+      List<FileEntry> freeEntries = new ArrayList<>();
+      long fileLength = channel.size();
+      long pos = MAGIC_11_0.length;
+      ByteBuffer buf = ByteBuffer.allocate(KEY_POS_11_0);
+      for (; ; ) {
+         // read FileEntry fields from file (size, keyLen etc.)
+         buf.clear().limit(KEY_POS_11_0);
+         // stop if end of file is reached
+         if (!readFully(buf, pos)) {
+            if (pos < fileLength) {
+               truncateIncompleteEntry(pos);
+            }
+            break;
+         }
+         buf.flip();
+
+         FileEntry fe = new FileEntry(pos, buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt(), buf.getInt(), buf.getLong());
+         // sanity check
+         if (fe.size < fe.actualSize()) {
+            throw PERSISTENCE.errorReadingFileStore(file.getPath(), pos);
+         }
+         // the last write may have been interrupted, e.g. by a crash
+         if (fe.keyLen > 0 && fe.offset + fe.writtenSize() > fileLength) {
+            truncateIncompleteEntry(pos);
+            break;
+         }
+         pos += fe.size;
+
+         // check if the entry is used or free
+         if (fe.keyLen > 0) {
+            if (buf.capacity() < fe.keyLen)
+               buf = ByteBuffer.allocate(fe.keyLen);
+
+            buf.clear().limit(fe.keyLen);
+            if (!readFully(buf, fe.offset + KEY_POS_11_0))
+               throw PERSISTENCE.errorReadingFileStore(file.getPath(), fe.offset);
+            //noinspection unchecked
+            K key = (K) ctx.getPersistenceMarshaller().objectFromByteBuffer(buf.array(), 0, fe.keyLen);
+            Segment<K> segment = segment(keyPartitioner.getSegment(key));
+            FileEntry previous = segment.index.put(key, fe);
+            if (previous != null) {
+               // Should not happen, but don't leak the space if it does
+               channel.write(ByteBuffer.wrap(ZERO_INT), previous.offset + KEYLEN_POS);
+               freeEntries.add(previous);
+            }
+         } else {
+            freeEntries.add(fe);
+         }
+      }
+      filePos.set(pos);
+      processFreeEntries(freeEntries);
+   }
+
+   private void truncateIncompleteEntry(long pos) throws IOException {
+      PERSISTENCE.truncatingIncompleteFileStoreEntry(pos, file.getPath());
+      channel.truncate(pos);
+   }
+
+   /**
+    * Truncates the free space at the end of the file, merges adjacent free entries and then spreads the remaining
+    * free entries over the segments. Only invoked during startup.
+    */
+   private void processFreeEntries(List<FileEntry> freeEntries) throws IOException {
+      // Work backwards from the end of the file
+      freeEntries.sort(Comparator.comparingLong((FileEntry fe) -> fe.offset).reversed());
+
+      long pos = filePos.get();
+      Iterator<FileEntry> it = freeEntries.iterator();
+      while (it.hasNext()) {
+         FileEntry fe = it.next();
+         if (fe.offset + fe.size != pos)
+            break;
+         pos = fe.offset;
+         it.remove();
+      }
+      if (pos != filePos.get()) {
+         if (trace) log.tracef("Truncating file from %d to %d", filePos.get(), pos);
+         channel.truncate(pos);
+         filePos.set(pos);
+      }
+
+      List<FileEntry> merged = mergeFreeEntries(freeEntries);
+      for (int i = 0; i < merged.size(); ++i) {
+         segments[i % segments.length].freeList.add(merged.get(i));
+      }
+   }
+
+   /**
+    * Coalesces adjacent free entries, which must be sorted by descending offset.
+    */
+   private List<FileEntry> mergeFreeEntries(List<FileEntry> freeEntries) throws IOException {
+      List<FileEntry> merged = new ArrayList<>(freeEntries.size());
+      FileEntry current = null;
+      boolean modified = false;
+      for (FileEntry fe : freeEntries) {
+         if (current != null && current.offset == fe.offset + fe.size) {
+            current = new FileEntry(fe.offset, fe.size + current.size);
+            modified = true;
+         } else {
+            if (current != null) {
+               addMerged(merged, current, modified);
+            }
+            current = fe;
+            modified = false;
+         }
+      }
+      if (current != null) {
+         addMerged(merged, current, modified);
+      }
+      if (trace) log.tracef("Merged %d free entries into %d", freeEntries.size(), merged.size());
+      return merged;
+   }
+
+   private void addMerged(List<FileEntry> merged, FileEntry fe, boolean modified) throws IOException {
+      if (modified) {
+         writeFreeHeader(fe);
+      }
+      merged.add(fe);
+   }
+
+   @Override
+   public CompletionStage<MarshallableEntry<K, V>> load(int segment, Object key) {
+      Segment<K> s = segment(segment);
+      FileEntry fe = s.index.get(key);
+      if (fe == null || fe.isExpired(timeService.wallClockTime())) {
+         return CompletableFutures.completedNull();
+      }
+      return blockingManager.supplyBlocking(() -> read(s, key, fe, true, true), "sfs-load");
+   }
+
+   @Override
+   public CompletionStage<Boolean> containsKey(int segment, Object key) {
+      FileEntry fe = segment(segment).index.get(key);
+      return CompletableFutures.booleanStage(fe != null && !fe.isExpired(timeService.wallClockTime()));
+   }
+
+   /**
+    * Reads the entry without acquiring any lock. If the index doesn't point to the same {@link FileEntry} once the
+    * bytes are read, the space may have been reused by another writer and the read is retried.
+    */
+   private MarshallableEntry<K, V> read(Segment<K> segment, Object key, FileEntry fe, boolean loadValue, boolean loadMetadata) {
+      FileEntry current = fe;
+      while (current != null) {
+         if (current.isExpired(timeService.wallClockTime()))
+            return null;
+
+         byte[] data = new byte[current.keyLen + current.dataLen + (loadMetadata ? current.metadataLen + current.internalMetadataLen : 0)];
+         ByteBuffer buf = ByteBuffer.wrap(data);
+         boolean complete;
+         try {
+            complete = readFully(buf, current.offset + KEY_POS_11_0);
+         } catch (IOException e) {
+            throw new PersistenceException(e);
+         }
+         FileEntry after = segment.index.get(key);
+         if (after == current) {
+            // Only the unused timestamps may be missing at the end of the file, they are left as zeroes
+            if (!complete && buf.position() < Math.min(data.length, current.writtenSize() - KEY_POS_11_0))
+               throw PERSISTENCE.errorReadingFileStore(file.getPath(), current.offset);
+            if (trace) log.tracef("Read entry %s at %d:%d", key, current.offset, current.actualSize());
+            return createEntry(current, data, loadValue, loadMetadata);
+         }
+         if (trace) log.tracef("Entry %s moved while reading it at %d:%d, retrying", key, current.offset, current.size);
+         current = after;
+      }
+      return null;
+   }
+
+   private MarshallableEntry<K, V> createEntry(FileEntry fe, byte[] data, boolean loadValue, boolean loadMetadata) {
+      ByteBufferFactory factory = ctx.getByteBufferFactory();
+      org.infinispan.commons.io.ByteBuffer keyBb = factory.newByteBuffer(data, 0, fe.keyLen);
+      org.infinispan.commons.io.ByteBuffer valueBb = loadValue ? factory.newByteBuffer(data, fe.keyLen, fe.dataLen) : null;
+      if (!loadMetadata) {
+         return entryFactory.create(keyBb, valueBb);
+      }
+
+      long created = -1;
+      long lastUsed = -1;
+      org.infinispan.commons.io.ByteBuffer metadataBb = null;
+      org.infinispan.commons.io.ByteBuffer internalMetadataBb = null;
+      int offset = fe.keyLen + fe.dataLen;
+      if (fe.metadataLen > 0) {
+         int metaLength = fe.metadataLen - TIMESTAMP_BYTES;
+         metadataBb = factory.newByteBuffer(data, offset, metaLength);
+         offset += metaLength;
+
+         if (fe.expiryTime > 0) {
+            ByteBuffer buffer = ByteBuffer.wrap(data, offset, TIMESTAMP_BYTES);
+            offset += TIMESTAMP_BYTES;
+            created = buffer.getLong();
+            lastUsed = buffer.getLong();
+         }
+      }
+      if (fe.internalMetadataLen > 0) {
+         internalMetadataBb = factory.newByteBuffer(data, offset, fe.internalMetadataLen);
+      }
+      return entryFactory.create(keyBb, valueBb, metadataBb, internalMetadataBb, created, lastUsed);
+   }
+
+   @Override
+   public CompletionStage<Void> write(int segment, MarshallableEntry<? extends K, ? extends V> entry) {
+      return blockingManager.runBlocking(() -> blockingWrite(segment(segment), entry), "sfs-write");
+   }
+
+   private void blockingWrite(Segment<K> segment, MarshallableEntry<? extends K, ? extends V> marshalledEntry) {
+      org.infinispan.commons.io.ByteBuffer key = marshalledEntry.getKeyBytes();
+      org.infinispan.commons.io.ByteBuffer data = marshalledEntry.getValueBytes();
+      org.infinispan.commons.io.ByteBuffer metadata = marshalledEntry.getMetadataBytes();
+      org.infinispan.commons.io.ByteBuffer internalMetadata = marshalledEntry.getInternalMetadataBytes();
+
+      int metadataLength = metadata == null ? 0 : metadata.getLength() + TIMESTAMP_BYTES;
+      int internalMetadataLength = internalMetadata == null ? 0 : internalMetadata.getLength();
+      int len = KEY_POS_11_0 + key.getLength() + data.getLength() + metadataLength + internalMetadataLength;
+      long expiryTime = marshalledEntry.expiryTime();
+
+      // Serialize everything but the block size outside of the segment lock
+      ByteBuffer buf = ByteBuffer.allocate(len);
+      new FileEntry(0, len, key.getLength(), data.getLength(), metadataLength, internalMetadataLength, expiryTime).writeToBuf(buf);
+      buf.put(key.getBuf(), key.getOffset(), key.getLength());
+      buf.put(data.getBuf(), data.getOffset(), data.getLength());
+      if (metadata != null) {
+         buf.put(metadata.getBuf(), metadata.getOffset(), metadata.getLength());
+
+         // Only write created & lastUsed if expiryTime is set
+         if (expiryTime > 0) {
+            buf.putLong(marshalledEntry.created());
+            buf.putLong(marshalledEntry.lastUsed());
+         }
+      }
+      if (internalMetadata != null) {
+         buf.put(internalMetadata.getBuf(), internalMetadata.getOffset(), internalMetadata.getLength());
+      }
+      // Write the whole block, including the unused timestamps
+      buf.rewind();
+
+      segment.lock.lock();
+      try {
+         FileEntry allocated = allocate(segment, len);
+         FileEntry newEntry = new FileEntry(allocated.offset, allocated.size, key.getLength(), data.getLength(),
+               metadataLength, internalMetadataLength, expiryTime);
+         buf.putInt(0, newEntry.size);
+         writeFully(buf, newEntry.offset);
+         if (trace) log.tracef("Wrote entry %s:%d at %d:%d", marshalledEntry.getKey(), len, newEntry.offset, newEntry.size);
+
+         // Only free the previous entry once readers can't find it any more
+         FileEntry oldEntry = segment.index.put(marshalledEntry.getKey(), newEntry);
+         free(segment, oldEntry);
+      } catch (IOException e) {
+         throw new PersistenceException(e);
+      } finally {
+         segment.lock.unlock();
+      }
+   }
+
+   /**
+    * Allocates the requested space from the segment free list or at the end of the file.
+    * <p/>
+    * Note: Caller must hold the segment lock.
+    */
+   private FileEntry allocate(Segment<K> segment, int len) throws IOException {
+      FileEntry free = segment.freeList.ceiling(new FileEntry(0, len));
+      if (free != null) {
+         segment.freeList.remove(free);
+         return allocateExistingEntry(segment, free, len);
+      }
+
+      FileEntry fe = new FileEntry(filePos.getAndAdd(len), len);
+      if (trace) log.tracef("New entry allocated at %d:%d, file size is %d", fe.offset, fe.size, fe.offset + len);
+      return fe;
+   }
+
+   private FileEntry allocateExistingEntry(Segment<K> segment, FileEntry free, int len) throws IOException {
+      int remainder = free.size - len;
+      // If the entry is quite bigger than configured threshold, then split it
+      if ((remainder >= SMALLEST_ENTRY_SIZE) && (len <= (free.size * fragmentationFactor))) {
+         FileEntry newFreeEntry = new FileEntry(free.offset + len, remainder);
+         writeFreeHeader(newFreeEntry);
+         segment.freeList.add(newFreeEntry);
+         if (trace) log.tracef("Split entry at %d:%d, allocated %d:%d, free %d:%d", free.offset, free.size,
+               free.offset, len, newFreeEntry.offset, newFreeEntry.size);
+         return new FileEntry(free.offset, len);
+      }
+
+      if (trace) log.tracef("Existing free entry allocated at %d:%d", free.offset, free.size);
+      return free;
+   }
+
+   /**
+    * Writes the header of a free entry, which doesn't hold a key.
+    */
+   private void writeFreeHeader(FileEntry fe) throws IOException {
+      ByteBuffer buf = ByteBuffer.allocate(KEY_POS_11_0);
+      new FileEntry(fe.offset, fe.size).writeToBuf(buf);
+      buf.flip();
+      writeFully(buf, fe.offset);
+   }
+
+   /**
+    * Frees the space of an entry that was already removed from the index.
+    * <p/>
+    * Note: Caller must hold the segment lock.
+    */
+   private void free(Segment<K> segment, FileEntry fe) throws IOException {
+      if (fe != null) {
+         // Invalidate entry on disk (by setting keyLen field to 0)
+         channel.write(ByteBuffer.wrap(ZERO_INT), fe.offset + KEYLEN_POS);
+         if (!segment.freeList.add(new FileEntry(fe.offset, fe.size))) {
+            throw new IllegalStateException(String.format("Trying to free an entry that was not allocated: %s", fe));
+         }
+         if (trace) log.tracef("Deleted entry at %d:%d, there are now %d free entries in the segment",
+               fe.offset, fe.size, segment.freeList.size());
+      }
+   }
+
+   @Override
+   public CompletionStage<Boolean> delete(int segment, Object key) {
+      Segment<K> s = segment(segment);
+      if (!s.index.containsKey(key)) {
+         return CompletableFutures.completedFalse();
+      }
+      return blockingManager.supplyBlocking(() -> {
+         s.lock.lock();
+         try {
+            FileEntry fe = s.index.remove(key);
+            free(s, fe);
+            return fe != null;
+         } catch (IOException e) {
+            throw new PersistenceException(e);
+         } finally {
+            s.lock.unlock();
+         }
+      }, "sfs-delete");
+   }
+
+   @Override
+   public CompletionStage<Void> addSegments(IntSet segments) {
+      // All the segments always have an index
+      return CompletableFutures.completedNull();
+   }
+
+   @Override
+   public CompletionStage<Void> removeSegments(IntSet segmentsToRemove) {
+      if (segments.length == 1) {
+         return CompletableFutures.completedNull();
+      }
+      return blockingManager.runBlocking(() -> {
+         for (PrimitiveIterator.OfInt iter = segmentsToRemove.iterator(); iter.hasNext(); ) {
+            Segment<K> segment = segments[iter.nextInt()];
+            segment.lock.lock();
+            try {
+               for (Iterator<FileEntry> it = segment.index.values().iterator(); it.hasNext(); ) {
+                  FileEntry fe = it.next();
+                  it.remove();
+                  free(segment, fe);
+               }
+            } catch (IOException e) {
+               throw new PersistenceException(e);
+            } finally {
+               segment.lock.unlock();
+            }
+         }
+      }, "sfs-remove-segments");
+   }
+
+   @Override
+   public CompletionStage<Void> clear() {
+      return blockingManager.runBlocking(() -> {
+         // Block all the writers, readers will notice the index changed and give up
+         for (Segment<K> segment : segments) {
+            segment.lock.lock();
+         }
+         try {
+            for (Segment<K> segment : segments) {
+               segment.index.clear();
+               segment.freeList.clear();
+            }
+            resetFile();
+         } catch (IOException e) {
+            throw new PersistenceException(e);
+         } finally {
+            for (Segment<K> segment : segments) {
+               segment.lock.unlock();
+            }
+         }
+      }, "sfs-clear");
+   }
+
+   private void resetFile() throws IOException {
+      if (trace) log.tracef("Truncating file, current size is %d", filePos.get());
+      channel.truncate(0);
+      writeFully(ByteBuffer.wrap(MAGIC_11_0), 0);
+      filePos.set(MAGIC_11_0.length);
+   }
+
+   @Override
+   public CompletionStage<Long> size(IntSet segments) {
+      long now = timeService.wallClockTime();
+      long size = 0;
+      for (Segment<K> segment : segmentsToIterate(segments)) {
+         for (FileEntry fe : segment.index.values()) {
+            if (!fe.isExpired(now)) {
+               size++;
+            }
+         }
+      }
+      return CompletableFuture.completedFuture(size);
+   }
+
+   @Override
+   public CompletionStage<Long> approximateSize(IntSet segments) {
+      long size = 0;
+      for (Segment<K> segment : segmentsToIterate(segments)) {
+         size += segment.index.size();
+      }
+      return CompletableFuture.completedFuture(size);
+   }
+
+   private List<Segment<K>> segmentsToIterate(IntSet segmentSet) {
+      if (segments.length == 1) {
+         // The persistence manager filters the keys of non segmented stores
+         return Arrays.asList(segments);
+      }
+      List<Segment<K>> list = new ArrayList<>(segmentSet.size());
+      for (PrimitiveIterator.OfInt iter = segmentSet.iterator(); iter.hasNext(); ) {
+         list.add(segments[iter.nextInt()]);
+      }
+      return list;
+   }
+
+   @Override
+   public Publisher<K> publishKeys(IntSet segments, Predicate<? super K> filter) {
+      return Flowable.defer(() -> {
+         long now = timeService.wallClockTime();
+         List<K> keys = new ArrayList<>();
+         for (Segment<K> segment : segmentsToIterate(segments)) {
+            for (Map.Entry<K, FileEntry> e : segment.index.entrySet()) {
+               K key = e.getKey();
+               if (!e.getValue().isExpired(now) && (filter == null || filter.test(key))) {
+                  keys.add(key);
+               }
+            }
+         }
+         return Flowable.fromIterable(keys);
+      });
+   }
+
+   @Override
+   public Publisher<MarshallableEntry<K, V>> publishEntries(IntSet segments, Predicate<? super K> filter, boolean includeValues) {
+      return blockingManager.blockingPublisher(Flowable.defer(() -> {
+         long now = timeService.wallClockTime();
+         List<KeyValuePair<K, FileEntry>> keysToLoad = new ArrayList<>();
+         for (Segment<K> segment : segmentsToIterate(segments)) {
+            for (Map.Entry<K, FileEntry> e : segment.index.entrySet()) {
+               K key = e.getKey();
+               if (!e.getValue().isExpired(now) && (filter == null || filter.test(key))) {
+                  keysToLoad.add(new KeyValuePair<>(key, e.getValue()));
+               }
+            }
+         }
+         // Read the entries in file order
+         keysToLoad.sort(Comparator.comparingLong(kvp -> kvp.getValue().offset));
+         return Flowable.fromIterable(keysToLoad)
+               .map(kvp -> {
+                  K key = kvp.getKey();
+                  Segment<K> segment = segment(keyPartitioner.getSegment(key));
+                  MarshallableEntry<K, V> entry = read(segment, key, kvp.getValue(), includeValues, true);
+                  // RxJava doesn't allow nulls
+                  return entry != null ? entry : entryFactory.getEmpty();
+               })
+               .filter(me -> me != entryFactory.getEmpty());
+      }));
+   }
+
+   @Override
+   public Publisher<MarshallableEntry<K, V>> purgeExpired() {
+      return blockingManager.blockingPublisher(Flowable.defer(() -> {
+         long now = timeService.wallClockTime();
+         return Flowable.fromArray(segments)
+               .concatMapIterable(segment -> purgeSegment(segment, now));
+      }));
+   }
+
+   private List<MarshallableEntry<K, V>> purgeSegment(Segment<K> segment, long now) throws IOException {
+      List<MarshallableEntry<K, V>> purged = new ArrayList<>();
+      segment.lock.lock();
+      try {
+         for (Iterator<Map.Entry<K, FileEntry>> it = segment.index.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<K, FileEntry> e = it.next();
+            FileEntry fe = e.getValue();
+            if (fe.isExpired(now)) {
+               it.remove();
+               free(segment, fe);
+               purged.add(entryFactory.create(e.getKey()));
+            }
+         }
+         if (!purged.isEmpty()) {
+            List<FileEntry> freeEntries = new ArrayList<>(segment.freeList);
+            freeEntries.sort(Comparator.comparingLong((FileEntry fe) -> fe.offset).reversed());
+            segment.freeList.clear();
+            segment.freeList.addAll(mergeFreeEntries(freeEntries));
+         }
+      } finally {
+         segment.lock.unlock();
+      }
+      return purged;
+   }
+
+   private boolean readFully(ByteBuffer buf, long position) throws IOException {
+      while (buf.hasRemaining()) {
+         int read = channel.read(buf, position);
+         if (read < 0)
+            return false;
+         position += read;
+      }
+      return true;
+   }
+
+   private void writeFully(ByteBuffer buf, long position) throws IOException {
+      while (buf.hasRemaining()) {
+         position += channel.write(buf, position);
+      }
+   }
+
+   long getFileSize() {
+      return filePos.get();
+   }
+
+   File getFile() {
+      return file;
+   }
+
+   int getFreeEntryCount() {
+      int count = 0;
+      for (Segment<K> segment : segments) {
+         segment.lock.lock();
+         try {
+            count += segment.freeList.size();
+         } finally {
+            segment.lock.unlock();
+         }
+      }
+      return count;
+   }
+
+   /**
+    * The index and the free space of a segment. The index can be read without locking, but all the modifications
+    * must hold {@link #lock}.
+    */
+   private static final class Segment<K> {
+      final ConcurrentMap<K, FileEntry> index = new ConcurrentHashMap<>();
+      final TreeSet<FileEntry> freeList = new TreeSet<>();
+      final ReentrantLock lock = new ReentrantLock();
+   }
+
+   /**
+    * Immutable position and header of an entry in the file, see {@link SingleFileStore} for the format.
+    * Free entries have a {@link #keyLen} of 0.
+    */
+   private static final class FileEntry implements Comparable<FileEntry> {
+      final long offset;
+      final int size;
+      final int keyLen;
+      final int dataLen;
+      final int metadataLen;
+      final int internalMetadataLen;
+      final long expiryTime;
+
+      FileEntry(long offset, int size) {
+         this(offset, size, 0, 0, 0, 0, -1);
+      }
+
+      FileEntry(long offset, int size, int keyLen, int dataLen, int metadataLen, int internalMetadataLen, long expiryTime) {
+         this.offset = offset;
+         this.size = size;
+         this.keyLen = keyLen;
+         this.dataLen = dataLen;
+         this.metadataLen = metadataLen;
+         this.internalMetadataLen = internalMetadataLen;
+         this.expiryTime = expiryTime;
+      }
+
+      boolean isExpired(long now) {
+         return expiryTime > 0 && expiryTime < now;
+      }
+
+      int actualSize() {
+         return KEY_POS_11_0 + keyLen + dataLen + metadataLen + internalMetadataLen;
+      }
+
+      /**
+       * The actual size without the unused timestamps, which {@link SingleFileStore} doesn't write, so the last entry
+       * of the file may end before its actual size.
+       */
+      int writtenSize() {
+         return actualSize() - (metadataLen > 0 && expiryTime <= 0 ? TIMESTAMP_BYTES : 0);
+      }
+
+      void writeToBuf(ByteBuffer buf) {
+         buf.putInt(size);
+         buf.putInt(keyLen);
+         buf.putInt(dataLen);
+         buf.putInt(metadataLen);
+         buf.putInt(internalMetadataLen);
+         buf.putLong(expiryTime);
+      }
+
+      @Override
+      public int compareTo(FileEntry fe) {
+         // The free lists are sorted by size first
+         int diff = Integer.compare(size, fe.size);
+         if (diff != 0) return diff;
+         return Long.compare(offset, fe.offset);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+
+         FileEntry fileEntry = (FileEntry) o;
+         return offset == fileEntry.offset && size == fileEntry.size;
+      }
+
+      @Override
+      public int hashCode() {
+         int result = (int) (offset ^ (offset >>> 32));
+         result = 31 * result + size;
+         return result;
+      }
+
+      @Override
+      public String toString() {
+         return "FileEntry@" + offset + "{size=" + size + ", actual=" + actualSize() + '}';
+      }
+   }
+}
@@ -59,6 +59,8 @@ public class OutboundTransferTask {
 
    private final int chunkSize;
 
+   private final int maxInFlightChunks;
+
    private final KeyPartitioner keyPartitioner;
 
    private final RpcManager rpcManager;
@@ -84,6 +86,16 @@ public OutboundTransferTask(Address destination, IntSet segments, int segmentCou
                                RpcManager rpcManager,
                                CommandsFactory commandsFactory, long timeout, String cacheName,
                                boolean applyState, boolean pushTransfer) {
+      this(destination, segments, segmentCount, chunkSize, 1, topologyId, keyPartitioner, onChunkReplicated,
+           rpcManager, commandsFactory, timeout, cacheName, applyState, pushTransfer);
+   }
+
+   public OutboundTransferTask(Address destination, IntSet segments, int segmentCount, int chunkSize,
+                               int maxInFlightChunks, int topologyId, KeyPartitioner keyPartitioner,
+                               Consumer<Collection<StateChunk>> onChunkReplicated,
+                               RpcManager rpcManager,
+                               CommandsFactory commandsFactory, long timeout, String cacheName,
+                               boolean applyState, boolean pushTransfer) {
       if (segments == null || segments.isEmpty()) {
          throw new IllegalArgumentException("Segments must not be null or empty");
       }
@@ -93,10 +105,14 @@ public OutboundTransferTask(Address destination, IntSet segments, int segmentCou
       if (chunkSize <= 0) {
          throw new IllegalArgumentException("chunkSize must be greater than 0");
       }
+      if (maxInFlightChunks <= 0) {
+         throw new IllegalArgumentException("maxInFlightChunks must be greater than 0");
+      }
       this.onChunkReplicated = onChunkReplicated;
       this.destination = destination;
       this.segments = IntSets.concurrentCopyFrom(segments, segmentCount);
       this.chunkSize = chunkSize;
+      this.maxInFlightChunks = maxInFlightChunks;
       this.topologyId = topologyId;
       this.keyPartitioner = keyPartitioner;
       this.rpcManager = rpcManager;
@@ -135,16 +151,19 @@ public CompletionStage<Void> execute(Flowable<InternalCacheEntry<Object, Object>
             new AtomicReference<>(Collections.emptyList());
          entries.buffer(chunkSize)
                 .takeUntil(batch -> cancelled)
-                .concatMapCompletable(batch -> {
+                // Up to maxInFlightChunks batches are sent before the destination confirms the first one
+                // The last batch is only sent in onComplete, after all the others were confirmed
+                .flatMapCompletable(batch -> {
                    // Send the previous batch, not the current one
                    // This allows us to mark all the segments as finished in the same RPC with the
                    // last batch
                    List<InternalCacheEntry<Object, Object>> previousBatch = batchRef.getAndSet(batch);
-                   if (previousBatch.isEmpty())
+                   // A chunk sent concurrently may have failed and cancelled the task
+                   if (previousBatch.isEmpty() || cancelled)
                       return Completable.complete();
 
                    return Completable.fromCompletionStage(sendEntries(previousBatch, false));
-                }, 1)
+                }, false, maxInFlightChunks)
                 .subscribe(new CompletableObserver() {
                    @Override
                    public void onSubscribe(Disposable d) {
@@ -152,6 +171,11 @@ public void onSubscribe(Disposable d) {
 
                    @Override
                    public void onComplete() {
+                      if (cancelled) {
+                         // Don't mark the segments as finished if a chunk failed or the task was cancelled
+                         taskFuture.complete(null);
+                         return;
+                      }
                       // Send the remaining entries and mark all the segments as finished
                       List<InternalCacheEntry<Object, Object>> previousBatch = batchRef.get();
                       sendEntries(previousBatch, true)
@@ -281,6 +305,7 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", chunkSize=" + chunkSize +
+            ", maxInFlightChunks=" + maxInFlightChunks +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
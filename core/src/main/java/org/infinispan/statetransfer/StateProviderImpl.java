@@ -86,6 +86,7 @@ public class StateProviderImpl implements StateProvider {
 
    protected long timeout;
    protected int chunkSize;
+   protected int maxInFlightChunks;
 
    /**
     * A map that keeps track of current outbound state transfers by destination address. There could be multiple transfers
@@ -129,6 +130,7 @@ public CompletableFuture<Void> onTopologyUpdate(CacheTopology cacheTopology, boo
    public void start() {
       timeout = configuration.clustering().stateTransfer().timeout();
       chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      maxInFlightChunks = configuration.clustering().stateTransfer().maxInFlightChunks();
    }
 
    @Stop(priority = 0)
@@ -284,8 +286,8 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, In
       // the destination node must already have an InboundTransferTask waiting for these segments
       OutboundTransferTask outboundTransfer =
          new OutboundTransferTask(destination, segments, this.configuration.clustering().hash().numSegments(),
-                                  chunkSize, requestTopologyId, keyPartitioner, chunks -> {}, rpcManager,
-                                  commandsFactory, timeout, cacheName, applyState, false);
+                                  chunkSize, maxInFlightChunks, requestTopologyId, keyPartitioner, chunks -> {},
+                                  rpcManager, commandsFactory, timeout, cacheName, applyState, false);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(Flowable.concat(publishDataContainerEntries(segments), publishStoreEntries(segments)))
                       .whenComplete((ignored, throwable) -> {
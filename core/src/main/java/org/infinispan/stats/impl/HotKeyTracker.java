@@ -0,0 +1,304 @@
+package org.infinispan.stats.impl;
+
+import static org.infinispan.util.logging.Log.CONTAINER;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.AbstractNamedCacheComponentFactory;
+import org.infinispan.factories.AutoInstantiableFactory;
+import org.infinispan.factories.annotations.DefaultFactoryFor;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.SurvivesRestarts;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
+import org.infinispan.jmx.JmxStatisticsExposer;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.Parameter;
+
+/**
+ * Tracks the keys of a cache that are read, written or whose lock is contended most often.
+ * <p>
+ * Only one in {@link #getSamplingRate()} accesses is recorded, in a count-min sketch per {@link Kind}. The sketch
+ * estimates the access count of any key using a fixed amount of memory, and may only overestimate it. The keys with the
+ * highest estimates are kept as candidates, and the top keys are picked among them. All the reported counts are
+ * estimates of the real number of accesses, including the accesses that were not sampled.
+ * <p>
+ * The counts are aged: every {@link Sketch#AGING_PERIOD} estimated accesses, all the counters and candidates are
+ * halved, so that the keys that stopped being accessed are eventually replaced by the ones accessed now. The counts are
+ * therefore weighted towards the recent accesses rather than totals since the statistics were reset.
+ * <p>
+ * Unlike the top keys of the {@code extended-statistics} module, the tracker works with any cache mode, and it is
+ * active whenever the statistics of the cache are enabled. Only the accesses originating on this node are recorded,
+ * except for the lock contention, which is recorded on the node acquiring the lock.
+ *
+ * @since 12.0
+ */
+@MBean(objectName = "HotKeys", description = "Estimates the keys of the cache that are accessed most often")
+@Scope(Scopes.NAMED_CACHE)
+public class HotKeyTracker implements JmxStatisticsExposer {
+   public static final int DEFAULT_TOP_KEYS = 10;
+   public static final int DEFAULT_SAMPLING_RATE = 16;
+
+   public enum Kind {
+      READ,
+      WRITE,
+      LOCK_CONTENTION
+   }
+
+   @Inject Configuration configuration;
+
+   private final EnumMap<Kind, Sketch> sketches = new EnumMap<>(Kind.class);
+   private volatile boolean statisticsEnabled;
+   private volatile int samplingRate = DEFAULT_SAMPLING_RATE;
+
+   public HotKeyTracker() {
+      for (Kind kind : Kind.values()) {
+         sketches.put(kind, new Sketch());
+      }
+   }
+
+   @Start
+   public void start() {
+      statisticsEnabled = configuration.statistics().enabled();
+   }
+
+   public void recordRead(Object key) {
+      record(Kind.READ, key);
+   }
+
+   public void recordReads(Collection<?> keys) {
+      for (Object key : keys) {
+         record(Kind.READ, key);
+      }
+   }
+
+   public void recordWrite(Object key) {
+      record(Kind.WRITE, key);
+   }
+
+   public void recordWrites(Collection<?> keys) {
+      for (Object key : keys) {
+         record(Kind.WRITE, key);
+      }
+   }
+
+   public void recordLockContention(Object key) {
+      record(Kind.LOCK_CONTENTION, key);
+   }
+
+   private void record(Kind kind, Object key) {
+      if (!statisticsEnabled) {
+         return;
+      }
+      int rate = samplingRate;
+      if (rate > 1 && ThreadLocalRandom.current().nextInt(rate) != 0) {
+         return;
+      }
+      // Every sampled access stands for all the accesses that were not sampled
+      sketches.get(kind).add(key, rate);
+   }
+
+   /**
+    * @return the {@code n} keys with the highest estimated access count, in storage format, ordered by count
+    */
+   public Map<Object, Long> getTopKeys(Kind kind, int n) {
+      return sketches.get(kind).top(n);
+   }
+
+   @ManagedOperation(description = "Shows the n keys read most often", displayName = "Top read keys")
+   public Map<String, Long> getTopReadKeys(@Parameter(name = "n", description = "the number of keys to return") int n) {
+      return toStringKeys(getTopKeys(Kind.READ, n));
+   }
+
+   @ManagedOperation(description = "Shows the n keys written most often", displayName = "Top written keys")
+   public Map<String, Long> getTopWriteKeys(@Parameter(name = "n", description = "the number of keys to return") int n) {
+      return toStringKeys(getTopKeys(Kind.WRITE, n));
+   }
+
+   @ManagedOperation(description = "Shows the n keys whose lock was contended most often", displayName = "Top contended keys")
+   public Map<String, Long> getTopContendedKeys(@Parameter(name = "n", description = "the number of keys to return") int n) {
+      return toStringKeys(getTopKeys(Kind.LOCK_CONTENTION, n));
+   }
+
+   @ManagedAttribute(description = "One in how many accesses are sampled to find the hot keys",
+         displayName = "Hot key sampling rate", writable = true)
+   public int getSamplingRate() {
+      return samplingRate;
+   }
+
+   public void setSamplingRate(int samplingRate) {
+      if (samplingRate <= 0) {
+         throw new IllegalArgumentException("The sampling rate must be greater than 0");
+      }
+      this.samplingRate = samplingRate;
+   }
+
+   @Override
+   public boolean getStatisticsEnabled() {
+      return statisticsEnabled;
+   }
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", writable = true)
+   @Override
+   public void setStatisticsEnabled(boolean enabled) {
+      statisticsEnabled = enabled;
+   }
+
+   @ManagedOperation(description = "Resets statistics gathered by this component", displayName = "Reset statistics")
+   @Override
+   public void resetStatistics() {
+      for (Sketch sketch : sketches.values()) {
+         sketch.reset();
+      }
+   }
+
+   private static Map<String, Long> toStringKeys(Map<Object, Long> topKeys) {
+      Map<String, Long> map = new LinkedHashMap<>();
+      topKeys.forEach((key, count) -> map.put(String.valueOf(key), count));
+      return map;
+   }
+
+   /**
+    * A count-min sketch, with the keys that have the highest estimates.
+    */
+   static final class Sketch {
+      // The number of estimated accesses after which all the counts are halved
+      static final long AGING_PERIOD = 1 << 16;
+      private static final int DEPTH = 4;
+      private static final int WIDTH = 512;
+      private static final int MAX_CANDIDATES = 64;
+
+      private final ConcurrentHashMap<Object, Long> candidates = new ConcurrentHashMap<>();
+      // The estimated accesses since the counts were last halved
+      private final AtomicLong additions = new AtomicLong();
+      // Allocated on the first access, so caches that are never accessed don't pay for it
+      private volatile AtomicLongArray counters;
+      // A candidate is only replaced by a key with a higher estimate; 0 until there are MAX_CANDIDATES candidates
+      private volatile long threshold;
+
+      void add(Object key, int weight) {
+         AtomicLongArray counters = counters();
+         long hash = key.hashCode() * 0x9E3779B97F4A7C15L;
+         int h1 = (int) (hash >>> 32);
+         int h2 = (int) (hash >>> 16) | 1;
+         long estimate = Long.MAX_VALUE;
+         for (int i = 0; i < DEPTH; i++) {
+            int index = i * WIDTH + ((h1 + i * h2) & (WIDTH - 1));
+            estimate = Math.min(estimate, counters.addAndGet(index, weight));
+         }
+         offer(key, estimate);
+         if (additions.addAndGet(weight) >= AGING_PERIOD) {
+            age(counters);
+         }
+      }
+
+      /**
+       * Halves all the counters and candidates. The counters are halved one by one, so a concurrent access may be
+       * added before or after its counters are halved, which only changes its estimate by half its weight.
+       */
+      private synchronized void age(AtomicLongArray counters) {
+         if (additions.get() < AGING_PERIOD || counters != this.counters) {
+            // Aged by another thread, or reset
+            return;
+         }
+         additions.addAndGet(-AGING_PERIOD);
+         for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+         }
+         candidates.replaceAll((key, count) -> count >>> 1);
+         candidates.values().removeIf(count -> count == 0);
+         threshold = candidates.size() < MAX_CANDIDATES ? 0 : minCandidate().getValue();
+      }
+
+      private void offer(Object key, long estimate) {
+         if (candidates.computeIfPresent(key, (k, count) -> Math.max(count, estimate)) != null) {
+            return;
+         }
+         if (estimate <= threshold) {
+            return;
+         }
+         synchronized (this) {
+            if (candidates.size() < MAX_CANDIDATES || candidates.containsKey(key)) {
+               candidates.merge(key, estimate, Math::max);
+               if (candidates.size() == MAX_CANDIDATES) {
+                  threshold = minCandidate().getValue();
+               }
+               return;
+            }
+            Map.Entry<Object, Long> min = minCandidate();
+            if (estimate > min.getValue()) {
+               candidates.remove(min.getKey());
+               candidates.put(key, estimate);
+               threshold = minCandidate().getValue();
+            }
+         }
+      }
+
+      private Map.Entry<Object, Long> minCandidate() {
+         Map.Entry<Object, Long> min = null;
+         for (Map.Entry<Object, Long> entry : candidates.entrySet()) {
+            if (min == null || entry.getValue() < min.getValue()) {
+               min = entry;
+            }
+         }
+         return min;
+      }
+
+      Map<Object, Long> top(int n) {
+         List<Map.Entry<Object, Long>> entries = new ArrayList<>(candidates.entrySet());
+         entries.sort(Map.Entry.<Object, Long>comparingByValue().reversed());
+         Map<Object, Long> top = new LinkedHashMap<>();
+         for (int i = 0; i < Math.min(n, entries.size()); i++) {
+            top.put(entries.get(i).getKey(), entries.get(i).getValue());
+         }
+         return top;
+      }
+
+      synchronized void reset() {
+         counters = null;
+         candidates.clear();
+         threshold = 0;
+         additions.set(0);
+      }
+
+      private AtomicLongArray counters() {
+         AtomicLongArray counters = this.counters;
+         if (counters == null) {
+            synchronized (this) {
+               counters = this.counters;
+               if (counters == null) {
+                  counters = new AtomicLongArray(DEPTH * WIDTH);
+                  this.counters = counters;
+               }
+            }
+         }
+         return counters;
+      }
+   }
+
+   @DefaultFactoryFor(classes = HotKeyTracker.class)
+   @SurvivesRestarts
+   public static class Factory extends AbstractNamedCacheComponentFactory implements AutoInstantiableFactory {
+      @Override
+      public Object construct(String componentName) {
+         if (componentName.equals(HotKeyTracker.class.getName())) {
+            return new HotKeyTracker();
+         } else {
+            throw CONTAINER.factoryCannotConstructComponent(componentName);
+         }
+      }
+   }
+}
@@ -2079,4 +2079,17 @@ CacheConfigurationException storeConfiguredHasBothReadAndWriteOnly(String storeC
 
    @Message(value = "Cache configuration must not declare indexed entities if it is not indexed", id = 610)
    CacheConfigurationException indexableClassesDefined();
+
+   @Message(value = "The maximum number of state transfer chunks in flight must be positive, got %d", id = 611)
+   CacheConfigurationException invalidMaxInFlightChunks(int maxInFlightChunks);
+
+   @Message(value = "The transcoding cache size must not be negative, got %d", id = 612)
+   CacheConfigurationException invalidTranscodingCacheSize(int size);
+
+   @Message(value = "The cross-site batch delay must not be negative, got %d", id = 613)
+   CacheConfigurationException invalidXSiteBatchDelay(long batchDelay);
+
+   @LogMessage(level = WARN)
+   @Message(value = "The entry at offset %d of file %s is incomplete, truncating the file", id = 614)
+   void truncatingIncompleteFileStoreEntry(long offset, String path);
 }
@@ -1,6 +1,7 @@
 package org.infinispan.xsite.irac;
 
 import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -10,16 +11,23 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.irac.IracCleanupKeyCommand;
+import org.infinispan.commands.irac.IracRemoveKeyCommand;
 import org.infinispan.commands.irac.IracTouchKeyCommand;
+import org.infinispan.commands.irac.IracUpdateKeyCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.IntSet;
 import org.infinispan.commons.util.IntSets;
 import org.infinispan.configuration.cache.Configuration;
@@ -27,12 +35,17 @@
 import org.infinispan.container.versioning.irac.IracVersionGenerator;
 import org.infinispan.context.impl.FlagBitSets;
 import org.infinispan.distribution.DistributionInfo;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.metadata.impl.IracMetadata;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
 import org.infinispan.remoting.rpc.RpcManager;
@@ -68,15 +81,29 @@
  * On topology change, the updated keys list is replicate to the new owner(s). Also, if a segment is being transferred
  * (i.e. the primary owner isn't a write and read owner), no updates to the remote site is sent since, most likely, the
  * node doesn't have the most up-to-date value.
+ * <p>
+ * Updates can be coalesced before sending: after the first update, the sender waits up to the configured {@link
+ * org.infinispan.configuration.cache.SitesConfiguration#batchDelay()}, or until {@link #BATCH_SIZE} keys are pending,
+ * so a key updated several times in the meantime is sent only once, with its latest value. The delay is 0 by default,
+ * so the updates are sent as soon as possible.
+ * <p>
+ * The updates of a round are sent to each remote site in commands with several keys, up to about {@link
+ * #MAX_BATCH_BYTES} each. A command is sent earlier, when it is not full, if the next update must be read from a cache
+ * loader, so the updates already read don't wait for it.
  *
  * @author Pedro Ruivo
  * @since 11.0
  */
 @Scope(Scopes.NAMED_CACHE)
+@MBean(objectName = "AsyncXSiteReplication", description = "Asynchronous cross-site replication statistics")
 public class DefaultIracManager implements IracManager, Runnable {
 
    private static final Log log = LogFactory.getLog(DefaultIracManager.class);
    private static final boolean trace = log.isTraceEnabled();
+   static final int BATCH_SIZE = 1024;
+   static final int MAX_BATCH_BYTES = 1024 * 1024;
+   // the metadata and the IRAC version sent with each key, roughly
+   private static final int KEY_UPDATE_OVERHEAD = 64;
 
    @Inject RpcManager rpcManager;
    @Inject Configuration config;
@@ -84,6 +111,9 @@ public class DefaultIracManager implements IracManager, Runnable {
    @Inject ClusteringDependentLogic clusteringDependentLogic;
    @Inject CommandsFactory commandsFactory;
    @Inject IracVersionGenerator iracVersionGenerator;
+   @Inject TimeService timeService;
+   @Inject @ComponentName(KnownComponentNames.INTERNAL_MARSHALLER)
+   Marshaller marshaller;
 
    private final Map<Object, Object> updatedKeys;
    private final Semaphore senderNotifier;
@@ -92,11 +122,18 @@ public class DefaultIracManager implements IracManager, Runnable {
    private volatile Collection<XSiteBackup> asyncBackups;
    private volatile Thread sender;
    private volatile boolean running;
+   private volatile long batchDelayNanos;
+   private volatile int maxBatchBytes;
+   // time when the oldest update not picked by a round was tracked, 0 if none
+   private final AtomicLong pendingSince;
+   private volatile long replicationLag;
 
    public DefaultIracManager() {
       this.updatedKeys = new ConcurrentHashMap<>();
       this.senderNotifier = new Semaphore(0);
       this.backOff = new ExponentialBackOffImpl();
+      this.pendingSince = new AtomicLong();
+      this.maxBatchBytes = MAX_BATCH_BYTES;
    }
 
    private static Collection<XSiteBackup> asyncBackups(Configuration config, String localSiteName) {
@@ -124,6 +161,7 @@ public void start() {
       transport.checkCrossSiteAvailable();
       String localSiteName = transport.localSiteName();
       asyncBackups = asyncBackups(config, localSiteName);
+      batchDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.sites().batchDelay());
       if (trace) {
          String b = asyncBackups.stream().map(XSiteBackup::getSiteName).collect(Collectors.joining(", "));
          log.tracef("Async remote sites found: %s", b);
@@ -158,7 +196,7 @@ public void trackUpdatedKey(Object key, Object lockOwner) {
          log.tracef("Tracking key for %s: %s", lockOwner, key);
       }
       updatedKeys.put(key, lockOwner);
-      senderNotifier.release();
+      notifySender();
    }
 
    @Override
@@ -170,7 +208,7 @@ public <K> void trackUpdatedKeys(Collection<K> keys, Object lockOwner) {
          return;
       }
       keys.forEach(key -> updatedKeys.put(key, lockOwner));
-      senderNotifier.release();
+      notifySender();
    }
 
    @Override
@@ -181,7 +219,7 @@ public void trackKeysFromTransaction(Stream<WriteCommand> modifications, GlobalT
          }
          updatedKeys.put(key, lockOwner);
       });
-      senderNotifier.release();
+      notifySender();
    }
 
    @Override
@@ -191,7 +229,7 @@ public void trackClear() {
       }
       hasClear = true;
       updatedKeys.clear();
-      senderNotifier.release();
+      notifySender();
    }
 
    @Override
@@ -246,7 +284,7 @@ public void requestState(Address origin, IntSet segments) {
    public void receiveState(Object key, Object lockOwner, IracMetadata tombstone) {
       iracVersionGenerator.storeTombstoneIfAbsent(key, tombstone);
       updatedKeys.putIfAbsent(key, lockOwner);
-      senderNotifier.release();
+      notifySender();
    }
 
    @Override
@@ -312,8 +350,15 @@ public void run() {
       try {
          while (running) {
             senderNotifier.acquire();
+            awaitBatch();
             senderNotifier.drainPermits();
-            periodicSend();
+            long since = pendingSince.getAndSet(0);
+            if (periodicSend() && since != 0) {
+               replicationLag = timeService.timeDuration(since, TimeUnit.MILLISECONDS);
+            } else if (since != 0) {
+               // not replicated, the lag keeps counting from the oldest update
+               pendingSince.accumulateAndGet(since, (current, s) -> current == 0 ? s : Math.min(current, s));
+            }
          }
       } catch (InterruptedException e) {
          Thread.currentThread().interrupt();
@@ -324,10 +369,70 @@ public void setBackOff(ExponentialBackOff backOff) {
       this.backOff = Objects.requireNonNull(backOff);
    }
 
+   /**
+    * Sets how long the sender waits for more updates before sending them. Zero sends them immediately.
+    * <p>
+    * Overrides {@link org.infinispan.configuration.cache.SitesConfiguration#batchDelay()} until the next start.
+    */
+   //public for testing purposes
+   public void setBatchDelay(long delay, TimeUnit unit) {
+      if (delay < 0) {
+         throw new IllegalArgumentException("Batch delay must not be negative");
+      }
+      this.batchDelayNanos = unit.toNanos(delay);
+   }
+
+   /**
+    * Sets the approximate size of the commands sending several updates to a remote site.
+    */
+   //public for testing purposes
+   public void setMaxBatchBytes(int maxBatchBytes) {
+      if (maxBatchBytes <= 0) {
+         throw new IllegalArgumentException("Max batch bytes must be positive");
+      }
+      this.maxBatchBytes = maxBatchBytes;
+   }
+
    public boolean isEmpty() {
       return updatedKeys.isEmpty();
    }
 
+   @ManagedAttribute(description = "The number of updated keys waiting to be sent to the remote sites",
+         displayName = "Pending keys")
+   public int getPendingKeys() {
+      return updatedKeys.size();
+   }
+
+   @ManagedAttribute(description = "The time between the oldest update sent in the last successful round and the end of the round",
+         displayName = "Replication lag", units = Units.MILLISECONDS)
+   public long getReplicationLag() {
+      return replicationLag;
+   }
+
+   private void notifySender() {
+      // only the first update after a round reads the clock
+      if (pendingSince.get() == 0) {
+         pendingSince.compareAndSet(0, timeService.time());
+      }
+      senderNotifier.release();
+   }
+
+   /**
+    * Waits up to the batch delay for more updates, unless a batch is already pending.
+    */
+   private void awaitBatch() throws InterruptedException {
+      long delay = batchDelayNanos;
+      if (delay <= 0) {
+         return;
+      }
+      long deadline = System.nanoTime() + delay;
+      long remaining = delay;
+      while (remaining > 0 && !hasClear && updatedKeys.size() < BATCH_SIZE) {
+         senderNotifier.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+         remaining = deadline - System.nanoTime();
+      }
+   }
+
    private void sendStateRequest(Address primary, IntSet segments) {
       CacheRpcCommand cmd = commandsFactory.buildIracRequestStateCommand(segments);
       rpcManager.sendTo(primary, cmd, DeliverOrder.NONE);
@@ -353,7 +458,10 @@ private ResponseResult awaitResponses(CompletionStage<Void> reply) throws Interr
       }
    }
 
-   private void periodicSend() throws InterruptedException {
+   /**
+    * @return {@code true} if all the updates of this round were replicated.
+    */
+   private boolean periodicSend() throws InterruptedException {
       if (trace) {
          log.tracef("[IRAC] Sending keys to remote site(s). Has clear? %s, keys: %s", hasClear, updatedKeys.keySet());
       }
@@ -364,11 +472,11 @@ private void periodicSend() throws InterruptedException {
             case REMOTE_EXCEPTION:
                //an exception occurred. we need to retry
                backOff.reset();
-               return;
+               return false;
             case NETWORK_EXCEPTION:
                //network exception. backoff to avoid overloading the receiving site
                backOff.backoffSleep();
-               return;
+               return false;
             case OK:
                //everything cleared from remote site. continue with the new updates
                hasClear = false;
@@ -379,13 +487,14 @@ private void periodicSend() throws InterruptedException {
       try {
          SendKeyTask task = new SendKeyTask();
          updatedKeys.forEach(task);
-         task.await();
+         return task.await();
       } catch (InterruptedException e) {
          Thread.currentThread().interrupt();
          throw e;
       } catch (Throwable t) {
          //it should never happen. SendKeyTask must handle all exceptions!
          log.unexpectedErrorFromIrac(t);
+         return false;
       }
    }
 
@@ -436,7 +545,7 @@ private CompletionStage<Void> sendCommandToAllBackups(XSiteReplicateCommand<Void
       return collector.freeze();
    }
 
-   private XSiteReplicateCommand<Void> buildRemoveCommand(CleanupTask cleanupTask) {
+   private IracRemoveKeyCommand buildRemoveCommand(CleanupTask cleanupTask) {
       Object key = cleanupTask.key;
       IracMetadata metadata = iracVersionGenerator.getTombstone(key);
       if (metadata == null) {
@@ -450,15 +559,36 @@ private CompletionStage<InternalCacheEntry<Object, Object>> fetchEntry(Object ke
       return clusteringDependentLogic.getEntryLoader().loadAndStoreInDataContainer(key, segmentId);
    }
 
+   private KeyUpdate putUpdate(InternalCacheEntry<Object, Object> entry, CleanupTask cleanupTask) {
+      int size = estimateSize(entry.getKey()) + estimateSize(entry.getValue()) + KEY_UPDATE_OVERHEAD;
+      return new KeyUpdate(commandsFactory.buildIracPutKeyCommand(entry), size, cleanupTask);
+   }
+
+   private KeyUpdate removeUpdate(CleanupTask cleanupTask) {
+      int size = estimateSize(cleanupTask.key) + KEY_UPDATE_OVERHEAD;
+      return new KeyUpdate(buildRemoveCommand(cleanupTask), size, cleanupTask);
+   }
+
+   private int estimateSize(Object o) {
+      if (o instanceof WrappedBytes) {
+         return ((WrappedBytes) o).getLength();
+      } else if (o instanceof byte[]) {
+         return ((byte[]) o).length;
+      }
+      return marshaller.getBufferSizePredictor(o).nextSize(o);
+   }
+
    /**
     * A round of updates to send to the remote site.
     */
    private class SendKeyTask implements BiConsumer<Object, Object> {
 
+      private final List<CompletionStage<KeyUpdate>> updates;
       private final List<CompletionStage<Void>> responses;
       private final List<CleanupTask> cleanupTasks;
 
       private SendKeyTask() {
+         updates = new ArrayList<>();
          responses = new LinkedList<>();
          cleanupTasks = new LinkedList<>();
       }
@@ -481,31 +611,121 @@ public void accept(Object key, Object lockOwner) {
 
          CleanupTask cleanupTask = new CleanupTask(key, dInfo.segmentId(), lockOwner);
 
-         CompletionStage<Void> rsp = fetchEntry(key, dInfo.segmentId())
+         updates.add(fetchEntry(key, dInfo.segmentId())
                .thenApply(lEntry -> lEntry == null ?
-                     buildRemoveCommand(cleanupTask) :
-                     commandsFactory.buildIracPutKeyCommand(lEntry))
-               .thenCompose(DefaultIracManager.this::sendCommandToAllBackups)
-               .thenRun(cleanupTask);
-         responses.add(rsp);
+                     removeUpdate(cleanupTask) :
+                     putUpdate(lEntry, cleanupTask)));
       }
 
-      void await() throws InterruptedException {
+      boolean await() throws InterruptedException {
          //cleanup everything not needed
          cleanupTasks.forEach(CleanupTask::run);
 
          boolean needsBackoff = false;
+         boolean replicated = sendBatches();
          //wait for replies
          for (CompletionStage<Void> rsp : responses) {
-            if (awaitResponses(rsp) == ResponseResult.NETWORK_EXCEPTION) {
+            ResponseResult result = awaitResponses(rsp);
+            if (result == ResponseResult.NETWORK_EXCEPTION) {
                needsBackoff = true;
             }
+            replicated &= result == ResponseResult.OK;
          }
          if (needsBackoff) {
             backOff.backoffSleep();
          } else {
             backOff.reset();
          }
+         return replicated;
+      }
+
+      /**
+       * @return {@code false} if some entries could not be read, they are sent in the next round.
+       */
+      private boolean sendBatches() throws InterruptedException {
+         boolean allRead = true;
+         int maxBytes = maxBatchBytes;
+         Batch batch = new Batch();
+         for (CompletionStage<KeyUpdate> stage : updates) {
+            if (!batch.isEmpty() && !stage.toCompletableFuture().isDone()) {
+               //the entry is loaded from a store, don't hold the updates already read
+               batch = sendBatch(batch);
+            }
+            KeyUpdate update;
+            try {
+               update = stage.toCompletableFuture().get();
+            } catch (ExecutionException e) {
+               if (trace) {
+                  log.trace("Unable to read entry for IRAC update.", e);
+               }
+               //retry in the next round
+               senderNotifier.release();
+               allRead = false;
+               continue;
+            }
+            if (update.command == null) {
+               //removed and without tombstone, nothing to send
+               update.cleanupTask.run();
+               continue;
+            }
+            batch.add(update);
+            if (batch.bytes >= maxBytes) {
+               batch = sendBatch(batch);
+            }
+         }
+         if (!batch.isEmpty()) {
+            sendBatch(batch);
+         }
+         return allRead;
+      }
+
+      private Batch sendBatch(Batch batch) {
+         responses.add(batch.send());
+         return new Batch();
+      }
+   }
+
+   /**
+    * The updates sent to the remote sites in a single command.
+    */
+   private class Batch {
+
+      final List<IracUpdateKeyCommand> commands = new ArrayList<>();
+      final List<CleanupTask> cleanupTasks = new ArrayList<>();
+      int bytes;
+
+      void add(KeyUpdate update) {
+         commands.add(update.command);
+         cleanupTasks.add(update.cleanupTask);
+         bytes += update.estimatedSize;
+      }
+
+      boolean isEmpty() {
+         return commands.isEmpty();
+      }
+
+      CompletionStage<Void> send() {
+         XSiteReplicateCommand<Void> command = commands.size() == 1 ?
+               commands.get(0) :
+               commandsFactory.buildIracBatchUpdateCommand(commands);
+         return sendCommandToAllBackups(command)
+               .thenRun(() -> cleanupTasks.forEach(CleanupTask::run));
+      }
+   }
+
+   /**
+    * The update of a key and its estimated size.
+    */
+   private static class KeyUpdate {
+
+      final IracUpdateKeyCommand command;
+      final int estimatedSize;
+      final CleanupTask cleanupTask;
+
+      private KeyUpdate(IracUpdateKeyCommand command, int estimatedSize, CleanupTask cleanupTask) {
+         this.command = command;
+         this.estimatedSize = estimatedSize;
+         this.cleanupTask = cleanupTask;
       }
    }
 
@@ -35,6 +35,7 @@
 import org.infinispan.configuration.cache.EncodingConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.MemoryConfiguration;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
 import org.infinispan.configuration.cache.PartitionHandlingConfiguration;
 import org.infinispan.configuration.cache.PersistenceConfiguration;
 import org.infinispan.configuration.cache.SingleFileStoreConfiguration;
@@ -123,6 +124,16 @@ public void check(ConfigurationBuilderHolder holder, int schemaMajor, int schema
             TransportConfiguration tc = getGlobalConfiguration(holder).transport();
             assertTrue(tc.properties().size() >= 1);
             assertEquals("value", tc.properties().getProperty("key"));
+
+            Configuration offHeapEviction = getConfiguration(holder, "off_heap_eviction");
+            assertEquals(OffHeapAllocatorType.POOLED, offHeapEviction.memory().allocator());
+
+            Configuration heapBinary = getConfiguration(holder, "heap_binary");
+            assertEquals(1000, heapBinary.encoding().transcodingCacheSize());
+
+            Configuration dist = getConfiguration(holder, "dist");
+            assertEquals(4, dist.clustering().stateTransfer().maxInFlightChunks());
+            assertEquals(5, dist.sites().batchDelay());
          }
       },
       INFINISPAN_110(11, 0) {
@@ -0,0 +1,139 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.impl.InternalEntryFactoryImpl;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the optimistic reads of {@link OffHeapConcurrentMap} while writers replace and remove the entries being read
+ * and resize the map.
+ *
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapOptimisticReadTest")
+public class OffHeapOptimisticReadTest extends AbstractInfinispanTest {
+   private static final int KEY_COUNT = 2_000;
+   private static final int WRITERS = 2;
+   private static final int READERS = 4;
+
+   private PooledOffHeapMemoryAllocator allocator;
+   private OffHeapConcurrentMap map;
+
+   @BeforeMethod
+   void initializeMap() {
+      allocator = new PooledOffHeapMemoryAllocator();
+      OffHeapEntryFactoryImpl offHeapEntryFactory = new OffHeapEntryFactoryImpl();
+      offHeapEntryFactory.allocator = allocator;
+      offHeapEntryFactory.internalEntryFactory = new InternalEntryFactoryImpl();
+      offHeapEntryFactory.configuration = new ConfigurationBuilder().build();
+      offHeapEntryFactory.start();
+
+      map = new OffHeapConcurrentMap(allocator, offHeapEntryFactory, null);
+   }
+
+   @AfterMethod
+   void afterMethod() {
+      if (map != null) {
+         map.close();
+      }
+      allocator.stop();
+   }
+
+   public void testReadsDuringWrites() throws Exception {
+      readsDuringWrites(false);
+   }
+
+   public void testReadsDuringWritesOfLargeEntries() throws Exception {
+      // Large entries are freed as soon as they are removed, so they must be read with the lock
+      readsDuringWrites(true);
+   }
+
+   private void readsDuringWrites(boolean largeEntries) throws Exception {
+      AtomicBoolean running = new AtomicBoolean(true);
+      List<Future<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < WRITERS; i++) {
+         futures.add(fork(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long writes = 0;
+            while (running.get()) {
+               int key = random.nextInt(KEY_COUNT);
+               if (random.nextInt(4) == 0) {
+                  map.remove(key(key));
+               } else {
+                  // Different sizes, so that chunks of other size classes are reused
+                  int length = largeEntries && random.nextInt(8) == 0 ?
+                        PooledOffHeapMemoryAllocator.MAX_POOLED_SIZE + random.nextInt(20_000) : 1 + random.nextInt(600);
+                  WrappedBytes value = value(key, length);
+                  map.put(key(key), new ImmortalCacheEntry(key(key), value));
+               }
+               writes++;
+            }
+            return writes;
+         }));
+      }
+      for (int i = 0; i < READERS; i++) {
+         futures.add(fork(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long reads = 0;
+            while (running.get()) {
+               int key = random.nextInt(KEY_COUNT);
+               InternalCacheEntry<WrappedBytes, WrappedBytes> ice = random.nextBoolean() ? map.get(key(key)) : map.peek(key(key));
+               if (ice != null) {
+                  assertEquals(key(key), ice.getKey());
+                  assertValue(key, ice.getValue());
+               }
+               reads++;
+            }
+            return reads;
+         }));
+      }
+
+      Thread.sleep(TimeUnit.SECONDS.toMillis(2));
+      running.set(false);
+      for (Future<Long> future : futures) {
+         assertNotNull(future.get(10, TimeUnit.SECONDS));
+      }
+
+      for (int i = 0; i < KEY_COUNT; i++) {
+         InternalCacheEntry<WrappedBytes, WrappedBytes> ice = map.get(key(i));
+         if (ice != null) {
+            assertValue(i, ice.getValue());
+         }
+      }
+   }
+
+   private static WrappedBytes key(int key) {
+      return new WrappedByteArray(new byte[]{(byte) (key >> 24), (byte) (key >> 16), (byte) (key >> 8), (byte) key});
+   }
+
+   private static WrappedBytes value(int key, int length) {
+      byte[] bytes = new byte[length];
+      for (int i = 0; i < length; i++) {
+         bytes[i] = (byte) (key + i);
+      }
+      return new WrappedByteArray(bytes);
+   }
+
+   private static void assertValue(int key, WrappedBytes value) {
+      for (int i = 0; i < value.getLength(); i++) {
+         assertEquals((byte) (key + i), value.getByte(i));
+      }
+   }
+}
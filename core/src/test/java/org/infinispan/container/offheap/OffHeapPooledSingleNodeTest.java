@@ -0,0 +1,49 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the off-heap single node tests with the {@link PooledOffHeapMemoryAllocator}.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapPooledSingleNodeTest")
+public class OffHeapPooledSingleNodeTest extends OffHeapSingleNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, false);
+      dcc.memory().storage(StorageType.OFF_HEAP).allocator(OffHeapAllocatorType.POOLED);
+      // Only start up the 1 cache
+      addClusterEnabledCacheManager(dcc);
+
+      configureTimeService();
+   }
+
+   public void testPooledAllocatorIsUsed() {
+      Cache<String, String> cache = cache(0);
+      OffHeapMemoryAllocator allocator = TestingUtil.extractComponent(cache, OffHeapMemoryAllocator.class);
+      assertEquals(PooledOffHeapMemoryAllocator.class, allocator.getClass());
+
+      long before = allocator.getAllocatedAmount();
+      for (int i = 0; i < 1_000; ++i) {
+         cache.put("pooled-key" + i, "value" + i);
+      }
+      long peak = allocator.getAllocatedAmount();
+      assertTrue(peak > before);
+      assertTrue(((PooledOffHeapMemoryAllocator) allocator).getSlabCount() > 0);
+
+      for (int i = 0; i < 1_000; ++i) {
+         assertEquals("value" + i, cache.remove("pooled-key" + i));
+      }
+      // The bucket table may have grown, but the entries must have been returned to the pool
+      assertTrue(allocator.getAllocatedAmount() < peak);
+   }
+}
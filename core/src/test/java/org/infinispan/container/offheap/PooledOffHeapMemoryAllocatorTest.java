@@ -0,0 +1,151 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import sun.misc.Unsafe;
+
+/**
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "container.offheap.PooledOffHeapMemoryAllocatorTest")
+public class PooledOffHeapMemoryAllocatorTest extends AbstractInfinispanTest {
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+
+   @DataProvider(name = "sizeClasses")
+   Object[][] sizeClasses() {
+      return new Object[][] {
+            { 1, 16 },
+            { 16, 16 },
+            { 17, 32 },
+            { 500, 512 },
+            { 513, 640 },
+            { 1000, 1024 },
+            { 1025, 1280 },
+            { 16384, 16384 },
+            { 16385, 20480 },
+            { 100_000, 114_688 },
+            { 1L << 30, 1L << 30 },
+      };
+   }
+
+   @Test(dataProvider = "sizeClasses")
+   public void testSizeClasses(long size, long expected) {
+      assertEquals(expected, PooledOffHeapMemoryAllocator.classSize(PooledOffHeapMemoryAllocator.sizeClass(size)));
+   }
+
+   public void testLargeAllocationsAreReleased() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator();
+      try {
+         assertTrue(allocator.retainsDeallocatedMemory());
+         long pooled = allocator.allocate(100);
+         long size = 1 << 20;
+         long address = allocator.allocate(size);
+         UNSAFE.setMemory(address, size, (byte) 1);
+         assertEquals(1, allocator.getSlabCount());
+         assertEquals(112 + size, allocator.getAllocatedAmount());
+         long reserved = allocator.getReservedAmount();
+         assertTrue(allocator.retainsDeallocatedMemory(pooled));
+         assertFalse(allocator.retainsDeallocatedMemory(address));
+
+         // The large allocation is returned to the operating system right away
+         allocator.deallocate(address, size);
+         assertEquals(112, allocator.getAllocatedAmount());
+         assertEquals(reserved - size, allocator.getReservedAmount());
+         assertEquals(1, allocator.getSlabCount());
+
+         // Live large allocations are released when the allocator stops
+         allocator.allocate(size);
+         assertEquals(reserved, allocator.getReservedAmount());
+      } finally {
+         allocator.stop();
+      }
+      assertFalse(allocator.retainsDeallocatedMemory());
+      assertEquals(0, allocator.getReservedAmount());
+   }
+
+   public void testFreedChunksAreReused() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator();
+      try {
+         List<Long> addresses = new ArrayList<>();
+         for (int i = 0; i < 1000; i++) {
+            long address = allocator.allocate(100);
+            UNSAFE.putLong(address, i);
+            addresses.add(address);
+         }
+         assertEquals(1000 * 112, allocator.getAllocatedAmount());
+         assertEquals(new HashSet<>(addresses).size(), addresses.size());
+         for (int i = 0; i < addresses.size(); i++) {
+            assertEquals(i, UNSAFE.getLong(addresses.get(i)));
+         }
+         int slabs = allocator.getSlabCount();
+         long reserved = allocator.getReservedAmount();
+
+         for (long address : addresses) {
+            allocator.deallocate(address, 100);
+         }
+         assertEquals(0, allocator.getAllocatedAmount());
+         for (int i = 0; i < 1000; i++) {
+            allocator.allocate(100);
+         }
+         assertEquals(slabs, allocator.getSlabCount());
+         assertEquals(reserved, allocator.getReservedAmount());
+      } finally {
+         allocator.stop();
+      }
+      assertEquals(0, allocator.getSlabCount());
+      assertEquals(0, allocator.getReservedAmount());
+   }
+
+   public void testConcurrentAllocations() throws Exception {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator();
+      try {
+         List<Future<Set<Long>>> futures = new ArrayList<>();
+         for (int t = 0; t < 4; t++) {
+            futures.add(fork(() -> {
+               ThreadLocalRandom random = ThreadLocalRandom.current();
+               Set<Long> owned = new HashSet<>();
+               List<long[]> live = new ArrayList<>();
+               for (int i = 0; i < 20_000; i++) {
+                  if (!live.isEmpty() && random.nextBoolean()) {
+                     long[] allocation = live.remove(live.size() - 1);
+                     assertEquals(allocation[0], UNSAFE.getLong(allocation[0] + allocation[1] - 8));
+                     owned.remove(allocation[0]);
+                     allocator.deallocate(allocation[0], allocation[1]);
+                  } else {
+                     long size = 8 + random.nextInt(2048);
+                     long address = allocator.allocate(size);
+                     UNSAFE.putLong(address + size - 8, address);
+                     assertTrue(owned.add(address));
+                     live.add(new long[]{address, size});
+                  }
+               }
+               return owned;
+            }));
+         }
+         Set<Long> all = new HashSet<>();
+         int total = 0;
+         for (Future<Set<Long>> future : futures) {
+            Set<Long> owned = future.get();
+            total += owned.size();
+            all.addAll(owned);
+         }
+         // No chunk may be handed out twice
+         assertEquals(total, all.size());
+      } finally {
+         allocator.stop();
+      }
+   }
+}
@@ -0,0 +1,135 @@
+package org.infinispan.encoding.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.infinispan.test.TestingUtil.extractComponent;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Map;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the values read as JSON from a cache stored as protostream are only transcoded once per write.
+ *
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "encoding.impl.TranscodedValueCacheTest")
+public class TranscodedValueCacheTest extends SingleCacheManagerTest {
+
+   private AdvancedCache<Object, Object> jsonCache;
+   private TranscodedValueCache transcodedValueCache;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.statistics().enable();
+      builder.encoding().mediaType(MediaType.APPLICATION_PROTOSTREAM_TYPE).transcodingCacheSize(100);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   @BeforeMethod
+   public void resetStatistics() {
+      jsonCache = cache.getAdvancedCache().withMediaType(MediaType.APPLICATION_OBJECT, MediaType.APPLICATION_JSON);
+      transcodedValueCache = extractComponent(cache, TranscodedValueCache.class);
+      transcodedValueCache.resetStatistics();
+   }
+
+   public void testRepeatedReads() {
+      cache.put("k", "v");
+      byte[] first = (byte[]) jsonCache.get("k");
+      byte[] second = (byte[]) jsonCache.get("k");
+      assertJson("v", first);
+      assertJson("v", second);
+      // The cached array is never handed out, so callers can't modify it
+      assertNotSame(first, second);
+      assertEquals(1, transcodedValueCache.getMisses());
+      assertEquals(1, transcodedValueCache.getHits());
+      assertEquals(0.5, transcodedValueCache.getHitRatio(), 0.0);
+
+      assertJson("v", (byte[]) jsonCache.getCacheEntry("k").getValue());
+      assertJson("v", (byte[]) jsonCache.getAsync("k").join());
+      Map<Object, Object> all = jsonCache.getAll(TestingUtil.setOf("k"));
+      assertJson("v", (byte[]) all.get("k"));
+      assertEquals(1, transcodedValueCache.getMisses());
+      assertEquals(4, transcodedValueCache.getHits());
+   }
+
+   public void testWriteInvalidates() {
+      cache.put("k", "v1");
+      assertJson("v1", (byte[]) jsonCache.get("k"));
+      cache.put("k", "v2");
+      assertJson("v2", (byte[]) jsonCache.get("k"));
+      jsonCache.put("k", "{\"_type\":\"string\",\"_value\":\"v3\"}");
+      assertJson("v3", (byte[]) jsonCache.get("k"));
+      assertEquals(3, transcodedValueCache.getMisses());
+      assertEquals(0, transcodedValueCache.getHits());
+   }
+
+   public void testDisabledByDefault() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.statistics().enable();
+      builder.encoding().mediaType(MediaType.APPLICATION_PROTOSTREAM_TYPE);
+      cacheManager.defineConfiguration("uncached", builder.build());
+      Cache<Object, Object> uncached = cacheManager.getCache("uncached");
+      TranscodedValueCache component = extractComponent(uncached, TranscodedValueCache.class);
+      assertFalse(component.isEnabled());
+      assertTrue(transcodedValueCache.isEnabled());
+
+      uncached.put("k", "v");
+      AdvancedCache<Object, Object> json = uncached.getAdvancedCache().withMediaType(MediaType.APPLICATION_OBJECT, MediaType.APPLICATION_JSON);
+      assertJson("v", (byte[]) json.get("k"));
+      assertJson("v", (byte[]) json.get("k"));
+      assertEquals(0, component.getMisses());
+      assertEquals(0, component.getHits());
+      assertEquals(0, component.getSize());
+   }
+
+   public void testSizeBoundAcrossMediaTypes() {
+      AdvancedCache<Object, Object> objectCache = cache.getAdvancedCache().withMediaType(MediaType.APPLICATION_OBJECT, MediaType.APPLICATION_OBJECT);
+      for (int i = 0; i < 80; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      for (int i = 0; i < 80; i++) {
+         assertJson("v" + i, (byte[]) jsonCache.get("k" + i));
+         assertEquals("v" + i, objectCache.get("k" + i));
+      }
+      assertEquals(160, transcodedValueCache.getMisses());
+      // The bound is shared by all the media types
+      eventually(() -> transcodedValueCache.getSize() <= 100);
+   }
+
+   public void testObjectStorageNotCached() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.statistics().enable();
+      builder.encoding().mediaType(MediaType.APPLICATION_OBJECT_TYPE).transcodingCacheSize(100);
+      cacheManager.defineConfiguration("object", builder.build());
+      Cache<Object, Object> objectCache = cacheManager.getCache("object");
+      TranscodedValueCache component = extractComponent(objectCache, TranscodedValueCache.class);
+      assertTrue(component.isEnabled());
+
+      objectCache.put("k", "v");
+      AdvancedCache<Object, Object> text = objectCache.getAdvancedCache().withMediaType(MediaType.APPLICATION_OBJECT, MediaType.TEXT_PLAIN);
+      // The stored instance may be modified in place, so it is always transcoded
+      text.get("k");
+      text.get("k");
+      assertEquals(0, component.getMisses());
+      assertEquals(0, component.getHits());
+      assertEquals(0, component.getSize());
+   }
+
+   private static void assertJson(String expected, byte[] json) {
+      assertEquals("{\"_type\":\"string\",\"_value\":\"" + expected + "\"}", new String(json, UTF_8).replaceAll("\\s", ""));
+   }
+}
@@ -4,9 +4,12 @@
 import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commands.VisitableCommand;
 import org.infinispan.commands.read.GetAllCommand;
@@ -20,6 +23,7 @@
 import org.infinispan.context.impl.SingleKeyNonTxInvocationContext;
 import org.infinispan.interceptors.BaseAsyncInterceptor;
 import org.infinispan.interceptors.InvocationStage;
+import org.infinispan.stats.impl.HotKeyTracker;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.commons.test.Exceptions;
 import org.infinispan.test.TestException;
@@ -34,6 +38,7 @@ public class CacheMgmtInterceptorTest extends AbstractInfinispanTest {
    public static final String VALUE = "value";
 
    private CacheMgmtInterceptor interceptor;
+   private HotKeyTracker hotKeyTracker;
    private ControlledNextInterceptor nextInterceptor;
    private ControlledTimeService timeService;
    private InvocationContext ctx;
@@ -44,9 +49,13 @@ public void setup() {
       timeService = new ControlledTimeService();
       ctx = new SingleKeyNonTxInvocationContext(null);
 
+      hotKeyTracker = new HotKeyTracker();
+      hotKeyTracker.setStatisticsEnabled(true);
+      hotKeyTracker.setSamplingRate(1);
+
       interceptor = new CacheMgmtInterceptor();
       interceptor.setNextInterceptor(nextInterceptor);
-      TestingUtil.inject(interceptor, timeService);
+      TestingUtil.inject(interceptor, timeService, hotKeyTracker);
       interceptor.start();
       interceptor.setStatisticsEnabled(true);
    }
@@ -219,6 +228,71 @@ public void testVisitRemoveCommandException() throws Throwable {
       assertEquals(0, interceptor.getAverageRemoveTime());
    }
 
+   public void testReadTimePercentiles() throws Throwable {
+      // 990 reads taking 1 ms and 10 reads taking 100 ms
+      for (int i = 0; i < 1000; i++) {
+         GetKeyValueCommand command = new GetKeyValueCommand(KEY, 0, 0);
+         InvocationStage stage = makeStage(interceptor.visitGetKeyValueCommand(ctx, command));
+         timeService.advance(i < 990 ? 1 : 100);
+         nextInterceptor.completeLastInvocation(VALUE);
+         assertEquals(VALUE, stage.get());
+      }
+
+      assertPercentile(TimeUnit.MILLISECONDS.toNanos(1), interceptor.getReadTimeP99());
+      assertPercentile(TimeUnit.MILLISECONDS.toNanos(100), interceptor.getReadTimeP999());
+      assertEquals(0, interceptor.getWriteTimeP99());
+
+      interceptor.resetStatistics();
+      assertEquals(0, interceptor.getReadTimeP999());
+   }
+
+   public void testRemoveTimePercentiles() throws Throwable {
+      RemoveCommand command = new RemoveCommand(KEY, null, 0, 0, null);
+      InvocationStage stage = makeStage(interceptor.visitRemoveCommand(ctx, command));
+      timeService.advance(5);
+      nextInterceptor.completeLastInvocation(null);
+
+      assertNull(stage.get());
+      assertEquals(0, interceptor.getAverageRemoveTime());
+      assertPercentile(TimeUnit.MILLISECONDS.toNanos(5), interceptor.getRemoveTimeP99());
+   }
+
+   public void testHotKeys() throws Throwable {
+      for (int i = 0; i < 100; i++) {
+         read(KEY);
+      }
+      for (int i = 0; i < 10; i++) {
+         read("cold" + i);
+      }
+      for (int i = 0; i < 3; i++) {
+         PutKeyValueCommand command = new PutKeyValueCommand("written", VALUE, false, null, 0, 0, null);
+         InvocationStage stage = makeStage(interceptor.visitPutKeyValueCommand(ctx, command));
+         nextInterceptor.completeLastInvocation(null);
+         stage.get();
+      }
+
+      Map<Object, Long> topReads = hotKeyTracker.getTopKeys(HotKeyTracker.Kind.READ, 1);
+      assertEquals(Collections.singletonMap(KEY, 100L), topReads);
+      assertEquals(11, hotKeyTracker.getTopKeys(HotKeyTracker.Kind.READ, 20).size());
+      assertEquals(Collections.singletonMap("written", 3L), hotKeyTracker.getTopWriteKeys(HotKeyTracker.DEFAULT_TOP_KEYS));
+
+      interceptor.resetStatistics();
+      assertTrue(hotKeyTracker.getTopKeys(HotKeyTracker.Kind.READ, 1).isEmpty());
+   }
+
+   private void read(Object key) throws Throwable {
+      GetKeyValueCommand command = new GetKeyValueCommand(key, 0, 0);
+      InvocationStage stage = makeStage(interceptor.visitGetKeyValueCommand(ctx, command));
+      nextInterceptor.completeLastInvocation(VALUE);
+      assertEquals(VALUE, stage.get());
+   }
+
+   private void assertPercentile(long expectedNanos, long actualNanos) {
+      // The histogram reports the highest value of the bucket, at most 1/16 above the recorded value
+      assertTrue(expectedNanos + " vs " + actualNanos,
+            actualNanos >= expectedNanos && actualNanos <= expectedNanos + expectedNanos / 16);
+   }
+
    private void expectInvocationException(InvocationStage stage) {
       Exceptions.expectException(TestException.class, () -> {
          try {
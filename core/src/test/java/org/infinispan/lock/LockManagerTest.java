@@ -26,6 +26,7 @@
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.infinispan.stats.impl.HotKeyTracker;
 import org.infinispan.test.AbstractCacheTest;
 import org.infinispan.test.AbstractInfinispanTest;
 import org.infinispan.test.TestingUtil;
@@ -67,7 +68,7 @@ public void testSingleCounterPerKey() throws ExecutionException, InterruptedExce
       PerKeyLockContainer lockContainer = new PerKeyLockContainer();
       TestingUtil.inject(lockContainer, AbstractCacheTest.TIME_SERVICE);
       TestingUtil.inject(lockManager, lockContainer, named(NON_BLOCKING_EXECUTOR, asyncExecutor),
-                         named(TIMEOUT_SCHEDULE_EXECUTOR, mockScheduledExecutor));
+                         named(TIMEOUT_SCHEDULE_EXECUTOR, mockScheduledExecutor), new HotKeyTracker());
       doSingleCounterTest(lockManager);
    }
 
@@ -75,7 +76,7 @@ public void testSingleCounterStripped() throws ExecutionException, InterruptedEx
       DefaultLockManager lockManager = new DefaultLockManager();
       StripedLockContainer lockContainer = new StripedLockContainer(16);
       TestingUtil.inject(lockContainer, AbstractCacheTest.TIME_SERVICE);
-      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor);
+      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor, new HotKeyTracker());
       doSingleCounterTest(lockManager);
    }
 
@@ -83,7 +84,7 @@ public void testMultipleCounterPerKey() throws ExecutionException, InterruptedEx
       DefaultLockManager lockManager = new DefaultLockManager();
       PerKeyLockContainer lockContainer = new PerKeyLockContainer();
       TestingUtil.inject(lockContainer, AbstractCacheTest.TIME_SERVICE);
-      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor);
+      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor, new HotKeyTracker());
       doMultipleCounterTest(lockManager);
    }
 
@@ -91,7 +92,7 @@ public void testMultipleCounterStripped() throws ExecutionException, Interrupted
       DefaultLockManager lockManager = new DefaultLockManager();
       StripedLockContainer lockContainer = new StripedLockContainer(16);
       TestingUtil.inject(lockContainer, AbstractCacheTest.TIME_SERVICE);
-      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor);
+      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor, new HotKeyTracker());
       doMultipleCounterTest(lockManager);
    }
 
@@ -99,7 +100,7 @@ public void testTimeoutPerKey() throws ExecutionException, InterruptedException
       DefaultLockManager lockManager = new DefaultLockManager();
       PerKeyLockContainer lockContainer = new PerKeyLockContainer();
       TestingUtil.inject(lockContainer, AbstractCacheTest.TIME_SERVICE);
-      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor);
+      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor, new HotKeyTracker());
       doTestWithFailAcquisition(lockManager);
    }
 
@@ -107,7 +108,7 @@ public void testTimeoutStripped() throws ExecutionException, InterruptedExceptio
       DefaultLockManager lockManager = new DefaultLockManager();
       StripedLockContainer lockContainer = new StripedLockContainer(16);
       TestingUtil.inject(lockContainer, AbstractCacheTest.TIME_SERVICE);
-      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor);
+      TestingUtil.inject(lockManager, lockContainer, asyncExecutor, mockScheduledExecutor, new HotKeyTracker());
       doTestWithFailAcquisition(lockManager);
    }
 
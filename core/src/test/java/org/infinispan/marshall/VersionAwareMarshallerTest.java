@@ -469,6 +469,24 @@ public void testLongArrays() throws Exception {
       }
    }
 
+   public void testReuseOutputBuffer() throws Exception {
+      // Larger than the buffer reused by the marshaller, then small enough to fit in it
+      byte[] large = new byte[100_000];
+      Arrays.fill(large, (byte) 1);
+      byte[] largeBytes = marshaller.objectToByteBuffer(large);
+      byte[] smallBytes = marshaller.objectToByteBuffer("small");
+      byte[] otherBytes = marshaller.objectToByteBuffer("other");
+
+      assertArrayEquals(large, (byte[]) marshaller.objectFromByteBuffer(largeBytes));
+      assertEquals("small", marshaller.objectFromByteBuffer(smallBytes));
+      assertEquals("other", marshaller.objectFromByteBuffer(otherBytes));
+      assertEquals(smallBytes.length, otherBytes.length);
+
+      // An estimated size above the reused buffer size is written to a buffer of that size
+      assertArrayEquals(largeBytes, marshaller.objectToByteBuffer(large, 200_000));
+      assertArrayEquals(smallBytes, marshaller.objectToByteBuffer("small", 16));
+   }
+
    byte[] prependBytes(byte[] bytes, byte[] src) {
       byte[] res = new byte[bytes.length + src.length];
       System.arraycopy(bytes, 0, res, 0, bytes.length);
@@ -0,0 +1,44 @@
+package org.infinispan.persistence.file;
+
+import java.io.File;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.configuration.cache.SegmentedFileStoreConfigurationBuilder;
+import org.infinispan.persistence.BaseStoreFunctionalTest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Segmented file store functional test.
+ *
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.file.SegmentedFileStoreFunctionalTest")
+public class SegmentedFileStoreFunctionalTest extends BaseStoreFunctionalTest {
+
+   private String tmpDirectory;
+
+   @BeforeClass
+   protected void setUpTempDir() {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(this.getClass());
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @AfterClass
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+      new File(tmpDirectory).mkdirs();
+   }
+
+   @Override
+   protected PersistenceConfigurationBuilder createCacheStoreConfig(PersistenceConfigurationBuilder persistence, boolean preload) {
+      persistence
+         .addStore(SegmentedFileStoreConfigurationBuilder.class)
+         .location(tmpDirectory)
+         .preload(preload);
+      return persistence;
+   }
+}
@@ -0,0 +1,204 @@
+package org.infinispan.persistence.file;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.SegmentedFileStoreConfigurationBuilder;
+import org.infinispan.persistence.BaseNonBlockingStoreTest;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.spi.NonBlockingStore;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Factory;
+import org.testng.annotations.Test;
+
+/**
+ * Low level segmented file store tests.
+ *
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "persistence.file.SegmentedFileStoreTest")
+public class SegmentedFileStoreTest extends BaseNonBlockingStoreTest {
+
+   private String tmpDirectory;
+   private boolean segmented;
+   private SegmentedFileStore<?, ?> fileStore;
+
+   @Factory
+   public Object[] factory() {
+      return new Object[]{
+            new SegmentedFileStoreTest().segmented(false),
+            new SegmentedFileStoreTest().segmented(true),
+      };
+   }
+
+   SegmentedFileStoreTest segmented(boolean segmented) {
+      this.segmented = segmented;
+      return this;
+   }
+
+   @Override
+   protected String parameters() {
+      return "[" + segmented + "]";
+   }
+
+   @BeforeClass(alwaysRun = true)
+   protected void setUpTempDir() {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+   }
+
+   @AfterClass(alwaysRun = true)
+   protected void clearTempDir() {
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   @Override
+   protected NonBlockingStore createStore() {
+      clearTempDir();
+      fileStore = new SegmentedFileStore<>();
+      return fileStore;
+   }
+
+   @Override
+   protected Configuration buildConfig(ConfigurationBuilder configurationBuilder) {
+      configurationBuilder.clustering().hash().numSegments(16);
+      return configurationBuilder.persistence()
+            .addStore(SegmentedFileStoreConfigurationBuilder.class)
+               .segmented(segmented)
+               .location(tmpDirectory)
+            .build();
+   }
+
+   public void testConcurrentReadsDuringOverwrite() throws Exception {
+      int keys = 20;
+      for (int i = 0; i < keys; i++) {
+         store.write(entry("k" + i, "v0"));
+      }
+
+      AtomicBoolean running = new AtomicBoolean(true);
+      List<Future<Void>> readers = new ArrayList<>();
+      for (int r = 0; r < 4; r++) {
+         readers.add(fork(() -> {
+            while (running.get()) {
+               for (int i = 0; i < keys; i++) {
+                  // The space of the previous value may be reused by another key, but the read must never see it
+                  MarshallableEntry entry = store.loadEntry("k" + i);
+                  assertNotNull(entry);
+                  assertEquals("k" + i, entry.getKey());
+                  assertEquals('v', ((String) entry.getValue()).charAt(0));
+               }
+            }
+            return null;
+         }));
+      }
+
+      try {
+         for (int round = 1; round < 200; round++) {
+            for (int i = 0; i < keys; i++) {
+               // Alternate the value size so that the free space gets reused
+               store.write(entry("k" + i, round % 2 == 0 ? "v" + round : "v" + round + "-longer-value"));
+            }
+         }
+      } finally {
+         running.set(false);
+      }
+      for (Future<Void> reader : readers) {
+         reader.get(10, TimeUnit.SECONDS);
+      }
+   }
+
+   public void testFreeSpaceReused() {
+      for (int i = 0; i < 100; i++) {
+         store.write(entry("k" + i, "v" + i));
+      }
+      long fileSize = fileStore.getFileSize();
+      for (int i = 0; i < 100; i += 2) {
+         store.delete("k" + i);
+      }
+      for (int i = 0; i < 100; i += 2) {
+         store.write(entry("k" + i, "v" + i));
+      }
+      // The entries were written again in the space freed by the deletes
+      assertEquals(fileSize, fileStore.getFileSize());
+
+      store.stopAndWait();
+      store.startAndWait(initializationContext);
+
+      assertEquals(100, store.sizeWait(IntSets.immutableRangeSet(segmentCount)));
+      for (int i = 0; i < 100; i++) {
+         assertEquals("v" + i, store.loadEntry("k" + i).getValue());
+      }
+   }
+
+   public void testFreeSpaceTruncatedOnRestart() {
+      for (int i = 0; i < 10; i++) {
+         store.write(entry("k" + i, "v" + i));
+      }
+      long fileSize = fileStore.getFileSize();
+      for (int i = 10; i < 20; i++) {
+         store.write(entry("k" + i, "v" + i));
+      }
+      for (int i = 10; i < 20; i++) {
+         store.delete("k" + i);
+      }
+
+      store.stopAndWait();
+      store.startAndWait(initializationContext);
+
+      // The free entries at the end of the file are removed
+      assertEquals(fileSize, fileStore.getFileSize());
+      assertEquals(0, fileStore.getFreeEntryCount());
+      assertEquals(10, store.sizeWait(IntSets.immutableRangeSet(segmentCount)));
+   }
+
+   public void testIncompleteEntryTruncatedOnRestart() throws IOException {
+      for (int i = 0; i < 10; i++) {
+         store.write(entry("k" + i, "v" + i));
+      }
+      long fileSize = fileStore.getFileSize();
+      store.write(entry("k10", "v10"));
+      long lastEntry = fileStore.getFileSize();
+      store.write(entry("k11", "v11"));
+      store.stopAndWait();
+
+      // Lose the end of the key of the last entry, as if the write had been interrupted
+      try (RandomAccessFile file = new RandomAccessFile(fileStore.getFile(), "rw")) {
+         file.setLength(lastEntry + SingleFileStore.KEY_POS_11_0 + 1);
+      }
+      store.startAndWait(initializationContext);
+
+      assertEquals(lastEntry, fileStore.getFileSize());
+      assertEquals(lastEntry, fileStore.getFile().length());
+      assertEquals(11, store.sizeWait(IntSets.immutableRangeSet(segmentCount)));
+      assertEquals("v10", store.loadEntry("k10").getValue());
+      assertNull(store.loadEntry("k11"));
+
+      // Lose the end of the header of the last entry
+      store.stopAndWait();
+      try (RandomAccessFile file = new RandomAccessFile(fileStore.getFile(), "rw")) {
+         file.setLength(fileSize + 1);
+      }
+      store.startAndWait(initializationContext);
+
+      assertEquals(fileSize, fileStore.getFileSize());
+      assertEquals(10, store.sizeWait(IntSets.immutableRangeSet(segmentCount)));
+   }
+
+   private MarshallableEntry<Object, Object> entry(String key, String value) {
+      return marshalledEntry(internalCacheEntry(key, value, -1));
+   }
+}
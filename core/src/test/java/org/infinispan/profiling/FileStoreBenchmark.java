@@ -0,0 +1,113 @@
+package org.infinispan.profiling;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.SegmentedFileStoreConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the write throughput of the {@link org.infinispan.persistence.file.SingleFileStore} with the
+ * {@link org.infinispan.persistence.file.SegmentedFileStore} with 1, 8 and 32 writer threads.
+ * <p>
+ * This class is not run by Surefire, use the main method to run it.
+ */
+public class FileStoreBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 3;
+   private static final int[] WRITER_THREADS = {1, 8, 32};
+
+   public static void main(String[] args) throws Exception {
+      for (int threads : WRITER_THREADS) {
+         Options opt = new OptionsBuilder()
+               .include(FileStoreBenchmark.class.getName() + ".*")
+               .mode(Mode.Throughput)
+               .timeUnit(TimeUnit.SECONDS)
+               .warmupIterations(WARMUP_ITERATIONS_COUNT)
+               .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+               .threads(threads)
+               .forks(1)
+               .shouldFailOnError(true)
+               .build();
+
+         new Runner(opt).run();
+      }
+   }
+
+   @State(Scope.Benchmark)
+   public static class StoreState {
+      @Param({"single", "segmented"})
+      public String store;
+
+      @Param({"100000"})
+      public int keySpace;
+
+      @Param({"1024"})
+      public int valueSize;
+
+      private String location;
+      private EmbeddedCacheManager cacheManager;
+      private AdvancedCache<Integer, byte[]> cache;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         location = CommonsTestingUtil.tmpDirectory(FileStoreBenchmark.class.getSimpleName(), store);
+         Util.recursiveFileRemove(location);
+
+         GlobalConfigurationBuilder global = new GlobalConfigurationBuilder().nonClusteredDefault();
+         global.globalState().persistentLocation(location);
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         // Keep the data container small, so that reads hit the store
+         builder.memory().maxCount(1000);
+         if ("segmented".equals(store)) {
+            builder.persistence().addStore(SegmentedFileStoreConfigurationBuilder.class).location(location);
+         } else {
+            builder.persistence().addSingleFileStore().segmented(false).location(location);
+         }
+         cacheManager = new DefaultCacheManager(global.build());
+         cacheManager.defineConfiguration("store", builder.build());
+         cache = cacheManager.<Integer, byte[]>getCache("store").getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES);
+         for (int i = 0; i < keySpace; i++) {
+            cache.put(i, new byte[valueSize]);
+         }
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         cacheManager.stop();
+         Util.recursiveFileRemove(location);
+      }
+   }
+
+   @Benchmark
+   public void write(StoreState state) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      byte[] value = new byte[state.valueSize];
+      random.nextBytes(value);
+      state.cache.put(random.nextInt(state.keySpace), value);
+   }
+
+   @Benchmark
+   public byte[] read(StoreState state) {
+      return state.cache.get(ThreadLocalRandom.current().nextInt(state.keySpace));
+   }
+}
@@ -0,0 +1,124 @@
+package org.infinispan.profiling;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.offheap.OffHeapMemoryAllocator;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the write throughput of an off-heap cache using the unpooled and the pooled
+ * {@link OffHeapMemoryAllocator} with 1, 8 and 32 writer threads. Values have random sizes, so that replacing an entry
+ * usually needs a chunk of a different size.
+ * <p>
+ * The resident set size of the process is printed after every iteration, as the main effect of pooling is less
+ * fragmentation of the native heap.
+ * <p>
+ * This class is not run by Surefire, use the main method to run it.
+ */
+public class OffHeapAllocatorBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 3;
+   private static final int[] WRITER_THREADS = {1, 8, 32};
+
+   public static void main(String[] args) throws Exception {
+      for (int threads : WRITER_THREADS) {
+         Options opt = new OptionsBuilder()
+               .include(OffHeapAllocatorBenchmark.class.getName() + ".*")
+               .mode(Mode.Throughput)
+               .timeUnit(TimeUnit.SECONDS)
+               .warmupIterations(WARMUP_ITERATIONS_COUNT)
+               .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+               .threads(threads)
+               .forks(1)
+               .shouldFailOnError(true)
+               .build();
+
+         new Runner(opt).run();
+      }
+   }
+
+   @State(Scope.Benchmark)
+   public static class CacheState {
+      @Param({"unpooled", "pooled"})
+      public String allocator;
+
+      @Param({"100000"})
+      public int keySpace;
+
+      @Param({"2048"})
+      public int maxValueSize;
+
+      private EmbeddedCacheManager cacheManager;
+      private AdvancedCache<Integer, byte[]> cache;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         builder.memory().storage(StorageType.OFF_HEAP)
+               .allocator("pooled".equals(allocator) ? OffHeapAllocatorType.POOLED : OffHeapAllocatorType.UNPOOLED);
+         cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().nonClusteredDefault().build());
+         cacheManager.defineConfiguration("offheap", builder.build());
+         cache = cacheManager.<Integer, byte[]>getCache("offheap").getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES);
+         for (int i = 0; i < keySpace; i++) {
+            cache.put(i, randomValue(maxValueSize));
+         }
+      }
+
+      @TearDown(Level.Iteration)
+      public void printMemory() throws IOException {
+         OffHeapMemoryAllocator memoryAllocator = cache.getComponentRegistry().getComponent(OffHeapMemoryAllocator.class);
+         System.out.printf("%nallocated: %d bytes, %s%n", memoryAllocator.getAllocatedAmount(), residentSetSize());
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         cacheManager.stop();
+      }
+   }
+
+   @Benchmark
+   public void write(CacheState state) {
+      state.cache.put(ThreadLocalRandom.current().nextInt(state.keySpace), randomValue(state.maxValueSize));
+   }
+
+   @Benchmark
+   public void writeAndRemove(CacheState state) {
+      int key = ThreadLocalRandom.current().nextInt(state.keySpace);
+      state.cache.remove(key);
+      state.cache.put(key, randomValue(state.maxValueSize));
+   }
+
+   private static byte[] randomValue(int maxValueSize) {
+      return new byte[1 + ThreadLocalRandom.current().nextInt(maxValueSize)];
+   }
+
+   private static String residentSetSize() throws IOException {
+      return Files.readAllLines(Paths.get("/proc/self/status")).stream()
+            .filter(line -> line.startsWith("VmRSS:"))
+            .findFirst()
+            .orElse("VmRSS: unknown");
+   }
+}
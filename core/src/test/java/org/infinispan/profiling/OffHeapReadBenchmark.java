@@ -0,0 +1,94 @@
+package org.infinispan.profiling;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.OffHeapAllocatorType;
+import org.infinispan.configuration.cache.StorageType;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the read throughput of an off-heap cache with 1, 8 and 32 reader threads. With the unpooled allocator the
+ * reads acquire the read lock of their lock region, with the pooled allocator they read optimistically and decode the
+ * entry in place, see {@link org.infinispan.container.offheap.OffHeapConcurrentMap}.
+ * <p>
+ * The keys are read from a small key space, so that the readers share the lock regions.
+ * <p>
+ * This class is not run by Surefire, use the main method to run it.
+ */
+public class OffHeapReadBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 3;
+   private static final int[] READER_THREADS = {1, 8, 32};
+
+   public static void main(String[] args) throws Exception {
+      for (int threads : READER_THREADS) {
+         Options opt = new OptionsBuilder()
+               .include(OffHeapReadBenchmark.class.getName() + ".*")
+               .mode(Mode.Throughput)
+               .timeUnit(TimeUnit.SECONDS)
+               .warmupIterations(WARMUP_ITERATIONS_COUNT)
+               .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+               .threads(threads)
+               .forks(1)
+               .shouldFailOnError(true)
+               .build();
+
+         new Runner(opt).run();
+      }
+   }
+
+   @State(Scope.Benchmark)
+   public static class CacheState {
+      @Param({"unpooled", "pooled"})
+      public String allocator;
+
+      @Param({"1000"})
+      public int keySpace;
+
+      @Param({"128"})
+      public int valueSize;
+
+      private EmbeddedCacheManager cacheManager;
+      private AdvancedCache<Integer, byte[]> cache;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         builder.memory().storage(StorageType.OFF_HEAP)
+               .allocator("pooled".equals(allocator) ? OffHeapAllocatorType.POOLED : OffHeapAllocatorType.UNPOOLED);
+         cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().nonClusteredDefault().build());
+         cacheManager.defineConfiguration("offheap", builder.build());
+         cache = cacheManager.<Integer, byte[]>getCache("offheap").getAdvancedCache();
+         for (int i = 0; i < keySpace; i++) {
+            cache.put(i, new byte[valueSize]);
+         }
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         cacheManager.stop();
+      }
+   }
+
+   @Benchmark
+   public byte[] read(CacheState state) {
+      return state.cache.get(ThreadLocalRandom.current().nextInt(state.keySpace));
+   }
+}
@@ -0,0 +1,119 @@
+package org.infinispan.profiling;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.encoding.impl.TranscodedValueCache;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput of reading {@code application/json} values from a cache stored as
+ * {@code application/x-protostream}, without the {@link TranscodedValueCache} and with a transcoding cache that holds
+ * all the values. One in {@code writeRatio} operations writes a value, which must be transcoded again by the next read.
+ * <p>
+ * The transcoding cache hit ratio is printed after every iteration.
+ * <p>
+ * This class is not run by Surefire, use the main method to run it.
+ */
+public class TranscodedReadBenchmark {
+
+   private static final int MEASUREMENT_ITERATIONS_COUNT = 5;
+   private static final int WARMUP_ITERATIONS_COUNT = 3;
+   private static final int READER_THREADS = 8;
+
+   public static void main(String[] args) throws Exception {
+      Options opt = new OptionsBuilder()
+            .include(TranscodedReadBenchmark.class.getName() + ".*")
+            .mode(Mode.Throughput)
+            .timeUnit(TimeUnit.SECONDS)
+            .warmupIterations(WARMUP_ITERATIONS_COUNT)
+            .measurementIterations(MEASUREMENT_ITERATIONS_COUNT)
+            .threads(READER_THREADS)
+            .forks(1)
+            .shouldFailOnError(true)
+            .build();
+
+      new Runner(opt).run();
+   }
+
+   @State(Scope.Benchmark)
+   public static class CacheState {
+      @Param({"0", "10000"})
+      public int transcodingCacheSize;
+
+      @Param({"10000"})
+      public int keySpace;
+
+      @Param({"1024"})
+      public int valueSize;
+
+      @Param({"100"})
+      public int writeRatio;
+
+      private EmbeddedCacheManager cacheManager;
+      private AdvancedCache<Object, Object> objectCache;
+      private AdvancedCache<Object, Object> jsonCache;
+      private TranscodedValueCache transcodedValueCache;
+
+      @Setup(Level.Trial)
+      public void setup() {
+         ConfigurationBuilder builder = new ConfigurationBuilder();
+         builder.statistics().enable();
+         builder.encoding().mediaType(MediaType.APPLICATION_PROTOSTREAM_TYPE).transcodingCacheSize(transcodingCacheSize);
+         cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().nonClusteredDefault().build());
+         cacheManager.defineConfiguration("protostream", builder.build());
+         objectCache = cacheManager.getCache("protostream").getAdvancedCache();
+         jsonCache = objectCache.withMediaType(MediaType.APPLICATION_OBJECT, MediaType.APPLICATION_JSON);
+         transcodedValueCache = objectCache.getComponentRegistry().getComponent(TranscodedValueCache.class);
+         for (int i = 0; i < keySpace; i++) {
+            objectCache.put(i, randomValue(valueSize));
+         }
+      }
+
+      @TearDown(Level.Iteration)
+      public void printHitRatio() {
+         System.out.printf("%nhit ratio: %.3f, size: %d%n", transcodedValueCache.getHitRatio(), transcodedValueCache.getSize());
+         transcodedValueCache.resetStatistics();
+      }
+
+      @TearDown(Level.Trial)
+      public void tearDown() {
+         cacheManager.stop();
+      }
+   }
+
+   @Benchmark
+   public Object readJson(CacheState state) {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int key = random.nextInt(state.keySpace);
+      if (random.nextInt(state.writeRatio) == 0) {
+         state.objectCache.put(key, randomValue(state.valueSize));
+      }
+      return state.jsonCache.get(key);
+   }
+
+   private static String randomValue(int valueSize) {
+      char[] chars = new char[valueSize];
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      for (int i = 0; i < valueSize; i++) {
+         chars[i] = (char) ('a' + random.nextInt(26));
+      }
+      return new String(chars);
+   }
+}
@@ -0,0 +1,186 @@
+package org.infinispan.statetransfer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.statetransfer.StateResponseCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.ByteString;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Tests the chunks sent by {@link OutboundTransferTask} when several of them can be in flight.
+ *
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "statetransfer.OutboundTransferTaskTest")
+public class OutboundTransferTaskTest {
+
+   private static final TestAddress DESTINATION = new TestAddress(1, "B");
+   private static final int CHUNK_SIZE = 2;
+   private static final int MAX_IN_FLIGHT_CHUNKS = 3;
+   // 5 chunks: 4 sent while reading the entries and the last one sent once all the others were confirmed
+   private static final int NUM_ENTRIES = 10;
+
+   private RpcManager rpcManager;
+   private CommandsFactory commandsFactory;
+   private List<SentChunk> sent;
+
+   @BeforeMethod
+   public void setUp() {
+      sent = new ArrayList<>();
+      rpcManager = mock(RpcManager.class);
+      commandsFactory = mock(CommandsFactory.class);
+      when(commandsFactory.buildStateResponseCommand(anyInt(), any(), anyBoolean(), anyBoolean()))
+            .thenAnswer(invocation -> new StateResponseCommand(ByteString.fromString("testCache"),
+                                                               (Integer) invocation.getArguments()[0],
+                                                               (Collection<StateChunk>) invocation.getArguments()[1],
+                                                               true, false));
+      when(rpcManager.invokeCommand(any(Address.class), any(), any(), any())).thenAnswer(invocation -> {
+         SentChunk chunk = new SentChunk((StateResponseCommand) invocation.getArguments()[1]);
+         sent.add(chunk);
+         return chunk.response;
+      });
+   }
+
+   public void testAllEntriesSent() {
+      OutboundTransferTask task = createTask();
+      CompletionStage<Void> stage = task.execute(entries());
+
+      assertInFlight(MAX_IN_FLIGHT_CHUNKS);
+      int maxInFlight = 0;
+      for (int i = 0; i < sent.size(); ++i) {
+         maxInFlight = Math.max(maxInFlight, inFlight());
+         SentChunk chunk = sent.get(i);
+         if (chunk.isLast()) {
+            // The last chunk is sent only after all the others were confirmed
+            assertEquals(1, inFlight());
+         }
+         chunk.response.complete(null);
+      }
+      assertEquals(MAX_IN_FLIGHT_CHUNKS, maxInFlight);
+      assertEquals(5, sent.size());
+      for (int i = 0; i < sent.size(); ++i) {
+         assertEquals(i == sent.size() - 1, sent.get(i).isLast());
+      }
+      assertTrue(stage.toCompletableFuture().isDone());
+      assertFalse(stage.toCompletableFuture().isCompletedExceptionally());
+
+      Set<Object> keys = new HashSet<>();
+      for (SentChunk chunk : sent) {
+         keys.addAll(chunk.keys());
+      }
+      assertEquals(NUM_ENTRIES, keys.size());
+   }
+
+   public void testFailedChunkEndsTransfer() {
+      OutboundTransferTask task = createTask();
+      CompletionStage<Void> stage = task.execute(entries());
+
+      assertInFlight(MAX_IN_FLIGHT_CHUNKS);
+      sent.get(0).response.completeExceptionally(new CacheException("Injected failure"));
+      assertTrue(task.isCancelled());
+      sent.get(1).response.complete(null);
+      sent.get(2).response.complete(null);
+
+      assertTransferEnded(stage);
+   }
+
+   public void testCancelledTaskEndsTransfer() {
+      OutboundTransferTask task = createTask();
+      CompletionStage<Void> stage = task.execute(entries());
+
+      assertInFlight(MAX_IN_FLIGHT_CHUNKS);
+      task.cancel();
+      for (int i = 0; i < MAX_IN_FLIGHT_CHUNKS; ++i) {
+         sent.get(i).response.complete(null);
+      }
+
+      assertTransferEnded(stage);
+   }
+
+   private void assertTransferEnded(CompletionStage<Void> stage) {
+      // No chunk is sent after the failure, not even the last one
+      assertEquals(MAX_IN_FLIGHT_CHUNKS, sent.size());
+      for (SentChunk chunk : sent) {
+         assertFalse(chunk.isLast());
+      }
+      assertTrue(stage.toCompletableFuture().isDone());
+   }
+
+   private void assertInFlight(int expected) {
+      assertEquals(expected, sent.size());
+      assertEquals(expected, inFlight());
+   }
+
+   private int inFlight() {
+      int inFlight = 0;
+      for (SentChunk chunk : sent) {
+         if (!chunk.response.isDone()) {
+            inFlight++;
+         }
+      }
+      return inFlight;
+   }
+
+   private OutboundTransferTask createTask() {
+      return new OutboundTransferTask(DESTINATION, IntSets.immutableSet(0), 1, CHUNK_SIZE, MAX_IN_FLIGHT_CHUNKS, 1,
+                                      key -> 0, chunks -> {}, rpcManager, commandsFactory, 10000, "testCache", true,
+                                      false);
+   }
+
+   private static Flowable<InternalCacheEntry<Object, Object>> entries() {
+      List<InternalCacheEntry<Object, Object>> entries = new ArrayList<>(NUM_ENTRIES);
+      for (int i = 0; i < NUM_ENTRIES; ++i) {
+         entries.add(new ImmortalCacheEntry("key" + i, "value" + i));
+      }
+      return Flowable.fromIterable(entries);
+   }
+
+   private static class SentChunk {
+      final StateResponseCommand command;
+      final CompletableFuture<Object> response = new CompletableFuture<>();
+
+      SentChunk(StateResponseCommand command) {
+         this.command = command;
+      }
+
+      boolean isLast() {
+         return command.getStateChunks().stream().anyMatch(StateChunk::isLastChunk);
+      }
+
+      List<Object> keys() {
+         List<Object> keys = new ArrayList<>();
+         for (StateChunk chunk : command.getStateChunks()) {
+            for (InternalCacheEntry<?, ?> entry : chunk.getCacheEntries()) {
+               keys.add(entry.getKey());
+            }
+         }
+         return keys;
+      }
+   }
+}
@@ -13,6 +13,8 @@
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.LocalizedCacheTopology;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.protostream.SerializationContextInitializer;
 import org.infinispan.protostream.annotations.AutoProtoSchemaBuilder;
@@ -164,6 +166,29 @@ public void testInitialStateTransfer(Method m) throws Exception {
       logTestEnd(m);
    }
 
+   public void testInitialStateTransferWithChunksInFlight(Method m) throws Exception {
+      testCount++;
+      logTestStart(m);
+      configurationBuilder.clustering().stateTransfer().chunkSize(2).maxInFlightChunks(4);
+      Cache<Object, Object> cache1, cache2;
+      cache1 = createCacheManager(cacheName).getCache(cacheName);
+      for (int i = 0; i < 100; ++i) {
+         cache1.put("key" + i, "value" + i);
+      }
+
+      cache2 = createCacheManager(cacheName).getCache(cacheName);
+      TestingUtil.waitForNoRebalance(cache1, cache2);
+      LocalizedCacheTopology topology = cache2.getAdvancedCache().getDistributionManager().getCacheTopology();
+      for (int i = 0; i < 100; ++i) {
+         String key = "key" + i;
+         if (topology.isReadOwner(key)) {
+            assertEquals("value" + i, cache2.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).get(key));
+         }
+      }
+
+      logTestEnd(m);
+   }
+
    public void testInitialStateTransferCacheNotPresent(Method m) throws Exception {
       testCount++;
       logTestStart(m);
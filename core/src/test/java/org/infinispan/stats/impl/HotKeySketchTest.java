@@ -0,0 +1,41 @@
+package org.infinispan.stats.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests the aging of the counts of {@link HotKeyTracker.Sketch}.
+ *
+ * @since 12.0
+ */
+@Test(groups = "unit", testName = "stats.impl.HotKeySketchTest")
+public class HotKeySketchTest {
+
+   public void testCountsAreHalved() {
+      HotKeyTracker.Sketch sketch = new HotKeyTracker.Sketch();
+      sketch.add("old", 1000);
+      assertEquals(Long.valueOf(1000), sketch.top(1).get("old"));
+
+      // Reaching the aging period halves all the counts
+      sketch.add("new", (int) HotKeyTracker.Sketch.AGING_PERIOD - 1000);
+      Map<Object, Long> top = sketch.top(2);
+      assertEquals(Long.valueOf(500), top.get("old"));
+      assertEquals(Long.valueOf((HotKeyTracker.Sketch.AGING_PERIOD - 1000) / 2), top.get("new"));
+
+      sketch.add("old", 2);
+      assertEquals(Long.valueOf(502), sketch.top(2).get("old"));
+   }
+
+   public void testKeysNotAccessedAreDropped() {
+      HotKeyTracker.Sketch sketch = new HotKeyTracker.Sketch();
+      sketch.add("old", 1);
+      sketch.add("new", (int) HotKeyTracker.Sketch.AGING_PERIOD);
+      // Once halved, the estimate of the old key is 0
+      assertFalse(sketch.top(2).containsKey("old"));
+      assertEquals(1, sketch.top(2).size());
+   }
+}
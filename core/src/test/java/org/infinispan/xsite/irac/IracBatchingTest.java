@@ -0,0 +1,225 @@
+package org.infinispan.xsite.irac;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.commands.irac.IracBatchUpdateCommand;
+import org.infinispan.commands.irac.IracPutKeyCommand;
+import org.infinispan.commands.irac.IracUpdateKeyCommand;
+import org.infinispan.commons.CacheConfigurationException;
+import org.infinispan.commons.api.CacheContainerAdmin;
+import org.infinispan.configuration.cache.BackupConfiguration;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.AbstractDelegatingTransport;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.remoting.transport.XSiteResponse;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.xsite.XSiteBackup;
+import org.infinispan.xsite.XSiteReplicateCommand;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the batching of updates and the statistics exposed by {@link DefaultIracManager}.
+ *
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "xsite.irac.IracBatchingTest")
+public class IracBatchingTest extends SingleCacheManagerTest {
+
+   private static final String LON = "LON";
+   private static final String NYC = "NYC";
+   private static final String CACHE_NAME = "irac-batching";
+   private static final long BATCH_DELAY = 500;
+   private volatile ControlledTransport transport;
+   private volatile DefaultIracManager iracManager;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      EmbeddedCacheManager cacheManager = TestCacheManagerFactory.createClusteredCacheManager();
+      this.transport = TestingUtil.wrapGlobalComponent(cacheManager, Transport.class, ControlledTransport::new, true);
+      this.cache = cacheManager.administration()
+            .withFlags(CacheContainerAdmin.AdminFlag.VOLATILE)
+            .getOrCreateCache(CACHE_NAME, createCacheConfiguration().build());
+      iracManager = (DefaultIracManager) TestingUtil.extractComponent(cache, IracManager.class);
+      return cacheManager;
+   }
+
+   private static ConfigurationBuilder createCacheConfiguration() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(CacheMode.DIST_SYNC);
+      builder.sites().batchDelay(BATCH_DELAY).addBackup()
+            .site(NYC)
+            .strategy(BackupConfiguration.BackupStrategy.ASYNC);
+      return builder;
+   }
+
+   public void testDefaultBatchDelay() {
+      assertEquals(0, new ConfigurationBuilder().build().sites().batchDelay());
+      assertEquals(BATCH_DELAY, cache.getCacheConfiguration().sites().batchDelay());
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testNegativeBatchDelay() {
+      new ConfigurationBuilder().sites().batchDelay(-1).build();
+   }
+
+   public void testUpdatesCoalescedWithinBatchDelay(Method method) {
+      eventually(iracManager::isEmpty);
+      transport.reset();
+
+      final String key = TestingUtil.k(method);
+      // all the updates happen well within the batch delay, only the last one is sent
+      for (int i = 0; i < 5; ++i) {
+         cache.put(key, TestingUtil.v(method, i));
+      }
+
+      eventually(iracManager::isEmpty);
+      assertEquals(1, transport.sentPuts.get());
+   }
+
+   public void testUpdatesSentInBatches(Method method) {
+      eventually(iracManager::isEmpty);
+      transport.reset();
+      final int numKeys = 10;
+      final int valueSize = 1000;
+      // a little more than two values per command
+      iracManager.setMaxBatchBytes(valueSize * 5 / 2);
+      try {
+         // all the keys are updated well within the batch delay and sent in the same round
+         for (int i = 0; i < numKeys; ++i) {
+            cache.put(TestingUtil.k(method, i), new byte[valueSize]);
+         }
+
+         eventually(iracManager::isEmpty);
+         assertEquals(numKeys, transport.sentPuts.get());
+         int commands = transport.updateCommands.get();
+         assertTrue("Keys sent in " + commands + " commands", commands > 1 && commands < numKeys);
+         assertTrue(transport.batchCommands.get() > 0);
+      } finally {
+         iracManager.setMaxBatchBytes(DefaultIracManager.MAX_BATCH_BYTES);
+      }
+   }
+
+   public void testPendingKeysAndReplicationLag(Method method) throws InterruptedException {
+      eventually(iracManager::isEmpty);
+      transport.reset();
+      CompletableFuture<Void> blocker = new CompletableFuture<>();
+      transport.blocker = blocker;
+      try {
+         long start = System.nanoTime();
+         for (int i = 0; i < 3; ++i) {
+            cache.put(TestingUtil.k(method, i), TestingUtil.v(method, i));
+         }
+         assertEquals(3, iracManager.getPendingKeys());
+
+         // wait until the keys are being sent and keep the responses on hold for a while
+         eventually(() -> transport.sentPuts.get() >= 3);
+         Thread.sleep(BATCH_DELAY);
+         assertEquals(3, iracManager.getPendingKeys());
+         long minLag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+         transport.blocker = null;
+         blocker.complete(null);
+         eventually(iracManager::isEmpty);
+         assertEquals(0, iracManager.getPendingKeys());
+         // the lag is updated once the round finishes
+         eventually(() -> iracManager.getReplicationLag() >= minLag);
+      } finally {
+         transport.blocker = null;
+         blocker.complete(null);
+      }
+   }
+
+   static class ControlledTransport extends AbstractDelegatingTransport {
+
+      // the keys sent in put updates, alone or in batches
+      private final AtomicInteger sentPuts = new AtomicInteger();
+      private final AtomicInteger updateCommands = new AtomicInteger();
+      private final AtomicInteger batchCommands = new AtomicInteger();
+      private volatile CompletableFuture<Void> blocker;
+
+      ControlledTransport(Transport actual) {
+         super(actual);
+      }
+
+      void reset() {
+         sentPuts.set(0);
+         updateCommands.set(0);
+         batchCommands.set(0);
+      }
+
+      @Override
+      public void start() {
+         //already started
+      }
+
+      @Override
+      public <O> XSiteResponse<O> backupRemotely(XSiteBackup backup, XSiteReplicateCommand<O> rpcCommand) {
+         if (rpcCommand instanceof IracUpdateKeyCommand) {
+            updateCommands.incrementAndGet();
+         }
+         if (rpcCommand instanceof IracBatchUpdateCommand) {
+            batchCommands.incrementAndGet();
+            for (IracUpdateKeyCommand update : ((IracBatchUpdateCommand) rpcCommand).getUpdates()) {
+               countPut(update);
+            }
+         } else {
+            countPut(rpcCommand);
+         }
+         ControlledXSiteResponse<O> response = new ControlledXSiteResponse<>(backup);
+         CompletableFuture<Void> currentBlocker = blocker;
+         if (currentBlocker == null) {
+            response.complete(null);
+         } else {
+            currentBlocker.thenRun(() -> response.complete(null));
+         }
+         return response;
+      }
+
+      private void countPut(XSiteReplicateCommand<?> command) {
+         if (command instanceof IracPutKeyCommand) {
+            sentPuts.incrementAndGet();
+         }
+      }
+
+      @Override
+      public void checkCrossSiteAvailable() throws CacheConfigurationException {
+         //no-op == it is available
+      }
+
+      @Override
+      public String localSiteName() {
+         return LON;
+      }
+
+      @Override
+      public Set<String> getSitesView() {
+         return Collections.singleton(LON);
+      }
+   }
+
+   private static class ControlledXSiteResponse<T> extends CompletableFuture<T> implements XSiteResponse<T> {
+
+      private final XSiteBackup backup;
+
+      private ControlledXSiteResponse(XSiteBackup backup) {
+         this.backup = backup;
+      }
+
+      @Override
+      public void whenCompleted(XSiteResponseCompleted listener) {
+         whenComplete((v, t) -> listener.onCompleted(backup, System.currentTimeMillis(), 0, t));
+      }
+   }
+}
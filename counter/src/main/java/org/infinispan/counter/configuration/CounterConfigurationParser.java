@@ -149,6 +149,12 @@ private void parseWeakCounter(XMLStreamReader reader, WeakCounterConfigurationBu
             case CONCURRENCY_LEVEL:
                builder.concurrencyLevel(Integer.parseInt(value));
                break;
+            case FLUSH_INTERVAL:
+               builder.flushInterval(Long.parseLong(value));
+               break;
+            case FLUSH_THRESHOLD:
+               builder.flushThreshold(Long.parseLong(value));
+               break;
             default:
                parserCommonCounterAttributes(reader, builder, i, attribute, value);
          }
@@ -48,6 +48,33 @@ public WeakCounterConfigurationBuilder concurrencyLevel(int level) {
       return self();
    }
 
+   /**
+    * Sets the interval, in milliseconds, to flush the updates accumulated locally.
+    * <p>
+    * When the interval or the threshold are positive, each node accumulates the updates locally and applies their sum
+    * to the counter in batches.
+    * <p>
+    * Default value is 0, which flushes each update immediately.
+    *
+    * @param interval the new flush interval in milliseconds.
+    */
+   public WeakCounterConfigurationBuilder flushInterval(long interval) {
+      attributes.attribute(WeakCounterConfiguration.FLUSH_INTERVAL).set(interval);
+      return self();
+   }
+
+   /**
+    * Sets the absolute value of the updates accumulated locally that triggers a flush.
+    * <p>
+    * Default value is 0, which flushes only every interval.
+    *
+    * @param threshold the new flush threshold.
+    */
+   public WeakCounterConfigurationBuilder flushThreshold(long threshold) {
+      attributes.attribute(WeakCounterConfiguration.FLUSH_THRESHOLD).set(threshold);
+      return self();
+   }
+
    @Override
    public ElementDefinition getElementDefinition() {
       return WeakCounterConfiguration.ELEMENT_DEFINITION;
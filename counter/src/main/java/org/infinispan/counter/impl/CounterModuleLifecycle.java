@@ -31,6 +31,7 @@
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.factories.annotations.InfinispanModule;
 import org.infinispan.factories.impl.BasicComponentRegistry;
+import org.infinispan.factories.impl.ComponentRef;
 import org.infinispan.interceptors.AsyncInterceptorChain;
 import org.infinispan.interceptors.impl.EntryWrappingInterceptor;
 import org.infinispan.jmx.CacheManagerJmxRegistration;
@@ -144,6 +145,16 @@ public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguratio
       registerCounterManager(cacheManager, bcr);
    }
 
+   @Override
+   public void cacheManagerStoppingCaches(GlobalComponentRegistry gcr) {
+      // flush the weak counters while the counters cache is running, without starting the counter manager
+      ComponentRef<CounterManager> counterManager = gcr.getComponent(BasicComponentRegistry.class)
+            .getComponent(CounterManager.class);
+      if (counterManager != null && counterManager.isRunning()) {
+         ((EmbeddedCounterManager) counterManager.running()).stopWeakCounters();
+      }
+   }
+
    @Override
    public void cacheStarting(ComponentRegistry cr, Configuration configuration, String cacheName) {
       if (COUNTER_CACHE_NAME.equals(cacheName) && configuration.clustering().cacheMode().isClustered()) {
@@ -231,6 +231,12 @@ private void validateConfiguration(CounterConfiguration configuration) {
             if (configuration.concurrencyLevel() < 1) {
                throw CONTAINER.invalidConcurrencyLevel(configuration.concurrencyLevel());
             }
+            if (configuration.flushInterval() < 0) {
+               throw CONTAINER.invalidFlushInterval(configuration.flushInterval());
+            }
+            if (configuration.flushThreshold() < 0) {
+               throw CONTAINER.invalidFlushThreshold(configuration.flushThreshold());
+            }
             break;
       }
    }
@@ -9,6 +9,7 @@
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.commons.logging.LogFactory;
@@ -30,6 +31,8 @@
 import org.infinispan.counter.impl.strong.UnboundedStrongCounter;
 import org.infinispan.counter.impl.weak.WeakCounterImpl;
 import org.infinispan.counter.logging.Log;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
@@ -61,6 +64,8 @@ public class EmbeddedCounterManager implements CounterManager {
    private volatile boolean started = false;
 
    @Inject BlockingManager blockingManager;
+   @Inject @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR)
+   ScheduledExecutorService timeoutExecutor;
 
    public EmbeddedCounterManager(EmbeddedCacheManager cacheManager) {
       this.cacheManager = cacheManager;
@@ -94,11 +99,25 @@ public void stop() {
          log.trace("Stopping EmbeddedCounterManager");
       }
       started = false;
+      stopWeakCounters();
       counterCache = null;
       configurationManager.stop();
       notificationManager.stop();
    }
 
+   /**
+    * Flushes the writes accumulated locally by the weak counters and stops flushing them.
+    * <p>
+    * It must be invoked before the counters cache stops, otherwise the pending writes are lost.
+    */
+   public void stopWeakCounters() {
+      for (Object counter : counters.values()) {
+         if (counter instanceof WeakCounterImpl) {
+            ((WeakCounterImpl) counter).stop();
+         }
+      }
+   }
+
    private static <T> T validateCounter(Class<T> tClass, Object retVal) {
       Class<?> rClass = retVal.getClass();
       if (tClass.isAssignableFrom(rClass)) {
@@ -244,7 +263,7 @@ private StrongCounter createUnboundedStrongCounter(String counterName, CounterCo
 
    private WeakCounter createWeakCounter(String counterName, CounterConfiguration configuration) {
       WeakCounterImpl counter = new WeakCounterImpl(counterName, cache(configuration), configuration,
-            notificationManager);
+            notificationManager, timeoutExecutor);
       counter.init();
       return counter;
    }
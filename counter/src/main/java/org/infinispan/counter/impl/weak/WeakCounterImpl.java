@@ -2,11 +2,21 @@
 
 import static org.infinispan.counter.impl.Util.awaitCounterOperation;
 import static org.infinispan.counter.impl.Utils.getPersistenceMode;
+import static org.infinispan.counter.logging.Log.CONTAINER;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
@@ -55,6 +65,15 @@
  * Weak Read: A snapshot of all the keys values is kept locally and they are updated via cluster listeners.
  * <p>
  * Reset: The reset operation is <b>not</b> atomic and intermediate results may be observed.
+ * <p>
+ * Accumulated writes: If the configuration has a positive {@link CounterConfiguration#flushInterval()} or {@link
+ * CounterConfiguration#flushThreshold()}, a write operation only adds the delta to a local {@link LongAdder} and
+ * completes immediately. The sum of the pending deltas is written to one of the keys, as described above, every
+ * interval or when its absolute value reaches the threshold. The sum is only checked on a sample of the writes, so it
+ * can go a little over the threshold before it is flushed. The local value includes the pending deltas but the other
+ * nodes only observe them after they are flushed. While a flush completes, the local value may count the flushed delta
+ * twice, in the snapshot and as pending. The pending deltas are flushed when the counter is stopped, but they are lost
+ * if the flush fails or does not complete within the cache's remote timeout.
  *
  * @author Pedro Ruivo
  * @since 9.0
@@ -70,9 +89,13 @@ public class WeakCounterImpl implements WeakCounter, CounterEventGenerator, Topo
    private final CounterConfiguration configuration;
    private final CounterConfiguration zeroConfiguration;
    private final KeySelector selector;
+   private final ScheduledExecutorService scheduledExecutor;
+   // Non null if the writes are accumulated locally
+   private final Accumulator accumulator;
 
    public WeakCounterImpl(String counterName, AdvancedCache<WeakCounterKey, CounterValue> cache,
-         CounterConfiguration configuration, CounterManagerNotificationManager notificationManager) {
+         CounterConfiguration configuration, CounterManagerNotificationManager notificationManager,
+         ScheduledExecutorService scheduledExecutor) {
       this.cache = cache;
       this.notificationManager = notificationManager;
       FunctionalMapImpl<WeakCounterKey, CounterValue> functionalMap = FunctionalMapImpl.create(cache)
@@ -87,6 +110,10 @@ public WeakCounterImpl(String counterName, AdvancedCache<WeakCounterKey, Counter
       this.zeroConfiguration = CounterConfiguration.builder(CounterType.WEAK)
             .concurrencyLevel(configuration.concurrencyLevel()).storage(configuration.storage()).initialValue(0)
             .build();
+      this.scheduledExecutor = scheduledExecutor;
+      this.accumulator = configuration.flushInterval() > 0 || configuration.flushThreshold() > 0 ?
+            new Accumulator(configuration.flushThreshold()) :
+            null;
    }
 
    private static <T> T get(int hash, T[] array) {
@@ -131,6 +158,9 @@ public void init() {
                .thenAccept(value -> initEntry(index, value)));
       }
       selector.updatePreferredKeys();
+      if (accumulator != null && configuration.flushInterval() > 0) {
+         accumulator.schedule(configuration.flushInterval());
+      }
    }
 
    @Override
@@ -141,12 +171,38 @@ public String getName() {
    @Override
    public long getValue() {
       //return the initial value if it doesn't have a valid snapshot!
+      if (accumulator == null) {
+         Long snapshot = getCachedValue();
+         return snapshot == null ? configuration.initialValue() : snapshot;
+      }
+      // Read the pending deltas first, a delta flushed in the meantime is then counted twice instead of missed
+      long pending = accumulator.pending();
       Long snapshot = getCachedValue();
-      return snapshot == null ? configuration.initialValue() : snapshot;
+      long value = snapshot == null ? configuration.initialValue() : snapshot;
+      try {
+         return Math.addExact(value, pending);
+      } catch (ArithmeticException e) {
+         return pending > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+      }
    }
 
    @Override
    public CompletableFuture<Void> add(long delta) {
+      if (accumulator != null) {
+         accumulator.add(delta);
+         return CompletableFutures.completedNull();
+      }
+      return addToKey(delta);
+   }
+
+   /**
+    * Flushes the writes accumulated locally, if the counter is configured to accumulate them.
+    */
+   public CompletableFuture<Void> flush() {
+      return accumulator == null ? CompletableFutures.completedNull() : accumulator.flush();
+   }
+
+   private CompletableFuture<Void> addToKey(long delta) {
       WeakCounterKey key = findKey();
       return readWriteMap.eval(key, new AddFunction<>(delta))
             .thenCompose(counterValue -> handleAddResult(key, counterValue, delta));
@@ -154,6 +210,9 @@ public CompletableFuture<Void> add(long delta) {
 
    @Override
    public CompletableFuture<Void> reset() {
+      if (accumulator != null) {
+         accumulator.discard();
+      }
       final int size = entries.length;
       CompletableFuture[] futures = new CompletableFuture[size];
       for (int i = 0; i < size; ++i) {
@@ -193,6 +252,9 @@ public CounterEvent generate(CounterKey key, CounterValue value) {
 
    @Override
    public CompletableFuture<Void> remove() {
+      if (accumulator != null) {
+         accumulator.discard();
+      }
       final int size = entries.length;
       CompletableFuture[] futures = new CompletableFuture[size];
       for (int i = 0; i < size; ++i) {
@@ -207,10 +269,25 @@ public SyncWeakCounter sync() {
    }
 
    public void destroyAndRemove() {
+      if (accumulator != null) {
+         accumulator.cancel();
+      }
       removeListener();
       awaitCounterOperation(remove());
    }
 
+   /**
+    * Flushes the writes accumulated locally and stops flushing them periodically.
+    * <p>
+    * The flush is best effort: it waits at most the cache's remote timeout and the deltas that could not be flushed
+    * are lost.
+    */
+   public void stop() {
+      if (accumulator != null) {
+         accumulator.stop(cache.getCacheConfiguration().clustering().remoteTimeout());
+      }
+   }
+
    @Override
    public void topologyChanged() {
       selector.updatePreferredKeys();
@@ -347,6 +424,136 @@ private ByteString counterName() {
    }
 
 
+   /**
+    * Accumulates the writes locally until they are flushed.
+    */
+   private class Accumulator implements Runnable {
+      // The threshold is checked on 1 out of about threshold/THRESHOLD_SAMPLES writes
+      private static final int THRESHOLD_SAMPLES = 16;
+
+      private final LongAdder pending = new LongAdder();
+      // The flush in progress, if any. Only one flush at a time, so that the same delta is never flushed twice
+      private final AtomicReference<CompletableFuture<Void>> flushing = new AtomicReference<>();
+      private final AtomicBoolean stopped = new AtomicBoolean();
+      private final long threshold;
+      private final int thresholdCheckInterval;
+      private volatile ScheduledFuture<?> flushTask;
+      // The delta being flushed, it is still pending until the write completes
+      private volatile long inFlight;
+
+      private Accumulator(long threshold) {
+         this.threshold = threshold;
+         this.thresholdCheckInterval = (int) Math.min(Integer.MAX_VALUE, Math.max(1, threshold / THRESHOLD_SAMPLES));
+      }
+
+      void schedule(long interval) {
+         flushTask = scheduledExecutor.scheduleWithFixedDelay(this, interval, interval, TimeUnit.MILLISECONDS);
+      }
+
+      void cancel() {
+         ScheduledFuture<?> task = flushTask;
+         if (task != null) {
+            task.cancel(false);
+         }
+      }
+
+      void stop(long timeoutMillis) {
+         if (!stopped.compareAndSet(false, true)) {
+            return;
+         }
+         long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+         try {
+            long remaining;
+            while (pending() != 0 && (remaining = deadline - System.nanoTime()) > 0) {
+               flush().get(remaining, TimeUnit.NANOSECONDS);
+            }
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         } catch (ExecutionException | TimeoutException e) {
+            // the pending deltas are logged below
+         }
+         cancel();
+         long lost = pending();
+         if (lost != 0) {
+            CONTAINER.weakCounterPendingUpdatesLost(getName(), lost);
+         }
+      }
+
+      void add(long delta) {
+         pending.add(delta);
+         if (threshold > 0 && shouldCheckThreshold(delta) && Math.abs(pending.sum()) >= threshold) {
+            flush();
+         }
+      }
+
+      private boolean shouldCheckThreshold(long delta) {
+         // Summing the cells on every write would make the writers contend on them again
+         int interval = thresholdCheckInterval;
+         return interval == 1 || Math.abs(delta) >= interval || ThreadLocalRandom.current().nextInt(interval) == 0;
+      }
+
+      /**
+       * @return The deltas not written yet, including the one being flushed. The flushed delta may be counted twice
+       * while the flush completes: it is subtracted after its write is applied, or when a failed write adds it back.
+       */
+      long pending() {
+         long sum = pending.sum();
+         return sum + inFlight;
+      }
+
+      void discard() {
+         // Concurrent writes are either included in the sum and discarded or kept
+         pending.add(-pending.sum());
+      }
+
+      CompletableFuture<Void> flush() {
+         CompletableFuture<Void> current = flushing.get();
+         if (current != null) {
+            return current;
+         }
+         CompletableFuture<Void> result = new CompletableFuture<>();
+         if (!flushing.compareAndSet(null, result)) {
+            current = flushing.get();
+            // null if the other flush already completed
+            return current == null ? CompletableFutures.completedNull() : current;
+         }
+         long delta = pending.sum();
+         if (delta == 0) {
+            flushing.set(null);
+            result.complete(null);
+            return result;
+         }
+         inFlight = delta;
+         pending.add(-delta);
+         CompletableFuture<Void> cf;
+         try {
+            cf = addToKey(delta);
+         } catch (Throwable t) {
+            cf = CompletableFutures.completedExceptionFuture(t);
+         }
+         cf.whenComplete((ignore, throwable) -> {
+            if (throwable != null) {
+               // Keep the delta to retry with the next flush
+               pending.add(delta);
+               CONTAINER.failedToFlushWeakCounter(getName(), throwable);
+            }
+            inFlight = 0;
+            flushing.set(null);
+            if (throwable != null) {
+               result.completeExceptionally(throwable);
+            } else {
+               result.complete(null);
+            }
+         });
+         return result;
+      }
+
+      @Override
+      public void run() {
+         flush();
+      }
+   }
+
    private static class Entry {
       final WeakCounterKey key;
       @GuardedBy("entries")
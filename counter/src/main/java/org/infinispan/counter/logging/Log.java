@@ -1,5 +1,7 @@
 package org.infinispan.counter.logging;
 
+import static org.jboss.logging.Logger.Level.WARN;
+
 import java.io.File;
 
 import org.infinispan.counter.exception.CounterConfigurationException;
@@ -8,6 +10,7 @@
 import org.jboss.logging.BasicLogger;
 import org.jboss.logging.Logger;
 import org.jboss.logging.annotations.Cause;
+import org.jboss.logging.annotations.LogMessage;
 import org.jboss.logging.annotations.Message;
 import org.jboss.logging.annotations.MessageLogger;
 
@@ -110,4 +113,18 @@ public interface Log extends BasicLogger {
 
    @Message(value = "MBean registration failed", id = 29529)
    CounterException jmxRegistrationFailed(@Cause Throwable cause);
+
+   @Message(value = "Invalid flush-interval. It must be zero or higher but it was %s", id = 29530)
+   CounterConfigurationException invalidFlushInterval(long value);
+
+   @Message(value = "Invalid flush-threshold. It must be zero or higher but it was %s", id = 29531)
+   CounterConfigurationException invalidFlushThreshold(long value);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Unable to flush the pending updates of weak counter '%s'. They will be retried.", id = 29532)
+   void failedToFlushWeakCounter(String counterName, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Unable to flush the pending updates of weak counter '%s' before stopping it. A delta of %s is lost.", id = 29533)
+   void weakCounterPendingUpdatesLost(String counterName, long delta);
 }
@@ -0,0 +1,70 @@
+package org.infinispan.counter;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.counter.api.CounterConfiguration;
+import org.infinispan.counter.api.CounterManager;
+import org.infinispan.counter.api.CounterType;
+import org.infinispan.counter.api.WeakCounter;
+import org.infinispan.counter.impl.BaseCounterTest;
+import org.infinispan.counter.impl.weak.WeakCounterImpl;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the flush of the writes accumulated locally by a {@link WeakCounter}.
+ *
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "counter.WeakCounterStopTest")
+public class WeakCounterStopTest extends BaseCounterTest {
+
+   private static final long FLUSH_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+   public void testPendingWritesFlushedOnStop(Method method) throws ExecutionException, InterruptedException {
+      final String counterName = method.getName();
+      defineCounter(counterManager(0), counterName);
+      WeakCounter counter = counterManager(2).getWeakCounter(counterName);
+      counter.add(7).get();
+      // Not flushed, only visible locally
+      assertEquals(7, counter.getValue());
+      assertEquals(0, counterManager(0).getWeakCounter(counterName).getValue());
+
+      killMember(2);
+
+      WeakCounter other = counterManager(0).getWeakCounter(counterName);
+      eventuallyEquals(7L, other::getValue);
+   }
+
+   public void testValueDoesNotDecreaseWhileFlushing(Method method) throws ExecutionException, InterruptedException {
+      final String counterName = method.getName();
+      CounterManager counterManager = counterManager(0);
+      defineCounter(counterManager, counterName);
+      WeakCounterImpl counter = (WeakCounterImpl) counterManager.getWeakCounter(counterName);
+      for (long expected = 1; expected <= 50; ++expected) {
+         counter.add(1).get();
+         CompletableFuture<Void> flush = counter.flush();
+         while (!flush.isDone()) {
+            long value = counter.getValue();
+            assertTrue("Value " + value + " is lower than " + expected, value >= expected);
+         }
+         flush.get();
+         eventuallyEquals(expected, counter::getValue);
+      }
+   }
+
+   @Override
+   protected int clusterSize() {
+      return 3;
+   }
+
+   private static void defineCounter(CounterManager counterManager, String counterName) {
+      counterManager.defineCounter(counterName,
+            CounterConfiguration.builder(CounterType.WEAK).flushInterval(FLUSH_INTERVAL).build());
+   }
+}
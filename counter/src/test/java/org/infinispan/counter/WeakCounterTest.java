@@ -34,6 +34,58 @@ public void testSingleConcurrencyLevel() throws ExecutionException, InterruptedE
       assertEquals(2, wc.getValue());
    }
 
+   public void testAccumulatedWrites() throws ExecutionException, InterruptedException {
+      final String counterName = "accumulated-counter";
+      EmbeddedCounterManagerFactory.asCounterManager(manager(0)).defineCounter(counterName,
+            CounterConfiguration.builder(CounterType.WEAK).initialValue(5).flushInterval(100).build());
+      for (int i = 0; i < CLUSTER_SIZE; ++i) {
+         WeakCounter counter = EmbeddedCounterManagerFactory.asCounterManager(manager(i)).getWeakCounter(counterName);
+         for (int j = 0; j < 10; ++j) {
+            counter.add(1).get();
+         }
+      }
+      for (int i = 0; i < CLUSTER_SIZE; ++i) {
+         WeakCounter counter = EmbeddedCounterManagerFactory.asCounterManager(manager(i)).getWeakCounter(counterName);
+         eventuallyEquals(5L + 10 * CLUSTER_SIZE, counter::getValue);
+      }
+   }
+
+   public void testAccumulatedWritesFlushThreshold() throws ExecutionException, InterruptedException {
+      final String counterName = "threshold-counter";
+      CounterManager counterManager = EmbeddedCounterManagerFactory.asCounterManager(manager(0));
+      counterManager.defineCounter(counterName,
+            CounterConfiguration.builder(CounterType.WEAK).flushThreshold(10).build());
+      WeakCounter counter = counterManager.getWeakCounter(counterName);
+      counter.add(9).get();
+      // Not flushed, only visible locally
+      assertEquals(9, counter.getValue());
+      assertEquals(0, EmbeddedCounterManagerFactory.asCounterManager(manager(1)).getWeakCounter(counterName).getValue());
+      counter.add(1).get();
+      for (int i = 0; i < CLUSTER_SIZE; ++i) {
+         WeakCounter other = EmbeddedCounterManagerFactory.asCounterManager(manager(i)).getWeakCounter(counterName);
+         eventuallyEquals(10L, other::getValue);
+      }
+   }
+
+   public void testSampledFlushThreshold() throws ExecutionException, InterruptedException {
+      final String counterName = "sampled-threshold-counter";
+      final long threshold = 1600;
+      CounterManager counterManager = EmbeddedCounterManagerFactory.asCounterManager(manager(0));
+      counterManager.defineCounter(counterName,
+            CounterConfiguration.builder(CounterType.WEAK).flushThreshold(threshold).build());
+      WeakCounter counter = counterManager.getWeakCounter(counterName);
+      WeakCounter other = EmbeddedCounterManagerFactory.asCounterManager(manager(1)).getWeakCounter(counterName);
+      // A write as large as the threshold is always checked
+      counter.add(threshold).get();
+      eventuallyEquals(threshold, other::getValue);
+      // The small writes are checked on a sample, the threshold is crossed again long before the last one
+      for (int i = 0; i < 2 * threshold; ++i) {
+         counter.add(1).get();
+      }
+      assertEquals(3 * threshold, counter.getValue());
+      eventually(() -> other.getValue() >= 2 * threshold);
+   }
+
    @Override
    protected void assertMaxValueAfterMaxValue(WeakTestCounter counter, long delta) {
       counter.add(delta);
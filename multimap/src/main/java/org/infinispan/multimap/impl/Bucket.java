@@ -1,10 +1,12 @@
 package org.infinispan.multimap.impl;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
 
 import org.infinispan.commons.marshall.ProtoStreamTypeIds;
 import org.infinispan.marshall.protostream.impl.MarshallableUserObject;
@@ -14,6 +16,20 @@
 
 /**
  * Bucket used to store MultiMap values, required as HashSet cannot be directly marshalled via ProtoStream.
+ * <p>
+ * A bucket is immutable, the modification methods return a new bucket. The values are kept in an array in insertion
+ * order, together with an open addressing hash index of their positions. A bucket created by {@link #add(Object)}
+ * shares both arrays with the bucket it was created from and only sees the values up to its own length, so appending a
+ * value to a large bucket does not copy it. Only one bucket can append to the shared arrays at the same position, any
+ * other bucket appending there copies the values first.
+ * <p>
+ * Removing values does not copy them either: the bucket created by {@link #remove(Object)} or
+ * {@link #removeIf(Predicate)} shares the arrays too and marks the positions of the removed values in a bit set of its
+ * own. The values are only copied, without the removed ones, when more than half of the positions are removed or when
+ * another bucket already appended to the shared arrays.
+ * <p>
+ * The values are kept wrapped in the {@link MarshallableUserObject} used to marshall them, so that marshalling a bucket
+ * does not create a wrapper per value.
  *
  * @author Ryan Emerson
  * @since 10.0
@@ -21,50 +37,226 @@
 @ProtoTypeId(ProtoStreamTypeIds.MULTIMAP_BUCKET)
 public class Bucket<V> {
 
-   final Collection<V> values;
+   private static final int MIN_CAPACITY = 4;
+
+   private final Values values;
+   // The number of positions of the shared arrays seen by this bucket, including the removed ones
+   private final int length;
+   private final int size;
+   // Bit i is set when the value at position i is removed, null if none is. Copied before it is modified.
+   private final long[] removed;
 
    public Bucket() {
-      this.values = ConcurrentHashMap.newKeySet();
+      this(new Values(MIN_CAPACITY), 0, 0, null);
+   }
+
+   private Bucket(Values values, int length, int size, long[] removed) {
+      this.values = values;
+      this.length = length;
+      this.size = size;
+      this.removed = removed;
    }
 
    @ProtoFactory
-   Bucket(HashSet<MarshallableUserObject<V>> wrappedValues) {
-      this.values = wrappedValues.stream().map(MarshallableUserObject::get).collect(Collectors.toSet());
+   Bucket(List<MarshallableUserObject<V>> wrappedValues) {
+      Values values = new Values(Math.max(MIN_CAPACITY, wrappedValues.size()));
+      int length = 0;
+      for (MarshallableUserObject<V> wrappedValue : wrappedValues) {
+         if (values.indexOf(wrappedValue.get(), length, null) < 0) {
+            values.append(length++, wrappedValue);
+         }
+      }
+      values.length.set(length);
+      this.values = values;
+      this.length = length;
+      this.size = length;
+      this.removed = null;
    }
 
-   @ProtoField(number = 1, collectionImplementation = HashSet.class)
-   Set<MarshallableUserObject<V>> getWrappedValues() {
-      return this.values.stream().map(MarshallableUserObject::new).collect(Collectors.toSet());
+   @ProtoField(number = 1, collectionImplementation = ArrayList.class)
+   List<MarshallableUserObject<V>> getWrappedValues() {
+      MarshallableUserObject<?>[] array = values.array;
+      if (removed == null) {
+         return (List) Arrays.asList(array).subList(0, length);
+      }
+      List<MarshallableUserObject<V>> wrappedValues = new ArrayList<>(size);
+      for (int i = 0; i < length; i++) {
+         if (!isRemoved(removed, i)) {
+            wrappedValues.add((MarshallableUserObject<V>) array[i]);
+         }
+      }
+      return wrappedValues;
    }
 
    public boolean contains(V value) {
-      return this.values.contains(value);
+      return values.indexOf(value, length, removed) >= 0;
+   }
+
+   /**
+    * @return a bucket that also contains the given value, or this bucket if it already contains it.
+    */
+   public Bucket<V> add(V value) {
+      if (contains(value)) {
+         return this;
+      }
+      MarshallableUserObject<V> wrappedValue = new MarshallableUserObject<>(value);
+      Values values = this.values;
+      if (length < values.array.length && values.length.compareAndSet(length, length + 1)) {
+         values.append(length, wrappedValue);
+         return new Bucket<>(values, length + 1, size + 1, removed);
+      }
+      Values copy = new Values(Math.max(MIN_CAPACITY, size << 1));
+      int newLength = copy.copyFrom(values, length, removed);
+      copy.append(newLength, wrappedValue);
+      copy.length.set(newLength + 1);
+      return new Bucket<>(copy, newLength + 1, newLength + 1, null);
+   }
+
+   /**
+    * @return a bucket without the given value, or this bucket if it does not contain it.
+    */
+   public Bucket<V> remove(V value) {
+      int position = values.indexOf(value, length, removed);
+      if (position < 0) {
+         return this;
+      }
+      long[] newRemoved = copyRemoved();
+      markRemoved(newRemoved, position);
+      return withRemoved(newRemoved, size - 1);
+   }
+
+   /**
+    * @return a bucket without the values matching the given predicate, or this bucket if no value matches.
+    */
+   public Bucket<V> removeIf(Predicate<? super V> predicate) {
+      long[] newRemoved = null;
+      int newSize = size;
+      MarshallableUserObject<?>[] array = values.array;
+      for (int i = 0; i < length; i++) {
+         if (!isRemoved(removed, i) && predicate.test((V) array[i].get())) {
+            if (newRemoved == null) {
+               newRemoved = copyRemoved();
+            }
+            markRemoved(newRemoved, i);
+            newSize--;
+         }
+      }
+      return newRemoved == null ? this : withRemoved(newRemoved, newSize);
    }
 
-   public boolean add(V value) {
-      return this.values.add(value);
+   /**
+    * Creates the bucket with the given removed positions, compacting the values once more than half of the positions
+    * are removed, so that a removal costs a copy of the bit set and an amortized constant number of copied values.
+    */
+   private Bucket<V> withRemoved(long[] newRemoved, int newSize) {
+      if (length - newSize <= newSize) {
+         return new Bucket<>(values, length, newSize, newRemoved);
+      }
+      Values copy = new Values(Math.max(MIN_CAPACITY, newSize));
+      int newLength = copy.copyFrom(values, length, newRemoved);
+      return new Bucket<>(copy, newLength, newLength, null);
    }
 
-   public boolean addAll(Bucket<V> bucket) {
-      return this.values.addAll(bucket.values);
+   private long[] copyRemoved() {
+      long[] copy = new long[(length + 63) >>> 6];
+      if (removed != null) {
+         System.arraycopy(removed, 0, copy, 0, Math.min(removed.length, copy.length));
+      }
+      return copy;
    }
 
-   public boolean remove(V value) {
-      return this.values.remove(value);
+   private static void markRemoved(long[] removed, int position) {
+      removed[position >>> 6] |= 1L << position;
+   }
+
+   private static boolean isRemoved(long[] removed, int position) {
+      // The positions appended after the bit set was created are not removed
+      return removed != null && position >>> 6 < removed.length && (removed[position >>> 6] & (1L << position)) != 0;
    }
 
    public boolean isEmpty() {
-      return values.isEmpty();
+      return size == 0;
    }
 
    public int size() {
-      return values.size();
+      return size;
    }
 
    /**
-    * @return a defensive copy of the {@link #values} collection.
+    * @return a defensive copy of the values in this bucket.
     */
    public Set<V> toSet() {
-      return new HashSet<>(values);
+      Set<V> set = new HashSet<>(size + (size >> 1) + 1);
+      MarshallableUserObject<?>[] array = values.array;
+      for (int i = 0; i < length; i++) {
+         if (!isRemoved(removed, i)) {
+            set.add((V) array[i].get());
+         }
+      }
+      return set;
+   }
+
+   /**
+    * Values shared by a bucket and all the buckets appended to it.
+    */
+   private static final class Values {
+      final MarshallableUserObject<?>[] array;
+      // Position + 1 of each value, 0 marks an empty slot. Never more than half full.
+      final int[] index;
+      // The number of positions claimed by a bucket, a position is written only once
+      final AtomicInteger length = new AtomicInteger();
+
+      Values(int capacity) {
+         array = new MarshallableUserObject<?>[capacity];
+         index = new int[Integer.highestOneBit(capacity - 1) << 2];
+      }
+
+      /**
+       * Returns the position of the value or -1 if it is not found in the first {@code length} positions, or only at
+       * removed positions. Positions that are appended concurrently are ignored, as they are only written to slots
+       * that were empty when the values up to {@code length} were appended.
+       */
+      int indexOf(Object value, int length, long[] removed) {
+         int mask = index.length - 1;
+         for (int slot = spread(value.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int position = index[slot] - 1;
+            if (position < 0) {
+               return -1;
+            }
+            // A value added again after it was removed has several positions
+            if (position < length && !isRemoved(removed, position) && value.equals(array[position].get())) {
+               return position;
+            }
+         }
+      }
+
+      void append(int position, MarshallableUserObject<?> value) {
+         array[position] = value;
+         int mask = index.length - 1;
+         int slot = spread(value.get().hashCode()) & mask;
+         while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+         }
+         index[slot] = position + 1;
+      }
+
+      /**
+       * Appends the first {@code length} values of the other instance, skipping the removed ones.
+       * @return the number of values appended
+       */
+      int copyFrom(Values other, int length, long[] removed) {
+         int newLength = 0;
+         for (int i = 0; i < length; i++) {
+            if (!isRemoved(removed, i)) {
+               append(newLength++, other.array[i]);
+            }
+         }
+         this.length.set(newLength);
+         return newLength;
+      }
+
+      private static int spread(int hashCode) {
+         return hashCode ^ (hashCode >>> 16);
+      }
    }
 }
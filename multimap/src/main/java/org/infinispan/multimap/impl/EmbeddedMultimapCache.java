@@ -186,12 +186,7 @@ private boolean isExplicitTxContext() throws SystemException {
 
    private Void removeInternal(Predicate<? super V> p) {
       cache.keySet().stream().forEach((c, key) -> c.computeIfPresent(key, (o, o1) -> {
-         Bucket<V> bucket = (Bucket<V>) o1;
-         Bucket<V> newBucket = new Bucket<>();
-         for (V v : bucket.values) {
-            if (!p.test(v))
-               newBucket.add(v);
-         }
+         Bucket<V> newBucket = ((Bucket<V>) o1).removeIf(p);
          return newBucket.isEmpty() ? null : newBucket;
       }));
       return null;
@@ -30,10 +30,8 @@ public PutFunction(V value) {
 
    @Override
    public Void apply(EntryView.ReadWriteEntryView<K, Bucket<V>> entryView) {
-      Bucket<V> bucket = new Bucket<>();
-      bucket.add(value);
-      entryView.find().map(bucket::addAll);
-      entryView.set(bucket);
+      Bucket<V> bucket = entryView.find().orElseGet(Bucket::new);
+      entryView.set(bucket.add(value));
       return null;
    }
 
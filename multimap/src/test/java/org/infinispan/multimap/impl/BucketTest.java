@@ -0,0 +1,128 @@
+package org.infinispan.multimap.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertSame;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.infinispan.marshall.protostream.impl.MarshallableUserObject;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "multimap.BucketTest")
+public class BucketTest extends AbstractInfinispanTest {
+
+   public void testAddReturnsNewBucket() {
+      Bucket<String> empty = new Bucket<>();
+      Bucket<String> one = empty.add("a");
+      Bucket<String> two = one.add("b");
+
+      assertTrue(empty.isEmpty());
+      assertFalse(empty.contains("a"));
+      assertEquals(1, one.size());
+      assertTrue(one.contains("a"));
+      assertFalse(one.contains("b"));
+      assertEquals(new HashSet<>(Arrays.asList("a", "b")), two.toSet());
+      assertSame(two, two.add("a"));
+   }
+
+   public void testAppendFromOlderBucketCopies() {
+      Bucket<String> base = new Bucket<String>().add("a");
+      Bucket<String> left = base.add("b");
+      Bucket<String> right = base.add("c");
+
+      assertEquals(new HashSet<>(Arrays.asList("a", "b")), left.toSet());
+      assertEquals(new HashSet<>(Arrays.asList("a", "c")), right.toSet());
+      assertEquals(new HashSet<>(Arrays.asList("a")), base.toSet());
+      assertFalse(left.contains("c"));
+      assertFalse(right.contains("b"));
+   }
+
+   public void testManyValues() {
+      Bucket<Integer> bucket = new Bucket<>();
+      for (int i = 0; i < 10_000; i++) {
+         bucket = bucket.add(i);
+      }
+      assertEquals(10_000, bucket.size());
+      for (int i = 0; i < 10_000; i++) {
+         assertTrue(bucket.contains(i));
+      }
+      assertFalse(bucket.contains(10_000));
+   }
+
+   public void testRemove() {
+      Bucket<String> bucket = new Bucket<String>().add("a").add("b").add("c");
+      Bucket<String> removed = bucket.remove("b");
+
+      assertSame(removed, removed.remove("b"));
+      assertEquals(new HashSet<>(Arrays.asList("a", "c")), removed.toSet());
+      assertEquals(3, bucket.size());
+      assertTrue(bucket.contains("b"));
+      assertEquals(new HashSet<>(Arrays.asList("a", "c", "d")), removed.add("d").toSet());
+
+      Bucket<String> filtered = bucket.removeIf(v -> !v.equals("c"));
+      assertEquals(new HashSet<>(Arrays.asList("c")), filtered.toSet());
+      assertSame(filtered, filtered.removeIf(v -> false));
+   }
+
+   public void testRemoveManyValues() {
+      Bucket<Integer> bucket = new Bucket<>();
+      for (int i = 0; i < 1000; i++) {
+         bucket = bucket.add(i);
+      }
+      Bucket<Integer> full = bucket;
+      // Removing and adding again, across several compactions
+      for (int i = 0; i < 1000; i += 2) {
+         bucket = bucket.remove(i);
+      }
+      bucket = bucket.add(0).add(1000);
+      for (int i = 1; i < 1000; i += 3) {
+         bucket = bucket.remove(i);
+      }
+      Set<Integer> expected = new HashSet<>();
+      for (int i = 0; i <= 1000; i++) {
+         // 1000 was added again but removed with the values whose remainder is 1
+         if (i == 0 || (i % 2 == 1 && i % 3 != 1)) {
+            expected.add(i);
+         }
+      }
+      assertEquals(expected, bucket.toSet());
+      assertEquals(expected.size(), bucket.size());
+      for (int i = 0; i <= 1000; i++) {
+         assertEquals(expected.contains(i), bucket.contains(i));
+      }
+      assertEquals(expected.size(), bucket.getWrappedValues().size());
+      // The removals did not modify the original bucket
+      assertEquals(1000, full.size());
+      assertTrue(full.contains(2));
+   }
+
+   public void testRemovedValueAddedAgain() {
+      Bucket<String> bucket = new Bucket<String>().add("a").add("b").add("c").add("d");
+      Bucket<String> removed = bucket.remove("b");
+      Bucket<String> readded = removed.add("b");
+      assertFalse(removed.contains("b"));
+      assertTrue(readded.contains("b"));
+      assertEquals(4, readded.size());
+      assertFalse(readded.remove("b").contains("b"));
+      assertEquals(new HashSet<>(Arrays.asList("a", "c", "d")), readded.remove("b").toSet());
+   }
+
+   public void testMarshallingReusesWrappers() {
+      Bucket<String> bucket = new Bucket<String>().add("a").add("b");
+      List<MarshallableUserObject<String>> first = bucket.getWrappedValues();
+      List<MarshallableUserObject<String>> second = bucket.getWrappedValues();
+      assertEquals(2, first.size());
+      assertSame(first.get(0), second.get(0));
+      assertSame(first.get(1), second.get(1));
+      assertEquals("a", first.get(0).get());
+
+      Bucket<String> unmarshalled = new Bucket<>(first);
+      assertSame(first.get(1), unmarshalled.remove("a").getWrappedValues().get(0));
+   }
+}
@@ -416,6 +416,45 @@ public String getDeleteRowSql() {
       return deleteRowSql;
    }
 
+   /**
+    * Returns the parameter to compare against the id column, which some databases require to be converted.
+    */
+   protected String getIdParameter() {
+      return "?";
+   }
+
+   private void appendIdParameters(StringBuilder stringBuilder, int numKeys) {
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(" IN (");
+      String idParameter = getIdParameter();
+      stringBuilder.append(idParameter);
+      for (int i = 1; i < numKeys; ++i) {
+         stringBuilder.append(',');
+         stringBuilder.append(idParameter);
+      }
+      stringBuilder.append(")");
+   }
+
+   @Override
+   public String getDeleteRowsSql(int numKeys) {
+      StringBuilder stringBuilder = new StringBuilder("DELETE FROM ");
+      stringBuilder.append(dataTableName);
+      stringBuilder.append(" WHERE ");
+      appendIdParameters(stringBuilder, numKeys);
+      return stringBuilder.toString();
+   }
+
+   @Override
+   public String getSelectIdRowsSql(int numKeys) {
+      StringBuilder stringBuilder = new StringBuilder("SELECT ");
+      stringBuilder.append(config.idColumnName());
+      stringBuilder.append(" FROM ");
+      stringBuilder.append(dataTableName);
+      stringBuilder.append(" WHERE ");
+      appendIdParameters(stringBuilder, numKeys);
+      return stringBuilder.toString();
+   }
+
    @Override
    public String getDeleteRowsSqlForSegments(int numSegments) {
       StringBuilder stringBuilder = new StringBuilder("DELETE FROM ");
@@ -47,6 +47,11 @@ public String initSelectIdRowSql() {
                                      config.idColumnType());
    }
 
+   @Override
+   protected String getIdParameter() {
+      return String.format("cast(? as %s)", config.idColumnType());
+   }
+
    @Override
    public String initDeleteRowSql() {
       return String.format("DELETE FROM %s WHERE %s = cast(? as %s)",
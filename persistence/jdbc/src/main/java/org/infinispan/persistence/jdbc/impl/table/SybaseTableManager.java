@@ -48,6 +48,11 @@ protected String initSelectIdRowSql() {
                                      config.idColumnName(), dataTableName, config.idColumnName(), config.idColumnType());
    }
 
+   @Override
+   protected String getIdParameter() {
+      return String.format("convert(%s,?)", config.idColumnType());
+   }
+
    @Override
    protected String initDeleteRowSql() {
          return String.format("DELETE FROM %s WHERE %s = convert(%s,?)",
@@ -65,6 +65,16 @@ default void dropTables(Connection conn) throws PersistenceException {
 
    String getDeleteRowSql();
 
+   /**
+    * Returns the sql to delete the rows of the given number of keys with a single statement.
+    */
+   String getDeleteRowsSql(int numKeys);
+
+   /**
+    * Returns the sql to select which of the given number of keys have a row.
+    */
+   String getSelectIdRowsSql(int numKeys);
+
    String getLoadNonExpiredAllRowsSql();
 
    String getLoadNonExpiredRowsSqlForSegments(int numSegments);
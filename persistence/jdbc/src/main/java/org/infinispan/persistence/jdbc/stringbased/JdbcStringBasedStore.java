@@ -10,9 +10,14 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.PrimitiveIterator;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
@@ -30,6 +35,7 @@
 import org.infinispan.commons.time.TimeService;
 import org.infinispan.commons.util.AbstractIterator;
 import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.distribution.ch.KeyPartitioner;
@@ -79,6 +85,12 @@
  * <b>Rehashing</b>. When a node leaves/joins, Infinispan moves around persistent state as part of rehashing process.
  * For this it needs access to the underlaying key objects, so if distribution is used, the mapper needs to be an
  * {@link org.infinispan.persistence.keymappers.TwoWayKey2StringMapper} otherwise the cache won't start (same constraint as with preloading).
+ * <p/>
+ * <b>Batching</b>. Bulk updates, such as the ones issued by a write-behind store, are split in batches of up to
+ * {@link org.infinispan.configuration.cache.AbstractStoreConfiguration#maxBatchSize()} entries. Multiple writes to the
+ * same key in a batch are coalesced and the rows are written with a single JDBC batch. If the database does not
+ * support upserts, the keys that already have a row are found with a single query per batch. Batch deletes remove the
+ * rows with a single {@code DELETE ... WHERE id IN (...)} statement per batch.
  *
  * @author Mircea.Markus@jboss.com
  * @see org.infinispan.persistence.keymappers.Key2StringMapper
@@ -90,6 +102,8 @@
 
    private static final Log log = LogFactory.getLog(JdbcStringBasedStore.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
+   // Some databases, e.g. Oracle, do not allow more than 1000 expressions in an IN list
+   private static final int MAX_IN_PARAMETERS = 1000;
 
    private final Map<Transaction, Connection> transactionConnectionMap = new ConcurrentHashMap<>();
    private JdbcStringBasedStoreConfiguration configuration;
@@ -105,6 +119,7 @@
    private TimeService timeService;
    private KeyPartitioner keyPartitioner;
    private boolean isDistributedCache;
+   private int numSegments;
 
    @Override
    public void init(InitializationContext ctx) {
@@ -117,6 +132,7 @@ public void init(InitializationContext ctx) {
       this.timeService = ctx.getTimeService();
       this.keyPartitioner = configuration.segmented() ? ctx.getKeyPartitioner() : null;
       this.isDistributedCache = ctx.getCache().getCacheConfiguration() != null && ctx.getCache().getCacheConfiguration().clustering().cacheMode().isDistributed();
+      this.numSegments = ctx.getCache().getCacheConfiguration() != null ? ctx.getCache().getCacheConfiguration().clustering().hash().numSegments() : Integer.MAX_VALUE;
    }
 
    @Override
@@ -241,10 +257,6 @@ public void write(MarshallableEntry<? extends K, ? extends V> entry) {
       }
    }
 
-   private void write(MarshallableEntry entry, Connection connection, int segment) throws SQLException, InterruptedException {
-      write(entry, connection, key2Str(entry.getKey()), segment);
-   }
-
    private void write(MarshallableEntry entry, Connection connection, String keyStr, int segment) throws SQLException, InterruptedException {
       if (tableManager.isUpsertSupported()) {
          executeUpsert(connection, entry, keyStr, segment);
@@ -300,11 +312,18 @@ private void executeLegacyUpdate(Connection connection, MarshallableEntry entry,
 
    @Override
    public CompletionStage<Void> bulkUpdate(Publisher<MarshallableEntry<? extends K, ? extends V>> publisher) {
-      // If upsert is not supported, then we must execute the legacy write for each entry; i.e. read then update/insert
+      // If upsert is not supported, then we must find which keys already exist and then update or insert them
       if (!tableManager.isUpsertSupported()) {
          CompletableFuture<Void> future = new CompletableFuture<>();
-         Flowable.fromPublisher(publisher)
-               .doOnNext(this::write)
+         Flowable
+               .using(connectionFactory::getConnection,
+                     connection -> Flowable.fromPublisher(publisher)
+                           .buffer(maxInBatchSize())
+                           .doOnNext(entries -> executeLegacyBatch(connection, coalesce(entries)))
+                           .doOnError(e -> {
+                              throw PERSISTENCE.sqlFailureWritingBatch(e);
+                           }),
+                     connectionFactory::releaseConnection)
                .subscribe(RxJavaInterop.emptyConsumer(), future::completeExceptionally, () -> future.complete(null));
          return future;
       }
@@ -329,9 +348,9 @@ public CompletionStage<Void> bulkUpdate(Publisher<MarshallableEntry<? extends K,
       return Flowable.fromPublisher(publisher)
             .buffer(configuration.maxBatchSize())
             .doOnNext(entries -> {
-               for (MarshallableEntry<? extends K, ? extends V> entry : entries) {
-                  String keyStr = key2Str(entry.getKey());
-                  prepareUpsertStatement(entry, keyStr, getSegment(entry), upsertBatch);
+               for (Map.Entry<String, MarshallableEntry<? extends K, ? extends V>> entry : coalesce(entries).entrySet()) {
+                  MarshallableEntry<? extends K, ? extends V> marshallableEntry = entry.getValue();
+                  prepareUpsertStatement(marshallableEntry, entry.getKey(), getSegment(marshallableEntry), upsertBatch);
                   upsertBatch.addBatch();
                }
                upsertBatch.executeBatch();
@@ -342,29 +361,110 @@ public CompletionStage<Void> bulkUpdate(Publisher<MarshallableEntry<? extends K,
             });
    }
 
+   /**
+    * Keys the entries by their string mapping, keeping only the last entry written for each key.
+    */
+   private <E extends MarshallableEntry<? extends K, ? extends V>> Map<String, E> coalesce(Iterable<E> entries) {
+      Map<String, E> coalesced = new LinkedHashMap<>();
+      for (E entry : entries) {
+         String keyStr = key2Str(entry.getKey());
+         // Remove first, so that the insertion order follows the last write
+         coalesced.remove(keyStr);
+         coalesced.put(keyStr, entry);
+      }
+      return coalesced;
+   }
+
+   private int maxInBatchSize() {
+      return Math.max(1, Math.min(configuration.maxBatchSize(), MAX_IN_PARAMETERS));
+   }
+
+   /**
+    * Writes the entries without upsert support, finding which ones already have a row with a single query.
+    */
+   private void executeLegacyBatch(Connection connection, Map<String, ? extends MarshallableEntry> entries)
+         throws SQLException, InterruptedException {
+      if (entries.isEmpty()) {
+         return;
+      }
+      Set<String> existingKeys = new HashSet<>();
+      String sql = tableManager.getSelectIdRowsSql(entries.size());
+      if (trace) {
+         log.tracef("Running sql '%s' for %d keys", sql, entries.size());
+      }
+      try (PreparedStatement ps = connection.prepareStatement(sql)) {
+         int offset = 0;
+         for (String keyStr : entries.keySet()) {
+            ps.setString(++offset, keyStr);
+         }
+         try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+               existingKeys.add(rs.getString(1));
+            }
+         }
+      }
+      boolean update = !existingKeys.isEmpty();
+      boolean insert = existingKeys.size() < entries.size();
+      try (PreparedStatement updateBatch = update ? connection.prepareStatement(tableManager.getUpdateRowSql()) : null;
+           PreparedStatement insertBatch = insert ? connection.prepareStatement(tableManager.getInsertRowSql()) : null) {
+         for (Map.Entry<String, ? extends MarshallableEntry> entry : entries.entrySet()) {
+            String keyStr = entry.getKey();
+            MarshallableEntry marshallableEntry = entry.getValue();
+            if (existingKeys.contains(keyStr)) {
+               prepareStatement(marshallableEntry, keyStr, getSegment(marshallableEntry), updateBatch, false);
+               updateBatch.addBatch();
+            } else {
+               prepareStatement(marshallableEntry, keyStr, getSegment(marshallableEntry), insertBatch, true);
+               insertBatch.addBatch();
+            }
+         }
+         if (update) {
+            updateBatch.executeBatch();
+         }
+         if (insert) {
+            insertBatch.executeBatch();
+         }
+      }
+   }
+
+   /**
+    * Deletes the keys with one statement for every {@link #maxInBatchSize()} keys.
+    */
+   private void executeDeleteBatch(Connection connection, Iterable<Object> keys) throws SQLException {
+      int maxKeys = maxInBatchSize();
+      List<String> keyStrs = new ArrayList<>(maxKeys);
+      for (Object key : keys) {
+         keyStrs.add(key2Str(key));
+         if (keyStrs.size() == maxKeys) {
+            executeDelete(connection, keyStrs);
+            keyStrs.clear();
+         }
+      }
+      if (!keyStrs.isEmpty()) {
+         executeDelete(connection, keyStrs);
+      }
+   }
+
+   private void executeDelete(Connection connection, Collection<String> keyStrs) throws SQLException {
+      String sql = tableManager.getDeleteRowsSql(keyStrs.size());
+      if (trace) {
+         log.tracef("Running sql '%s' for %d keys", sql, keyStrs.size());
+      }
+      try (PreparedStatement ps = connection.prepareStatement(sql)) {
+         int offset = 0;
+         for (String keyStr : keyStrs) {
+            ps.setString(++offset, keyStr);
+         }
+         ps.executeUpdate();
+      }
+   }
+
    @Override
    public void deleteBatch(Iterable<Object> keys) {
       Connection connection = null;
       try {
          connection = connectionFactory.getConnection();
-         try (PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
-            int batchSize = 0;
-            for (Object key : keys) {
-               String keyStr = key2Str(key);
-               deleteBatch.setString(1, keyStr);
-               deleteBatch.addBatch();
-               batchSize++;
-
-               if (batchSize == configuration.maxBatchSize()) {
-                  batchSize = 0;
-                  deleteBatch.executeBatch();
-                  deleteBatch.clearBatch();
-               }
-            }
-
-            if (batchSize != 0)
-               deleteBatch.executeBatch();
-         }
+         executeDeleteBatch(connection, keys);
       } catch (SQLException e) {
          throw PERSISTENCE.sqlFailureDeletingBatch(keys, e);
       } finally {
@@ -551,7 +651,34 @@ public boolean contains(Object key) {
       return loadEntry(key) != null;
    }
 
+   /**
+    * Publishes the rows of the given segments, or of all the segments if {@code segments} is {@code null}. The rows are
+    * read with a forward only cursor and fetched {@link TableManager#getFetchSize()} at a time, only when the subscriber
+    * requests them, so the number of rows held in memory does not depend on the size of the table.
+    * <p>
+    * Requesting all the segments scans the table without filtering by segment. If there are more segments than a
+    * database allows in an IN list, they are read with one query after the other, keeping a single cursor open.
+    */
    private <P> Flowable<P> publish(IntSet segments, Function<ResultSet, Flowable<P>> function) {
+      if (segments == null || segments.size() >= numSegments) {
+         return publishRows(null, function);
+      }
+      if (segments.size() <= MAX_IN_PARAMETERS) {
+         return publishRows(segments, function);
+      }
+      List<IntSet> chunks = new ArrayList<>();
+      IntSet chunk = null;
+      for (PrimitiveIterator.OfInt segIter = segments.iterator(); segIter.hasNext(); ) {
+         if (chunk == null || chunk.size() == MAX_IN_PARAMETERS) {
+            chunk = IntSets.mutableEmptySet();
+            chunks.add(chunk);
+         }
+         chunk.set(segIter.nextInt());
+      }
+      return Flowable.fromIterable(chunks).concatMap(s -> publishRows(s, function));
+   }
+
+   private <P> Flowable<P> publishRows(IntSet segments, Function<ResultSet, Flowable<P>> function) {
       return Flowable.using(() -> {
          String sql;
          if (segments != null) {
@@ -562,7 +689,7 @@ private <P> Flowable<P> publish(IntSet segments, Function<ResultSet, Flowable<P>
          if (trace) {
             log.tracef("Running sql %s", sql);
          }
-         return new FlowableConnection(connectionFactory, sql);
+         return new FlowableConnection(connectionFactory, sql, tableManager.getFetchSize());
       }, fc -> {
          PreparedStatement ps = fc.statement;
          int offset = 1;
@@ -572,9 +699,7 @@ private <P> Flowable<P> publish(IntSet segments, Function<ResultSet, Flowable<P>
                ps.setInt(++offset, segIter.nextInt());
             }
          }
-         ps.setFetchSize(tableManager.getFetchSize());
-         ResultSet rs = ps.executeQuery();
-         return function.apply(rs).doOnComplete(() -> JdbcUtil.safeClose(rs));
+         return function.apply(fc.executeQuery());
       }, FlowableConnection::close);
    }
 
@@ -583,12 +708,14 @@ static class FlowableConnection {
       final ConnectionFactory factory;
       final Connection connection;
       final PreparedStatement statement;
+      ResultSet resultSet;
 
-      FlowableConnection(ConnectionFactory factory, String sql) throws SQLException {
+      FlowableConnection(ConnectionFactory factory, String sql, int fetchSize) throws SQLException {
          this.factory = factory;
          this.connection = factory.getConnection();
          this.autoCommit = connection.getAutoCommit();
-         this.statement = connection.prepareStatement(sql);
+         this.statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+         statement.setFetchSize(fetchSize);
 
          // Some JDBC drivers require auto commit disabled to do paging, however before calling setAutoCommit(false)
          // we must ensure that we're not running in a managed transaction by ensuring that getAutoCommit is true.
@@ -597,7 +724,14 @@ static class FlowableConnection {
             connection.setAutoCommit(false);
       }
 
+      ResultSet executeQuery() throws SQLException {
+         resultSet = statement.executeQuery();
+         return resultSet;
+      }
+
       void close() {
+         // The subscriber may cancel before reaching the end of the rows
+         JdbcUtil.safeClose(resultSet);
          JdbcUtil.safeClose(statement);
          if (autoCommit) {
             try {
@@ -636,33 +770,30 @@ public void prepareWithModifications(Transaction transaction, BatchModification
          Connection connection = getTxConnection(transaction);
          connection.setAutoCommit(false);
 
-         boolean upsertSupported = tableManager.isUpsertSupported();
-         try (PreparedStatement upsertBatch = upsertSupported ? connection.prepareStatement(tableManager.getUpsertRowSql()) : null;
-              PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
-
-            for (MarshallableEntry entry : batchModification.getMarshallableEntries()) {
-               int segment = getSegment(entry);
-               if (upsertSupported) {
+         if (tableManager.isUpsertSupported()) {
+            try (PreparedStatement upsertBatch = connection.prepareStatement(tableManager.getUpsertRowSql())) {
+               for (MarshallableEntry entry : batchModification.getMarshallableEntries()) {
                   String keyStr = key2Str(entry.getKey());
-                  prepareUpsertStatement(entry, keyStr, segment, upsertBatch);
+                  prepareUpsertStatement(entry, keyStr, getSegment(entry), upsertBatch);
                   upsertBatch.addBatch();
-               } else {
-                  write(entry, connection, segment);
                }
-            }
 
-            for (Object key : batchModification.getKeysToRemove()) {
-               String keyStr = key2Str(key);
-               deleteBatch.setString(1, keyStr);
-               deleteBatch.addBatch();
+               if (!batchModification.getMarshallableEntries().isEmpty())
+                  upsertBatch.executeBatch();
             }
-
-            if (upsertSupported && !batchModification.getMarshallableEntries().isEmpty())
-               upsertBatch.executeBatch();
-
-            if (!batchModification.getKeysToRemove().isEmpty())
-               deleteBatch.executeUpdate();
+         } else {
+            Map<String, MarshallableEntry> entries = new LinkedHashMap<>();
+            for (MarshallableEntry entry : batchModification.getMarshallableEntries()) {
+               entries.put(key2Str(entry.getKey()), entry);
+               if (entries.size() == maxInBatchSize()) {
+                  executeLegacyBatch(connection, entries);
+                  entries.clear();
+               }
+            }
+            executeLegacyBatch(connection, entries);
          }
+
+         executeDeleteBatch(connection, batchModification.getKeysToRemove());
          // We do not call connection.close() in the event of an exception, as close() on active Tx behaviour is implementation
          // dependent. See https://docs.oracle.com/javase/8/docs/api/java/sql/Connection.html#close--
       } catch (SQLException | InterruptedException e) {
@@ -1,11 +1,18 @@
 package org.infinispan.persistence.jdbc.stringbased;
 
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.infinispan.commons.util.IntSets;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
 import org.infinispan.persistence.SegmentedStoreTest;
 import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
 import org.infinispan.persistence.jdbc.UnitTestDatabaseManager;
 import org.testng.annotations.Test;
 
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+
 /**
  * Test to ensure that JDBC string based store works properly when segmented
  * @author wburns
@@ -13,12 +20,45 @@
  */
 @Test(groups = "functional", testName = "persistence.jdbc.stringbased.JdbcStringBasedSegmentedStoreTest")
 public class JdbcStringBasedSegmentedStoreTest extends SegmentedStoreTest {
+   private static final int FETCH_SIZE = 10;
+
    @Override
    protected void configurePersistence(ConfigurationBuilder cb) {
       JdbcStringBasedStoreConfigurationBuilder storeBuilder =
             cb.persistence().addStore(JdbcStringBasedStoreConfigurationBuilder.class);
       UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
       UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
+      storeBuilder.table().fetchSize(FETCH_SIZE);
       storeBuilder.segmented(true);
    }
+
+   public void testIterationWithAllSegments() {
+      int numEntries = FETCH_SIZE * 5;
+      store.clear();
+      for (int i = 0; i < numEntries; i++) {
+         store.write(MarshalledEntryUtil.create(i, i, cache));
+      }
+      int numSegments = cache.getCacheConfiguration().clustering().hash().numSegments();
+      long count = Flowable.fromPublisher(store.entryPublisher(IntSets.immutableRangeSet(numSegments), null, true, true))
+            .count().blockingGet();
+      assertEquals(numEntries, count);
+   }
+
+   public void testIterationBackpressure() {
+      int numEntries = FETCH_SIZE * 5;
+      store.clear();
+      for (int i = 0; i < numEntries; i++) {
+         store.write(MarshalledEntryUtil.create(i, i, cache));
+      }
+      int numSegments = cache.getCacheConfiguration().clustering().hash().numSegments();
+      TestSubscriber<Object> subscriber = Flowable.fromPublisher(store.publishKeys(IntSets.immutableRangeSet(numSegments), null))
+            .test(0);
+      subscriber.assertNoValues();
+      subscriber.request(FETCH_SIZE + 1);
+      subscriber.assertValueCount(FETCH_SIZE + 1);
+      subscriber.cancel();
+
+      // The cancelled publisher must have released its connection
+      assertEquals(numEntries, Flowable.fromPublisher(store.publishKeys(null)).count().blockingGet().intValue());
+   }
 }
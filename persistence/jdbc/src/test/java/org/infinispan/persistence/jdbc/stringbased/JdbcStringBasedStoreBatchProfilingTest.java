@@ -0,0 +1,102 @@
+package org.infinispan.persistence.jdbc.stringbased;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.jdbc.UnitTestDatabaseManager;
+import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
+import org.infinispan.persistence.jdbc.impl.table.TableManagerFactory;
+import org.infinispan.persistence.spi.MarshallableEntry;
+import org.infinispan.persistence.spi.MarshallableEntryFactory;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.testng.annotations.Test;
+
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Compares the throughput of writing and deleting entries one by one, as the store did for every modification of a
+ * write-behind flush, with the batched {@code bulkUpdate} and {@code deleteBatch} used by the flush now. Runs against
+ * the embedded H2 database, with and without upsert support.
+ *
+ * @since 12.0
+ */
+@Test(groups = "profiling", testName = "persistence.jdbc.stringbased.JdbcStringBasedStoreBatchProfilingTest")
+public class JdbcStringBasedStoreBatchProfilingTest extends SingleCacheManagerTest {
+   private static final int ENTRIES = 10_000;
+   private static final String LEGACY_CACHE = "legacy";
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      EmbeddedCacheManager cacheManager = TestCacheManagerFactory.createCacheManager(storeConfiguration(false));
+      cacheManager.defineConfiguration(LEGACY_CACHE, storeConfiguration(true).build());
+      return cacheManager;
+   }
+
+   private ConfigurationBuilder storeConfiguration(boolean upsertDisabled) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      JdbcStringBasedStoreConfigurationBuilder storeBuilder = builder.persistence()
+            .addStore(JdbcStringBasedStoreConfigurationBuilder.class);
+      if (upsertDisabled) {
+         storeBuilder.addProperty(TableManagerFactory.UPSERT_DISABLED, "true");
+      }
+      UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
+      UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
+      return builder;
+   }
+
+   public void testUpsert() {
+      profile(cache);
+   }
+
+   public void testUpsertDisabled() {
+      profile(cacheManager.getCache(LEGACY_CACHE));
+   }
+
+   private void profile(Cache<Object, Object> cache) {
+      JdbcStringBasedStore<Object, Object> store = TestingUtil.getFirstWriter(cache);
+      MarshallableEntryFactory<Object, Object> entryFactory = TestingUtil.extractComponent(cache, MarshallableEntryFactory.class);
+      List<MarshallableEntry<Object, Object>> entries = new ArrayList<>(ENTRIES);
+      List<Object> keys = new ArrayList<>(ENTRIES);
+      for (int i = 0; i < ENTRIES; i++) {
+         String key = "key" + i;
+         keys.add(key);
+         entries.add(entryFactory.create(key, "value" + i));
+      }
+
+      long start = System.nanoTime();
+      for (MarshallableEntry<Object, Object> entry : entries) {
+         store.write(entry);
+      }
+      report("Single writes", start);
+      assertEquals(ENTRIES, store.size());
+      start = System.nanoTime();
+      for (Object key : keys) {
+         store.delete(key);
+      }
+      report("Single deletes", start);
+      assertEquals(0, store.size());
+
+      start = System.nanoTime();
+      CompletionStages.join(store.bulkUpdate(Flowable.fromIterable(entries)));
+      report("Batch writes", start);
+      assertEquals(ENTRIES, store.size());
+      start = System.nanoTime();
+      store.deleteBatch(keys);
+      report("Batch deletes", start);
+      assertEquals(0, store.size());
+   }
+
+   private void report(String operation, long startNanos) {
+      long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+      log.infof("%s: %d entries in %d ms, %d entries/s", operation, ENTRIES, millis, ENTRIES * 1000L / millis);
+   }
+}
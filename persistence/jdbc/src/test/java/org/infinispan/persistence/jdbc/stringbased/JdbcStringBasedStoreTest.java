@@ -16,6 +16,7 @@
 import org.infinispan.persistence.jdbc.connectionfactory.ConnectionFactory;
 import org.infinispan.persistence.jdbc.impl.table.AbstractTableManager;
 import org.infinispan.persistence.jdbc.impl.table.TableManager;
+import org.infinispan.persistence.jdbc.impl.table.TableManagerFactory;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.testng.annotations.Factory;
@@ -30,23 +31,31 @@
 public class JdbcStringBasedStoreTest extends BaseStoreTest {
 
    boolean segmented;
+   boolean upsertDisabled;
 
    public JdbcStringBasedStoreTest segmented(boolean segmented) {
       this.segmented = segmented;
       return this;
    }
 
+   public JdbcStringBasedStoreTest upsertDisabled(boolean upsertDisabled) {
+      this.upsertDisabled = upsertDisabled;
+      return this;
+   }
+
    @Factory
    public Object[] factory() {
       return new Object[] {
             new JdbcStringBasedStoreTest().segmented(false),
             new JdbcStringBasedStoreTest().segmented(true),
+            new JdbcStringBasedStoreTest().segmented(false).upsertDisabled(true),
+            new JdbcStringBasedStoreTest().segmented(true).upsertDisabled(true),
       };
    }
 
    @Override
    protected String parameters() {
-      return "[" + segmented + "]";
+      return "[" + segmented + ", " + upsertDisabled + "]";
    }
 
    @Override
@@ -56,6 +65,9 @@ protected AdvancedLoadWriteStore createStore() throws Exception {
             .persistence()
                .addStore(JdbcStringBasedStoreConfigurationBuilder.class);
       storeBuilder.segmented(segmented);
+      if (upsertDisabled) {
+         storeBuilder.addProperty(TableManagerFactory.UPSERT_DISABLED, "true");
+      }
       UnitTestDatabaseManager.configureUniqueConnectionFactory(storeBuilder);
       UnitTestDatabaseManager.buildTableManipulation(storeBuilder.table());
       JdbcStringBasedStore stringBasedCacheStore = new JdbcStringBasedStore();
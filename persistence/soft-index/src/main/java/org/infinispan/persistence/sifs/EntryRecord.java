@@ -3,6 +3,8 @@
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Helper for reading/writing entries into file.
@@ -62,11 +64,10 @@ public EntryRecord loadMetadataAndValue(FileProvider.Handle handle, int offset)
    }
 
    public static EntryHeader readEntryHeader(FileProvider.Handle handle, long offset) throws IOException {
-      ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
-      if (read(handle, header, offset, EntryHeader.HEADER_SIZE_11_0) < 0) {
+      ByteBuffer header = readBuffer(handle, offset, EntryHeader.HEADER_SIZE_11_0);
+      if (header == null) {
          return null;
       }
-      header.flip();
       try {
          return new EntryHeader(header);
       } catch (IllegalStateException e) {
@@ -75,11 +76,10 @@ public static EntryHeader readEntryHeader(FileProvider.Handle handle, long offse
    }
 
    public static EntryHeader readOldEntryHeader(FileProvider.Handle handle, long offset) throws IOException {
-      ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE_10_1);
-      if (read(handle, header, offset, EntryHeader.HEADER_SIZE_10_1) < 0) {
+      ByteBuffer header = readBuffer(handle, offset, EntryHeader.HEADER_SIZE_10_1);
+      if (header == null) {
          return null;
       }
-      header.flip();
       try {
          return new EntryHeader(header, true);
       } catch (IllegalStateException e) {
@@ -107,12 +107,11 @@ public static EntryMetadata readMetadata(FileProvider.Handle handle, EntryHeader
       }
 
       offset += metaLength;
-      ByteBuffer buffer = ByteBuffer.allocate(EntryMetadata.TIMESTAMP_BYTES);
-      if (read(handle, buffer, offset, EntryMetadata.TIMESTAMP_BYTES) < 0) {
+      ByteBuffer buffer = readBuffer(handle, offset, EntryMetadata.TIMESTAMP_BYTES);
+      if (buffer == null) {
          throw new IllegalStateException("End of file reached when reading timestamps on "
                + handle.getFileId() + ":" + offset + ": " + header);
       }
-      buffer.flip();
       return new EntryMetadata(metadata, buffer.getLong(), buffer.getLong());
    }
 
@@ -138,6 +137,22 @@ public static byte[] readValue(FileProvider.Handle handle, EntryHeader header, l
       return value;
    }
 
+   /**
+    * Memory-mapped files are decoded directly from the mapping, otherwise the bytes are read into a new buffer.
+    * Returns <code>null</code> if the end of file was reached.
+    */
+   private static ByteBuffer readBuffer(FileProvider.Handle handle, long position, int length) throws IOException {
+      if (handle.isMemoryMapped()) {
+         return handle.slice(position, length);
+      }
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      if (read(handle, buffer, position, length) < 0) {
+         return null;
+      }
+      buffer.flip();
+      return buffer;
+   }
+
    private static int read(FileProvider.Handle handle, ByteBuffer buffer, long position, int length) throws IOException {
       int read = 0;
       do {
@@ -179,6 +194,21 @@ public static void writeEntry(FileChannel fileChannel, org.infinispan.commons.io
                                  org.infinispan.commons.io.ByteBuffer serializedInternalMetadata,
                                  org.infinispan.commons.io.ByteBuffer serializedValue,
                                  long seqId, long expiration, long created, long lastUsed) throws IOException {
+      List<ByteBuffer> buffers = new ArrayList<>(6);
+      addEntryBuffers(buffers, serializedKey, serializedMetadata, serializedInternalMetadata, serializedValue,
+            seqId, expiration, created, lastUsed);
+      write(fileChannel, buffers.toArray(new ByteBuffer[0]));
+   }
+
+   /**
+    * Appends the buffers forming a serialized entry to the list, so that multiple entries can be written with a single
+    * gathering write.
+    */
+   static void addEntryBuffers(List<ByteBuffer> buffers, org.infinispan.commons.io.ByteBuffer serializedKey,
+                               org.infinispan.commons.io.ByteBuffer serializedMetadata,
+                               org.infinispan.commons.io.ByteBuffer serializedInternalMetadata,
+                               org.infinispan.commons.io.ByteBuffer serializedValue,
+                               long seqId, long expiration, long created, long lastUsed) {
       ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE_11_0);
       EntryHeader.writeHeader(header,
             (short) serializedKey.getLength(),
@@ -187,17 +217,31 @@ public static void writeEntry(FileChannel fileChannel, org.infinispan.commons.io
             serializedInternalMetadata == null ? 0 : (short) serializedInternalMetadata.getLength(),
             seqId, expiration);
       header.flip();
-      write(fileChannel, header);
-      write(fileChannel, ByteBuffer.wrap(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength()));
+      buffers.add(header);
+      buffers.add(ByteBuffer.wrap(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength()));
       if (serializedMetadata != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedMetadata.getBuf(), serializedMetadata.getOffset(), serializedMetadata.getLength()));
-         writeTimestamps(fileChannel, created, lastUsed);
+         buffers.add(ByteBuffer.wrap(serializedMetadata.getBuf(), serializedMetadata.getOffset(), serializedMetadata.getLength()));
+         ByteBuffer timestamps = ByteBuffer.allocate(EntryMetadata.TIMESTAMP_BYTES);
+         timestamps.putLong(created);
+         timestamps.putLong(lastUsed);
+         timestamps.flip();
+         buffers.add(timestamps);
       }
       if (serializedValue != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedValue.getBuf(), serializedValue.getOffset(), serializedValue.getLength()));
+         buffers.add(ByteBuffer.wrap(serializedValue.getBuf(), serializedValue.getOffset(), serializedValue.getLength()));
       }
       if (serializedInternalMetadata != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedInternalMetadata.getBuf(), serializedInternalMetadata.getOffset(), serializedInternalMetadata.getLength()));
+         buffers.add(ByteBuffer.wrap(serializedInternalMetadata.getBuf(), serializedInternalMetadata.getOffset(), serializedInternalMetadata.getLength()));
+      }
+   }
+
+   static void write(FileChannel fileChannel, ByteBuffer[] buffers) throws IOException {
+      int first = 0;
+      while (first < buffers.length) {
+         fileChannel.write(buffers, first, buffers.length - first);
+         while (first < buffers.length && !buffers[first].hasRemaining()) {
+            first++;
+         }
       }
    }
 
@@ -6,7 +6,13 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.util.HashSet;
@@ -27,6 +33,10 @@
 /**
  * Provides resource management for files - only limited amount of files may be opened in one moment, and opened file
  * should not be deleted. Also allows to generate file indexes.
+ * <p>
+ * When memory mapping is enabled, files that are not used as a log anymore are mapped read-only once they are opened
+ * and the reads are served from the mapping. The mapping is released together with the file channel, that is only
+ * after all handles have been closed, so no reader can access a buffer that has been unmapped.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -35,6 +45,7 @@ public class FileProvider {
          LogFactory.getLog(FileProvider.class, org.infinispan.persistence.sifs.Log.class);
 
    private static final String REGEX_FORMAT = "^%s[0-9]+$";
+   private static final MethodHandle UNMAPPER = unmapper();
 
    private final File dataDir;
    private final int openFileLimit;
@@ -45,11 +56,17 @@ public class FileProvider {
    private final Set<Integer> logFiles = new HashSet<>();
    private final Set<FileIterator> iterators = ConcurrentHashMap.newKeySet();
    private final String prefix;
+   private final boolean memoryMapped;
 
    private int nextFileId = 0;
 
    public FileProvider(Path dataDir, int openFileLimit, String prefix) {
+      this(dataDir, openFileLimit, prefix, false);
+   }
+
+   public FileProvider(Path dataDir, int openFileLimit, String prefix, boolean memoryMapped) {
       this.openFileLimit = openFileLimit;
+      this.memoryMapped = memoryMapped;
       this.recordQueue = new ArrayBlockingQueue<>(openFileLimit);
       this.dataDir = dataDir.toFile();
       this.prefix = prefix;
@@ -92,7 +109,7 @@ public Handle getFile(int fileId) throws IOException {
                         if (other.isOpen()) {
                            // we have allocated opening a new file but then we use an old one
                            currentOpenFiles.decrementAndGet();
-                           return new Handle(other);
+                           return newHandle(other);
                         }
                      }
                   } else {
@@ -102,7 +119,7 @@ public Handle getFile(int fileId) throws IOException {
                         if (!newRecord.isOpen()) {
                            throw new IllegalStateException();
                         }
-                        handle = new Handle(newRecord);
+                        handle = newHandle(newRecord);
                      }
                      try {
                         recordQueue.put(newRecord);
@@ -115,7 +132,7 @@ public Handle getFile(int fileId) throws IOException {
             }
             synchronized (record) {
                if (record.isOpen()) {
-                  return new Handle(record);
+                  return newHandle(record);
                }
             }
          }
@@ -124,6 +141,15 @@ public Handle getFile(int fileId) throws IOException {
       }
    }
 
+   // Called with the read lock and the record monitor held
+   private Handle newHandle(Record record) throws IOException {
+      // Log files are still being appended to, they are mapped on the first access after they have been closed
+      if (memoryMapped && record.mapping == null && !logFiles.contains(record.getFileId())) {
+         record.map();
+      }
+      return new Handle(record);
+   }
+
    public long getFileSize(int file) {
       lock.readLock().lock();
       try {
@@ -335,9 +361,41 @@ private Handle(Record record) {
 
       public int read(ByteBuffer buffer, long offset) throws IOException {
          if (!usable) throw new IllegalStateException();
+         MappedByteBuffer mapping = record.mapping;
+         if (mapping != null) {
+            if (offset >= mapping.limit()) {
+               return -1;
+            }
+            ByteBuffer source = mapping.duplicate();
+            int length = (int) Math.min(buffer.remaining(), mapping.limit() - offset);
+            source.position((int) offset).limit((int) offset + length);
+            buffer.put(source);
+            return length;
+         }
          return record.getFileChannel().read(buffer, offset);
       }
 
+      /**
+       * Returns a view of <code>length</code> bytes at given offset in the mapped file, or <code>null</code> if the
+       * file ends before that. May be called only if {@link #isMemoryMapped()} returned true and the view must not be
+       * used after this handle is closed.
+       */
+      public ByteBuffer slice(long offset, int length) {
+         if (!usable) throw new IllegalStateException();
+         MappedByteBuffer mapping = record.mapping;
+         if (mapping == null) throw new IllegalStateException();
+         if (offset + length > mapping.limit()) {
+            return null;
+         }
+         ByteBuffer view = mapping.duplicate();
+         view.position((int) offset).limit((int) offset + length);
+         return view.slice();
+      }
+
+      public boolean isMemoryMapped() {
+         return record.mapping != null;
+      }
+
       @Override
       public void close() throws IOException {
          usable = false;
@@ -358,6 +416,8 @@ public int getFileId() {
    private class Record {
       private final int fileId;
       private FileChannel fileChannel;
+      // read without holding the record monitor by the handles
+      private volatile MappedByteBuffer mapping;
       private int handleCount;
       private boolean deleteOnClose = false;
 
@@ -370,6 +430,20 @@ FileChannel getFileChannel() {
          return fileChannel;
       }
 
+      void map() throws IOException {
+         mapping = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+      }
+
+      private void closeChannel() throws IOException {
+         MappedByteBuffer mapping = this.mapping;
+         if (mapping != null) {
+            this.mapping = null;
+            unmap(mapping);
+         }
+         fileChannel.close();
+         fileChannel = null;
+      }
+
       void increaseHandleCount() {
          handleCount++;
       }
@@ -379,8 +453,7 @@ void decreaseHandleCount() throws IOException {
          if (handleCount == 0 && deleteOnClose) {
             // we cannot easily remove the record from queue - keep it there until collection,
             // but physically close and delete the file
-            fileChannel.close();
-            fileChannel = null;
+            closeChannel();
             openFiles.remove(fileId, this);
             delete();
          }
@@ -399,8 +472,7 @@ public int getFileId() {
       }
 
       public void close() throws IOException {
-         fileChannel.close();
-         fileChannel = null;
+         closeChannel();
          if (deleteOnClose) {
             delete();
          }
@@ -415,8 +487,7 @@ public void delete() {
       public void deleteOnClose() throws IOException {
          if (handleCount == 0) {
             if (fileChannel != null) {
-               fileChannel.close();
-               fileChannel = null;
+               closeChannel();
             }
             openFiles.remove(fileId, this);
             delete();
@@ -454,4 +525,45 @@ public Integer next() {
          return diskFiles.hasNext() ? diskFiles.next() : addedFiles.poll();
       }
    }
+
+   /**
+    * Releases the mapping eagerly instead of waiting for the buffer to be garbage collected; until then the file
+    * would occupy address space and disk space even after it has been deleted.
+    */
+   private static void unmap(MappedByteBuffer buffer) {
+      if (UNMAPPER == null) {
+         return;
+      }
+      try {
+         UNMAPPER.invokeExact((ByteBuffer) buffer);
+      } catch (Throwable t) {
+         log.debugf(t, "Cannot unmap buffer");
+      }
+   }
+
+   private static MethodHandle unmapper() {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      try {
+         // JDK 9+
+         Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+         Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+         theUnsafe.setAccessible(true);
+         MethodHandle invokeCleaner = lookup.findVirtual(unsafeClass, "invokeCleaner",
+               MethodType.methodType(void.class, ByteBuffer.class));
+         return invokeCleaner.bindTo(theUnsafe.get(null));
+      } catch (ReflectiveOperationException | RuntimeException e) {
+         // fall through to the JDK 8 variant
+      }
+      try {
+         Class<?> directBuffer = Class.forName("sun.nio.ch.DirectBuffer");
+         Method cleanerMethod = directBuffer.getMethod("cleaner");
+         MethodHandle cleaner = lookup.unreflect(cleanerMethod);
+         MethodHandle clean = lookup.findVirtual(cleanerMethod.getReturnType(), "clean", MethodType.methodType(void.class));
+         return MethodHandles.filterReturnValue(cleaner, clean)
+               .asType(MethodType.methodType(void.class, ByteBuffer.class));
+      } catch (ReflectiveOperationException | RuntimeException e) {
+         log.debug("Mapped buffers cannot be unmapped explicitly, they will be released by the garbage collector", e);
+         return null;
+      }
+   }
 }
@@ -0,0 +1,26 @@
+package org.infinispan.persistence.sifs;
+
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.factories.annotations.InfinispanModule;
+import org.infinispan.lifecycle.ModuleLifecycle;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration;
+
+/**
+ * Registers the {@link LogAppenderStatistics} shared by the soft-index file stores of a cache, so that they are exposed
+ * through JMX and metrics together with the other cache components.
+ *
+ * @since 12.0
+ */
+@InfinispanModule(name = "cachestore-sifs", requiredModules = "core")
+public class LifecycleCallbacks implements ModuleLifecycle {
+
+   @Override
+   public void cacheStarting(ComponentRegistry cr, Configuration configuration, String cacheName) {
+      boolean hasSoftIndexStore = configuration.persistence().stores().stream()
+            .anyMatch(SoftIndexFileStoreConfiguration.class::isInstance);
+      if (hasSoftIndexStore) {
+         cr.registerComponent(new LogAppenderStatistics(), LogAppenderStatistics.class);
+      }
+   }
+}
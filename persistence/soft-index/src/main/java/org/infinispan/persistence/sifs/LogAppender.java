@@ -1,6 +1,10 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.util.logging.LogFactory;
@@ -9,6 +13,12 @@
  * This component has the only thread that polls the queue with requests to write some entry into the cache store.
  * It writes the records to append-only log files, inserts the entry position into TemporaryTable and queues the position
  * to be persisted in Index.
+ * <p>
+ * The requests are written in batches (group commit): all the requests in a batch are written with a single gathering
+ * write, the file is forced to disk once if the writes are synchronous and then the requestors are notified. A batch
+ * contains the requests that are queued when the thread gets to them, optionally extended by waiting up to
+ * <code>groupCommitWindow</code> for more requests, and is committed earlier when it reaches
+ * <code>groupCommitBytes</code>.
  *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
@@ -22,6 +32,14 @@ public class LogAppender extends Thread {
    private final int maxFileSize;
    private final Compactor compactor;
    private final FileProvider fileProvider;
+   private final long groupCommitWindow;
+   private final int groupCommitBytes;
+   private final LogAppenderStatistics statistics;
+   // requests popped but not written yet and the buffers holding their serialized form
+   private final List<LogRequest> batch = new ArrayList<>();
+   private final List<java.nio.ByteBuffer> buffers = new ArrayList<>();
+   private int batchBytes;
+   private long batchStart;
    private LogRequest pausedRequest;
    private long seqId = 0;
 
@@ -29,7 +47,8 @@ public class LogAppender extends Thread {
                BlockingQueue<IndexRequest> indexQueue,
                TemporaryTable temporaryTable,
                Compactor compactor,
-               FileProvider fileProvider, boolean syncWrites, int maxFileSize) {
+               FileProvider fileProvider, boolean syncWrites, int maxFileSize,
+               long groupCommitWindow, int groupCommitBytes, LogAppenderStatistics statistics) {
       super("BCS-LogAppender");
       this.setDaemon(true);
       this.queue = inboundQueue;
@@ -39,6 +58,9 @@ public class LogAppender extends Thread {
       this.fileProvider = fileProvider;
       this.syncWrites = syncWrites;
       this.maxFileSize = maxFileSize;
+      this.groupCommitWindow = TimeUnit.MICROSECONDS.toNanos(groupCommitWindow);
+      this.groupCommitBytes = groupCommitBytes;
+      this.statistics = statistics;
       start();
    }
 
@@ -69,9 +91,10 @@ public void run() {
          FileProvider.Log logFile = fileProvider.getFileForLog();
          int currentOffset = 0;
          while (true) {
-            LogRequest request = queue.pop();
+            LogRequest request = nextRequest();
             if (request != null) {
                if (request.isClear()) {
+                  commit(logFile, currentOffset);
                   logFile.close();
                   queue.notifyNoWait();
                   request.pause();
@@ -80,36 +103,36 @@ public void run() {
                   log.debug("Appending records to " + logFile.fileId);
                   continue;
                } else if (request.isStop()) {
+                  currentOffset = commit(logFile, currentOffset);
                   queue.notifyNoWait();
                   break;
                } else if (request.isPause()) {
+                  currentOffset = commit(logFile, currentOffset);
                   queue.notifyNoWait();
                   request.pause();
                   continue;
                }
-               if (currentOffset + request.length() > maxFileSize) {
+               if (currentOffset + batchBytes + request.length() > maxFileSize) {
                   // switch to next file
+                  commit(logFile, currentOffset);
+                  currentOffset = 0;
                   logFile.close();
                   compactor.completeFile(logFile.fileId);
-                  currentOffset = 0;
                   logFile = fileProvider.getFileForLog();
                   log.debug("Appending records to " + logFile.fileId);
                }
                long seqId = nextSeqId();
-               EntryRecord.writeEntry(logFile.fileChannel, request.getSerializedKey(), request.getSerializedMetadata(),
-                     request.getSerializedInternalMetadata(),
-                     request.getSerializedValue(), seqId, request.getExpiration(), request.getCreated(), request.getLastUsed());
-               int offset = request.getSerializedValue() == null ? ~currentOffset : currentOffset;
-               temporaryTable.set(request.getKey(), logFile.fileId, offset);
-               IndexRequest indexRequest = IndexRequest.update(request.getKey(), raw(request.getSerializedKey()),
-                     logFile.fileId, offset, request.length());
-               request.setIndexRequest(indexRequest);
-               indexQueue.put(indexRequest);
-               currentOffset += request.length();
-            } else {
-               if (syncWrites) {
-                  logFile.fileChannel.force(false);
+               EntryRecord.addEntryBuffers(buffers, request.getSerializedKey(), request.getSerializedMetadata(),
+                     request.getSerializedInternalMetadata(), request.getSerializedValue(), seqId,
+                     request.getExpiration(), request.getCreated(), request.getLastUsed());
+               batch.add(request);
+               batchBytes += request.length();
+               if (groupCommitBytes > 0 && batchBytes >= groupCommitBytes) {
+                  currentOffset = commit(logFile, currentOffset);
+                  queue.notifyNoWait();
                }
+            } else {
+               currentOffset = commit(logFile, currentOffset);
                queue.notifyAndWait();
             }
          }
@@ -119,6 +142,56 @@ public void run() {
       }
    }
 
+   /**
+    * Returns the next request, waiting up to the group commit window (measured from the first request in the batch)
+    * for more requests to arrive. Returns null when the batch should be committed.
+    */
+   private LogRequest nextRequest() throws InterruptedException {
+      LogRequest request = queue.pop();
+      if (request != null) {
+         if (batch.isEmpty()) {
+            batchStart = System.nanoTime();
+         }
+         return request;
+      }
+      if (groupCommitWindow <= 0 || batch.isEmpty()) {
+         return null;
+      }
+      long remaining = batchStart + groupCommitWindow - System.nanoTime();
+      return remaining > 0 ? queue.pop(remaining, TimeUnit.NANOSECONDS) : null;
+   }
+
+   /**
+    * Writes all requests in the batch using a single gathering write, forces the file if the writes are synchronous
+    * and only then makes the entries visible in the temporary table and queues the index updates.
+    * Returns the offset after the written entries.
+    */
+   private int commit(FileProvider.Log logFile, int currentOffset) throws IOException, InterruptedException {
+      if (batch.isEmpty()) {
+         return currentOffset;
+      }
+      EntryRecord.write(logFile.fileChannel, buffers.toArray(new java.nio.ByteBuffer[0]));
+      if (syncWrites) {
+         long start = System.nanoTime();
+         logFile.fileChannel.force(false);
+         statistics.recordSync(System.nanoTime() - start);
+      }
+      statistics.recordBatch(batch.size());
+      for (LogRequest request : batch) {
+         int offset = request.getSerializedValue() == null ? ~currentOffset : currentOffset;
+         temporaryTable.set(request.getKey(), logFile.fileId, offset);
+         IndexRequest indexRequest = IndexRequest.update(request.getKey(), raw(request.getSerializedKey()),
+               logFile.fileId, offset, request.length());
+         request.setIndexRequest(indexRequest);
+         indexQueue.put(indexRequest);
+         currentOffset += request.length();
+      }
+      batch.clear();
+      buffers.clear();
+      batchBytes = 0;
+      return currentOffset;
+   }
+
    private byte[] raw(ByteBuffer buffer) {
       if (buffer.getBuf().length == buffer.getLength()) {
          return buffer.getBuf();
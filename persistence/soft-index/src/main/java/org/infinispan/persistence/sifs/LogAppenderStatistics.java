@@ -0,0 +1,107 @@
+package org.infinispan.persistence.sifs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Timer;
+import org.infinispan.commons.stat.DefaultSimpleStat;
+import org.infinispan.commons.stat.SimpleStat;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * Statistics about the batches of writes the {@link LogAppender} commits to the data files: the number of requests
+ * written per batch and the time spent forcing the data file to disk when writes are synchronous.
+ * <p>
+ * The histograms are exported as metrics only when histograms are enabled in the global metrics configuration.
+ *
+ * @since 12.0
+ */
+@MBean(objectName = "SoftIndexFileStoreLogAppender", description = "Batching and fsync statistics of the soft-index file store")
+public class LogAppenderStatistics {
+   private final SimpleStat batchSizes = new DefaultSimpleStat();
+   private final SimpleStat syncTimes = new DefaultSimpleStat();
+   private volatile Histogram batchSizeHistogram;
+   private volatile Timer syncTimer;
+
+   void recordBatch(int requests) {
+      batchSizes.record(requests);
+      Histogram histogram = batchSizeHistogram;
+      if (histogram != null) {
+         histogram.update(requests);
+      }
+   }
+
+   void recordSync(long nanos) {
+      syncTimes.record(nanos);
+      Timer timer = syncTimer;
+      if (timer != null) {
+         timer.update(nanos, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   @ManagedAttribute(
+         description = "Number of batches of requests written to the data files",
+         displayName = "Number of batches",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getBatches() {
+      return batchSizes.count();
+   }
+
+   @ManagedAttribute(
+         description = "Average number of requests written in a single batch",
+         displayName = "Average batch size"
+   )
+   public long getAverageBatchSize() {
+      return batchSizes.getAverage(0);
+   }
+
+   @ManagedAttribute(
+         description = "Maximum number of requests written in a single batch",
+         displayName = "Maximum batch size"
+   )
+   public long getMaxBatchSize() {
+      return batchSizes.getMax(0);
+   }
+
+   @ManagedAttribute(
+         description = "Number of times a data file has been forced to disk",
+         displayName = "Number of fsyncs",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getSyncs() {
+      return syncTimes.count();
+   }
+
+   @ManagedAttribute(
+         description = "Average time to force a data file to disk",
+         displayName = "Average fsync time",
+         units = Units.NANOSECONDS
+   )
+   public long getAverageSyncTime() {
+      return syncTimes.getAverage(0);
+   }
+
+   @ManagedAttribute(
+         description = "Maximum time to force a data file to disk",
+         displayName = "Maximum fsync time",
+         units = Units.NANOSECONDS
+   )
+   public long getMaxSyncTime() {
+      return syncTimes.getMax(0);
+   }
+
+   @ManagedAttribute(description = "Batch sizes", displayName = "Batch sizes", dataType = DataType.HISTOGRAM)
+   public void setBatchSizes(Histogram batchSizes) {
+      this.batchSizeHistogram = batchSizes;
+   }
+
+   @ManagedAttribute(description = "Fsync times", displayName = "Fsync times", dataType = DataType.TIMER, units = Units.NANOSECONDS)
+   public void setSyncTimes(Timer syncTimes) {
+      this.syncTimer = syncTimes;
+   }
+}
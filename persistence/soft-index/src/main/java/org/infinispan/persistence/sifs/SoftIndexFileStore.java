@@ -133,6 +133,7 @@ public class SoftIndexFileStore implements AdvancedLoadWriteStore<Object, Object
    private TimeService timeService;
    private int maxKeyLength;
    private InitializationContext ctx;
+   private LogAppenderStatistics logAppenderStatistics;
 
    @Override
    public void init(InitializationContext ctx) {
@@ -143,6 +144,11 @@ public void init(InitializationContext ctx) {
       byteBufferFactory = ctx.getByteBufferFactory();
       timeService = ctx.getTimeService();
       maxKeyLength = configuration.maxNodeSize() - IndexNode.RESERVED_SPACE;
+      // Segmented stores share the statistics registered by LifecycleCallbacks for the whole cache
+      logAppenderStatistics = ctx.getCache().getAdvancedCache().getComponentRegistry().getComponent(LogAppenderStatistics.class);
+      if (logAppenderStatistics == null) {
+         logAppenderStatistics = new LogAppenderStatistics();
+      }
    }
 
    @Override
@@ -154,9 +160,12 @@ public synchronized void start() {
       temporaryTable = new TemporaryTable(configuration.indexQueueLength() * configuration.indexSegments());
       storeQueue = new SyncProcessingQueue<>();
       indexQueue = new IndexQueue(configuration.indexSegments(), configuration.indexQueueLength());
-      fileProvider = new FileProvider(getDataLocation(), configuration.openFilesLimit(), PREFIX_11_0);
+      fileProvider = new FileProvider(getDataLocation(), configuration.openFilesLimit(), PREFIX_11_0,
+            configuration.memoryMapped());
       compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold());
-      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize());
+      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider,
+            configuration.syncWrites(), configuration.maxFileSize(), configuration.groupCommitWindow(),
+            configuration.groupCommitBytes(), logAppenderStatistics);
       try {
          index = new Index(fileProvider, getIndexLocation(), configuration.indexSegments(),
                configuration.minNodeSize(), configuration.maxNodeSize(),
@@ -1,6 +1,7 @@
 package org.infinispan.persistence.sifs;
 
 import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Multiple producer-single consumer queue. The producers are expected to call pushAndWait(),
@@ -84,6 +85,30 @@ public T pop() {
       }
    }
 
+   /**
+    * Same as {@link #pop()} but if the queue is empty, waits up to the given time for an element to be pushed.
+    */
+   public T pop(long timeout, TimeUnit unit) throws InterruptedException {
+      if (poppedInRow >= maxPoppedInRow) {
+         return null;
+      }
+      T element;
+      synchronized (queue) {
+         long deadline = System.nanoTime() + unit.toNanos(timeout);
+         long remaining;
+         while ((element = queue.poll()) == null && (remaining = deadline - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.timedWait(queue, remaining);
+         }
+      }
+      if (element == null) {
+         return null;
+      } else {
+         processorPopIndex++;
+         poppedInRow++;
+         return element;
+      }
+   }
+
    public void notifyAndWait() {
       poppedInRow = 0;
       popIndex = processorPopIndex;
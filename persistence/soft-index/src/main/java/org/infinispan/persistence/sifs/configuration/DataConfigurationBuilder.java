@@ -1,7 +1,10 @@
 package org.infinispan.persistence.sifs.configuration;
 
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.DATA_LOCATION;
+import static org.infinispan.persistence.sifs.configuration.DataConfiguration.GROUP_COMMIT_BYTES;
+import static org.infinispan.persistence.sifs.configuration.DataConfiguration.GROUP_COMMIT_WINDOW;
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.MAX_FILE_SIZE;
+import static org.infinispan.persistence.sifs.configuration.DataConfiguration.MEMORY_MAPPED;
 import static org.infinispan.persistence.sifs.configuration.DataConfiguration.SYNC_WRITES;
 
 import org.infinispan.commons.configuration.Builder;
@@ -42,6 +45,21 @@ public DataConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   public DataConfigurationBuilder groupCommitWindow(long groupCommitWindow) {
+      attributes.attribute(GROUP_COMMIT_WINDOW).set(groupCommitWindow);
+      return this;
+   }
+
+   public DataConfigurationBuilder groupCommitBytes(int groupCommitBytes) {
+      attributes.attribute(GROUP_COMMIT_BYTES).set(groupCommitBytes);
+      return this;
+   }
+
+   public DataConfigurationBuilder memoryMapped(boolean memoryMapped) {
+      attributes.attribute(MEMORY_MAPPED).set(memoryMapped);
+      return this;
+   }
+
    @Override
    public void validate() {
    }
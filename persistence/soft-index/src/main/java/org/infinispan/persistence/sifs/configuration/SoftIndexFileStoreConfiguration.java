@@ -116,6 +116,18 @@ public boolean syncWrites() {
       return data.syncWrites();
    }
 
+   public long groupCommitWindow() {
+      return data.groupCommitWindow();
+   }
+
+   public int groupCommitBytes() {
+      return data.groupCommitBytes();
+   }
+
+   public boolean memoryMapped() {
+      return data.memoryMapped();
+   }
+
    public int openFilesLimit() {
       return attributes.attribute(OPEN_FILES_LIMIT).get();
    }
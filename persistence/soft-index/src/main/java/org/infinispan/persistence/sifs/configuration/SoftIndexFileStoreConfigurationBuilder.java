@@ -136,6 +136,41 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   /**
+    * Sets for how long, in microseconds, the log appender waits for further requests before it writes the current
+    * batch. All requests of a batch are written with a single gathering write and, when {@link #syncWrites(boolean)}
+    * is enabled, acknowledged after a single fsync. When set to <code>0</code> the batch contains only the requests
+    * that are already queued.
+    *
+    * Defaults to <code>0</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder groupCommitWindow(long groupCommitWindow) {
+      data.groupCommitWindow(groupCommitWindow);
+      return this;
+   }
+
+   /**
+    * Sets the size, in bytes, of the written entries after which a batch is committed even if the
+    * {@link #groupCommitWindow(long)} has not elapsed yet. When set to <code>0</code> the batch size is not limited.
+    *
+    * Defaults to <code>0</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder groupCommitBytes(int groupCommitBytes) {
+      data.groupCommitBytes(groupCommitBytes);
+      return this;
+   }
+
+   /**
+    * Sets whether data files that are no longer appended to should be memory-mapped for reads. Loads then decode the
+    * entries directly from the mapping instead of issuing a read system call into a freshly allocated buffer.
+    *
+    * Defaults to <code>false</code>.
+    */
+   public SoftIndexFileStoreConfigurationBuilder memoryMapped(boolean memoryMapped) {
+      data.memoryMapped(memoryMapped);
+      return this;
+   }
+
    /**
     * Sets the maximum number of open files.
     *
@@ -110,6 +110,15 @@ private void parseData(XMLExtendedStreamReader reader, SoftIndexFileStoreConfigu
             case SYNC_WRITES:
                builder.syncWrites(Boolean.parseBoolean(value));
                break;
+            case GROUP_COMMIT_WINDOW:
+               builder.groupCommitWindow(Long.parseLong(value));
+               break;
+            case GROUP_COMMIT_BYTES:
+               builder.groupCommitBytes(Integer.parseInt(value));
+               break;
+            case MEMORY_MAPPED:
+               builder.memoryMapped(Boolean.parseBoolean(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
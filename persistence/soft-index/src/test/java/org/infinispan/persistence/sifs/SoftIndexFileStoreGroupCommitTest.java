@@ -0,0 +1,90 @@
+package org.infinispan.persistence.sifs;
+
+import static org.infinispan.test.TestingUtil.getCacheObjectName;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.infinispan.commons.test.CommonsTestingUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that concurrent synchronous writes are committed in batches sharing a single fsync.
+ */
+@Test(groups = "functional", testName = "persistence.SoftIndexFileStoreGroupCommitTest")
+public class SoftIndexFileStoreGroupCommitTest extends SingleCacheManagerTest {
+   private static final String JMX_DOMAIN = SoftIndexFileStoreGroupCommitTest.class.getSimpleName();
+   private static final int WRITERS = 8;
+   private static final int WRITES_PER_WRITER = 100;
+
+   private final MBeanServer mBeanServer = MBeanServerFactory.newMBeanServer();
+   private String tmpDirectory;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      tmpDirectory = CommonsTestingUtil.tmpDirectory(getClass());
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder().nonClusteredDefault();
+      global.jmx().enabled(true).domain(JMX_DOMAIN).mBeanServerLookup(properties -> mBeanServer);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.persistence()
+            .addStore(SoftIndexFileStoreConfigurationBuilder.class)
+            .segmented(false)
+            .dataLocation(tmpDirectory + "/data").indexLocation(tmpDirectory + "/index")
+            .syncWrites(true)
+            .groupCommitWindow(2000)
+            .groupCommitBytes(64 * 1024);
+      return TestCacheManagerFactory.createCacheManager(global, builder);
+   }
+
+   @Override
+   protected void teardown() {
+      super.teardown();
+      Util.recursiveFileRemove(tmpDirectory);
+   }
+
+   public void testWritesAreBatched() throws Exception {
+      List<Future<Void>> futures = new ArrayList<>(WRITERS);
+      for (int i = 0; i < WRITERS; i++) {
+         int writer = i;
+         futures.add(fork(() -> {
+            for (int j = 0; j < WRITES_PER_WRITER; j++) {
+               cache.put(writer + "-" + j, "value" + j);
+            }
+            return null;
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get();
+      }
+
+      ObjectName statistics = getCacheObjectName(JMX_DOMAIN, cache.getName() + "(local)", "SoftIndexFileStoreLogAppender");
+      long batches = (Long) mBeanServer.getAttribute(statistics, "Batches");
+      long syncs = (Long) mBeanServer.getAttribute(statistics, "Syncs");
+      assertTrue("Expected fewer batches than writes: " + batches, batches < WRITERS * WRITES_PER_WRITER);
+      assertTrue((Long) mBeanServer.getAttribute(statistics, "MaxBatchSize") > 1);
+      assertEquals(batches, syncs);
+
+      for (int i = 0; i < WRITERS; i++) {
+         for (int j = 0; j < WRITES_PER_WRITER; j++) {
+            assertEquals("value" + j, cache.get(i + "-" + j));
+         }
+      }
+      cache.stop();
+      cache.start();
+      assertEquals("value0", cache.get("0-0"));
+   }
+}
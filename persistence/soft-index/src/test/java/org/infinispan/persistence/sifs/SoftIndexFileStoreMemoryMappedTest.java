@@ -0,0 +1,38 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.marshall.persistence.impl.MarshalledEntryUtil;
+import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the store tests with the data files read through memory mappings.
+ */
+@Test(groups = "unit", testName = "persistence.SoftIndexFileStoreMemoryMappedTest")
+public class SoftIndexFileStoreMemoryMappedTest extends SoftIndexFileStoreTest {
+
+   public SoftIndexFileStoreMemoryMappedTest() {
+      memoryMapped = true;
+   }
+
+   public void testReadAfterCompaction() {
+      int numEntries = 1000;
+      for (int round = 0; round < 3; ++round) {
+         // every round overwrites all entries, so that the files from previous round are compacted and deleted
+         for (int i = 0; i < numEntries; ++i) {
+            InternalCacheEntry ice = TestInternalCacheEntryFactory.create("key" + i, "value" + round + "-" + i);
+            store.write(MarshalledEntryUtil.create(ice, getMarshaller()));
+         }
+         for (int i = 0; i < numEntries; ++i) {
+            assertEquals("value" + round + "-" + i, store.loadEntry("key" + i).getValue());
+         }
+      }
+      store.stop();
+      store.start();
+      for (int i = 0; i < numEntries; ++i) {
+         assertEquals("value2-" + i, store.loadEntry("key" + i).getValue());
+      }
+   }
+}
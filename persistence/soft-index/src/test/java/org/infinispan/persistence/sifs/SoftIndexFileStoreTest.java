@@ -35,6 +35,7 @@ public class SoftIndexFileStoreTest extends BaseStoreTest {
    String tmpDirectory;
    boolean startIndex = true;
    boolean keepIndex = false;
+   boolean memoryMapped = false;
 
    @BeforeClass
    protected void setUpTempDir() {
@@ -80,7 +81,8 @@ public void stop() {
       builder.persistence()
             .addStore(SoftIndexFileStoreConfigurationBuilder.class)
             .indexLocation(tmpDirectory).dataLocation(tmpDirectory)
-            .maxFileSize(1000);
+            .maxFileSize(1000)
+            .memoryMapped(memoryMapped);
 
       Configuration c = builder.build();
       store.init(createContext(c));
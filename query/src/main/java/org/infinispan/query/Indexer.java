@@ -31,6 +31,16 @@ public interface Indexer {
     */
    CompletionStage<Void> remove(Class<?>... entities);
 
+   /**
+    * Waits for the index changes of the writes completed so far on this node to be applied. Only needed when the index
+    * is updated asynchronously, with the {@code infinispan.query.indexing.async} indexing property, to query the
+    * entries of the previous writes. Otherwise the writes wait for the indexes themselves and the stage is always
+    * completed.
+    *
+    * @since 12.0
+    */
+   CompletionStage<Void> awaitPendingIndexing();
+
    /**
     * @return true if the indexer process was started on this node and hasn't finished yet.
     */
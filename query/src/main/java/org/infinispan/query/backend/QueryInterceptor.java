@@ -2,13 +2,19 @@
 
 import static java.util.concurrent.CompletableFuture.allOf;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
@@ -46,7 +52,7 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.interceptors.DDAsyncInterceptor;
-import org.infinispan.interceptors.InvocationSuccessAction;
+import org.infinispan.interceptors.InvocationSuccessFunction;
 import org.infinispan.query.impl.ComponentRegistryUtils;
 import org.infinispan.query.logging.Log;
 import org.infinispan.search.mapper.mapping.SearchMapping;
@@ -54,6 +60,7 @@
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.concurrent.BlockingManager;
 import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.concurrent.CompletionStages;
 import org.infinispan.util.logging.LogFactory;
 
 /**
@@ -84,6 +91,8 @@ public String toString() {
    @Inject BlockingManager blockingManager;
    @Inject protected KeyPartitioner keyPartitioner;
 
+   private static final long STOP_PENDING_INDEXING_TIMEOUT_SECONDS = 30;
+
    private final KeyTransformationHandler keyTransformationHandler;
    private final AtomicBoolean stopping = new AtomicBoolean(false);
    private final ConcurrentMap<GlobalTransaction, Map<Object, Object>> txOldValues;
@@ -91,19 +100,38 @@ public String toString() {
    private final DataConversion keyDataConversion;
    private final boolean isPersistenceEnabled;
 
-   private final InvocationSuccessAction<ClearCommand> processClearCommand = this::processClearCommand;
+   private final InvocationSuccessFunction<ClearCommand> processClearCommand = this::processClearCommand;
    private final boolean isManualIndexing;
+   private final boolean isAsyncIndexing;
+   private final int maxPendingIndexingKeys;
    private final AdvancedCache<?, ?> cache;
    private final Map<String, Class<?>> indexedClasses;
 
+   // Keys whose index changes have been submitted but not applied yet, only used with asynchronous indexing
+   private final ConcurrentMap<Object, PendingIndexing> pendingIndexing = new ConcurrentHashMap<>();
+
    private SearchMapping searchMapping;
    private SegmentListener segmentListener;
 
    public QueryInterceptor(KeyTransformationHandler keyTransformationHandler,
                            boolean isManualIndexing, ConcurrentMap<GlobalTransaction, Map<Object, Object>> txOldValues,
                            AdvancedCache<?, ?> cache, Map<String, Class<?>> indexedClasses) {
+      this(keyTransformationHandler, isManualIndexing, false, Integer.MAX_VALUE, txOldValues, cache, indexedClasses);
+   }
+
+   /**
+    * @param isAsyncIndexing        when {@code true} the writes complete without waiting for the index to be updated
+    * @param maxPendingIndexingKeys with asynchronous indexing, the number of keys with pending index changes above
+    *                               which the writes wait for the index again, bounding the index lag
+    */
+   public QueryInterceptor(KeyTransformationHandler keyTransformationHandler, boolean isManualIndexing,
+                           boolean isAsyncIndexing, int maxPendingIndexingKeys,
+                           ConcurrentMap<GlobalTransaction, Map<Object, Object>> txOldValues,
+                           AdvancedCache<?, ?> cache, Map<String, Class<?>> indexedClasses) {
       this.keyTransformationHandler = keyTransformationHandler;
       this.isManualIndexing = isManualIndexing;
+      this.isAsyncIndexing = isAsyncIndexing;
+      this.maxPendingIndexingKeys = maxPendingIndexingKeys;
       this.txOldValues = txOldValues;
       this.valueDataConversion = cache.getValueDataConversion();
       this.keyDataConversion = cache.getKeyDataConversion();
@@ -126,6 +154,16 @@ protected void start() {
    public void prepareForStopping() {
       if (segmentListener != null) cache.removeListener(segmentListener);
       stopping.set(true);
+      if (!pendingIndexing.isEmpty()) {
+         // Apply the asynchronous index changes before the search mapping is closed
+         try {
+            awaitPendingIndexing().toCompletableFuture().get(STOP_PENDING_INDEXING_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+         } catch (TimeoutException e) {
+            log.pendingIndexingOnStop(pendingIndexing.size());
+         } catch (Exception e) {
+            log.debug("Interrupted while waiting for the pending index changes", e);
+         }
+      }
    }
 
    private boolean shouldModifyIndexes(FlagAffectedCommand command, InvocationContext ctx, Object key) {
@@ -171,7 +209,7 @@ private Object handleDataWriteCommand(InvocationContext ctx, DataWriteCommand co
             if (entry2 != null && entry2.isChanged()) {
                // TODO: need to reduce the scope of the blocking thread to less if possible later as part of
                // https://issues.redhat.com/browse/ISPN-11731
-               return asyncValue(processChange(rCtx, cmd, cmd.getKey(), oldValue, entry2.getValue())
+               return asyncValue(submitChange(rCtx, cmd, cmd.getKey(), oldValue, entry2.getValue())
                      .thenApply(ignore -> rv));
             }
             return rv;
@@ -215,7 +253,7 @@ private Object handleManyWriteCommand(InvocationContext ctx, WriteCommand comman
                CacheEntry<?, ?> entry = rCtx.lookupEntry(key);
                if (entry != null && entry.isChanged()) {
                   Object oldValue = oldValues.getOrDefault(key, UNKNOWN);
-                  return processChange(rCtx, cmd, key, oldValue, entry.getValue());
+                  return submitChange(rCtx, cmd, key, oldValue, entry.getValue());
                }
                return CompletableFutures.completedNull();
             }).toArray(CompletableFuture[]::new)));
@@ -266,7 +304,7 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) {
 
    @Override
    public Object visitClearCommand(InvocationContext ctx, ClearCommand command) {
-      return invokeNextThenAccept(ctx, command, processClearCommand);
+      return invokeNextThenApply(ctx, command, processClearCommand);
    }
 
    @Override
@@ -392,6 +430,118 @@ public KeyTransformationHandler getKeyTransformationHandler() {
       return keyTransformationHandler;
    }
 
+   private CompletableFuture<?> submitChange(InvocationContext ctx, FlagAffectedCommand command, Object storedKey,
+                                             Object storedOldValue, Object storedNewValue) {
+      if (!isAsyncIndexing) {
+         return processChange(ctx, command, storedKey, storedOldValue, storedNewValue);
+      }
+      IndexChange change = new IndexChange(ctx, command, storedOldValue, storedNewValue);
+      // Only one change per key is applied at a time, so that the index operations of a key cannot be reordered.
+      // The changes of a key submitted meanwhile are coalesced into a single one.
+      boolean[] started = new boolean[1];
+      PendingIndexing pending = pendingIndexing.compute(storedKey, (k, current) -> {
+         if (current == null) {
+            started[0] = true;
+            return new PendingIndexing(change);
+         }
+         if (current.queued == null) {
+            current.queued = change;
+         } else {
+            current.queued.coalesce(change);
+         }
+         return current;
+      });
+      if (started[0]) {
+         applyChange(storedKey, change);
+      }
+      if (pendingIndexing.size() > maxPendingIndexingKeys) {
+         // Too many keys are behind, wait for the index to catch up with this write
+         return pending.lastDone();
+      }
+      return CompletableFutures.completedNull();
+   }
+
+   private void applyChange(Object storedKey, IndexChange change) {
+      CompletableFuture<?> operation;
+      try {
+         operation = processChange(change.ctx, change.command, storedKey, change.oldValue, change.newValue);
+      } catch (Throwable t) {
+         operation = CompletableFutures.completedExceptionFuture(t);
+      }
+      operation.whenComplete((ignore, t) -> {
+         if (t != null) {
+            log.failedAsyncIndexing(storedKey, t);
+         }
+         IndexChange[] next = new IndexChange[1];
+         pendingIndexing.computeIfPresent(storedKey, (k, current) -> {
+            if (current.queued == null) {
+               return null;
+            }
+            next[0] = current.queued;
+            current.running = current.queued;
+            current.queued = null;
+            return current;
+         });
+         change.done.complete(null);
+         if (next[0] != null) {
+            applyChange(storedKey, next[0]);
+         }
+      });
+   }
+
+   /**
+    * Returns a stage that completes when the index changes of all the writes completed so far have been applied. With
+    * synchronous indexing the stage is always completed, as the writes wait for the indexes to be updated.
+    */
+   public CompletionStage<Void> awaitPendingIndexing() {
+      if (pendingIndexing.isEmpty()) {
+         return CompletableFutures.completedNull();
+      }
+      return allOf(pendingIndexing.values().stream()
+            .map(PendingIndexing::lastDone)
+            .toArray(CompletableFuture[]::new));
+   }
+
+   /**
+    * Returns a stage that completes when the index changes of the writes to the given key completed so far have been
+    * applied.
+    */
+   public CompletionStage<Void> awaitPendingIndexing(Object storedKey) {
+      PendingIndexing pending = pendingIndexing.get(storedKey);
+      return pending == null ? CompletableFutures.completedNull() : pending.lastDone();
+   }
+
+   /**
+    * Discards the asynchronous index changes that were not started yet, returning a stage that completes when the
+    * changes already being applied are done.
+    */
+   private CompletionStage<Void> discardPendingIndexing() {
+      if (pendingIndexing.isEmpty()) {
+         return CompletableFutures.completedNull();
+      }
+      List<CompletableFuture<Void>> running = new ArrayList<>();
+      List<IndexChange> discarded = new ArrayList<>();
+      for (Object storedKey : pendingIndexing.keySet()) {
+         pendingIndexing.computeIfPresent(storedKey, (k, current) -> {
+            if (current.queued != null) {
+               discarded.add(current.queued);
+               current.queued = null;
+            }
+            running.add(current.running.done);
+            return current;
+         });
+      }
+      discarded.forEach(change -> change.done.complete(null));
+      return allOf(running.toArray(new CompletableFuture[0]));
+   }
+
+   /**
+    * The number of keys with index changes that were not applied yet.
+    */
+   public int getPendingIndexingKeys() {
+      return pendingIndexing.size();
+   }
+
    CompletableFuture<?> processChange(InvocationContext ctx, FlagAffectedCommand command, Object storedKey, Object storedOldValue, Object storedNewValue) {
       int segment = SegmentSpecificCommand.extractSegment(command, storedKey, keyPartitioner);
       Object key = extractKey(storedKey);
@@ -432,10 +582,21 @@ private boolean shouldRemove(Object value, Object previousValue) {
       return value != null && previousValue != null && value.getClass() != previousValue.getClass();
    }
 
-   private void processClearCommand(InvocationContext ctx, ClearCommand command, Object rv) {
-      if (shouldModifyIndexes(command, ctx, null)) {
+   private Object processClearCommand(InvocationContext ctx, ClearCommand command, Object rv) {
+      if (!shouldModifyIndexes(command, ctx, null)) {
+         return rv;
+      }
+      // The asynchronous changes submitted before the clear must not be applied after the purge, or the cleared
+      // entries would be indexed again
+      CompletionStage<Void> pending = discardPendingIndexing();
+      if (CompletionStages.isCompletedSuccessfully(pending)) {
          purgeAllIndexes();
+         return rv;
       }
+      return asyncValue(blockingManager.thenApplyBlocking(pending, ignore -> {
+         purgeAllIndexes();
+         return rv;
+      }, "purge-indexes"));
    }
 
    public boolean isStopping() {
@@ -445,4 +606,46 @@ public boolean isStopping() {
    private boolean isIndexedType(Object value) {
       return (searchMapping != null) && searchMapping.isIndexedType(value);
    }
+
+   /**
+    * The changes of a key submitted with asynchronous indexing. The fields are only modified while holding the lock of
+    * the key in {@link #pendingIndexing}.
+    */
+   private static final class PendingIndexing {
+      volatile IndexChange running;
+      volatile IndexChange queued;
+
+      PendingIndexing(IndexChange running) {
+         this.running = running;
+      }
+
+      CompletableFuture<Void> lastDone() {
+         IndexChange last = queued;
+         return last != null ? last.done : running.done;
+      }
+   }
+
+   private static final class IndexChange {
+      final CompletableFuture<Void> done = new CompletableFuture<>();
+      final Object oldValue;
+      InvocationContext ctx;
+      FlagAffectedCommand command;
+      Object newValue;
+
+      IndexChange(InvocationContext ctx, FlagAffectedCommand command, Object oldValue, Object newValue) {
+         this.ctx = ctx;
+         this.command = command;
+         this.oldValue = oldValue;
+         this.newValue = newValue;
+      }
+
+      /**
+       * Replaces this change with the transition from its old value to the new value of a later change.
+       */
+      void coalesce(IndexChange later) {
+         ctx = later.ctx;
+         command = later.command;
+         newValue = later.newValue;
+      }
+   }
 }
@@ -97,6 +97,23 @@ public class LifecycleManager implements ModuleLifecycle {
    private static final String HS5_CONF_STRATEGY_PROPERTY = "hibernate.search.indexing_strategy";
    private static final String HS5_CONF_STRATEGY_MANUAL = "manual";
 
+   /**
+    * Optional boolean indexing property. When {@code true} the writes complete without waiting for the indexes to be
+    * updated, the changes of each key being applied in order in the background. Use
+    * {@link org.infinispan.query.Indexer#awaitPendingIndexing()} to wait for the indexes to reflect the previous writes.
+    */
+   public static final String ASYNC_INDEXING_PROPERTY = "infinispan.query.indexing.async";
+
+   /**
+    * Optional integer indexing property, the number of keys with pending index changes above which the writes wait
+    * for the indexes again when {@link #ASYNC_INDEXING_PROPERTY} is enabled. Defaults to {@value #DEFAULT_MAX_PENDING_INDEXING_KEYS}.
+    */
+   public static final String ASYNC_INDEXING_MAX_PENDING_KEYS_PROPERTY = "infinispan.query.indexing.async.max-pending-keys";
+
+   private static final int DEFAULT_MAX_PENDING_INDEXING_KEYS = 10_000;
+
+   private static final String INFINISPAN_QUERY_PROPERTY_PREFIX = "infinispan.query.";
+
    /**
     * Optional integer system property that sets value of {@link BooleanQuery#setMaxClauseCount}.
     */
@@ -188,8 +205,13 @@ private void createQueryInterceptorIfNeeded(ComponentRegistry cr, Configuration
       boolean manualIndexing = HS5_CONF_STRATEGY_MANUAL.equals(
             cfg.indexing().properties().get(HS5_CONF_STRATEGY_PROPERTY));
 
-      QueryInterceptor queryInterceptor = new QueryInterceptor(keyTransformationHandler, manualIndexing, txOldValues,
-            cache, indexedClasses);
+      Object asyncIndexing = cfg.indexing().properties().get(ASYNC_INDEXING_PROPERTY);
+      Object maxPendingIndexingKeys = cfg.indexing().properties().get(ASYNC_INDEXING_MAX_PENDING_KEYS_PROPERTY);
+
+      QueryInterceptor queryInterceptor = new QueryInterceptor(keyTransformationHandler, manualIndexing,
+            asyncIndexing != null && Boolean.parseBoolean(asyncIndexing.toString()),
+            maxPendingIndexingKeys != null ? Integer.parseInt(maxPendingIndexingKeys.toString()) : DEFAULT_MAX_PENDING_INDEXING_KEYS,
+            txOldValues, cache, indexedClasses);
 
       for (Map.Entry<Class<?>, Class<?>> kt : cfg.indexing().keyTransformers().entrySet()) {
          keyTransformationHandler.registerTransformer(kt.getKey(), (Class<? extends Transformer>) kt.getValue());
@@ -331,7 +353,10 @@ private SearchMapping createSearchMapping(LocalQueryStatistics queryStatistics,
             if (!(entry.getKey() instanceof String)) {
                throw log.invalidPropertyKey(entry.getKey());
             }
-            properties.put((String) entry.getKey(), entry.getValue());
+            if (!((String) entry.getKey()).startsWith(INFINISPAN_QUERY_PROPERTY_PREFIX)) {
+               // the properties of the query module itself, like asynchronous indexing, are not meant for Search
+               properties.put((String) entry.getKey(), entry.getValue());
+            }
          }
       }
 
@@ -16,10 +16,12 @@
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.manager.ClusterExecutor;
 import org.infinispan.query.Indexer;
 import org.infinispan.query.backend.KeyTransformationHandler;
+import org.infinispan.query.impl.ComponentRegistryUtils;
 import org.infinispan.query.logging.Log;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.concurrent.BlockingManager;
@@ -39,11 +41,24 @@ public class DistributedExecutorMassIndexer implements Indexer {
 
    private static final Log LOG = LogFactory.getLog(DistributedExecutorMassIndexer.class, Log.class);
 
+   /**
+    * Optional integer indexing property, the number of consumers that index the local segments of each node in
+    * parallel. Defaults to the number of available processors.
+    */
+   public static final String PARALLELISM_PROPERTY = "infinispan.query.mass-indexer.parallelism";
+
+   /**
+    * Optional integer indexing property, the number of documents each consumer submits before waiting for them to be
+    * written. Defaults to {@value IndexWorker#DEFAULT_BATCH_SIZE}.
+    */
+   public static final String BATCH_SIZE_PROPERTY = "infinispan.query.mass-indexer.batch-size";
+
    private final AdvancedCache<?, ?> cache;
    private final IndexUpdater indexUpdater;
    private final ClusterExecutor executor;
    private final BlockingManager blockingManager;
    private final IndexLock lock;
+   private final MassIndexerProgressMonitor progressMonitor;
 
    private volatile boolean isRunning = false;
 
@@ -60,6 +75,7 @@ public DistributedExecutorMassIndexer(AdvancedCache<?, ?> cache, KeyTransformati
       this.blockingManager = cache.getCacheManager().getGlobalComponentRegistry()
             .getComponent(BlockingManager.class);
       this.lock = MassIndexerLockFactory.buildLock(cache);
+      this.progressMonitor = new MassIndexerProgressMonitor(ComponentRegistryUtils.getTimeService(cache));
    }
 
    @ManagedOperation(description = "Starts rebuilding the index", displayName = "Rebuild index")
@@ -95,6 +111,11 @@ public CompletionStage<Void> run(Object... keys) {
       return future != null ? future : CompletableFutures.completedNull();
    }
 
+   @Override
+   public CompletionStage<Void> awaitPendingIndexing() {
+      return ComponentRegistryUtils.getQueryInterceptor(cache).awaitPendingIndexing();
+   }
+
    @Override
    public CompletionStage<Void> remove() {
       return executeInternal(true).toCompletableFuture();
@@ -110,6 +131,28 @@ public boolean isRunning() {
       return isRunning;
    }
 
+   @ManagedAttribute(description = "Number of documents written to the index by the current or last mass indexing on this node",
+         displayName = "Indexed documents")
+   public long getIndexedDocuments() {
+      return progressMonitor.getDocumentsDone();
+   }
+
+   @ManagedAttribute(description = "Documents written per second by the current or last mass indexing on this node",
+         displayName = "Indexing rate")
+   public long getIndexingRate() {
+      return progressMonitor.getDocumentsPerSecond();
+   }
+
+   @ManagedAttribute(description = "Estimated percentage of the local entries indexed by the current mass indexing on this node",
+         displayName = "Indexing progress")
+   public int getIndexingProgress() {
+      return progressMonitor.getProgress();
+   }
+
+   MassIndexerProgressMonitor getProgressMonitor() {
+      return progressMonitor;
+   }
+
    private CompletionStage<Void> executeInternal(boolean skipIndex, Class<?>... entities) {
       CompletionStage<Boolean> lockStage = lock.lock();
       return lockStage.thenCompose(acquired -> {
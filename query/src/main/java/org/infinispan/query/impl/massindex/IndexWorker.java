@@ -6,7 +6,10 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -14,15 +17,21 @@
 import org.infinispan.commons.dataconversion.Wrapper;
 import org.infinispan.commons.marshall.AbstractExternalizer;
 import org.infinispan.commons.time.TimeService;
+import org.infinispan.commons.util.IntSet;
+import org.infinispan.commons.util.IntSets;
+import org.infinispan.commons.util.ProcessorInfo;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.encoding.DataConversion;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.query.Indexer;
 import org.infinispan.query.backend.KeyTransformationHandler;
 import org.infinispan.query.impl.ComponentRegistryUtils;
 import org.infinispan.query.impl.externalizers.ExternalizerIds;
 import org.infinispan.search.mapper.mapping.SearchMapping;
+import org.infinispan.util.concurrent.BlockingManager;
+import org.infinispan.util.concurrent.CompletionStages;
 
 /**
  * Mass indexer task.
@@ -32,6 +41,8 @@
  */
 public final class IndexWorker implements Function<EmbeddedCacheManager, Void> {
 
+   static final int DEFAULT_BATCH_SIZE = 1000;
+
    private final String cacheName;
    private final Collection<Class<?>> indexedTypes;
    private final boolean skipIndex;
@@ -57,34 +68,51 @@ public Void apply(EmbeddedCacheManager embeddedCacheManager) {
       KeyTransformationHandler keyTransformationHandler = ComponentRegistryUtils.getKeyTransformationHandler(cache);
       TimeService timeService = ComponentRegistryUtils.getTimeService(cache);
 
-      MassIndexerProgressNotifier notifier = new MassIndexerProgressNotifier(searchMapping, timeService);
+      Indexer indexer = ComponentRegistryUtils.getIndexer(cache);
+      MassIndexerProgressNotifier notifier = indexer instanceof DistributedExecutorMassIndexer ?
+            new MassIndexerProgressNotifier(searchMapping, ((DistributedExecutorMassIndexer) indexer).getProgressMonitor()) :
+            new MassIndexerProgressNotifier(searchMapping, timeService);
       IndexUpdater indexUpdater = new IndexUpdater(searchMapping, keyTransformationHandler);
       KeyPartitioner keyPartitioner = ComponentRegistryUtils.getKeyPartitioner(cache);
 
       DataConversion keyDataConversion = reindexCache.getKeyDataConversion();
       if (keys == null || keys.size() == 0) {
          preIndex(indexUpdater);
-         MassIndexerProgressState progressState = new MassIndexerProgressState(notifier);
          if (!skipIndex) {
-            try (Stream<CacheEntry<Object, Object>> stream = reindexCache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL)
-                  .cacheEntrySet().stream()) {
-               stream.forEach(entry -> {
-                  Object key = entry.getKey();
-                  Object storedKey = keyDataConversion.toStorage(key);
-                  Object value = entry.getValue();
-                  if (valueFilterable) {
-                     value = valueWrapper.wrap(value);
-                  }
-                  int segment = keyPartitioner.getSegment(storedKey);
-
-                  if (value != null && indexedTypes.contains(value.getClass())) {
-                     progressState.addItem(entry.getKey(), value,
-                           indexUpdater.updateIndex(entry.getKey(), value, segment));
-                  }
-               });
+            notifier.notifyIndexingStarted(reindexCache.withFlags(Flag.CACHE_MODE_LOCAL).size());
+            Map<Object, Object> properties = cache.getCacheConfiguration().indexing().properties();
+            int parallelism = intProperty(properties, DistributedExecutorMassIndexer.PARALLELISM_PROPERTY,
+                  ProcessorInfo.availableProcessors());
+            int batchSize = intProperty(properties, DistributedExecutorMassIndexer.BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE);
+            int numSegments = cache.getCacheConfiguration().clustering().hash().numSegments();
+            BlockingManager blockingManager = cache.getCacheManager().getGlobalComponentRegistry()
+                  .getComponent(BlockingManager.class);
+
+            // Each share of the segments is iterated with its own batch of in-flight documents
+            SegmentShare[] shares = new SegmentShare[Math.min(parallelism, numSegments)];
+            for (int i = 0; i < shares.length; i++) {
+               IntSet segments = IntSets.mutableEmptySet(numSegments);
+               for (int segment = i; segment < numSegments; segment += shares.length) {
+                  segments.set(segment);
+               }
+               IndexUpdater shareUpdater = new IndexUpdater(searchMapping, keyTransformationHandler);
+               MassIndexerProgressState progressState = new MassIndexerProgressState(notifier, batchSize);
+               shares[i] = new SegmentShare(() -> indexSegments(reindexCache, segments, valueWrapper, valueFilterable,
+                     keyPartitioner, shareUpdater, progressState));
+            }
+            for (int i = 1; i < shares.length; i++) {
+               blockingManager.runBlocking(shares[i]::runIfUnclaimed, this);
+            }
+            // This thread runs the shares no other thread started, so it only waits for the shares that are running
+            // and never for a task queued behind a busy blocking thread
+            for (SegmentShare share : shares) {
+               share.runIfUnclaimed();
+            }
+            for (SegmentShare share : shares) {
+               CompletionStages.join(share.done);
             }
          }
-         postIndex(indexUpdater, progressState, notifier);
+         postIndex(indexUpdater, notifier);
       } else {
          Set<Class<?>> classSet = new HashSet<>();
          for (Object key : keys) {
@@ -106,8 +134,60 @@ private void preIndex(IndexUpdater indexUpdater) {
       indexUpdater.purge(indexedTypes);
    }
 
-   private void postIndex(IndexUpdater indexUpdater, MassIndexerProgressState progressState, MassIndexerProgressNotifier notifier) {
+   private void indexSegments(AdvancedCache<Object, Object> reindexCache, IntSet segments, Wrapper valueWrapper,
+                              boolean valueFilterable, KeyPartitioner keyPartitioner, IndexUpdater indexUpdater,
+                              MassIndexerProgressState progressState) {
+      DataConversion keyDataConversion = reindexCache.getKeyDataConversion();
+      try (Stream<CacheEntry<Object, Object>> stream = reindexCache.withFlags(Flag.CACHE_MODE_LOCAL)
+            .cacheEntrySet().stream().filterKeySegments(segments)) {
+         stream.forEach(entry -> {
+            Object key = entry.getKey();
+            Object storedKey = keyDataConversion.toStorage(key);
+            Object value = entry.getValue();
+            if (valueFilterable) {
+               value = valueWrapper.wrap(value);
+            }
+            int segment = keyPartitioner.getSegment(storedKey);
+
+            if (value != null && indexedTypes.contains(value.getClass())) {
+               progressState.addItem(entry.getKey(), value, indexUpdater.updateIndex(entry.getKey(), value, segment));
+            }
+         });
+      }
       progressState.waitForAsyncCompletion();
+   }
+
+   /**
+    * A share of the segments, indexed by the first thread that claims it.
+    */
+   private static final class SegmentShare {
+      final AtomicBoolean claimed = new AtomicBoolean();
+      final CompletableFuture<Void> done = new CompletableFuture<>();
+      final Runnable task;
+
+      SegmentShare(Runnable task) {
+         this.task = task;
+      }
+
+      void runIfUnclaimed() {
+         if (!claimed.compareAndSet(false, true)) {
+            return;
+         }
+         try {
+            task.run();
+            done.complete(null);
+         } catch (Throwable t) {
+            done.completeExceptionally(t);
+         }
+      }
+   }
+
+   private static int intProperty(Map<Object, Object> properties, String name, int defaultValue) {
+      Object value = properties.get(name);
+      return value == null ? defaultValue : Math.max(1, Integer.parseInt(value.toString()));
+   }
+
+   private void postIndex(IndexUpdater indexUpdater, MassIndexerProgressNotifier notifier) {
       indexUpdater.flush(indexedTypes);
       indexUpdater.refresh(indexedTypes);
       notifier.notifyIndexingCompletedSuccessfully();
@@ -16,14 +16,16 @@ public class MassIndexerProgressMonitor {
 
    private final AtomicLong documentsDoneCounter = new AtomicLong();
    private volatile long startTime;
+   private volatile long endTime;
+   private volatile long expectedDocuments;
    private final int logAfterNumberOfDocuments;
    private final TimeService timeService;
 
    /**
-    * Logs progress of indexing job every 50 documents written.
+    * Logs progress of indexing job every 10000 documents written.
     */
    public MassIndexerProgressMonitor(TimeService timeService) {
-      this(50, timeService);
+      this(10_000, timeService);
    }
 
    /**
@@ -38,9 +40,21 @@ public MassIndexerProgressMonitor(int logAfterNumberOfDocuments, TimeService tim
       this.timeService = timeService;
    }
 
+   /**
+    * Resets the counters at the beginning of an indexing job.
+    *
+    * @param expectedDocuments the approximate number of documents the job will write, used to report the progress
+    */
+   public void indexingStarted(long expectedDocuments) {
+      this.expectedDocuments = expectedDocuments;
+      documentsDoneCounter.set(0);
+      endTime = 0;
+      startTime = timeService.time();
+   }
+
    public void documentsAdded(long increment) {
       long current = documentsDoneCounter.addAndGet(increment);
-      if (current == increment) {
+      if (startTime == 0) {
          startTime = timeService.time();
       }
       if (current % getStatusMessagePeriod() == 0) {
@@ -49,9 +63,45 @@ public void documentsAdded(long increment) {
    }
 
    public void indexingCompleted() {
+      endTime = timeService.time();
       log.indexingEntitiesCompleted(documentsDoneCounter.get());
    }
 
+   /**
+    * @return the number of documents written by the current, or the last, indexing job
+    */
+   public long getDocumentsDone() {
+      return documentsDoneCounter.get();
+   }
+
+   /**
+    * @return the number of documents written per second by the current, or the last, indexing job
+    */
+   public long getDocumentsPerSecond() {
+      long start = startTime;
+      if (start == 0) {
+         return 0;
+      }
+      long end = endTime;
+      long elapsed = end == 0 ? timeService.timeDuration(start, TimeUnit.MILLISECONDS) :
+            timeService.timeDuration(start, end, TimeUnit.MILLISECONDS);
+      return documentsDoneCounter.get() * 1000 / Math.max(1, elapsed);
+   }
+
+   /**
+    * @return the percentage of the documents written by the current indexing job, or 100 if the job completed
+    */
+   public int getProgress() {
+      if (endTime != 0) {
+         return 100;
+      }
+      long expected = expectedDocuments;
+      if (expected <= 0) {
+         return 0;
+      }
+      return (int) Math.min(99, documentsDoneCounter.get() * 100 / expected);
+   }
+
    protected int getStatusMessagePeriod() {
       return logAfterNumberOfDocuments;
    }
@@ -26,10 +26,18 @@ class MassIndexerProgressNotifier {
    private FailureHandler failureHandler;
 
    MassIndexerProgressNotifier(SearchMapping searchMapping, TimeService timeService) {
-      this.monitor = new MassIndexerProgressMonitor(timeService);
+      this(searchMapping, new MassIndexerProgressMonitor(timeService));
+   }
+
+   MassIndexerProgressNotifier(SearchMapping searchMapping, MassIndexerProgressMonitor monitor) {
+      this.monitor = monitor;
       this.searchMapping = searchMapping;
    }
 
+   void notifyIndexingStarted(long expectedDocuments) {
+      monitor.indexingStarted(expectedDocuments);
+   }
+
    void notifyDocumentsAdded(int size) {
       monitor.documentsAdded(size);
    }
@@ -1,5 +1,7 @@
 package org.infinispan.query.impl.massindex;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 import org.hibernate.search.util.common.impl.Futures;
@@ -7,32 +9,50 @@
 import org.infinispan.query.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Tracks the documents submitted by a single mass indexer consumer. At most {@code batchSize} documents are in flight,
+ * once the batch is full the consumer waits for all of them to be written before submitting more.
+ */
+@NotThreadSafe
 public class MassIndexerProgressState {
 
    private static final Log LOG = LogFactory.getLog(IndexUpdater.class, Log.class);
 
    private final MassIndexerProgressNotifier notifier;
+   private final int batchSize;
 
-   private CompletableFuture<?> lastFuture = CompletableFuture.completedFuture( null );
+   private final List<CompletableFuture<?>> batch;
 
    public MassIndexerProgressState(MassIndexerProgressNotifier notifier) {
+      this(notifier, Integer.MAX_VALUE);
+   }
+
+   public MassIndexerProgressState(MassIndexerProgressNotifier notifier, int batchSize) {
       this.notifier = notifier;
+      this.batchSize = batchSize;
+      this.batch = new ArrayList<>(Math.min(batchSize, 1024));
    }
 
    public void addItem(Object key, Object value, CompletableFuture<?> future) {
-      // This is what HS5 currently does, but introduce chunking could be a good idea.
-      lastFuture = future.whenComplete((result, exception) -> {
+      batch.add(future.whenComplete((result, exception) -> {
          if (exception != null) {
             notifier.notifyEntityIndexingFailure(value.getClass(), key, exception);
          } else {
             notifier.notifyDocumentsAdded(1);
          }
-      }).thenCombine(lastFuture, (ignored1, ignored2) -> null);
+      }));
+      if (batch.size() >= batchSize) {
+         waitForAsyncCompletion();
+      }
    }
 
    public void waitForAsyncCompletion() {
+      CompletableFuture<Void> batchFuture = CompletableFuture.allOf(batch.toArray(new CompletableFuture[0]));
+      batch.clear();
       try {
-         Futures.unwrappedExceptionGet(lastFuture);
+         Futures.unwrappedExceptionGet(batchFuture);
       } catch (InterruptedException e) {
          Thread.currentThread().interrupt();
          throw LOG.interruptedWhileWaitingForRequestCompletion(e);
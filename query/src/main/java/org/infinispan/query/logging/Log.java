@@ -179,4 +179,12 @@ public interface Log extends org.infinispan.query.core.impl.Log {
 
    @Message(value = "Trying to execute query `%1$s`, but no type is indexed on cache.", id = 14054)
    CacheException noTypeIsIndexed(String ickle);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Failed to update the indexes asynchronously for key %s", id = 14055)
+   void failedAsyncIndexing(Object key, @Cause Throwable t);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Stopping with the index changes of %d keys not applied yet", id = 14056)
+   void pendingIndexingOnStop(int pendingKeys);
 }
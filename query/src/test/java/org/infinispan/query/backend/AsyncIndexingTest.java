@@ -0,0 +1,87 @@
+package org.infinispan.query.backend;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.List;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.helper.SearchConfig;
+import org.infinispan.query.impl.LifecycleManager;
+import org.infinispan.query.test.Person;
+import org.infinispan.query.test.QueryTestSCI;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.CompletionStages;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that with asynchronous indexing the writes of a key are indexed in order, and that the index can be awaited.
+ *
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "query.backend.AsyncIndexingTest")
+public class AsyncIndexingTest extends SingleCacheManagerTest {
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.indexing().enable()
+            .addIndexedEntity(Person.class)
+            .addProperty(SearchConfig.DIRECTORY_TYPE, SearchConfig.HEAP)
+            .addProperty(LifecycleManager.ASYNC_INDEXING_PROPERTY, "true");
+      return TestCacheManagerFactory.createCacheManager(QueryTestSCI.INSTANCE, builder);
+   }
+
+   public void testUpdatesOfSameKeyAreIndexedInOrder() {
+      QueryInterceptor queryInterceptor = TestingUtil.extractComponent(cache, QueryInterceptor.class);
+      for (int i = 0; i < 100; i++) {
+         cache.put("person", new Person("name" + i, "blurb", i));
+      }
+      for (int i = 0; i < 50; i++) {
+         cache.put("other" + i, new Person("other", "blurb", i));
+      }
+      cache.remove("other0");
+
+      CompletionStages.join(queryInterceptor.awaitPendingIndexing());
+
+      assertEquals(0, queryInterceptor.getPendingIndexingKeys());
+      List<Person> people = query("FROM " + Person.class.getName() + " p WHERE p.name : 'name99'");
+      assertEquals(1, people.size());
+      assertEquals(99, people.get(0).getAge());
+      assertEquals(0, query("FROM " + Person.class.getName() + " p WHERE p.name : 'name98'").size());
+      assertEquals(49, query("FROM " + Person.class.getName() + " p WHERE p.name : 'other'").size());
+   }
+
+   public void testAwaitPendingIndexingOfKey() {
+      QueryInterceptor queryInterceptor = TestingUtil.extractComponent(cache, QueryInterceptor.class);
+      cache.put("key", new Person("first", "blurb", 1));
+      cache.put("key", new Person("second", "blurb", 2));
+
+      CompletionStages.join(queryInterceptor.awaitPendingIndexing("key"));
+
+      assertEquals(0, query("FROM " + Person.class.getName() + " p WHERE p.name : 'first'").size());
+      assertEquals(1, query("FROM " + Person.class.getName() + " p WHERE p.name : 'second'").size());
+   }
+
+   public void testClearDiscardsPendingIndexing() {
+      for (int i = 0; i < 100; i++) {
+         cache.put("cleared" + i, new Person("cleared", "blurb", i));
+      }
+      cache.clear();
+      cache.put("kept", new Person("kept", "blurb", 1));
+
+      CompletionStages.join(Search.getIndexer(cache).awaitPendingIndexing());
+
+      assertEquals(0, query("FROM " + Person.class.getName() + " p WHERE p.name : 'cleared'").size());
+      assertEquals(1, query("FROM " + Person.class.getName() + " p WHERE p.name : 'kept'").size());
+   }
+
+   private List<Person> query(String ickle) {
+      Query<Person> query = Search.getQueryFactory(cache).create(ickle);
+      return query.execute().list();
+   }
+}
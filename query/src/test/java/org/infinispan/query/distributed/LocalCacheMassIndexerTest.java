@@ -3,6 +3,7 @@
 import static org.infinispan.util.concurrent.CompletionStages.join;
 import static org.junit.Assert.assertFalse;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
 
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -13,6 +14,7 @@
 import org.infinispan.query.dsl.Query;
 import org.infinispan.query.dsl.QueryFactory;
 import org.infinispan.query.helper.SearchConfig;
+import org.infinispan.query.impl.massindex.DistributedExecutorMassIndexer;
 import org.infinispan.query.test.Person;
 import org.infinispan.test.SingleCacheManagerTest;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
@@ -36,7 +38,9 @@ protected EmbeddedCacheManager createCacheManager() throws Exception {
       ConfigurationBuilder cfg = getDefaultStandaloneCacheConfig(false);
       cfg.indexing().enable()
             .addIndexedEntity(Person.class)
-            .addProperty(SearchConfig.DIRECTORY_TYPE, SearchConfig.HEAP);
+            .addProperty(SearchConfig.DIRECTORY_TYPE, SearchConfig.HEAP)
+            .addProperty(DistributedExecutorMassIndexer.PARALLELISM_PROPERTY, "4")
+            .addProperty(DistributedExecutorMassIndexer.BATCH_SIZE_PROPERTY, "7");
       return TestCacheManagerFactory.createCacheManager(cfg);
    }
 
@@ -80,6 +84,17 @@ public void testMassIndexer() {
       assertEquals(NUM_ENTITIES, indexSize(cache));
    }
 
+   public void testMassIndexerProgress() {
+      fillData();
+      DistributedExecutorMassIndexer massIndexer = (DistributedExecutorMassIndexer) Search.getIndexer(cache);
+
+      join(massIndexer.run());
+
+      assertEquals(NUM_ENTITIES, massIndexer.getIndexedDocuments());
+      assertEquals(100, massIndexer.getIndexingProgress());
+      assertTrue(massIndexer.getIndexingRate() > 0);
+   }
+
    public void testPartiallyReindex() throws Exception {
       cache.getAdvancedCache().withFlags(Flag.SKIP_INDEXING).put(0, new Person("name" + 0, "blurb" + 0, 0));
       verifyFindsPerson(0, "name" + 0);
@@ -15,7 +15,7 @@
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.infinispan.AdvancedCache;
@@ -45,6 +45,7 @@
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilterConverterFactory;
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilterFactory;
 import org.infinispan.notifications.cachelistener.filter.KeyValueFilterConverterAsCacheEventFilterConverter;
+import org.infinispan.server.hotrod.configuration.HotRodServerConfiguration;
 import org.infinispan.server.hotrod.logging.Log;
 import org.infinispan.util.KeyValuePair;
 import org.infinispan.util.concurrent.CompletableFutures;
@@ -57,12 +58,19 @@
  * @author Galder Zamarreño
  */
 class ClientListenerRegistry {
+   // Upper bound for the events encoded in a single buffer before writing it to the channel
+   private static final int EVENT_BATCH_BYTES = 64 * 1024;
+
    private final EncoderRegistry encoderRegistry;
    private final Executor nonBlockingExecutor;
+   private final long eventQueueMaxBytes;
+   private final boolean eventCoalescing;
 
-   ClientListenerRegistry(EncoderRegistry encoderRegistry, Executor nonBlockingExecutor) {
+   ClientListenerRegistry(EncoderRegistry encoderRegistry, Executor nonBlockingExecutor, HotRodServerConfiguration configuration) {
       this.encoderRegistry = encoderRegistry;
       this.nonBlockingExecutor = nonBlockingExecutor;
+      this.eventQueueMaxBytes = configuration.eventQueueMaxBytes();
+      this.eventCoalescing = configuration.eventCoalescing();
    }
 
    private final static Log log = LogFactory.getLog(ClientListenerRegistry.class, Log.class);
@@ -276,9 +284,10 @@ private abstract class BaseClientEventSender {
       protected final ClientEventType targetEventType;
       protected final Cache cache;
 
-      final int maxQueueSize = 100;
-      final AtomicInteger eventSize = new AtomicInteger();
+      final AtomicLong queuedBytes = new AtomicLong();
       final Queue<Events.Event> eventQueue = new ConcurrentLinkedQueue<>();
+      // The latest queued modification of each key, only used when coalescing events
+      final ConcurrentMap<WrappedByteArray, Events.Event> latestEvents;
 
       private final Runnable writeEventsIfPossible = this::writeEventsIfPossible;
 
@@ -289,6 +298,7 @@ private abstract class BaseClientEventSender {
          this.listenerId = listenerId;
          this.version = version;
          this.targetEventType = targetEventType;
+         this.latestEvents = eventCoalescing && targetEventType == ClientEventType.PLAIN ? new ConcurrentHashMap<>() : null;
       }
 
       void init() {
@@ -312,27 +322,72 @@ boolean hasChannel(Channel channel) {
 
       // This method can only be invoked from the Event Loop thread!
       void writeEventsIfPossible() {
-         boolean submittedUnblock = false;
          boolean written = false;
          while (!eventQueue.isEmpty() && ch.isWritable()) {
-            eventSize.decrementAndGet();
-            Events.Event event = eventQueue.remove();
-            if (isTrace) log.tracef("Write event: %s to channel %s", event, ch);
-            CompletableFuture<Void> cf = event.eventFuture;
-            // We can just check instance equality as this is used to symbolize the event was not blocked below
-            if (cf != CompletableFutures.<Void>completedNull()) {
-               nonBlockingExecutor.execute(() -> event.eventFuture.complete(null));
+            // Encode as many events as possible in the same buffer, the client decodes them one after the other
+            ByteBuf buf = null;
+            Events.Event event;
+            while ((buf == null || buf.writerIndex() < EVENT_BATCH_BYTES) && (event = eventQueue.poll()) != null) {
+               queuedBytes.addAndGet(-event.estimateSize());
+               CompletableFuture<Void> cf = event.eventFuture;
+               // We can just check instance equality as this is used to symbolize the event was not blocked below
+               if (cf != CompletableFutures.<Void>completedNull()) {
+                  nonBlockingExecutor.execute(() -> cf.complete(null));
+               }
+               if (isSuperseded(event)) {
+                  if (isTrace) log.tracef("Skip event %s superseded by a newer event for the same key", event);
+                  continue;
+               }
+               if (isTrace) log.tracef("Write event: %s to channel %s", event, ch);
+               if (buf == null) {
+                  buf = ch.alloc().ioBuffer();
+               }
+               encoder.writeEvent(event, buf);
+            }
+            if (buf != null) {
+               ch.write(buf);
+               written = true;
             }
-            ByteBuf buf = ch.alloc().ioBuffer();
-            encoder.writeEvent(event, buf);
-            ch.write(buf);
-            written = true;
          }
          if (written) {
             ch.flush();
          }
       }
 
+      /**
+       * @return {@code true} if the next event queued for the same key is also a modification, removing
+       * the event from the latest modifications otherwise.
+       */
+      private boolean isSuperseded(Events.Event event) {
+         byte[] key;
+         if (latestEvents == null || (key = event.key()) == null) {
+            return false;
+         }
+         if (event.superseded) {
+            return true;
+         }
+         latestEvents.remove(new WrappedByteArray(key), event);
+         return false;
+      }
+
+      /**
+       * Only a modification can replace the previous modification of the same key. The creations, removals and
+       * expirations are always sent, and the modifications queued before one of them are kept.
+       */
+      private void coalesce(Events.Event event) {
+         WrappedByteArray key = new WrappedByteArray(event.key());
+         if (event.op == HotRodOperation.CACHE_ENTRY_MODIFIED_EVENT) {
+            latestEvents.compute(key, (k, previous) -> {
+               if (previous != null) {
+                  previous.superseded = true;
+               }
+               return event;
+            });
+         } else {
+            latestEvents.remove(key);
+         }
+      }
+
       @CacheEntryCreated
       @CacheEntryModified
       @CacheEntryRemoved
@@ -379,12 +434,11 @@ boolean isChannelDisconnected() {
 
       CompletionStage<Void> sendEvent(byte[] key, byte[] value, long dataVersion, CacheEntryEvent event) {
          EventLoop loop = ch.eventLoop();
-         int size = eventSize.incrementAndGet();
-         boolean forceWait = size >= maxQueueSize;
+         long size = queuedBytes.get();
          final CompletableFuture<Void> cf;
-         if (forceWait) {
+         if (size >= eventQueueMaxBytes) {
             if (isTrace) {
-               log.tracef("Pending event size is %s which is forcing %s to delay operation until it is sent", size, event);
+               log.tracef("Pending events size is %d bytes which is forcing %s to delay operation until it is sent", size, event);
             }
 
             cf = new CompletableFuture<>();
@@ -394,7 +448,11 @@ CompletionStage<Void> sendEvent(byte[] key, byte[] value, long dataVersion, Cach
          Events.Event remoteEvent = createRemoteEvent(key, value, dataVersion, event, cf);
 
          if (isTrace)
-            log.tracef("Queue event %s, before queuing event queue size is %d", remoteEvent, size - 1);
+            log.tracef("Queue event %s, before queuing events size is %d bytes", remoteEvent, size);
+         queuedBytes.addAndGet(remoteEvent.estimateSize());
+         if (latestEvents != null && remoteEvent.key() != null) {
+            coalesce(remoteEvent);
+         }
          eventQueue.add(remoteEvent);
 
          if (ch.isWritable()) {
@@ -55,6 +55,7 @@
 import org.jgroups.SuspectedException;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 
 /**
@@ -63,6 +64,8 @@
 class Encoder2x implements VersionedEncoder {
    private static final Log log = LogFactory.getLog(Encoder2x.class, Log.class);
    private static final boolean trace = log.isTraceEnabled();
+   // Values of at least this size are appended to the response buffer without copying them
+   static final int ZERO_COPY_THRESHOLD = 8 * 1024;
 
    @Override
    public void writeEvent(Events.Event e, ByteBuf buf) {
@@ -110,7 +113,7 @@ public ByteBuf valueResponse(HotRodHeader header, HotRodServer server, Channel c
       if (prev == null) {
          ExtendedByteBuf.writeUnsignedInt(0, buf);
       } else {
-         ExtendedByteBuf.writeRangedBytes(prev, buf);
+         buf = writeValue(prev, 0, buf);
       }
       if (trace) {
          log.tracef("Write response to %s messageId=%d status=%s prev=%s", header.op, header.messageId, status, Util.printArray(prev));
@@ -227,8 +230,7 @@ private void writePair(ByteBuf buf, String key, String value) {
    public ByteBuf valueWithVersionResponse(HotRodHeader header, HotRodServer server, Channel channel, byte[] value, long version) {
       ByteBuf buf = writeHeader(header, server, channel, OperationStatus.Success);
       buf.writeLong(version);
-      ExtendedByteBuf.writeRangedBytes(value, buf);
-      return buf;
+      return writeValue(value, 0, buf);
    }
 
 
@@ -237,8 +239,7 @@ public ByteBuf getWithMetadataResponse(HotRodHeader header, HotRodServer server,
       ByteBuf buf = writeHeader(header, server, channel, OperationStatus.Success);
       MetadataUtils.writeMetadata(MetadataUtils.extractLifespan(entry), MetadataUtils.extractMaxIdle(entry),
             MetadataUtils.extractCreated(entry), MetadataUtils.extractLastUsed(entry), MetadataUtils.extractVersion(entry), buf);
-      ExtendedByteBuf.writeRangedBytes(entry.getValue(), buf);
-      return buf;
+      return writeValue(entry.getValue(), 0, buf);
    }
 
    @Override
@@ -246,8 +247,7 @@ public ByteBuf getStreamResponse(HotRodHeader header, HotRodServer server, Chann
       ByteBuf buf = writeHeader(header, server, channel, OperationStatus.Success);
       MetadataUtils.writeMetadata(MetadataUtils.extractLifespan(entry), MetadataUtils.extractMaxIdle(entry),
             MetadataUtils.extractCreated(entry), MetadataUtils.extractLastUsed(entry), MetadataUtils.extractVersion(entry), buf);
-      ExtendedByteBuf.writeRangedBytes(entry.getValue(), offset, buf);
-      return buf;
+      return writeValue(entry.getValue(), offset, buf);
    }
 
    @Override
@@ -692,6 +692,20 @@ private Optional<AbstractTopologyResponse> generateTopologyResponse(short client
       }
    }
 
+   /**
+    * Writes the length of the value and the value starting at {@code offset}. Large values are not copied: the stored
+    * array is wrapped and the returned buffer is a composite of the response written so far and the value.
+    */
+   private static ByteBuf writeValue(byte[] value, int offset, ByteBuf buf) {
+      int length = value.length - offset;
+      if (length < ZERO_COPY_THRESHOLD) {
+         ExtendedByteBuf.writeRangedBytes(value, offset, buf);
+         return buf;
+      }
+      writeUnsignedInt(length, buf);
+      return buf.alloc().compositeBuffer(2).addComponents(true, buf, Unpooled.wrappedBuffer(value, offset, length));
+   }
+
    private static Optional<Integer> projectionInfo(List<CacheEntry> entries, byte version) {
       if (!entries.isEmpty()) {
          CacheEntry entry = entries.get(0);
@@ -12,6 +12,9 @@
  */
 class Events {
 
+   // Magic, message id, version, opcode, status, topology marker and the event marker and retried flag
+   private static final int HEADER_SIZE_ESTIMATE = 24;
+
    abstract static class Event {
       protected final byte version;
       protected final long messageId;
@@ -22,6 +25,8 @@ abstract static class Event {
 
       // Delays the operation that generated this event
       protected final CompletableFuture<Void> eventFuture;
+      // Set when a newer modification of the same key is queued before this event is sent, only with coalescing
+      volatile boolean superseded;
 
       protected Event(byte version, long messageId, HotRodOperation op, byte[] listenerId, boolean isRetried, byte marker,
                       CompletableFuture<Void> eventFuture) {
@@ -36,6 +41,20 @@ protected Event(byte version, long messageId, HotRodOperation op, byte[] listene
 
       abstract void writeEvent(ByteBuf buf);
 
+      /**
+       * @return the key of the entry, if the event carries it, or {@code null} otherwise.
+       */
+      byte[] key() {
+         return null;
+      }
+
+      /**
+       * @return an estimate of the number of bytes the event takes once encoded, including the header.
+       */
+      int estimateSize() {
+         return HEADER_SIZE_ESTIMATE + listenerId.length;
+      }
+
       void defaultEvent(ByteBuf buf) {
          buf.writeByte(marker); // custom marker
          buf.writeByte(isRetried ? 1 : 0);
@@ -68,6 +87,16 @@ void writeEvent(ByteBuf buf) {
          defaultEvent(buf);
          ExtendedByteBuf.writeRangedBytes(key, buf);
       }
+
+      @Override
+      byte[] key() {
+         return key;
+      }
+
+      @Override
+      int estimateSize() {
+         return super.estimateSize() + key.length;
+      }
    }
 
    static class KeyWithVersionEvent extends Event {
@@ -100,6 +129,16 @@ void writeEvent(ByteBuf buf) {
          ExtendedByteBuf.writeRangedBytes(key, buf);
          buf.writeLong(dataVersion);
       }
+
+      @Override
+      byte[] key() {
+         return key;
+      }
+
+      @Override
+      int estimateSize() {
+         return super.estimateSize() + key.length + 8;
+      }
    }
 
    static class CustomEvent extends Event {
@@ -128,6 +167,11 @@ void writeEvent(ByteBuf buf) {
          defaultEvent(buf);
          ExtendedByteBuf.writeRangedBytes(eventData, buf);
       }
+
+      @Override
+      int estimateSize() {
+         return super.estimateSize() + eventData.length;
+      }
    }
 
    static class CustomRawEvent extends Event {
@@ -156,5 +200,10 @@ void writeEvent(ByteBuf buf) {
          defaultEvent(buf);
          ExtendedByteBuf.writeRangedBytes(eventData, buf);
       }
+
+      @Override
+      int estimateSize() {
+         return super.estimateSize() + eventData.length;
+      }
    }
 }
@@ -222,7 +222,7 @@ protected void startInternal() {
       // Initialize query-specific stuff
       queryFacade = loadQueryFacade();
       clientListenerRegistry = new ClientListenerRegistry(gcr.getComponent(EncoderRegistry.class),
-            gcr.getComponent(ExecutorService.class, NON_BLOCKING_EXECUTOR));
+            gcr.getComponent(ExecutorService.class, NON_BLOCKING_EXECUTOR), configuration);
       clientCounterNotificationManager = new ClientCounterManagerNotificationManager(asCounterManager(cacheManager));
 
       addKeyValueFilterConverterFactory(ToEmptyBytesKeyValueFilterConverter.class.getName(), new ToEmptyBytesFactory());
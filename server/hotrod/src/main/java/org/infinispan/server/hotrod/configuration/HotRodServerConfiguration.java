@@ -25,9 +25,13 @@ public class HotRodServerConfiguration extends ProtocolServerConfiguration {
    public static final AttributeDefinition<Integer> PROXY_PORT = AttributeDefinition.builder("externalPort", -1).immutable().build();
    // The Hot Rod server has a different default
    public static final AttributeDefinition<Integer> WORKER_THREADS = AttributeDefinition.builder("worker-threads", 160).immutable().build();
+   public static final AttributeDefinition<Long> EVENT_QUEUE_MAX_BYTES = AttributeDefinition.builder("event-queue-max-bytes", 1024L * 1024L).immutable().build();
+   public static final AttributeDefinition<Boolean> EVENT_COALESCING = AttributeDefinition.builder("event-coalescing", false).immutable().build();
 
    private final Attribute<String> proxyHost;
    private final Attribute<Integer> proxyPort;
+   private final Attribute<Long> eventQueueMaxBytes;
+   private final Attribute<Boolean> eventCoalescing;
 
    private final TopologyCacheConfiguration topologyCache;
    private final AuthenticationConfiguration authentication;
@@ -35,7 +39,7 @@ public class HotRodServerConfiguration extends ProtocolServerConfiguration {
 
    public static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(HotRodServerConfiguration.class, ProtocolServerConfiguration.attributeDefinitionSet(),
-            WORKER_THREADS, PROXY_HOST, PROXY_PORT);
+            WORKER_THREADS, PROXY_HOST, PROXY_PORT, EVENT_QUEUE_MAX_BYTES, EVENT_COALESCING);
    }
 
    @Override
@@ -55,6 +59,8 @@ public List<ConfigurationInfo> subElements() {
       this.encryption = encryption;
       proxyHost = attributes.attribute(PROXY_HOST);
       proxyPort = attributes.attribute(PROXY_PORT);
+      eventQueueMaxBytes = attributes.attribute(EVENT_QUEUE_MAX_BYTES);
+      eventCoalescing = attributes.attribute(EVENT_COALESCING);
    }
 
    @Override
@@ -78,6 +84,22 @@ public int publicPort() {
       return proxyPort.isModified() ? proxyPort.get() : port();
    }
 
+   /**
+    * @return the maximum size, in bytes, of the events queued for a client listener before the operations generating
+    * new events are delayed until the queued events are sent.
+    */
+   public long eventQueueMaxBytes() {
+      return eventQueueMaxBytes.get();
+   }
+
+   /**
+    * @return whether a queued client listener modification event is discarded when the next event queued for the same
+    * key is also a modification.
+    */
+   public boolean eventCoalescing() {
+      return eventCoalescing.get();
+   }
+
    public String topologyCacheName() {
       String name = name();
       return TOPOLOGY_CACHE_NAME_PREFIX + (name.length() > 0 ? "_" + name : name);
@@ -120,6 +142,8 @@ public String toString() {
       return "HotRodServerConfiguration{" +
             "proxyHost=" + proxyHost +
             ", proxyPort=" + proxyPort +
+            ", eventQueueMaxBytes=" + eventQueueMaxBytes +
+            ", eventCoalescing=" + eventCoalescing +
             ", topologyCache=" + topologyCache +
             ", authentication=" + authentication +
             ", encryption=" + encryption +
@@ -1,6 +1,8 @@
 package org.infinispan.server.hotrod.configuration;
 
 import static org.infinispan.server.core.configuration.ProtocolServerConfiguration.HOST;
+import static org.infinispan.server.hotrod.configuration.HotRodServerConfiguration.EVENT_COALESCING;
+import static org.infinispan.server.hotrod.configuration.HotRodServerConfiguration.EVENT_QUEUE_MAX_BYTES;
 import static org.infinispan.server.hotrod.configuration.HotRodServerConfiguration.PROXY_HOST;
 import static org.infinispan.server.hotrod.configuration.HotRodServerConfiguration.PROXY_PORT;
 
@@ -64,6 +66,26 @@ public HotRodServerConfigurationBuilder proxyPort(int proxyPort) {
       return this;
    }
 
+   /**
+    * Sets the maximum size, in bytes, of the events queued for each client listener. When a listener's queue exceeds
+    * it, the operations generating new events wait until the queued events are written to the client. Defaults to 1 MiB
+    */
+   public HotRodServerConfigurationBuilder eventQueueMaxBytes(long eventQueueMaxBytes) {
+      attributes.attribute(EVENT_QUEUE_MAX_BYTES).set(eventQueueMaxBytes);
+      return this;
+   }
+
+   /**
+    * Enables coalescing of client listener events: a modification event that has not been sent yet is discarded when the
+    * next event queued for the same key is also a modification, so listeners that fall behind only receive the latest
+    * of consecutive modifications. Creation, removal and expiration events are always sent. Only applies to listeners
+    * without a converter. Defaults to false
+    */
+   public HotRodServerConfigurationBuilder eventCoalescing(boolean eventCoalescing) {
+      attributes.attribute(EVENT_COALESCING).set(eventCoalescing);
+      return this;
+   }
+
    /**
     * Configures the lock acquisition timeout for the topology cache. See {@link LockingConfigurationBuilder#lockAcquisitionTimeout(long)}.
     * Defaults to 10 seconds
@@ -127,6 +149,9 @@ public void validate() {
       if (attributes.attribute(PROXY_HOST).isNull() && attributes.attribute(HOST).isNull()) {
          throw log.missingHostAddress();
       }
+      if (attributes.attribute(EVENT_QUEUE_MAX_BYTES).get() <= 0) {
+         throw log.invalidEventQueueMaxBytes(attributes.attribute(EVENT_QUEUE_MAX_BYTES).get());
+      }
       authentication.validate();
       topologyCache.validate();
    }
@@ -106,4 +106,7 @@ public interface Log extends BasicLogger {
    @LogMessage(level = WARN)
    @Message(value = "Removed unclosed iterator '%s'", id = 28026)
    void removedUnclosedIterator(String iteratorId);
+
+   @Message(value = "The event queue max bytes must be greater than 0, but was %d", id = 28027)
+   CacheConfigurationException invalidEventQueueMaxBytes(long eventQueueMaxBytes);
 }
@@ -279,7 +279,7 @@ public static void writeRangedBytes(byte[] src, int offset, ByteBuf bf) {
       int l = src.length - offset;
       writeUnsignedInt(l, bf);
       if (l > 0)
-         bf.writeBytes(src);
+         bf.writeBytes(src, offset, l);
    }
 
    public static void writeRangedBytes(ByteBuffer src, ByteBuf bf) {
@@ -496,6 +496,15 @@ public void testPutBigSizeValue(Method m) {
       assertStatus(client().put(k(m), 0, 0, value), Success);
    }
 
+   public void testGetBigSizeValue(Method m) {
+      // Large values are written to the response without copying them
+      byte[] value = generateRandomString(Encoder2x.ZERO_COPY_THRESHOLD * 4).getBytes();
+      assertStatus(client().put(k(m), 0, 0, value), Success);
+      assertSuccess(client().get(k(m), 0), value);
+      assertSuccess(client().getWithVersion(k(m), 0), value, 0);
+      assertSuccess(client().getWithMetadata(k(m), 0), value, -1, -1);
+   }
+
    public void testSize(Method m) {
       TestSizeResponse sizeStart = client().size();
       assertStatus(sizeStart, Success);
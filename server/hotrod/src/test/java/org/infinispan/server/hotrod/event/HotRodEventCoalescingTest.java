@@ -0,0 +1,116 @@
+package org.infinispan.server.hotrod.event;
+
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.k;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.startHotRodServer;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.v;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.withClientListener;
+import static org.testng.AssertJUnit.assertArrayEquals;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.cachelistener.event.Event;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.server.hotrod.HotRodSingleNodeTest;
+import org.infinispan.server.hotrod.configuration.HotRodServerConfigurationBuilder;
+import org.infinispan.server.hotrod.test.TestKeyEvent;
+import org.infinispan.server.hotrod.test.TestKeyWithVersionEvent;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import io.netty.channel.Channel;
+import io.netty.channel.group.ChannelGroup;
+
+/**
+ * Tests that with event coalescing only consecutive modifications of a key queued for a listener are merged.
+ *
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "server.hotrod.event.HotRodEventCoalescingTest")
+public class HotRodEventCoalescingTest extends HotRodSingleNodeTest {
+
+   @Override
+   protected HotRodServer createStartHotRodServer(EmbeddedCacheManager cacheManager) {
+      return startHotRodServer(cacheManager, new HotRodServerConfigurationBuilder().eventCoalescing(true));
+   }
+
+   public void testOnlyConsecutiveModificationsAreCoalesced(Method m) {
+      EventLogListener eventListener = new EventLogListener();
+      withClientListener(client(), eventListener, Optional.empty(), Optional.empty(), () -> {
+         byte[] key = k(m);
+         AdvancedCache<byte[], byte[]> cache = advancedCache.withStorageMediaType();
+         // Queue all the events before any of them is sent
+         CountDownLatch latch = blockEventLoops(server());
+         try {
+            cache.put(key, v(m, "v1-"));
+            cache.put(key, v(m, "v2-"));
+            cache.put(key, v(m, "v3-"));
+            cache.remove(key);
+            cache.put(key, v(m, "v4-"));
+            cache.put(key, v(m, "v5-"));
+         } finally {
+            latch.countDown();
+         }
+
+         for (int i = 0; i < 2; i++) {
+            assertArrayEquals(key, ((TestKeyWithVersionEvent) eventListener.pollEvent(Event.Type.CACHE_ENTRY_CREATED)).key);
+         }
+         // v2 is replaced by v3, but v3 is still sent before the removal
+         for (int i = 0; i < 2; i++) {
+            assertArrayEquals(key, ((TestKeyWithVersionEvent) eventListener.pollEvent(Event.Type.CACHE_ENTRY_MODIFIED)).key);
+         }
+         assertArrayEquals(key, ((TestKeyEvent) eventListener.pollEvent(Event.Type.CACHE_ENTRY_REMOVED)).key);
+         eventListener.expectNoEvents(Optional.empty());
+      });
+   }
+
+   public void testModificationsOfDifferentKeysAreNotCoalesced(Method m) {
+      EventLogListener eventListener = new EventLogListener();
+      withClientListener(client(), eventListener, Optional.empty(), Optional.empty(), () -> {
+         byte[] key1 = k(m, "k1-");
+         byte[] key2 = k(m, "k2-");
+         AdvancedCache<byte[], byte[]> cache = advancedCache.withStorageMediaType();
+         cache.put(key1, v(m));
+         cache.put(key2, v(m));
+         assertArrayEquals(key1, ((TestKeyWithVersionEvent) eventListener.pollEvent(Event.Type.CACHE_ENTRY_CREATED)).key);
+         assertArrayEquals(key2, ((TestKeyWithVersionEvent) eventListener.pollEvent(Event.Type.CACHE_ENTRY_CREATED)).key);
+
+         CountDownLatch latch = blockEventLoops(server());
+         try {
+            cache.put(key1, v(m, "v2-"));
+            cache.put(key2, v(m, "v2-"));
+            cache.put(key1, v(m, "v3-"));
+            cache.put(key2, v(m, "v3-"));
+         } finally {
+            latch.countDown();
+         }
+
+         // Only the latest modification of each key is sent, in the order they were queued
+         assertArrayEquals(key1, ((TestKeyWithVersionEvent) eventListener.pollEvent(Event.Type.CACHE_ENTRY_MODIFIED)).key);
+         assertArrayEquals(key2, ((TestKeyWithVersionEvent) eventListener.pollEvent(Event.Type.CACHE_ENTRY_MODIFIED)).key);
+         eventListener.expectNoEvents(Optional.empty());
+      });
+   }
+
+   /**
+    * Blocks the event loops of the client connections, so that the events are queued until the latch is released.
+    */
+   static CountDownLatch blockEventLoops(HotRodServer server) {
+      ChannelGroup acceptedChannels = TestingUtil.extractField(server.getTransport(), "acceptedChannels");
+      CountDownLatch latch = new CountDownLatch(1);
+      for (Channel channel : acceptedChannels) {
+         channel.eventLoop().execute(() -> {
+            try {
+               latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+            }
+         });
+      }
+      return latch;
+   }
+}
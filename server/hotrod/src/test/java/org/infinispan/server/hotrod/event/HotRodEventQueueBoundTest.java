@@ -0,0 +1,81 @@
+package org.infinispan.server.hotrod.event;
+
+import static org.infinispan.server.hotrod.event.HotRodEventCoalescingTest.blockEventLoops;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.k;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.startHotRodServer;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.v;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtil.withClientListener;
+import static org.testng.AssertJUnit.assertArrayEquals;
+import static org.testng.AssertJUnit.assertFalse;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.cachelistener.event.Event;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.server.hotrod.HotRodSingleNodeTest;
+import org.infinispan.server.hotrod.configuration.HotRodServerConfigurationBuilder;
+import org.infinispan.server.hotrod.test.TestKeyWithVersionEvent;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the operations wait for the events of a listener to be sent once its queue exceeds the configured bytes.
+ *
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "server.hotrod.event.HotRodEventQueueBoundTest")
+public class HotRodEventQueueBoundTest extends HotRodSingleNodeTest {
+
+   // Enough for a few events with a short key
+   private static final long EVENT_QUEUE_MAX_BYTES = 256;
+   private static final int MAX_EVENTS = 100;
+
+   @Override
+   protected HotRodServer createStartHotRodServer(EmbeddedCacheManager cacheManager) {
+      return startHotRodServer(cacheManager, new HotRodServerConfigurationBuilder().eventQueueMaxBytes(EVENT_QUEUE_MAX_BYTES));
+   }
+
+   public void testOperationsWaitForFullQueue(Method m) throws Exception {
+      EventLogListener eventListener = new EventLogListener();
+      withClientListener(client(), eventListener, Optional.empty(), Optional.empty(), () -> {
+         AdvancedCache<byte[], byte[]> cache = advancedCache.withStorageMediaType();
+         int events = 0;
+         Future<?> blocked;
+         CountDownLatch latch = blockEventLoops(server());
+         try {
+            // Queue events until one of the operations can't complete
+            do {
+               byte[] key = k(m, "k" + events + "-");
+               blocked = fork(() -> cache.put(key, v(m)));
+               events++;
+               waitForCompletion(blocked, 1, TimeUnit.SECONDS);
+            } while (blocked.isDone() && events < MAX_EVENTS);
+            assertFalse("The operations never waited for the event queue", blocked.isDone());
+         } finally {
+            latch.countDown();
+         }
+
+         waitForCompletion(blocked, 10, TimeUnit.SECONDS);
+         for (int i = 0; i < events; i++) {
+            assertArrayEquals(k(m, "k" + i + "-"), ((TestKeyWithVersionEvent) eventListener.pollEvent(Event.Type.CACHE_ENTRY_CREATED)).key);
+         }
+         eventListener.expectNoEvents(Optional.empty());
+      });
+   }
+
+   private static void waitForCompletion(Future<?> future, long timeout, TimeUnit unit) {
+      try {
+         future.get(timeout, unit);
+      } catch (TimeoutException e) {
+         // Still waiting for the queue
+      } catch (Exception e) {
+         throw new AssertionError(e);
+      }
+   }
+}
@@ -0,0 +1,83 @@
+package org.infinispan.server.memcached;
+
+/**
+ * Memcached binary protocol constants.
+ *
+ * @since 12.0
+ */
+final class BinaryProtocolUtil {
+   private BinaryProtocolUtil() {
+   }
+
+   static final byte MAGIC_REQUEST = (byte) 0x80;
+   static final byte MAGIC_RESPONSE = (byte) 0x81;
+   static final int HEADER_LENGTH = 24;
+   /**
+    * Incr/decr requests with this expiration fail if the counter doesn't exist, instead of creating it.
+    */
+   static final int NO_AUTO_CREATE = 0xFFFFFFFF;
+
+   // Opcodes
+   static final byte GET = 0x00;
+   static final byte SET = 0x01;
+   static final byte ADD = 0x02;
+   static final byte REPLACE = 0x03;
+   static final byte DELETE = 0x04;
+   static final byte INCREMENT = 0x05;
+   static final byte DECREMENT = 0x06;
+   static final byte QUIT = 0x07;
+   static final byte FLUSH = 0x08;
+   static final byte GETQ = 0x09;
+   static final byte NOOP = 0x0a;
+   static final byte VERSION = 0x0b;
+   static final byte GETK = 0x0c;
+   static final byte GETKQ = 0x0d;
+   static final byte APPEND = 0x0e;
+   static final byte PREPEND = 0x0f;
+   static final byte STAT = 0x10;
+   static final byte SETQ = 0x11;
+   static final byte ADDQ = 0x12;
+   static final byte REPLACEQ = 0x13;
+   static final byte DELETEQ = 0x14;
+   static final byte INCREMENTQ = 0x15;
+   static final byte DECREMENTQ = 0x16;
+   static final byte QUITQ = 0x17;
+   static final byte FLUSHQ = 0x18;
+   static final byte APPENDQ = 0x19;
+   static final byte PREPENDQ = 0x1a;
+   static final byte TOUCH = 0x1c;
+
+   // Response status
+   static final short NO_ERROR = 0x0000;
+   static final short KEY_NOT_FOUND = 0x0001;
+   static final short KEY_EXISTS = 0x0002;
+   static final short VALUE_TOO_LARGE = 0x0003;
+   static final short INVALID_ARGUMENTS = 0x0004;
+   static final short ITEM_NOT_STORED = 0x0005;
+   static final short NON_NUMERIC_VALUE = 0x0006;
+   static final short UNKNOWN_COMMAND = 0x0081;
+   static final short INTERNAL_ERROR = 0x0084;
+
+   /**
+    * @return whether the opcode is the quiet version of a command, which doesn't send a response when successful
+    */
+   static boolean isQuiet(byte opcode) {
+      switch (opcode) {
+         case GETQ:
+         case GETKQ:
+         case SETQ:
+         case ADDQ:
+         case REPLACEQ:
+         case DELETEQ:
+         case INCREMENTQ:
+         case DECREMENTQ:
+         case QUITQ:
+         case FLUSHQ:
+         case APPENDQ:
+         case PREPENDQ:
+            return true;
+         default:
+            return false;
+      }
+   }
+}
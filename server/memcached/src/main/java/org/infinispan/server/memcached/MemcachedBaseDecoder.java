@@ -0,0 +1,242 @@
+package org.infinispan.server.memcached;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+import org.infinispan.commons.logging.LogFactory;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.server.memcached.logging.Log;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.concurrent.CompletionStages;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+
+/**
+ * Base class of the Memcached decoders, which parse the requests without blocking or replaying and invoke the cache
+ * asynchronously.
+ * <p>
+ * A client may pipeline requests, i.e. send several requests without waiting for the responses, and it expects the
+ * responses in the same order as the requests. The requests are started as soon as they are parsed, but a request is
+ * only started after the previous requests on the same keys have completed, so that e.g. a {@code get} sees the value
+ * written by a previous {@code set}. Each response is written when it and all the previous responses are ready, and
+ * reading from the channel is suspended while too many responses are pending.
+ * <p>
+ * All the state of the decoder is only accessed from the event loop of the channel.
+ *
+ * @since 12.0
+ */
+abstract class MemcachedBaseDecoder extends ByteToMessageDecoder {
+   protected final static Log log = LogFactory.getLog(MemcachedBaseDecoder.class, Log.class);
+   protected final static boolean isTrace = log.isTraceEnabled();
+
+   private static final int MAX_PENDING_RESPONSES = 1024;
+   // The largest value accepted, larger than the maximum item size of the reference implementation
+   static final int MAX_BODY_LENGTH = 32 * 1024 * 1024;
+
+   protected final MemcachedRequestProcessor processor;
+   protected ChannelHandlerContext ctx;
+
+   // The last incomplete operation on each key
+   private final Map<WrappedByteArray, CompletionStage<?>> pendingKeys = new HashMap<>();
+   // The last incomplete operation on the whole cache, e.g. flush_all
+   private CompletionStage<?> pendingExclusive;
+   private CompletionStage<Void> lastResponse;
+   private int pendingResponses;
+   private boolean closing;
+
+   MemcachedBaseDecoder(MemcachedRequestProcessor processor) {
+      this.processor = processor;
+   }
+
+   @Override
+   public void handlerAdded(ChannelHandlerContext ctx) {
+      this.ctx = ctx;
+   }
+
+   @Override
+   protected final void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+      if (closing) {
+         in.skipBytes(in.readableBytes());
+         return;
+      }
+      decodeRequest(in);
+   }
+
+   /**
+    * Decodes at most one request. If the request is not complete yet, it must not consume any bytes.
+    */
+   protected abstract void decodeRequest(ByteBuf in);
+
+   @Override
+   public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+      // Responses that were ready immediately are only flushed once per read
+      ctx.flush();
+      super.channelReadComplete(ctx);
+   }
+
+   @Override
+   public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      // Log it just in case the channel is closed or similar
+      log.debug("Exception caught", cause);
+      if (!(cause instanceof IOException)) {
+         log.exceptionReported(cause);
+      }
+      ctx.close();
+   }
+
+   protected <T> CompletionStage<T> execute(byte[] key, Supplier<CompletionStage<T>> operation) {
+      return execute(Collections.singletonList(key), operation);
+   }
+
+   /**
+    * Starts an operation on the given keys, once the previous operations on any of them have completed.
+    */
+   protected <T> CompletionStage<T> execute(Collection<byte[]> keys, Supplier<CompletionStage<T>> operation) {
+      if (pendingKeys.isEmpty() && pendingExclusive == null) {
+         CompletionStage<T> stage = invoke(operation);
+         if (!stage.toCompletableFuture().isDone()) {
+            track(wrap(keys), stage);
+         }
+         return stage;
+      }
+      List<WrappedByteArray> wrappedKeys = wrap(keys);
+      List<CompletionStage<?>> dependencies = new ArrayList<>(wrappedKeys.size() + 1);
+      if (pendingExclusive != null) {
+         dependencies.add(pendingExclusive);
+      }
+      for (WrappedByteArray key : wrappedKeys) {
+         CompletionStage<?> pending = pendingKeys.get(key);
+         if (pending != null) {
+            dependencies.add(pending);
+         }
+      }
+      CompletionStage<T> stage = dependencies.isEmpty() ? invoke(operation) : after(dependencies, operation);
+      if (!stage.toCompletableFuture().isDone()) {
+         track(wrappedKeys, stage);
+      }
+      return stage;
+   }
+
+   /**
+    * Starts an operation on the whole cache, once all the previous operations have completed. The following operations
+    * only start after it completes.
+    */
+   protected <T> CompletionStage<T> executeExclusively(Supplier<CompletionStage<T>> operation) {
+      List<CompletionStage<?>> dependencies = new ArrayList<>(pendingKeys.values());
+      if (pendingExclusive != null) {
+         dependencies.add(pendingExclusive);
+      }
+      CompletionStage<T> stage = dependencies.isEmpty() ? invoke(operation) : after(dependencies, operation);
+      if (!stage.toCompletableFuture().isDone()) {
+         // The following operations on any key will wait for this one, which waits for the current ones
+         pendingKeys.clear();
+         pendingExclusive = stage;
+         stage.whenCompleteAsync((v, t) -> {
+            if (pendingExclusive == stage) {
+               pendingExclusive = null;
+            }
+         }, ctx.channel().eventLoop());
+      }
+      return stage;
+   }
+
+   /**
+    * Writes a response after all the previous responses. A {@code null} response is not written, but it still has to
+    * complete before the following responses are written.
+    */
+   protected void send(CompletionStage<ByteBuf> response) {
+      if (pendingResponses == 0 && CompletionStages.isCompletedSuccessfully(response)) {
+         write(CompletionStages.join(response));
+         return;
+      }
+      CompletionStage<Void> previous = lastResponse != null ? lastResponse : CompletableFutures.completedNull();
+      if (++pendingResponses == MAX_PENDING_RESPONSES) {
+         ctx.channel().config().setAutoRead(false);
+      }
+      lastResponse = previous.thenCompose(ignore -> response).handleAsync((buf, t) -> {
+         if (t != null) {
+            // The subclasses turn the failures into error responses, so this is a bug
+            exceptionCaught(ctx, CompletableFutures.extractException(t));
+         } else {
+            write(buf);
+            ctx.flush();
+         }
+         if (--pendingResponses == 0) {
+            lastResponse = null;
+         }
+         if (pendingResponses < MAX_PENDING_RESPONSES / 2 && !ctx.channel().config().isAutoRead()) {
+            ctx.channel().config().setAutoRead(true);
+         }
+         return null;
+      }, ctx.channel().eventLoop());
+   }
+
+   protected void send(ByteBuf response) {
+      send(CompletableFuture.completedFuture(response));
+   }
+
+   /**
+    * Closes the channel after writing all the pending responses, and ignores the following requests.
+    */
+   protected void closeAfterResponses() {
+      closing = true;
+      if (lastResponse == null) {
+         ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE);
+      } else {
+         lastResponse.thenRunAsync(() -> ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE),
+               ctx.channel().eventLoop());
+      }
+   }
+
+   private void write(ByteBuf response) {
+      if (response != null) {
+         if (isTrace) log.tracef("Write response %s", response);
+         ctx.write(response, ctx.voidPromise());
+      }
+   }
+
+   private void track(List<WrappedByteArray> keys, CompletionStage<?> stage) {
+      for (WrappedByteArray key : keys) {
+         pendingKeys.put(key, stage);
+      }
+      stage.whenCompleteAsync((v, t) -> {
+         for (WrappedByteArray key : keys) {
+            pendingKeys.remove(key, stage);
+         }
+      }, ctx.channel().eventLoop());
+   }
+
+   private static <T> CompletionStage<T> after(List<CompletionStage<?>> dependencies, Supplier<CompletionStage<T>> operation) {
+      CompletionStage<Void> all = CompletionStages.allOf(dependencies.toArray(new CompletionStage[0]));
+      // The operation runs even if a previous operation failed, that failure was already reported to the client
+      return CompletionStages.handleAndCompose(all, (ignore, t) -> operation.get());
+   }
+
+   private static <T> CompletionStage<T> invoke(Supplier<CompletionStage<T>> operation) {
+      try {
+         return operation.get();
+      } catch (Throwable t) {
+         return CompletableFutures.completedExceptionFuture(t);
+      }
+   }
+
+   private static List<WrappedByteArray> wrap(Collection<byte[]> keys) {
+      List<WrappedByteArray> wrappedKeys = new ArrayList<>(keys.size());
+      for (byte[] key : keys) {
+         wrappedKeys.add(new WrappedByteArray(key));
+      }
+      return wrappedKeys;
+   }
+}
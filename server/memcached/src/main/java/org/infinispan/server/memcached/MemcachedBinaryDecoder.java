@@ -0,0 +1,436 @@
+package org.infinispan.server.memcached;
+
+import static org.infinispan.server.core.transport.ExtendedByteBuf.buffer;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.ADD;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.ADDQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.APPEND;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.APPENDQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.DECREMENT;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.DECREMENTQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.DELETE;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.DELETEQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.FLUSH;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.FLUSHQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.GET;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.GETK;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.GETKQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.GETQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.HEADER_LENGTH;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.INCREMENT;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.INCREMENTQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.INTERNAL_ERROR;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.INVALID_ARGUMENTS;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.ITEM_NOT_STORED;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.KEY_EXISTS;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.KEY_NOT_FOUND;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.MAGIC_REQUEST;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.MAGIC_RESPONSE;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.NON_NUMERIC_VALUE;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.NOOP;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.NO_AUTO_CREATE;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.NO_ERROR;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.PREPEND;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.PREPENDQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.QUIT;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.QUITQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.REPLACE;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.REPLACEQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.SET;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.SETQ;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.STAT;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.TOUCH;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.UNKNOWN_COMMAND;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.VERSION;
+import static org.infinispan.server.memcached.BinaryProtocolUtil.isQuiet;
+import static org.infinispan.server.memcached.TextProtocolUtil.CHARSET;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.server.memcached.MemcachedRequestProcessor.Result;
+import org.infinispan.util.concurrent.CompletableFutures;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+
+/**
+ * Decoder for the Memcached binary protocol.
+ * <p>
+ * The {@link MemcachedDecoder} replaces itself with this decoder when the first request on a connection is a binary
+ * request. Consecutive get requests, which clients typically send as a batch of quiet gets terminated by a noop or a
+ * non-quiet get, are read with a single cache operation.
+ *
+ * @since 12.0
+ */
+class MemcachedBinaryDecoder extends MemcachedBaseDecoder {
+   // The get requests waiting to be read with a single cache operation
+   private final List<Request> pendingGets = new ArrayList<>();
+
+   MemcachedBinaryDecoder(MemcachedRequestProcessor processor) {
+      super(processor);
+   }
+
+   @Override
+   protected void decodeRequest(ByteBuf in) {
+      if (in.readableBytes() < HEADER_LENGTH)
+         return;
+      int start = in.readerIndex();
+      byte magic = in.getByte(start);
+      int bodyLength = in.getInt(start + 8);
+      if (magic != MAGIC_REQUEST || bodyLength < 0 || bodyLength > MAX_BODY_LENGTH) {
+         // The frames can't be delimited any more
+         log.debugf("Invalid binary request header, magic %x, body length %d", magic, bodyLength);
+         flushGets();
+         in.skipBytes(in.readableBytes());
+         closeAfterResponses();
+         return;
+      }
+      if (in.readableBytes() < HEADER_LENGTH + bodyLength)
+         return;
+
+      in.skipBytes(1);
+      Request request = new Request();
+      request.opcode = in.readByte();
+      int keyLength = in.readUnsignedShort();
+      int extrasLength = in.readUnsignedByte();
+      in.skipBytes(3); // Data type and vbucket
+      in.skipBytes(4); // Body length
+      request.opaque = in.readInt();
+      request.cas = in.readLong();
+      int valueLength = bodyLength - keyLength - extrasLength;
+      if (valueLength < 0) {
+         in.skipBytes(bodyLength);
+         flushGets();
+         send(error(request, INVALID_ARGUMENTS, "Invalid body length"));
+         return;
+      }
+      request.extras = in.readSlice(extrasLength);
+      request.key = new byte[keyLength];
+      in.readBytes(request.key);
+      request.value = new byte[valueLength];
+      in.readBytes(request.value);
+
+      if (isTrace) log.tracef("Binary request opcode %x, key length %d, body length %d", request.opcode, keyLength, bodyLength);
+      switch (request.opcode) {
+         case GET:
+         case GETQ:
+         case GETK:
+         case GETKQ:
+            if (!validateKey(request)) return;
+            pendingGets.add(request);
+            return;
+      }
+      flushGets();
+      try {
+         processor.checkCacheAvailable();
+      } catch (CacheUnavailableException e) {
+         send(error(request, INTERNAL_ERROR, e.toString()));
+         return;
+      }
+      switch (request.opcode) {
+         case SET:
+         case SETQ:
+         case ADD:
+         case ADDQ:
+         case REPLACE:
+         case REPLACEQ:
+            store(request);
+            break;
+         case DELETE:
+         case DELETEQ:
+            delete(request);
+            break;
+         case INCREMENT:
+         case INCREMENTQ:
+         case DECREMENT:
+         case DECREMENTQ:
+            incrDecr(request);
+            break;
+         case APPEND:
+         case APPENDQ:
+         case PREPEND:
+         case PREPENDQ:
+            concat(request);
+            break;
+         case TOUCH:
+            touch(request);
+            break;
+         case FLUSH:
+         case FLUSHQ:
+            flush(request);
+            break;
+         case NOOP:
+            send(response(request, NO_ERROR, 0, null, null, null));
+            break;
+         case VERSION:
+            send(response(request, NO_ERROR, 0, null, null, processor.version().getBytes(CHARSET)));
+            break;
+         case STAT:
+            stats(request);
+            break;
+         case QUIT:
+         case QUITQ:
+            if (request.opcode == QUIT) {
+               send(response(request, NO_ERROR, 0, null, null, null));
+            }
+            closeAfterResponses();
+            break;
+         default:
+            send(error(request, UNKNOWN_COMMAND, "Unknown command"));
+      }
+   }
+
+   @Override
+   public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+      // The client may be waiting for the responses of the gets before sending more requests
+      flushGets();
+      super.channelReadComplete(ctx);
+   }
+
+   private void flushGets() {
+      if (pendingGets.isEmpty())
+         return;
+      List<Request> gets = new ArrayList<>(pendingGets);
+      pendingGets.clear();
+      try {
+         processor.checkCacheAvailable();
+      } catch (CacheUnavailableException e) {
+         for (Request get : gets) {
+            send(error(get, INTERNAL_ERROR, e.toString()));
+         }
+         return;
+      }
+      if (gets.size() == 1) {
+         Request get = gets.get(0);
+         CompletionStage<CacheEntry<byte[], byte[]>> entry = execute(get.key, () -> processor.get(get.key));
+         send(entry.thenApply(e -> getResponse(get, e)).exceptionally(t -> errorResponse(get, t)));
+         return;
+      }
+      List<byte[]> keys = new ArrayList<>(gets.size());
+      for (Request get : gets) {
+         keys.add(get.key);
+      }
+      CompletionStage<Map<WrappedByteArray, CacheEntry<byte[], byte[]>>> entries = execute(keys, () -> processor.getAll(keys));
+      for (Request get : gets) {
+         send(entries.thenApply(map -> getResponse(get, map.get(new WrappedByteArray(get.key))))
+               .exceptionally(t -> errorResponse(get, t)));
+      }
+   }
+
+   private ByteBuf getResponse(Request request, CacheEntry<byte[], byte[]> entry) {
+      boolean withKey = request.opcode == GETK || request.opcode == GETKQ;
+      if (entry == null) {
+         // The quiet gets only send the hits
+         return isQuiet(request.opcode) ? null :
+               response(request, KEY_NOT_FOUND, 0, null, withKey ? request.key : null, "Not found".getBytes(CHARSET));
+      }
+      byte[] extras = ByteBuffer.allocate(4).putInt((int) MemcachedRequestProcessor.flags(entry)).array();
+      return response(request, NO_ERROR, MemcachedRequestProcessor.version(entry.getMetadata()), extras,
+            withKey ? request.key : null, entry.getValue());
+   }
+
+   private void store(Request request) {
+      if (!validateKey(request)) return;
+      if (request.extras.readableBytes() != 8) {
+         send(error(request, INVALID_ARGUMENTS, "Invalid arguments"));
+         return;
+      }
+      long flags = request.extras.readUnsignedInt();
+      int lifespan = request.extras.readInt();
+      Metadata metadata = processor.metadata(flags, lifespan);
+      byte[] key = request.key;
+      byte[] value = request.value;
+      CompletionStage<Result> stage;
+      if (request.cas != 0) {
+         // add doesn't accept a cas, set and replace only store if the entry wasn't modified
+         stage = request.opcode == ADD || request.opcode == ADDQ ?
+               CompletableFuture.completedFuture(Result.NOT_STORED) :
+               execute(key, () -> processor.replaceIfUnmodified(key, value, metadata, request.cas));
+      } else {
+         switch (request.opcode) {
+            case ADD:
+            case ADDQ:
+               stage = execute(key, () -> processor.add(key, value, metadata));
+               break;
+            case REPLACE:
+            case REPLACEQ:
+               stage = execute(key, () -> processor.replace(key, value, metadata));
+               break;
+            default:
+               stage = execute(key, () -> processor.set(key, value, metadata));
+         }
+      }
+      reply(request, stage, metadata);
+   }
+
+   private void delete(Request request) {
+      if (!validateKey(request)) return;
+      byte[] key = request.key;
+      reply(request, execute(key, () -> processor.remove(key, request.cas)), null);
+   }
+
+   private void touch(Request request) {
+      if (!validateKey(request)) return;
+      if (request.extras.readableBytes() != 4) {
+         send(error(request, INVALID_ARGUMENTS, "Invalid arguments"));
+         return;
+      }
+      byte[] key = request.key;
+      int lifespan = request.extras.readInt();
+      reply(request, execute(key, () -> processor.touch(key, lifespan)), null);
+   }
+
+   private void incrDecr(Request request) {
+      if (!validateKey(request)) return;
+      if (request.extras.readableBytes() != 20) {
+         send(error(request, INVALID_ARGUMENTS, "Invalid arguments"));
+         return;
+      }
+      BigInteger delta = unsigned(request.extras.readLong());
+      BigInteger initial = unsigned(request.extras.readLong());
+      int expiration = request.extras.readInt();
+      // The counter is created with the initial value unless the expiration says otherwise
+      BigInteger initialValue = expiration == NO_AUTO_CREATE ? null : initial;
+      Metadata initialMetadata = expiration == NO_AUTO_CREATE ? null : processor.metadata(0, expiration);
+      boolean increment = request.opcode == INCREMENT || request.opcode == INCREMENTQ;
+      byte[] key = request.key;
+      send(execute(key, () -> processor.incrDecr(key, increment, delta, initialValue, initialMetadata))
+            .thenApply(counter -> {
+               if (counter == null)
+                  return error(request, KEY_NOT_FOUND, "Not found");
+               if (isQuiet(request.opcode))
+                  return null;
+               byte[] value = ByteBuffer.allocate(8).putLong(counter.value.longValue()).array();
+               return response(request, NO_ERROR, counter.version, null, null, value);
+            }).exceptionally(t -> errorResponse(request, t)));
+   }
+
+   private void concat(Request request) {
+      if (!validateKey(request)) return;
+      byte[] key = request.key;
+      boolean append = request.opcode == APPEND || request.opcode == APPENDQ;
+      send(execute(key, () -> processor.concat(key, request.value, append, request.cas))
+            .thenApply(version -> {
+               if (version == null)
+                  // The entry doesn't exist or its cas doesn't match
+                  return error(request, request.cas != 0 ? KEY_EXISTS : ITEM_NOT_STORED, "Not stored");
+               return isQuiet(request.opcode) ? null : response(request, NO_ERROR, version, null, null, null);
+            }).exceptionally(t -> errorResponse(request, t)));
+   }
+
+   private void flush(Request request) {
+      int delay = request.extras.readableBytes() == 4 ? request.extras.readInt() : 0;
+      send(executeExclusively(() -> processor.flushAll(delay))
+            .thenApply(ignore -> isQuiet(request.opcode) ? null : response(request, NO_ERROR, 0, null, null, null))
+            .exceptionally(t -> errorResponse(request, t)));
+   }
+
+   private void stats(Request request) {
+      if (request.key.length > 0) {
+         // Only the general statistics are supported
+         send(error(request, KEY_NOT_FOUND, "Unknown statistics group"));
+         return;
+      }
+      for (Map.Entry<String, Object> stat : processor.stats().entrySet()) {
+         send(response(request, NO_ERROR, 0, null, stat.getKey().getBytes(CHARSET),
+               String.valueOf(stat.getValue()).getBytes(CHARSET)));
+      }
+      // An empty packet terminates the statistics
+      send(response(request, NO_ERROR, 0, null, null, null));
+   }
+
+   private void reply(Request request, CompletionStage<Result> stage, Metadata metadata) {
+      send(stage.thenApply(result -> {
+         switch (result) {
+            case STORED:
+               return isQuiet(request.opcode) ? null :
+                     response(request, NO_ERROR, MemcachedRequestProcessor.version(metadata), null, null, null);
+            case DELETED:
+            case TOUCHED:
+               return isQuiet(request.opcode) ? null : response(request, NO_ERROR, 0, null, null, null);
+            case NOT_STORED:
+               // add of an existing key, replace of a missing key
+               return request.opcode == ADD || request.opcode == ADDQ ?
+                     error(request, KEY_EXISTS, "Data exists for key") :
+                     error(request, KEY_NOT_FOUND, "Not found");
+            case EXISTS:
+               return error(request, KEY_EXISTS, "Data exists for key");
+            case NOT_FOUND:
+               return error(request, KEY_NOT_FOUND, "Not found");
+            default:
+               throw new IllegalArgumentException("Unexpected result " + result);
+         }
+      }).exceptionally(t -> errorResponse(request, t)));
+   }
+
+   private boolean validateKey(Request request) {
+      if (request.key.length == 0 || MemcachedRequestProcessor.isKeyTooLong(request.key)) {
+         flushGets();
+         send(error(request, INVALID_ARGUMENTS, "Invalid key length"));
+         return false;
+      }
+      return true;
+   }
+
+   private ByteBuf errorResponse(Request request, Throwable t) {
+      Throwable cause = CompletableFutures.extractException(t);
+      if (cause instanceof NumberFormatException) {
+         return error(request, NON_NUMERIC_VALUE, "Non-numeric server-side value for incr or decr");
+      }
+      log.exceptionReported(cause);
+      return error(request, INTERNAL_ERROR, cause.toString());
+   }
+
+   private static ByteBuf error(Request request, short status, String message) {
+      return response(request, status, 0, null, null, message.getBytes(CHARSET));
+   }
+
+   private static ByteBuf response(Request request, short status, long cas, byte[] extras, byte[] key, byte[] value) {
+      int extrasLength = extras != null ? extras.length : 0;
+      int keyLength = key != null ? key.length : 0;
+      int valueLength = value != null ? value.length : 0;
+      int bodyLength = extrasLength + keyLength + valueLength;
+      ByteBuf buf = buffer(HEADER_LENGTH + bodyLength);
+      buf.writeByte(MAGIC_RESPONSE);
+      buf.writeByte(request.opcode);
+      buf.writeShort(keyLength);
+      buf.writeByte(extrasLength);
+      buf.writeByte(0); // Data type
+      buf.writeShort(status);
+      buf.writeInt(bodyLength);
+      buf.writeInt(request.opaque);
+      buf.writeLong(cas);
+      if (extras != null) {
+         buf.writeBytes(extras);
+      }
+      if (key != null) {
+         buf.writeBytes(key);
+      }
+      if (value != null) {
+         buf.writeBytes(value);
+      }
+      return buf;
+   }
+
+   private static BigInteger unsigned(long value) {
+      BigInteger bigInteger = BigInteger.valueOf(value);
+      return value >= 0 ? bigInteger : bigInteger.add(BigInteger.ONE.shiftLeft(64));
+   }
+
+   private static final class Request {
+      byte opcode;
+      int opaque;
+      long cas;
+      ByteBuf extras;
+      byte[] key;
+      byte[] value;
+   }
+}
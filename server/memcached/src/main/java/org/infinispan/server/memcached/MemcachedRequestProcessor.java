@@ -0,0 +1,382 @@
+package org.infinispan.server.memcached;
+
+import static org.infinispan.commons.dataconversion.MediaType.TEXT_PLAIN;
+import static org.infinispan.server.memcached.TextProtocolUtil.MAX_UNSIGNED_LONG;
+import static org.infinispan.server.memcached.TextProtocolUtil.MIN_UNSIGNED;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.util.Version;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.versioning.EntryVersion;
+import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.container.versioning.NumericVersionGenerator;
+import org.infinispan.container.versioning.VersionGenerator;
+import org.infinispan.context.Flag;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.server.core.transport.NettyTransport;
+import org.infinispan.stats.Stats;
+import org.infinispan.util.concurrent.CompletableFutures;
+
+/**
+ * Executes the Memcached operations on the cache, independently of the protocol used to send them.
+ * <p>
+ * All the operations are asynchronous and never block the calling thread, so they can be invoked from the event loop.
+ * Operations that need to read an entry before writing it, like {@code cas}, {@code append} or {@code incr}, use
+ * conditional writes so that a concurrent modification of the entry is never lost.
+ *
+ * @since 12.0
+ */
+class MemcachedRequestProcessor {
+   static final int MAX_KEY_LENGTH = 250;
+
+   private static final int SECONDS_IN_A_MONTH = 60 * 60 * 24 * 30;
+
+   enum Result {
+      STORED,
+      NOT_STORED,
+      EXISTS,
+      NOT_FOUND,
+      DELETED,
+      TOUCHED
+   }
+
+   private final AdvancedCache<byte[], byte[]> cache;
+   private final AdvancedCache<byte[], byte[]> readCache;
+   private final ScheduledExecutorService scheduler;
+   private final NettyTransport transport;
+   private final Predicate<? super String> ignoreCache;
+   private final boolean isStatsEnabled;
+   private final AtomicLong incrMisses = new AtomicLong();
+   private final AtomicLong incrHits = new AtomicLong();
+   private final AtomicLong decrMisses = new AtomicLong();
+   private final AtomicLong decrHits = new AtomicLong();
+   private final AtomicLong replaceIfUnmodifiedMisses = new AtomicLong();
+   private final AtomicLong replaceIfUnmodifiedHits = new AtomicLong();
+   private final AtomicLong replaceIfUnmodifiedBadval = new AtomicLong();
+
+   MemcachedRequestProcessor(AdvancedCache<byte[], byte[]> memcachedCache, ScheduledExecutorService scheduler,
+                             NettyTransport transport, Predicate<? super String> ignoreCache, MediaType valuePayload) {
+      this.cache = memcachedCache.withMediaType(TEXT_PLAIN, valuePayload);
+      // Avoid listener notifications for the reads that only check the current value before a write
+      this.readCache = cache.withFlags(Flag.SKIP_LISTENER_NOTIFICATION);
+      this.scheduler = scheduler;
+      this.transport = transport;
+      this.ignoreCache = ignoreCache;
+      this.isStatsEnabled = cache.getCacheConfiguration().statistics().enabled();
+   }
+
+   void checkCacheAvailable() throws CacheUnavailableException {
+      String cacheName = cache.getName();
+      if (ignoreCache.test(cacheName)) throw new CacheUnavailableException(cacheName);
+   }
+
+   CompletionStage<CacheEntry<byte[], byte[]>> get(byte[] key) {
+      return cache.getCacheEntryAsync(key);
+   }
+
+   /**
+    * Reads all the keys with a single cache operation.
+    *
+    * @return the entries found, by key
+    */
+   CompletionStage<Map<WrappedByteArray, CacheEntry<byte[], byte[]>>> getAll(Collection<byte[]> keys) {
+      Set<byte[]> uniqueKeys = new LinkedHashSet<>();
+      Set<WrappedByteArray> seen = new HashSet<>();
+      for (byte[] key : keys) {
+         if (seen.add(new WrappedByteArray(key))) {
+            uniqueKeys.add(key);
+         }
+      }
+      return cache.getAllCacheEntriesAsync(uniqueKeys).thenApply(entries -> {
+         Map<WrappedByteArray, CacheEntry<byte[], byte[]>> map = new HashMap<>(entries.size());
+         for (CacheEntry<byte[], byte[]> entry : entries.values()) {
+            map.put(new WrappedByteArray(entry.getKey()), entry);
+         }
+         return map;
+      });
+   }
+
+   CompletionStage<Result> set(byte[] key, byte[] value, Metadata metadata) {
+      return cache.putAsync(key, value, metadata).thenApply(prev -> Result.STORED);
+   }
+
+   CompletionStage<Result> add(byte[] key, byte[] value, Metadata metadata) {
+      return cache.putIfAbsentAsync(key, value, metadata)
+            .thenApply(prev -> prev == null ? Result.STORED : Result.NOT_STORED);
+   }
+
+   CompletionStage<Result> replace(byte[] key, byte[] value, Metadata metadata) {
+      return cache.replaceAsync(key, value, metadata)
+            .thenApply(prev -> prev != null ? Result.STORED : Result.NOT_STORED);
+   }
+
+   /**
+    * Replaces the value only if the version of the entry is still {@code expectedVersion}.
+    */
+   CompletionStage<Result> replaceIfUnmodified(byte[] key, byte[] value, Metadata metadata, long expectedVersion) {
+      return readCache.getCacheEntryAsync(key).thenCompose(entry -> {
+         if (entry == null) {
+            if (isStatsEnabled) replaceIfUnmodifiedMisses.incrementAndGet();
+            return CompletableFuture.completedFuture(Result.NOT_FOUND);
+         }
+         if (!new NumericVersion(expectedVersion).equals(entry.getMetadata().version())) {
+            if (isStatsEnabled) replaceIfUnmodifiedBadval.incrementAndGet();
+            return CompletableFuture.completedFuture(Result.EXISTS);
+         }
+         return cache.replaceAsync(key, entry.getValue(), value, metadata).thenApply(replaced -> {
+            if (isStatsEnabled) {
+               (replaced ? replaceIfUnmodifiedHits : replaceIfUnmodifiedBadval).incrementAndGet();
+            }
+            return replaced ? Result.STORED : Result.EXISTS;
+         });
+      });
+   }
+
+   /**
+    * Appends or prepends {@code data} to the current value, keeping its flags and expiration. If {@code expectedVersion}
+    * is not 0, the value is only modified if the version of the entry is still {@code expectedVersion}.
+    *
+    * @return the new version of the entry, or {@code null} if it was not modified
+    */
+   CompletionStage<Long> concat(byte[] key, byte[] data, boolean append, long expectedVersion) {
+      return readCache.getCacheEntryAsync(key).thenCompose(entry -> {
+         if (entry == null || (expectedVersion != 0 &&
+               !new NumericVersion(expectedVersion).equals(entry.getMetadata().version()))) {
+            return CompletableFutures.<Long>completedNull();
+         }
+         byte[] prev = entry.getValue();
+         byte[] concatenated = append ? TextProtocolUtil.concat(prev, data) : TextProtocolUtil.concat(data, prev);
+         Metadata metadata = newVersion(entry.getMetadata());
+         return cache.replaceAsync(key, prev, concatenated, metadata)
+               .thenApply(replaced -> replaced ? version(metadata) : null);
+      });
+   }
+
+   /**
+    * Removes the entry. If {@code expectedVersion} is not 0, the entry is only removed if its version is still
+    * {@code expectedVersion}.
+    */
+   CompletionStage<Result> remove(byte[] key, long expectedVersion) {
+      if (expectedVersion == 0) {
+         return cache.removeAsync(key).thenApply(prev -> prev != null ? Result.DELETED : Result.NOT_FOUND);
+      }
+      return readCache.getCacheEntryAsync(key).thenCompose(entry -> {
+         if (entry == null) {
+            return CompletableFuture.completedFuture(Result.NOT_FOUND);
+         }
+         if (!new NumericVersion(expectedVersion).equals(entry.getMetadata().version())) {
+            return CompletableFuture.completedFuture(Result.EXISTS);
+         }
+         return cache.removeAsync(key, entry.getValue())
+               .thenApply(removed -> removed ? Result.DELETED : Result.EXISTS);
+      });
+   }
+
+   /**
+    * Increments or decrements the counter stored as a decimal string. If the entry doesn't exist and {@code initial} is
+    * not {@code null}, the entry is created with the {@code initial} value and {@code initialMetadata}.
+    *
+    * @return the new value of the counter, or {@code null} if the entry doesn't exist and no initial value was given
+    * @throws NumberFormatException (via the returned stage) if the current value is not a number
+    */
+   CompletionStage<CounterValue> incrDecr(byte[] key, boolean increment, BigInteger delta, BigInteger initial,
+                                          Metadata initialMetadata) {
+      return readCache.getCacheEntryAsync(key).thenCompose(entry -> {
+         if (entry == null) {
+            if (initial == null) {
+               if (isStatsEnabled) (increment ? incrMisses : decrMisses).incrementAndGet();
+               return CompletableFutures.<CounterValue>completedNull();
+            }
+            return cache.putIfAbsentAsync(key, initial.toString().getBytes(StandardCharsets.US_ASCII), initialMetadata)
+                  .thenCompose(prev -> prev == null ?
+                        CompletableFuture.completedFuture(new CounterValue(initial, version(initialMetadata))) :
+                        incrDecr(key, increment, delta, initial, initialMetadata));
+         }
+         byte[] prev = entry.getValue();
+         BigInteger prevCounter = new BigInteger(new String(prev, StandardCharsets.US_ASCII).trim());
+         BigInteger counter;
+         if (increment) {
+            counter = prevCounter.add(delta);
+            counter = counter.compareTo(MAX_UNSIGNED_LONG) > 0 ? MIN_UNSIGNED : counter;
+         } else {
+            counter = prevCounter.subtract(delta);
+            counter = counter.compareTo(MIN_UNSIGNED) < 0 ? MIN_UNSIGNED : counter;
+         }
+         Metadata metadata = newVersion(entry.getMetadata());
+         return cache.replaceAsync(key, prev, counter.toString().getBytes(StandardCharsets.US_ASCII), metadata)
+               .thenCompose(replaced -> {
+                  if (!replaced) {
+                     // Modified concurrently, try again with the new value
+                     return incrDecr(key, increment, delta, initial, initialMetadata);
+                  }
+                  if (isStatsEnabled) (increment ? incrHits : decrHits).incrementAndGet();
+                  return CompletableFuture.completedFuture(new CounterValue(counter, version(metadata)));
+               });
+      });
+   }
+
+   /**
+    * Changes the expiration of an entry, keeping its value and flags.
+    */
+   CompletionStage<Result> touch(byte[] key, int lifespan) {
+      return readCache.getCacheEntryAsync(key).thenCompose(entry -> {
+         if (entry == null) {
+            return CompletableFuture.completedFuture(Result.NOT_FOUND);
+         }
+         Metadata metadata = entry.getMetadata().builder()
+               .lifespan(lifespan > 0 ? toMillis(lifespan) : -1)
+               .build();
+         return cache.replaceAsync(key, entry.getValue(), metadata)
+               .thenApply(prev -> prev != null ? Result.TOUCHED : Result.NOT_FOUND);
+      });
+   }
+
+   /**
+    * Removes all the entries, now or after {@code delay} seconds.
+    */
+   CompletionStage<Void> flushAll(int delay) {
+      if (delay == 0) {
+         return cache.clearAsync();
+      }
+      scheduler.schedule(() -> cache.clearAsync(), toMillis(delay), TimeUnit.MILLISECONDS);
+      return CompletableFutures.completedNull();
+   }
+
+   Map<String, Object> stats() {
+      Stats stats = cache.getStats();
+      Map<String, Object> map = new LinkedHashMap<>();
+      map.put("pid", 0);
+      map.put("uptime", stats.getTimeSinceStart());
+      map.put("time", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+      map.put("version", cache.getVersion());
+      map.put("pointer_size", 0); // Unsupported
+      map.put("rusage_user", 0); // Unsupported
+      map.put("rusage_system", 0); // Unsupported
+      map.put("curr_items", stats.getCurrentNumberOfEntries());
+      map.put("total_items", stats.getTotalNumberOfEntries());
+      map.put("bytes", 0); // Unsupported
+      map.put("curr_connections", 0); // TODO: Through netty?
+      map.put("total_connections", 0); // TODO: Through netty?
+      map.put("connection_structures", 0); // Unsupported
+      map.put("cmd_get", stats.getRetrievals());
+      map.put("cmd_set", stats.getStores());
+      map.put("get_hits", stats.getHits());
+      map.put("get_misses", stats.getMisses());
+      map.put("delete_misses", stats.getRemoveMisses());
+      map.put("delete_hits", stats.getRemoveHits());
+      map.put("incr_misses", incrMisses);
+      map.put("incr_hits", incrHits);
+      map.put("decr_misses", decrMisses);
+      map.put("decr_hits", decrHits);
+      map.put("cas_misses", replaceIfUnmodifiedMisses);
+      map.put("cas_hits", replaceIfUnmodifiedHits);
+      map.put("cas_badval", replaceIfUnmodifiedBadval);
+      map.put("auth_cmds", 0); // Unsupported
+      map.put("auth_errors", 0); // Unsupported
+      //TODO: Evictions are measure by evict calls, but not by nodes are that are expired after the entry's lifespan has expired.
+      map.put("evictions", stats.getEvictions());
+      map.put("bytes_read", transport.getTotalBytesRead());
+      map.put("bytes_written", transport.getTotalBytesWritten());
+      map.put("limit_maxbytes", 0); // Unsupported
+      map.put("threads", 0); // TODO: Through netty?
+      map.put("conn_yields", 0); // Unsupported
+      map.put("reclaimed", 0); // Unsupported
+      return map;
+   }
+
+   String version() {
+      return Version.getVersion();
+   }
+
+   /**
+    * @param lifespan the expiration sent by the client, in seconds or as a unix time
+    */
+   Metadata metadata(long flags, int lifespan) {
+      return new MemcachedMetadata.Builder()
+            .flags(flags)
+            .version(generateVersion())
+            .lifespan(lifespan > 0 ? toMillis(lifespan) : -1)
+            .build();
+   }
+
+   private Metadata newVersion(Metadata metadata) {
+      return metadata.builder().version(generateVersion()).build();
+   }
+
+   static long version(Metadata metadata) {
+      return ((NumericVersion) metadata.version()).getVersion();
+   }
+
+   static long flags(CacheEntry<byte[], byte[]> entry) {
+      Metadata metadata = entry.getMetadata();
+      return metadata instanceof MemcachedMetadata ? ((MemcachedMetadata) metadata).flags : 0;
+   }
+
+   static boolean isKeyTooLong(byte[] key) {
+      return key.length > MAX_KEY_LENGTH;
+   }
+
+   private EntryVersion generateVersion() {
+      ComponentRegistry registry = cache.getComponentRegistry();
+      VersionGenerator cacheVersionGenerator = registry.getComponent(VersionGenerator.class);
+      if (cacheVersionGenerator == null) {
+         NumericVersionGenerator newVersionGenerator = new NumericVersionGenerator()
+               .clustered(registry.getComponent(RpcManager.class) != null);
+         registry.registerComponent(newVersionGenerator, VersionGenerator.class);
+         return newVersionGenerator.generateNew();
+      } else {
+         return cacheVersionGenerator.generateNew();
+      }
+   }
+
+   /**
+    * Transforms lifespan pass as seconds into milliseconds
+    * following this rule:
+    * <p>
+    * If lifespan is bigger than number of seconds in 30 days,
+    * then it is considered unix time. After converting it to
+    * milliseconds, we substract the current time in and the
+    * result is returned.
+    * <p>
+    * Otherwise it's just considered number of seconds from
+    * now and it's returned in milliseconds unit.
+    */
+   private static long toMillis(int lifespan) {
+      if (lifespan > SECONDS_IN_A_MONTH) {
+         long unixTimeExpiry = TimeUnit.SECONDS.toMillis(lifespan) - System.currentTimeMillis();
+         return unixTimeExpiry < 0 ? 0 : unixTimeExpiry;
+      } else {
+         return TimeUnit.SECONDS.toMillis(lifespan);
+      }
+   }
+
+   static final class CounterValue {
+      final BigInteger value;
+      final long version;
+
+      CounterValue(BigInteger value, long version) {
+         this.value = value;
+         this.version = version;
+      }
+   }
+}
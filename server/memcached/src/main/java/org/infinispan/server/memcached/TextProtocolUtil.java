@@ -1,16 +1,10 @@
 package org.infinispan.server.memcached;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
 import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
-
-import org.infinispan.util.KeyValuePair;
 
 import io.netty.buffer.ByteBuf;
 
@@ -40,6 +34,8 @@ private TextProtocolUtil() {
    public static final byte[] TOUCHED = "TOUCHED\r\n".getBytes();
    public static final byte[] ERROR = "ERROR\r\n".getBytes();
    public static final String CLIENT_ERROR_BAD_FORMAT = "CLIENT_ERROR bad command line format: ";
+   public static final byte[] CLIENT_ERROR_BAD_DATA_CHUNK = "CLIENT_ERROR bad data chunk\r\n".getBytes();
+   public static final byte[] CLIENT_ERROR_NON_NUMERIC = "CLIENT_ERROR cannot increment or decrement non-numeric value\r\n".getBytes();
    public static final String SERVER_ERROR = "SERVER_ERROR ";
    public static final byte[] VALUE = "VALUE ".getBytes();
    public static final int VALUE_SIZE = VALUE.length;
@@ -54,96 +50,6 @@ private TextProtocolUtil() {
 
    public static final Charset CHARSET = StandardCharsets.UTF_8;
 
-   /**
-    * In the particular case of Memcached, the end of operation/command
-    * is signaled by "\r\n" characters. So, if end of operation is
-    * found, this method would return true. On the contrary, if space was
-    * found instead of end of operation character, then it'd return the element and false.
-    */
-   static boolean readElement(ByteBuf buffer, OutputStream byteBuffer) throws IOException {
-      for (; ; ) {
-         byte next = buffer.readByte();
-         if (next == SP) { // Space
-            return false;
-         } else if (next == CR) { // CR
-            next = buffer.readByte();
-            if (next == LF) { // LF
-               return true;
-            } else {
-               byteBuffer.write(next);
-            }
-         } else {
-            byteBuffer.write(next);
-         }
-      }
-   }
-
-   static String extractString(ByteArrayOutputStream byteBuffer) {
-      return new String(byteBuffer.toByteArray(), CHARSET);
-   }
-
-   static KeyValuePair<String, Boolean> readElement(ByteBuf buffer, StringBuilder sb) {
-      for (; ; ) {
-         byte next = buffer.readByte();
-         if (next == SP) { // Space
-            return new KeyValuePair<>(sb.toString().trim(), false);
-         } else if (next == CR) { // CR
-            next = buffer.readByte();
-            if (next == LF) { // LF
-               return new KeyValuePair<>(sb.toString().trim(), true);
-            } else {
-               sb.append(next);
-            }
-         } else {
-            sb.append(next);
-         }
-      }
-   }
-
-   static String readDiscardedLine(ByteBuf buffer) {
-      if (readableBytes(buffer) > 0)
-         return readDiscardedLine(buffer, new StringBuilder());
-      else
-         return "";
-   }
-
-   private static int readableBytes(ByteBuf buffer) {
-      return buffer.writerIndex() - buffer.readerIndex();
-   }
-
-   private static String readDiscardedLine(ByteBuf buffer, StringBuilder sb) {
-      for (; ; ) {
-         byte next = buffer.readByte();
-         if (next == CR) { // CR
-            next = buffer.readByte();
-            if (next == LF) { // LF
-               return sb.toString().trim();
-            } else {
-               sb.append((char) next);
-            }
-         } else if (next == LF) { //LF
-            return sb.toString().trim();
-         } else {
-            sb.append((char) next);
-
-         }
-      }
-   }
-
-   static void skipLine(ByteBuf buffer) {
-      for (; ; ) {
-         byte next = buffer.readByte();
-         if (next == CR) { // CR
-            next = buffer.readByte();
-            if (next == LF) { // LF
-               return;
-            }
-         } else if (next == LF) { //LF
-            return;
-         }
-      }
-   }
-
    static byte[] concat(byte[] a, byte[] b) {
       byte[] data = new byte[a.length + b.length];
       System.arraycopy(a, 0, data, 0, a.length);
@@ -151,38 +57,23 @@ static byte[] concat(byte[] a, byte[] b) {
       return data;
    }
 
-   private static <K> List<K> readSplitLine(ByteBuf buffer, Function<ByteArrayOutputStream, K> valueExtractor) {
-      List<K> r = new ArrayList<>(3);
-      ByteArrayOutputStream sb = new ByteArrayOutputStream();
-      for (; ; ) {
-         byte next = buffer.readByte();
-         if (next == CR) { // CR
-            next = buffer.readByte();
-            if (next == LF) { // LF
-               r.add(valueExtractor.apply(sb));
-               sb.reset();
-               return r;
-            } else {
-               sb.write(next);
+   /**
+    * Splits the bytes between {@code from} (inclusive) and {@code to} (exclusive) on spaces, ignoring empty elements.
+    * The reader index of the buffer is not modified.
+    */
+   static List<byte[]> splitLine(ByteBuf buffer, int from, int to) {
+      List<byte[]> elements = new ArrayList<>(6);
+      int start = from;
+      for (int i = from; i <= to; i++) {
+         if (i == to || buffer.getByte(i) == SP) {
+            if (i > start) {
+               byte[] element = new byte[i - start];
+               buffer.getBytes(start, element);
+               elements.add(element);
             }
-         } else if (next == LF) { // LF
-            r.add(valueExtractor.apply(sb));
-            sb.reset();
-            return r;
-         } else if (next == SP) {
-            r.add(valueExtractor.apply(sb));
-            sb.reset();
-         } else {
-            sb.write(next);
+            start = i + 1;
          }
       }
-   }
-
-   static List<String> readSplitLine(ByteBuf buffer) {
-      return readSplitLine(buffer, TextProtocolUtil::extractString);
-   }
-
-   static List<byte[]> extractKeys(ByteBuf buffer) {
-      return readSplitLine(buffer, ByteArrayOutputStream::toByteArray);
+      return elements;
    }
 }
@@ -0,0 +1,127 @@
+package org.infinispan.server.memcached;
+
+import static org.infinispan.server.memcached.test.MemcachedTestingUtil.createMemcachedBinaryClient;
+import static org.infinispan.test.TestingUtil.k;
+import static org.infinispan.test.TestingUtil.v;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.CASValue;
+import net.spy.memcached.MemcachedClient;
+
+/**
+ * Tests the Memcached binary protocol and the pipelining of requests.
+ *
+ * @since 12.0
+ */
+@Test(groups = "functional", testName = "server.memcached.MemcachedBinaryProtocolTest")
+public class MemcachedBinaryProtocolTest extends MemcachedSingleNodeTest {
+   private MemcachedClient binaryClient;
+
+   private MemcachedClient binaryClient() throws IOException {
+      if (binaryClient == null) {
+         binaryClient = createMemcachedBinaryClient(60000, server.getPort());
+      }
+      return binaryClient;
+   }
+
+   @Override
+   protected void shutdownClient() {
+      super.shutdownClient();
+      if (binaryClient != null) binaryClient.shutdown();
+   }
+
+   public void testBinarySetAndGet(Method m) throws Exception {
+      MemcachedClient client = binaryClient();
+      assertTrue(client.set(k(m), 0, v(m)).get(timeout, TimeUnit.SECONDS));
+      assertEquals(client.get(k(m)), v(m));
+      assertNull(client.get(k(m, "missing-")));
+      // Values written with one protocol are visible with the other
+      assertEquals(this.client.get(k(m)), v(m));
+   }
+
+   public void testBinaryAddReplaceDelete(Method m) throws Exception {
+      MemcachedClient client = binaryClient();
+      assertFalse(client.replace(k(m), 0, v(m)).get(timeout, TimeUnit.SECONDS));
+      assertTrue(client.add(k(m), 0, v(m)).get(timeout, TimeUnit.SECONDS));
+      assertFalse(client.add(k(m), 0, v(m, "v2-")).get(timeout, TimeUnit.SECONDS));
+      assertTrue(client.replace(k(m), 0, v(m, "v2-")).get(timeout, TimeUnit.SECONDS));
+      assertEquals(client.get(k(m)), v(m, "v2-"));
+      assertTrue(client.delete(k(m)).get(timeout, TimeUnit.SECONDS));
+      assertFalse(client.delete(k(m)).get(timeout, TimeUnit.SECONDS));
+      assertNull(client.get(k(m)));
+   }
+
+   public void testBinaryMultiGet(Method m) throws Exception {
+      MemcachedClient client = binaryClient();
+      for (int i = 0; i < 10; i++) {
+         assertTrue(client.set(k(m, i + "-"), 0, v(m, i + "-")).get(timeout, TimeUnit.SECONDS));
+      }
+      List<String> keys = Arrays.asList(k(m, "0-"), k(m, "missing-"), k(m, "5-"), k(m, "9-"));
+      Map<String, Object> values = client.getBulk(keys);
+      assertEquals(values.size(), 3);
+      assertEquals(values.get(k(m, "0-")), v(m, "0-"));
+      assertEquals(values.get(k(m, "5-")), v(m, "5-"));
+      assertEquals(values.get(k(m, "9-")), v(m, "9-"));
+   }
+
+   public void testBinaryCas(Method m) throws Exception {
+      MemcachedClient client = binaryClient();
+      assertTrue(client.set(k(m), 0, v(m)).get(timeout, TimeUnit.SECONDS));
+      CASValue<Object> value = client.gets(k(m));
+      assertEquals(client.cas(k(m), value.getCas() + 1, v(m, "v2-")), CASResponse.EXISTS);
+      assertEquals(client.cas(k(m), value.getCas(), v(m, "v2-")), CASResponse.OK);
+      assertEquals(client.get(k(m)), v(m, "v2-"));
+   }
+
+   public void testBinaryIncrDecr(Method m) throws Exception {
+      MemcachedClient client = binaryClient();
+      // The counter is created with the default value
+      assertEquals(client.incr(k(m), 1, 10), 10);
+      assertEquals(client.incr(k(m), 5), 15);
+      assertEquals(client.decr(k(m), 20), 0);
+      assertEquals(client.decr(k(m, "missing-"), 1), -1);
+   }
+
+   public void testBinaryAppendPrepend(Method m) throws Exception {
+      MemcachedClient client = binaryClient();
+      assertFalse(client.append(0, k(m), "x").get(timeout, TimeUnit.SECONDS));
+      assertTrue(client.set(k(m), 0, "b").get(timeout, TimeUnit.SECONDS));
+      assertTrue(client.append(0, k(m), "c").get(timeout, TimeUnit.SECONDS));
+      assertTrue(client.prepend(0, k(m), "a").get(timeout, TimeUnit.SECONDS));
+      assertEquals(client.get(k(m)), "abc");
+   }
+
+   public void testBinaryVersionAndStats() throws Exception {
+      MemcachedClient client = binaryClient();
+      assertFalse(client.getVersions().isEmpty());
+      Map<String, String> stats = client.getStats().values().iterator().next();
+      assertTrue(stats.containsKey("curr_items"));
+   }
+
+   public void testPipelinedTextRequests(Method m) throws IOException {
+      String k1 = k(m, "1-");
+      String k2 = k(m, "2-");
+      // The get must see the values stored by the previous requests in the same batch
+      List<String> responses = sendMulti("set " + k1 + " 0 0 2\r\nv1\r\nset " + k2 + " 0 0 2\r\nv2\r\ndelete " + k1 + "\r\n" +
+            "get " + k1 + " " + k2 + "\r\n", 6, true);
+      assertEquals(responses, Arrays.asList("STORED", "STORED", "DELETED", "VALUE " + k2 + " 0 2", "v2", "END"));
+   }
+
+   public void testDataBlockLength(Method m) throws IOException {
+      assertEquals(send("set " + k(m) + " 0 0 5\r\nhello\r\n"), "STORED");
+      assertEquals(send("set " + k(m) + " 0 0 5\r\nhelloworld\r\n"), "CLIENT_ERROR bad data chunk");
+   }
+}
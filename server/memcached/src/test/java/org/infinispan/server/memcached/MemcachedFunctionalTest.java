@@ -12,8 +12,10 @@
 import static org.testng.AssertJUnit.fail;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
+import java.net.Socket;
 import java.net.SocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -547,6 +549,18 @@ public void testNegativeBytesLengthValue() throws IOException {
       assertClientError(send("add boo2 0 0 -1\r\n"));
    }
 
+   public void testBytesLengthOverLimit() throws IOException {
+      assertClientError(send("set boo1 0 0 2147483647\r\n"));
+      try (Socket socket = new Socket(server.getHost(), server.getPort())) {
+         socket.getOutputStream().write(("set boo2 0 0 " + (MemcachedBaseDecoder.MAX_BODY_LENGTH + 1) + "\r\nget a\r\n").getBytes());
+         socket.getOutputStream().flush();
+         InputStream is = socket.getInputStream();
+         assertClientError(readLine(is, new StringBuilder()));
+         // The connection is closed, the pipelined get is not answered
+         assertEquals(-1, is.read());
+      }
+   }
+
    public void testFlagsIsUnsigned(Method m) throws IOException {
       String k = m.getName();
       assertClientError(send("set boo1 -1 0 0\r\n"));
@@ -81,6 +81,8 @@ protected ProtocolServer<?> getProtocolServer(String protocol) {
    private void addCommonsHandlers(ChannelPipeline pipeline) {
       // Handles http content encoding (gzip)
       pipeline.addLast(new HttpContentCompressor(restServer.getConfiguration().getCompressionLevel()));
+      // Handles the requests whose body is read while it is received, e.g. imports
+      pipeline.addLast(new StreamingRequestHandler(restServer.getConfiguration().contextPath()));
       // Handles chunked data
       pipeline.addLast(new HttpObjectAggregator(maxContentLength()));
       // Handles Http/2 headers propagation from request to response
@@ -91,10 +93,19 @@ private void addCommonsHandlers(ChannelPipeline pipeline) {
       pipeline.addLast(new HttpServerKeepAliveHandler());
       // Handles the writing of ChunkedInputs
       pipeline.addLast(new ChunkedWriteHandler());
+      // Handles the requests that should not reach the REST server
+      addRoutingHandlers(pipeline);
       // Handles REST request
       pipeline.addLast(new RestRequestHandler(restServer));
    }
 
+   /**
+    * Adds the handlers that receive the aggregated requests before the {@link RestRequestHandler}, e.g. to send them
+    * somewhere else. None by default.
+    */
+   protected void addRoutingHandlers(ChannelPipeline pipeline) {
+   }
+
    private List<CorsConfig> getCorsConfigs() {
       List<CorsConfig> rules = corsRules;
       if (rules == null) {
@@ -0,0 +1,234 @@
+package org.infinispan.rest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.infinispan.CacheStream;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.rest.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+
+/**
+ * A {@link ChunkedInput} that writes the entries of a {@link CacheStream} of byte[] JSON keys and values as
+ * newline-delimited JSON, one object per entry. For example:
+ * <p>
+ * {"key":1,"value":"value"}
+ * {"key":2,"value":"value2","lifespan":-1,"maxIdle":-1,"created":-1,"lastUsed":-1,"expireTime":-1}
+ * <p>
+ * Iterating the stream is blocking, so the entries are read by a task of the executor and written in batches to a
+ * bounded queue, from which Netty pulls them as chunks only while the channel is writable. When the client reads
+ * slowly, the queue fills up and the task returns, keeping the iterator and the batch it could not queue; the next
+ * task is submitted once Netty takes a batch from the queue, so no thread waits for the client. When Netty finds no
+ * batch ready, the producer resumes the transfer once it queues the next one.
+ *
+ * @since 12.0
+ */
+public class CacheEntryChunkedInput implements ChunkedInput<ByteBuf> {
+   private static final Log log = LogFactory.getLog(CacheEntryChunkedInput.class, Log.class);
+
+   private static final int MAX_PENDING_BATCHES = 4;
+   private static final byte[] KEY_LABEL = "{\"key\":".getBytes(UTF_8);
+   private static final byte[] VALUE_LABEL = ",\"value\":".getBytes(UTF_8);
+
+   private final CacheStream<? extends Map.Entry<?, ?>> stream;
+   private final int batchSize;
+   private final boolean includeMetadata;
+   private final Executor executor;
+   private final BlockingQueue<ByteBuf> batches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+
+   // Set while a task of the producer is submitted or running, so that there is only one at a time
+   private final AtomicBoolean producing = new AtomicBoolean();
+
+   private volatile Runnable resume;
+   private volatile boolean producerDone;
+   private volatile boolean closed;
+   private volatile Throwable failure;
+   private long progress;
+   // Only used by the producer tasks, published by producing
+   private Iterator<? extends Map.Entry<?, ?>> iterator;
+   private ByteBuf current;
+   private int count;
+
+   public CacheEntryChunkedInput(CacheStream<? extends Map.Entry<?, ?>> stream, int batchSize, boolean includeMetadata,
+                                 Executor executor) {
+      this.stream = stream.distributedBatchSize(batchSize);
+      this.batchSize = batchSize;
+      this.includeMetadata = includeMetadata;
+      this.executor = executor;
+   }
+
+   /**
+    * Starts reading the entries.
+    *
+    * @param resume invoked when a batch is ready after {@link #readChunk(ByteBufAllocator)} returned {@code null}
+    */
+   public void start(Runnable resume) {
+      this.resume = resume;
+      schedule();
+   }
+
+   /**
+    * Submits a producer task, unless one is already submitted or running or the producer is done.
+    */
+   private void schedule() {
+      if (!producerDone && producing.compareAndSet(false, true)) {
+         executor.execute(this::produce);
+      }
+   }
+
+   private void produce() {
+      try {
+         if (closed) {
+            finish();
+            return;
+         }
+         if (iterator == null) {
+            iterator = stream.iterator();
+            current = Unpooled.buffer();
+         }
+         // The batch is full when the previous task could not queue it
+         if (count == batchSize && !offer()) {
+            return;
+         }
+         while (!closed && iterator.hasNext()) {
+            writeEntry(current, iterator.next());
+            if (++count == batchSize && !offer()) {
+               return;
+            }
+         }
+         if (count > 0 && !closed && !offer()) {
+            return;
+         }
+         finish();
+      } catch (Throwable t) {
+         log.debug("Error exporting the cache entries", t);
+         failure = t;
+         finish();
+      }
+   }
+
+   /**
+    * Queues the current batch and starts a new one.
+    *
+    * @return {@code false} if the queue is full, in which case the task must return and the batch is kept for the next
+    * one
+    */
+   private boolean offer() {
+      if (!batches.offer(current)) {
+         producing.set(false);
+         // Netty may have taken a batch before the flag was cleared, or the input may have been closed
+         if (batches.remainingCapacity() > 0 || closed) {
+            schedule();
+         }
+         return false;
+      }
+      if (closed) {
+         // Closed concurrently, the batch may have been queued after the queue was cleared
+         close();
+      }
+      current = Unpooled.buffer();
+      count = 0;
+      resume.run();
+      return true;
+   }
+
+   private void finish() {
+      if (current != null) {
+         current.release();
+         current = null;
+      }
+      stream.close();
+      producerDone = true;
+      resume.run();
+   }
+
+   private void writeEntry(ByteBuf buf, Map.Entry<?, ?> entry) {
+      buf.writeBytes(KEY_LABEL);
+      buf.writeBytes((byte[]) entry.getKey());
+      buf.writeBytes(VALUE_LABEL);
+      buf.writeBytes((byte[]) entry.getValue());
+      if (includeMetadata) {
+         long lifespan = -1, maxIdle = -1, created = -1, lastUsed = -1, expireTime = -1;
+         if (entry instanceof CacheEntry) {
+            CacheEntry<?, ?> cacheEntry = (CacheEntry<?, ?>) entry;
+            lifespan = cacheEntry.getLifespan();
+            maxIdle = cacheEntry.getMaxIdle();
+            created = cacheEntry.getCreated();
+            lastUsed = cacheEntry.getLastUsed();
+         }
+         if (entry instanceof InternalCacheEntry) {
+            expireTime = ((InternalCacheEntry<?, ?>) entry).getExpiryTime();
+         }
+         buf.writeCharSequence(",\"lifespan\":" + lifespan
+               + ",\"maxIdle\":" + maxIdle
+               + ",\"created\":" + created
+               + ",\"lastUsed\":" + lastUsed
+               + ",\"expireTime\":" + expireTime, UTF_8);
+      }
+      buf.writeByte('}');
+      buf.writeByte('\n');
+   }
+
+   @Override
+   public boolean isEndOfInput() {
+      // All the batches have been queued once the producer is done
+      return producerDone && batches.isEmpty() && failure == null;
+   }
+
+   @Override
+   public void close() {
+      closed = true;
+      ByteBuf batch;
+      while ((batch = batches.poll()) != null) {
+         batch.release();
+      }
+      // A paused producer closes the stream
+      schedule();
+   }
+
+   @Deprecated
+   @Override
+   public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+      return readChunk(ctx.alloc());
+   }
+
+   @Override
+   public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+      ByteBuf batch = batches.poll();
+      if (batch != null) {
+         progress += batch.readableBytes();
+         // Resumes the producer if it was paused by the full queue
+         schedule();
+         return batch;
+      }
+      Throwable t = failure;
+      if (t != null) {
+         // The response has already started, failing the write closes the connection
+         throw t instanceof Exception ? (Exception) t : new RestResponseException(t);
+      }
+      return null;
+   }
+
+   @Override
+   public long length() {
+      return -1;
+   }
+
+   @Override
+   public long progress() {
+      return progress;
+   }
+}
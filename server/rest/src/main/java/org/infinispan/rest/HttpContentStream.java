@@ -0,0 +1,165 @@
+package org.infinispan.rest;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.infinispan.util.concurrent.CompletableFutures;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+/**
+ * The body of a request, read chunk by chunk while the client sends it instead of being aggregated in memory.
+ * <p>
+ * The chunks are added by the event loop of the channel and read by one consumer at a time with {@link #read()}. When
+ * the consumer falls behind and more than {@link #HIGH_WATER_MARK} bytes are buffered, the channel stops reading from
+ * the socket, and it resumes once the consumer brings them below {@link #LOW_WATER_MARK}.
+ *
+ * @since 12.0
+ */
+public class HttpContentStream {
+   static final int HIGH_WATER_MARK = 1024 * 1024;
+   static final int LOW_WATER_MARK = 256 * 1024;
+
+   // null when the content is already complete
+   private final Channel channel;
+   private final ArrayDeque<ByteBuf> chunks = new ArrayDeque<>();
+   // All the fields below are guarded by this
+   private int buffered;
+   private boolean paused;
+   private boolean ended;
+   private boolean discarded;
+   private Throwable failure;
+   private CompletableFuture<ByteBuf> pendingRead;
+
+   HttpContentStream(Channel channel) {
+      this.channel = channel;
+   }
+
+   /**
+    * @return a stream with the content of an aggregated request
+    */
+   public static HttpContentStream of(ByteBuf content) {
+      HttpContentStream stream = new HttpContentStream(null);
+      stream.offer(content.retainedDuplicate());
+      stream.end();
+      return stream;
+   }
+
+   /**
+    * Adds a chunk of the body, the stream takes ownership of it.
+    */
+   void offer(ByteBuf chunk) {
+      CompletableFuture<ByteBuf> read;
+      boolean pause = false;
+      synchronized (this) {
+         if (discarded || !chunk.isReadable()) {
+            chunk.release();
+            return;
+         }
+         read = pendingRead;
+         if (read == null) {
+            chunks.add(chunk);
+            buffered += chunk.readableBytes();
+            if (channel != null && !paused && buffered > HIGH_WATER_MARK) {
+               pause = paused = true;
+            }
+         } else {
+            pendingRead = null;
+         }
+      }
+      if (read != null) {
+         read.complete(chunk);
+      } else if (pause) {
+         channel.config().setAutoRead(false);
+      }
+   }
+
+   /**
+    * Marks the end of the body.
+    */
+   void end() {
+      complete(null);
+   }
+
+   /**
+    * Ends the body with a failure, e.g. when the channel is closed before the whole body was received.
+    */
+   void fail(Throwable t) {
+      complete(t);
+   }
+
+   private void complete(Throwable t) {
+      CompletableFuture<ByteBuf> read;
+      synchronized (this) {
+         if (ended) {
+            return;
+         }
+         ended = true;
+         failure = t;
+         read = pendingRead;
+         pendingRead = null;
+      }
+      if (read != null) {
+         if (t == null) {
+            read.complete(null);
+         } else {
+            read.completeExceptionally(t);
+         }
+      }
+   }
+
+   /**
+    * Releases the buffered chunks and the ones received later, e.g. when the response was sent before the whole body
+    * was read. Reading is resumed so that the rest of the body is consumed.
+    */
+   void discard() {
+      List<ByteBuf> released;
+      boolean resume;
+      synchronized (this) {
+         discarded = true;
+         released = new ArrayList<>(chunks);
+         chunks.clear();
+         buffered = 0;
+         resume = paused;
+         paused = false;
+      }
+      released.forEach(ByteBuf::release);
+      if (resume) {
+         channel.config().setAutoRead(true);
+      }
+   }
+
+   /**
+    * Reads the next chunk of the body. A new read must not be started before the previous one has completed.
+    *
+    * @return a stage completed with the next chunk, which must be released by the caller, or with {@code null} at the
+    * end of the body.
+    */
+   public CompletionStage<ByteBuf> read() {
+      ByteBuf chunk;
+      boolean resume = false;
+      synchronized (this) {
+         chunk = chunks.poll();
+         if (chunk == null) {
+            if (ended) {
+               return failure == null ? CompletableFutures.completedNull() : CompletableFutures.completedExceptionFuture(failure);
+            }
+            pendingRead = new CompletableFuture<>();
+            return pendingRead;
+         }
+         buffered -= chunk.readableBytes();
+         if (paused && buffered <= LOW_WATER_MARK) {
+            paused = false;
+            resume = true;
+         }
+      }
+      if (resume) {
+         channel.config().setAutoRead(true);
+      }
+      return CompletableFuture.completedFuture(chunk);
+   }
+}
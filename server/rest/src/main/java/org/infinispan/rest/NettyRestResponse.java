@@ -74,7 +74,7 @@ public static class Builder implements RestResponseBuilder<Builder> {
       @Override
       public NettyRestResponse build() {
          HttpResponse response;
-         if (entity instanceof File || entity instanceof InputStream) {
+         if (entity instanceof File || entity instanceof InputStream || entity instanceof CacheEntryChunkedInput) {
             response = new DefaultHttpResponse(HTTP_1_1, OK);
          } else {
             response = new DefaultFullHttpResponse(HTTP_1_1, OK, Unpooled.buffer());
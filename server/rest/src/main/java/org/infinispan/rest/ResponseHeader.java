@@ -8,9 +8,11 @@
 public enum ResponseHeader {
    CACHE_CONTROL_HEADER("Cache-Control"),
    CLUSTER_PRIMARY_OWNER_HEADER("Cluster-Primary-Owner"),
+   CLUSTER_PRIMARY_OWNER_LOCATION_HEADER("Cluster-Primary-Owner-Location"),
    CLUSTER_BACKUP_OWNERS_HEADER("Cluster-Backup-Owners"),
    CLUSTER_NODE_NAME_HEADER("Cluster-Node-Name"),
    CLUSTER_SERVER_ADDRESS_HEADER("Cluster-Server-Address"),
+   CLUSTER_TOPOLOGY_ID_HEADER("Cluster-Topology-Id"),
    CONTENT_LENGTH_HEADER("Content-Length"),
    CONTENT_TYPE_HEADER("Content-Type"),
    CREATED_HEADER("created"),
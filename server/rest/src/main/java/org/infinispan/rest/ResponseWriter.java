@@ -22,6 +22,7 @@
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.stream.ChunkedFile;
 import io.netty.handler.stream.ChunkedStream;
+import io.netty.handler.stream.ChunkedWriteHandler;
 
 /**
  * @since 10.0
@@ -79,6 +80,23 @@ void writeResponse(ChannelHandlerContext ctx, FullHttpRequest request, NettyRest
          ctx.write(res);
          ctx.writeAndFlush(new HttpChunkedInput(new ChunkedStream(inputStream)), ctx.newProgressivePromise());
       }
+   },
+   CHUNKED_INPUT {
+      @Override
+      void writeResponse(ChannelHandlerContext ctx, FullHttpRequest request, NettyRestResponse response) {
+         HttpResponse res = response.getResponse();
+         res.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+         res.headers().set(CONNECTION, KEEP_ALIVE);
+         CacheEntryChunkedInput input = (CacheEntryChunkedInput) response.getEntity();
+         accessLog.log(ctx, request, response.getResponse());
+         ctx.write(res);
+         ctx.writeAndFlush(new HttpChunkedInput(input)).addListener(f -> {
+            // The status was already sent, so closing the connection is the only way to report a failure
+            if (!f.isSuccess()) ctx.close();
+         });
+         ChunkedWriteHandler chunkedWriteHandler = ctx.pipeline().get(ChunkedWriteHandler.class);
+         input.start(chunkedWriteHandler::resumeTransfer);
+      }
    };
 
    final RestAccessLoggingHandler accessLog = new RestAccessLoggingHandler();
@@ -89,6 +107,7 @@ static ResponseWriter forContent(Object content) {
       if (content == null) return EMPTY;
       if (content instanceof File) return CHUNKED_FILE;
       if (content instanceof InputStream) return CHUNKED_STREAM;
+      if (content instanceof CacheEntryChunkedInput) return CHUNKED_INPUT;
       return FULL;
    }
 }
@@ -0,0 +1,27 @@
+package org.infinispan.rest;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+
+/**
+ * A request whose body is not aggregated: its content is empty, and the body is read from {@link #contentStream()}
+ * while the client sends it. Created by {@link StreamingRequestHandler}.
+ *
+ * @since 12.0
+ */
+public class StreamedHttpRequest extends DefaultFullHttpRequest {
+   private final HttpContentStream contentStream;
+
+   StreamedHttpRequest(HttpRequest request, HttpContentStream contentStream) {
+      super(request.protocolVersion(), request.method(), request.uri(), Unpooled.EMPTY_BUFFER, request.headers(),
+            EmptyHttpHeaders.INSTANCE);
+      setDecoderResult(request.decoderResult());
+      this.contentStream = contentStream;
+   }
+
+   public HttpContentStream contentStream() {
+      return contentStream;
+   }
+}
@@ -0,0 +1,92 @@
+package org.infinispan.rest;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.Collections;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+/**
+ * Passes the requests whose body can be large and is processed incrementally, i.e. the imports of cache entries, as a
+ * {@link StreamedHttpRequest} instead of letting the {@link io.netty.handler.codec.http.HttpObjectAggregator} aggregate
+ * them. The chunks of the body are added to the {@link HttpContentStream} of the request, which stops reading from the
+ * channel while too many of them are buffered.
+ * <p>
+ * Once the response of a streamed request is written, the part of the body that was not read is discarded.
+ *
+ * @since 12.0
+ */
+class StreamingRequestHandler extends ChannelDuplexHandler {
+
+   private final String cachesPath;
+   // The stream receiving the chunks of the current request
+   private HttpContentStream receiving;
+   // The stream of the request that is not answered yet
+   private HttpContentStream responding;
+
+   StreamingRequestHandler(String contextPath) {
+      this.cachesPath = contextPath + "/v2/caches/";
+   }
+
+   @Override
+   public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      if (receiving != null && msg instanceof HttpContent) {
+         HttpContentStream stream = receiving;
+         stream.offer(((HttpContent) msg).content());
+         if (msg instanceof LastHttpContent) {
+            receiving = null;
+            stream.end();
+         }
+         return;
+      }
+      if (msg instanceof HttpRequest && !(msg instanceof FullHttpRequest) && isStreamed((HttpRequest) msg)) {
+         HttpContentStream stream = new HttpContentStream(ctx.channel());
+         receiving = stream;
+         responding = stream;
+         ctx.fireChannelRead(new StreamedHttpRequest((HttpRequest) msg, stream));
+         return;
+      }
+      ctx.fireChannelRead(msg);
+   }
+
+   @Override
+   public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+      if (responding != null && msg instanceof HttpResponse &&
+            ((HttpResponse) msg).status().codeClass() != HttpStatusClass.INFORMATIONAL) {
+         responding.discard();
+         responding = null;
+      }
+      ctx.write(msg, promise);
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      if (receiving != null) {
+         receiving.fail(new ClosedChannelException());
+         receiving.discard();
+         receiving = null;
+      }
+      super.channelInactive(ctx);
+   }
+
+   /**
+    * @return {@code true} for {@code POST /{context}/v2/caches/{cacheName}?action=import}
+    */
+   private boolean isStreamed(HttpRequest request) {
+      if (request.method() != HttpMethod.POST || !request.uri().startsWith(cachesPath)) {
+         return false;
+      }
+      QueryStringDecoder decoder = new QueryStringDecoder(request.uri());
+      return decoder.path().indexOf('/', cachesPath.length()) < 0 &&
+            decoder.parameters().getOrDefault("action", Collections.emptyList()).contains("import");
+   }
+}
@@ -107,4 +107,7 @@ public interface Log extends BasicLogger {
    @LogMessage(level = WARN)
    @Message(value = "The REST invocation [%s] has been deprecated. Please consult the upgrade guide", id = 12026)
    void warnDeprecatedCall(String invocation);
+
+   @Message(value = "Invalid entry at line %d: %s", id = 12027)
+   IllegalArgumentException invalidImportEntry(int line, String reason);
 }
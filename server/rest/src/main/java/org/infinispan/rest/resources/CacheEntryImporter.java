@@ -0,0 +1,199 @@
+package org.infinispan.rest.resources;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.dataconversion.internal.Json;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.rest.HttpContentStream;
+import org.infinispan.rest.logging.Log;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Writes the entries of a newline-delimited JSON document to a cache, in the format produced by the export action. Each
+ * line is an object with a {@code key}, a {@code value} and optionally the {@code lifespan} and {@code maxIdle} of the
+ * entry in milliseconds.
+ * <p>
+ * The document is read from a {@link HttpContentStream} while the client sends it. The lines are parsed in batches of
+ * {@code batchSize} entries by a thread of the executor, and each batch is written with {@code putAllAsync}. The stream
+ * is not read while a batch is written, so the chunks received meanwhile are buffered by the stream, which stops reading
+ * from the channel when too many of them are. The import only keeps one batch and the incomplete line of the last chunk
+ * in memory. When a key appears in several lines, the last one wins.
+ *
+ * @since 12.0
+ */
+class CacheEntryImporter {
+   private final AdvancedCache<Object, Object> cache;
+   private final HttpContentStream content;
+   private final int batchSize;
+   private final Executor executor;
+
+   // The bytes received but not parsed yet, at most an incomplete line between batches
+   private final ByteBuf buffer = Unpooled.buffer();
+   private boolean endOfContent;
+   private int line;
+   private long imported;
+
+   CacheEntryImporter(AdvancedCache<Object, Object> cache, HttpContentStream content, int batchSize, Executor executor) {
+      this.cache = cache;
+      this.content = content;
+      this.batchSize = batchSize;
+      this.executor = executor;
+   }
+
+   /**
+    * @return the number of entries imported
+    */
+   CompletionStage<Long> start() {
+      return importBatches().whenComplete((imported, t) -> buffer.release());
+   }
+
+   private CompletionStage<Long> importBatches() {
+      return readBatch(new LinkedHashMap<>()).thenCompose(batch -> {
+         if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(imported);
+         }
+         // putAll applies the same expiration to all the entries
+         Map<Expiration, Map<Object, Object>> groups = new HashMap<>();
+         for (Map.Entry<WrappedByteArray, ImportEntry> entry : batch.entrySet()) {
+            ImportEntry importEntry = entry.getValue();
+            groups.computeIfAbsent(importEntry.expiration, e -> new HashMap<>())
+                  .put(entry.getKey().getBytes(), importEntry.value);
+         }
+         List<CompletableFuture<Void>> writes = new ArrayList<>(groups.size());
+         for (Map.Entry<Expiration, Map<Object, Object>> group : groups.entrySet()) {
+            writes.add(group.getKey().putAll(cache, group.getValue()));
+         }
+         return CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).thenCompose(ignore -> {
+            imported += batch.size();
+            return importBatches();
+         });
+      });
+   }
+
+   /**
+    * @return the number of entries imported before a failure
+    */
+   long imported() {
+      return imported;
+   }
+
+   /**
+    * Fills the batch with the next {@code batchSize} entries, reading chunks of the content until it has them or the
+    * content ends.
+    */
+   private CompletionStage<Map<WrappedByteArray, ImportEntry>> readBatch(Map<WrappedByteArray, ImportEntry> batch) {
+      return CompletableFuture.supplyAsync(() -> parseLines(batch), executor).thenCompose(complete -> {
+         if (complete) {
+            return CompletableFuture.completedFuture(batch);
+         }
+         return content.read().thenCompose(chunk -> {
+            if (chunk == null) {
+               endOfContent = true;
+            } else {
+               buffer.discardReadBytes();
+               buffer.writeBytes(chunk);
+               chunk.release();
+            }
+            return readBatch(batch);
+         });
+      });
+   }
+
+   /**
+    * Parses the complete lines of the buffer, and the last line once the content has ended, until the batch has
+    * {@code batchSize} entries. The entries are keyed by the content of their key, so that a later line of the same key
+    * replaces the earlier one.
+    *
+    * @return {@code true} if the batch is complete or there are no more entries
+    */
+   private boolean parseLines(Map<WrappedByteArray, ImportEntry> batch) {
+      while (batch.size() < batchSize && buffer.isReadable()) {
+         int end = buffer.indexOf(buffer.readerIndex(), buffer.writerIndex(), (byte) '\n');
+         if (end < 0) {
+            if (!endOfContent) {
+               return false;
+            }
+            end = buffer.writerIndex();
+         }
+         String text = buffer.toString(buffer.readerIndex(), end - buffer.readerIndex(), UTF_8).trim();
+         buffer.readerIndex(Math.min(end + 1, buffer.writerIndex()));
+         line++;
+         if (!text.isEmpty()) {
+            parseEntry(text, batch);
+         }
+      }
+      return batch.size() == batchSize || endOfContent;
+   }
+
+   private void parseEntry(String text, Map<WrappedByteArray, ImportEntry> batch) {
+      Json json;
+      try {
+         json = Json.read(text);
+      } catch (RuntimeException e) {
+         throw Log.REST.invalidImportEntry(line, e.getMessage());
+      }
+      if (!json.isObject() || !json.has("key") || !json.has("value"))
+         throw Log.REST.invalidImportEntry(line, "an object with a key and a value is required");
+      long lifespan = json.has("lifespan") ? json.at("lifespan").asLong() : -1;
+      long maxIdle = json.has("maxIdle") ? json.at("maxIdle").asLong() : -1;
+      // The cache reads the keys and values as JSON
+      byte[] key = json.at("key").toString().getBytes(UTF_8);
+      byte[] value = json.at("value").toString().getBytes(UTF_8);
+      batch.put(new WrappedByteArray(key), new ImportEntry(value, new Expiration(lifespan, maxIdle)));
+   }
+
+   private static final class ImportEntry {
+      final byte[] value;
+      final Expiration expiration;
+
+      ImportEntry(byte[] value, Expiration expiration) {
+         this.value = value;
+         this.expiration = expiration;
+      }
+   }
+
+   private static final class Expiration {
+      final long lifespan;
+      final long maxIdle;
+
+      Expiration(long lifespan, long maxIdle) {
+         this.lifespan = lifespan;
+         this.maxIdle = maxIdle;
+      }
+
+      CompletableFuture<Void> putAll(AdvancedCache<Object, Object> cache, Map<Object, Object> entries) {
+         if (lifespan < 0 && maxIdle < 0) {
+            // Keep the expiration configured in the cache
+            return cache.putAllAsync(entries);
+         }
+         return cache.putAllAsync(entries, lifespan, TimeUnit.MILLISECONDS, maxIdle, TimeUnit.MILLISECONDS);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         Expiration that = (Expiration) o;
+         return lifespan == that.lifespan && maxIdle == that.maxIdle;
+      }
+
+      @Override
+      public int hashCode() {
+         return Objects.hash(lifespan, maxIdle);
+      }
+   }
+}
@@ -32,6 +32,7 @@
 import org.infinispan.Cache;
 import org.infinispan.CacheStream;
 import org.infinispan.commons.api.CacheContainerAdmin.AdminFlag;
+import org.infinispan.commons.dataconversion.EncodingException;
 import org.infinispan.commons.dataconversion.MediaType;
 import org.infinispan.commons.dataconversion.StandardConversions;
 import org.infinispan.commons.dataconversion.internal.Json;
@@ -43,15 +44,20 @@
 import org.infinispan.configuration.parsing.ConfigurationBuilderHolder;
 import org.infinispan.configuration.parsing.ParserRegistry;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.encoding.DataConversion;
 import org.infinispan.manager.EmbeddedCacheManagerAdmin;
 import org.infinispan.query.Search;
 import org.infinispan.query.core.stats.IndexStatistics;
 import org.infinispan.query.core.stats.SearchStatistics;
+import org.infinispan.rest.CacheEntryChunkedInput;
 import org.infinispan.rest.CacheEntryInputStream;
 import org.infinispan.rest.CacheKeyInputStream;
+import org.infinispan.rest.HttpContentStream;
 import org.infinispan.rest.InvocationHelper;
+import org.infinispan.rest.NettyRestRequest;
 import org.infinispan.rest.NettyRestResponse;
 import org.infinispan.rest.RestResponseException;
+import org.infinispan.rest.StreamedHttpRequest;
 import org.infinispan.rest.cachemanager.RestCacheManager;
 import org.infinispan.rest.framework.ContentSource;
 import org.infinispan.rest.framework.ResourceHandler;
@@ -60,8 +66,11 @@
 import org.infinispan.rest.framework.impl.Invocations;
 import org.infinispan.rest.logging.Log;
 import org.infinispan.stats.Stats;
+import org.infinispan.stats.impl.HotKeyTracker;
 import org.infinispan.upgrade.RollingUpgradeManager;
+import org.infinispan.util.concurrent.CompletableFutures;
 
+import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 
 /**
@@ -72,6 +81,8 @@
 public class CacheResourceV2 extends BaseCacheResource implements ResourceHandler {
 
    private static final int STREAM_BATCH_SIZE = 1000;
+   private static final int IMPORT_BATCH_SIZE = 1000;
+   private static final String NDJSON_TYPE = "application/x-ndjson";
 
    public CacheResourceV2(InvocationHelper invocationHelper) {
       super(invocationHelper);
@@ -86,10 +97,13 @@ public Invocations getInvocations() {
             .invocation().method(DELETE).path("/v2/caches/{cacheName}/{cacheKey}").handleWith(this::deleteCacheValue)
             .invocation().methods(GET).path("/v2/caches/{cacheName}").withAction("keys").handleWith(this::streamKeys)
             .invocation().methods(GET).path("/v2/caches/{cacheName}").withAction("entries").handleWith(this::streamEntries)
+            .invocation().methods(GET).path("/v2/caches/{cacheName}").withAction("export").handleWith(this::exportEntries)
+            .invocation().methods(POST).path("/v2/caches/{cacheName}").withAction("import").handleWith(this::importEntries)
 
             // Info and statistics
             .invocation().methods(GET, HEAD).path("/v2/caches/{cacheName}").withAction("config").handleWith(this::getCacheConfig)
             .invocation().methods(GET).path("/v2/caches/{cacheName}").withAction("stats").handleWith(this::getCacheStats)
+            .invocation().methods(GET).path("/v2/caches/{cacheName}").withAction("hot-keys").handleWith(this::getHotKeys)
 
             // List
             .invocation().methods(GET).path("/v2/caches/").handleWith(this::getCacheNames)
@@ -234,6 +248,56 @@ private CompletionStage<RestResponse> streamEntries(RestRequest request) {
       }, invocationHelper.getExecutor());
    }
 
+   private CompletionStage<RestResponse> exportEntries(RestRequest request) {
+      String cacheName = request.variables().get("cacheName");
+      String metadataParam = request.getParameter("metadata");
+      String batchParam = request.getParameter("batch");
+      boolean metadata = Boolean.parseBoolean(metadataParam);
+      int batch = batchParam == null || batchParam.isEmpty() ? STREAM_BATCH_SIZE : Integer.parseInt(batchParam);
+      if (batch < 1) {
+         return completedFuture(new NettyRestResponse.Builder().status(BAD_REQUEST).entity(Log.REST.illegalArgument("batch", batch).getMessage()).build());
+      }
+
+      Cache<?, ?> cache = invocationHelper.getRestCacheManager().getCache(cacheName, APPLICATION_JSON, APPLICATION_JSON, request);
+      if (cache == null)
+         return notFoundResponseFuture();
+
+      // The entries are read by the executor and written as the client consumes them
+      NettyRestResponse.Builder responseBuilder = new NettyRestResponse.Builder();
+      responseBuilder.entity(new CacheEntryChunkedInput(cache.entrySet().stream(), batch, metadata, invocationHelper.getExecutor()));
+      responseBuilder.contentType(NDJSON_TYPE);
+      return completedFuture(responseBuilder.build());
+   }
+
+   private CompletionStage<RestResponse> importEntries(RestRequest request) {
+      String cacheName = request.variables().get("cacheName");
+      String batchParam = request.getParameter("batch");
+      int batch = batchParam == null || batchParam.isEmpty() ? IMPORT_BATCH_SIZE : Integer.parseInt(batchParam);
+      if (batch < 1) {
+         return completedFuture(new NettyRestResponse.Builder().status(BAD_REQUEST).entity(Log.REST.illegalArgument("batch", batch).getMessage()).build());
+      }
+
+      AdvancedCache<Object, Object> cache = invocationHelper.getRestCacheManager().getCache(cacheName, APPLICATION_JSON, APPLICATION_JSON, request);
+      if (cache == null)
+         return notFoundResponseFuture();
+
+      // The body is read while it is received, unless the request was aggregated
+      FullHttpRequest httpRequest = ((NettyRestRequest) request).getFullHttpRequest();
+      HttpContentStream content = httpRequest instanceof StreamedHttpRequest ?
+            ((StreamedHttpRequest) httpRequest).contentStream() : HttpContentStream.of(httpRequest.content());
+      CacheEntryImporter importer = new CacheEntryImporter(cache, content, batch, invocationHelper.getExecutor());
+      return importer.start().handle((imported, t) -> {
+         if (t == null) {
+            return asJsonResponse(Json.object().set("imported", imported));
+         }
+         Throwable cause = CompletableFutures.extractException(t);
+         // The entries of the previous batches are kept
+         Json json = Json.object().set("imported", importer.imported()).set("error", String.valueOf(cause.getMessage()));
+         HttpResponseStatus status = cause instanceof IllegalArgumentException ? BAD_REQUEST : HttpResponseStatus.INTERNAL_SERVER_ERROR;
+         return addEntityAsJson(json, new NettyRestResponse.Builder()).status(status).build();
+      });
+   }
+
    private CompletionStage<RestResponse> removeCache(RestRequest request) {
       String cacheName = request.variables().get("cacheName");
       RestCacheManager<Object> restCacheManager = invocationHelper.getRestCacheManager();
@@ -315,6 +379,53 @@ private CompletionStage<RestResponse> getCacheStats(RestRequest request) {
       return asJsonResponseFuture(stats.toJson());
    }
 
+   private CompletionStage<RestResponse> getHotKeys(RestRequest request) {
+      String cacheName = request.variables().get("cacheName");
+      String limitParam = request.getParameter("limit");
+      int limit = limitParam == null || limitParam.isEmpty() ? HotKeyTracker.DEFAULT_TOP_KEYS : Integer.parseInt(limitParam);
+
+      Cache<?, ?> cache = invocationHelper.getRestCacheManager().getCache(cacheName, APPLICATION_JSON, APPLICATION_JSON, request);
+      if (cache == null)
+         return notFoundResponseFuture();
+
+      HotKeyTracker hotKeyTracker = cache.getAdvancedCache().getComponentRegistry().getComponent(HotKeyTracker.class);
+      // Converting the keys from the storage format may need the marshaller
+      return CompletableFuture.supplyAsync(() -> {
+         DataConversion keyDataConversion = cache.getAdvancedCache().getKeyDataConversion();
+         Json json = Json.object()
+               .set("statistics_enabled", hotKeyTracker.getStatisticsEnabled())
+               .set("sampling_rate", hotKeyTracker.getSamplingRate())
+               .set("reads", hotKeysToJson(hotKeyTracker.getTopKeys(HotKeyTracker.Kind.READ, limit), keyDataConversion))
+               .set("writes", hotKeysToJson(hotKeyTracker.getTopKeys(HotKeyTracker.Kind.WRITE, limit), keyDataConversion))
+               .set("lock_contention", hotKeysToJson(hotKeyTracker.getTopKeys(HotKeyTracker.Kind.LOCK_CONTENTION, limit), keyDataConversion));
+         return asJsonResponse(json);
+      }, invocationHelper.getExecutor());
+   }
+
+   private static Json hotKeysToJson(Map<Object, Long> hotKeys, DataConversion keyDataConversion) {
+      Json array = Json.array();
+      hotKeys.forEach((key, count) -> {
+         Json jsonKey;
+         try {
+            Object converted = keyDataConversion.fromStorage(key);
+            jsonKey = converted instanceof byte[] ? readJsonKey(new String((byte[]) converted, UTF_8)) : Json.make(converted);
+         } catch (EncodingException e) {
+            jsonKey = Json.make(String.valueOf(key));
+         }
+         array.add(Json.object().set("key", jsonKey).set("count", count));
+      });
+      return array;
+   }
+
+   private static Json readJsonKey(String key) {
+      try {
+         return Json.read(key);
+      } catch (RuntimeException e) {
+         // A key stored as text is not converted to a JSON string
+         return Json.make(key);
+      }
+   }
+
    private CompletionStage<RestResponse> getAllDetails(RestRequest request) {
       String cacheName = request.variables().get("cacheName");
       Cache<?, ?> cache = invocationHelper.getRestCacheManager().getCache(cacheName, request);
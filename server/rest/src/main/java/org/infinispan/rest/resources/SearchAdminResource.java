@@ -24,6 +24,7 @@
 import org.infinispan.query.core.stats.SearchStatistics;
 import org.infinispan.query.impl.ComponentRegistryUtils;
 import org.infinispan.query.impl.InfinispanQueryStatisticsInfo;
+import org.infinispan.query.impl.massindex.DistributedExecutorMassIndexer;
 import org.infinispan.query.impl.massindex.MassIndexerAlreadyStartedException;
 import org.infinispan.rest.InvocationHelper;
 import org.infinispan.rest.NettyRestResponse;
@@ -54,6 +55,7 @@ public Invocations getInvocations() {
       return new Invocations.Builder()
             .invocation().methods(POST).path("/v2/caches/{cacheName}/search/indexes").withAction("mass-index").handleWith(this::reindex)
             .invocation().methods(POST).path("/v2/caches/{cacheName}/search/indexes").withAction("clear").handleWith(this::clearIndexes)
+            .invocation().methods(GET).path("/v2/caches/{cacheName}/search/indexes/mass-index").handleWith(this::massIndexProgress)
             .invocation().methods(GET).path("/v2/caches/{cacheName}/search/indexes/stats").deprecated().handleWith(this::indexStats)
             .invocation().methods(GET).path("/v2/caches/{cacheName}/search/query/stats").deprecated().handleWith(this::queryStats)
             .invocation().methods(POST).path("/v2/caches/{cacheName}/search/query/stats").deprecated().withAction("clear").handleWith(this::clearStats)
@@ -123,6 +125,26 @@ private CompletionStage<RestResponse> reindex(RestRequest request) {
       return runIndexer(request, Indexer::run, true);
    }
 
+   private CompletionStage<RestResponse> massIndexProgress(RestRequest request) {
+      NettyRestResponse.Builder responseBuilder = new NettyRestResponse.Builder();
+
+      AdvancedCache<?, ?> cache = lookupIndexedCache(request, responseBuilder);
+      int status = responseBuilder.getStatus();
+      if (status < 200 || status > 299) {
+         return completedFuture(responseBuilder.build());
+      }
+
+      Indexer indexer = ComponentRegistryUtils.getIndexer(cache);
+      Json json = Json.object().set("running", indexer.isRunning());
+      if (indexer instanceof DistributedExecutorMassIndexer) {
+         DistributedExecutorMassIndexer massIndexer = (DistributedExecutorMassIndexer) indexer;
+         json.set("indexed_documents", massIndexer.getIndexedDocuments())
+               .set("documents_per_second", massIndexer.getIndexingRate())
+               .set("progress", massIndexer.getIndexingProgress());
+      }
+      return asJsonResponseFuture(json, responseBuilder);
+   }
+
    private CompletionStage<RestResponse> clearIndexes(RestRequest request) {
       return runIndexer(request, Indexer::remove, false);
    }
@@ -25,6 +25,7 @@
 
 import java.nio.file.Paths;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +55,8 @@
 import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
 import org.infinispan.query.remote.client.ProtobufMetadataManagerConstants;
 import org.infinispan.rest.assertion.ResponseAssertion;
+import org.infinispan.stats.impl.HotKeyTracker;
+import org.infinispan.test.TestingUtil;
 import org.testng.annotations.Test;
 
 @Test(groups = "functional", testName = "rest.CacheV2ResourceTest")
@@ -292,6 +295,34 @@ public void testCacheV2Stats() {
       assertEquals(Json.read(join(response).getBody()).at("current_number_of_entries").asInteger(), 0);
    }
 
+   @Test
+   public void testCacheV2HotKeys() {
+      String cacheJson = "{ \"distributed-cache\" : { \"statistics\":true } }";
+      RestCacheClient cacheClient = client.cache("hotKeysCache");
+
+      RestEntity jsonEntity = RestEntity.create(APPLICATION_JSON, cacheJson);
+      CompletionStage<RestResponse> response = cacheClient.createWithConfiguration(jsonEntity, VOLATILE);
+      ResponseAssertion.assertThat(response).isOk();
+      cacheManagers.forEach(cm -> TestingUtil.extractComponent(cm.getCache("hotKeysCache"), HotKeyTracker.class).setSamplingRate(1));
+
+      for (int i = 0; i < 10; i++) {
+         putStringValueInCache("hotKeysCache", "hot", "data" + i);
+      }
+
+      response = cacheClient.hotKeys(5);
+      ResponseAssertion.assertThat(response).isOk();
+
+      Json jsonNode = Json.read(join(response).getBody());
+      assertTrue(jsonNode.at("statistics_enabled").asBoolean());
+      assertEquals(1, jsonNode.at("sampling_rate").asInteger());
+      List<Json> writes = jsonNode.at("writes").asJsonList();
+      assertEquals(1, writes.size());
+      assertEquals("hot", writes.get(0).at("key").asString());
+      // Every write is sampled and the count-min sketch is exact with a single key
+      assertEquals(10, writes.get(0).at("count").asInteger());
+      assertTrue(jsonNode.at("lock_contention").isArray());
+   }
+
    @Test
    public void testCacheSize() {
       for (int i = 0; i < 100; i++) {
@@ -542,6 +573,75 @@ public void testStreamEntriesWithMetadata() {
       assertThat(entry).contains("\"expireTime\" : -1");
    }
 
+   @Test
+   public void testImportExportEntries() {
+      String cacheJson = "{ \"distributed-cache\" : { \"encoding\" : { \"media-type\" : \"application/json\" } } }";
+      RestCacheClient cacheClient = client.cache("importCache");
+      ResponseAssertion.assertThat(cacheClient.createWithConfiguration(RestEntity.create(APPLICATION_JSON, cacheJson), VOLATILE)).isOk();
+
+      StringBuilder entries = new StringBuilder();
+      for (int i = 0; i < 25; i++) {
+         entries.append("{\"key\":\"key_").append(i).append("\",\"value\":{\"v\":").append(i).append("}}\n");
+      }
+      RestResponse response = join(cacheClient.importEntries(RestEntity.create(APPLICATION_JSON, entries.toString()), 10));
+      ResponseAssertion.assertThat(response).isOk();
+      assertEquals(25, Json.read(response.getBody()).at("imported").asInteger());
+
+      response = join(cacheClient.exportEntries(false));
+      ResponseAssertion.assertThat(response).isOk();
+      String[] lines = response.getBody().split("\n");
+      assertEquals(25, lines.length);
+      for (String line : lines) {
+         Json entry = Json.read(line);
+         int i = Integer.parseInt(entry.at("key").asString().substring("key_".length()));
+         assertEquals(i, entry.at("value").at("v").asInteger());
+      }
+
+      response = join(cacheClient.exportEntries(true));
+      assertEquals(-1, Json.read(response.getBody().split("\n")[0]).at("lifespan").asInteger());
+
+      // A batch with an invalid line is not written
+      response = join(cacheClient.importEntries(RestEntity.create(APPLICATION_JSON, "{\"key\":\"a\",\"value\":1}\nnot json\n"), 10));
+      ResponseAssertion.assertThat(response).isBadRequest();
+      assertEquals(0, Json.read(response.getBody()).at("imported").asInteger());
+
+      // The last line of a key wins, also within a batch and with a different expiration
+      String duplicates = "{\"key\":\"key_0\",\"value\":{\"v\":100}}\n" +
+            "{\"key\":\"key_0\",\"value\":{\"v\":200}}\n" +
+            "{\"key\":\"key_0\",\"value\":{\"v\":300},\"lifespan\":600000}\n";
+      response = join(cacheClient.importEntries(RestEntity.create(APPLICATION_JSON, duplicates), 10));
+      ResponseAssertion.assertThat(response).isOk();
+      assertEquals(1, Json.read(response.getBody()).at("imported").asInteger());
+      response = join(cacheClient.exportEntries(false));
+      lines = response.getBody().split("\n");
+      assertEquals(25, lines.length);
+      for (String line : lines) {
+         Json entry = Json.read(line);
+         if (entry.at("key").asString().equals("key_0")) {
+            assertEquals(300, entry.at("value").at("v").asInteger());
+         }
+      }
+   }
+
+   @Test
+   public void testImportLargeDocument() {
+      String cacheJson = "{ \"distributed-cache\" : { \"encoding\" : { \"media-type\" : \"application/json\" } } }";
+      RestCacheClient cacheClient = client.cache("importLargeCache");
+      ResponseAssertion.assertThat(cacheClient.createWithConfiguration(RestEntity.create(APPLICATION_JSON, cacheJson), VOLATILE)).isOk();
+
+      // Larger than what the server buffers before it stops reading the body
+      int count = 20_000;
+      String padding = String.join("", Collections.nCopies(100, "x"));
+      StringBuilder entries = new StringBuilder();
+      for (int i = 0; i < count; i++) {
+         entries.append("{\"key\":\"key_").append(i).append("\",\"value\":{\"v\":\"").append(padding).append("\"}}\n");
+      }
+      RestResponse response = join(cacheClient.importEntries(RestEntity.create(APPLICATION_JSON, entries.toString()), 100));
+      ResponseAssertion.assertThat(response).isOk();
+      assertEquals(count, Json.read(response.getBody()).at("imported").asInteger());
+      assertEquals(count, Integer.parseInt(join(cacheClient.size()).getBody()));
+   }
+
    @Test
    public void testProtobufMetadataManipulation() {
       // Special role {@link ProtobufMetadataManager#SCHEMA_MANAGER_ROLE} is needed for authz. Subject USER has it
@@ -8,6 +8,7 @@
 import static org.infinispan.rest.framework.Method.POST;
 import static org.infinispan.util.concurrent.CompletionStages.join;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
@@ -312,6 +313,14 @@ public void testMassIndexing() {
       }
 
       eventually(() -> getCount() == ENTRIES);
+
+      if (indexEnabled) {
+         RestResponse progressResponse = join(client.cache(CACHE_NAME).reindexProgress());
+         ResponseAssertion.assertThat(progressResponse).isOk();
+         Json progress = Json.read(progressResponse.getBody());
+         assertFalse(progress.at("running").asBoolean());
+         assertEquals(100, progress.at("progress").asInteger());
+      }
    }
 
    @Test
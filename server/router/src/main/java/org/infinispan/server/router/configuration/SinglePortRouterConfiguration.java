@@ -1,6 +1,7 @@
 package org.infinispan.server.router.configuration;
 
 import org.infinispan.commons.configuration.ConfigurationFor;
+import org.infinispan.commons.configuration.attributes.AttributeDefinition;
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.server.core.configuration.ProtocolServerConfiguration;
 import org.infinispan.server.core.configuration.SslConfiguration;
@@ -15,8 +16,10 @@
 @ConfigurationFor(SinglePortEndpointRouter.class)
 public class SinglePortRouterConfiguration extends ProtocolServerConfiguration {
 
+    public static final AttributeDefinition<Boolean> TOPOLOGY_AWARE_ROUTING = AttributeDefinition.builder("topologyAwareRouting", false).immutable().build();
+
     public static AttributeSet attributeDefinitionSet() {
-        return new AttributeSet(SinglePortRouterConfiguration.class, ProtocolServerConfiguration.attributeDefinitionSet(), WORKER_THREADS);
+        return new AttributeSet(SinglePortRouterConfiguration.class, ProtocolServerConfiguration.attributeDefinitionSet(), WORKER_THREADS, TOPOLOGY_AWARE_ROUTING);
     }
 
     /**
@@ -25,4 +28,12 @@ public static AttributeSet attributeDefinitionSet() {
     public SinglePortRouterConfiguration(AttributeSet attributes, SslConfiguration ssl) {
         super(attributes, ssl);
     }
+
+    /**
+     * Whether the responses to the REST requests for a key of a distributed cache have the endpoint of the primary owner
+     * of the key.
+     */
+    public boolean topologyAwareRouting() {
+        return attributes.attribute(TOPOLOGY_AWARE_ROUTING).get();
+    }
 }
@@ -23,6 +23,7 @@ public class SinglePortRouterBuilder extends AbstractRouterBuilder {
     private String keystorePath;
     private char[] keystorePassword;
     private SSLContext sslContext;
+    private boolean topologyAwareRouting;
 
     /**
      * Creates new {@link SinglePortRouterBuilder}.
@@ -58,6 +59,7 @@ else if (keystorePath != null) {
             attributes.attribute(ProtocolServerConfiguration.RECV_BUF_SIZE).set(receiveBufferSize);
             attributes.attribute(ProtocolServerConfiguration.SEND_BUF_SIZE).set(sendBufferSize);
             attributes.attribute(ProtocolServerConfiguration.WORKER_THREADS).set(1);
+            attributes.attribute(SinglePortRouterConfiguration.TOPOLOGY_AWARE_ROUTING).set(topologyAwareRouting);
             return new SinglePortRouterConfiguration(attributes.protect(), sslConfigurationBuilder.create());
         }
         return null;
@@ -93,6 +95,23 @@ public SinglePortRouterBuilder name(String name) {
         return this;
     }
 
+    /**
+     * Adds the endpoint of the primary owner of the key to the responses of the REST requests for a key of a distributed
+     * cache, e.g. {@code GET /rest/v2/caches/cache/key}, in the {@code Cluster-Primary-Owner-Location} header, together
+     * with the cache topology in the {@code Cluster-Topology-Id} header. The clients can then send the next requests for
+     * the key to its owner. The endpoints of the other nodes are taken from the Hot Rod topology, so it requires a Hot
+     * Rod route.
+     * <p>
+     * The owner is found before the request is authenticated, so it is disabled when the REST endpoint requires
+     * authentication, and it is never applied to caches with authorization enabled.
+     *
+     * @param topologyAwareRouting Whether to tell the clients the primary owner of the keys.
+     */
+    public SinglePortRouterBuilder topologyAwareRouting(boolean topologyAwareRouting) {
+        this.topologyAwareRouting = topologyAwareRouting;
+        return this;
+    }
+
     public SinglePortRouterBuilder sslWithAlpn(String keystorePath, char[] keystorePassword) {
         this.keystorePassword = keystorePassword;
         this.keystorePath = keystorePath;
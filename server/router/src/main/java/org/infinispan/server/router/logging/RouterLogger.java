@@ -3,6 +3,7 @@
 import static org.jboss.logging.Logger.Level.DEBUG;
 import static org.jboss.logging.Logger.Level.ERROR;
 import static org.jboss.logging.Logger.Level.INFO;
+import static org.jboss.logging.Logger.Level.WARN;
 
 import org.infinispan.server.router.RoutingTable;
 import org.jboss.logging.BasicLogger;
@@ -53,4 +54,12 @@ public interface RouterLogger extends BasicLogger {
     @LogMessage(level = ERROR)
     @Message(value = "Error while shutting down the router", id = 14010)
     void errorWhileShuttingDown(@Cause Exception e);
+
+    @LogMessage(level = WARN)
+    @Message(value = "Topology-aware routing requires a Hot Rod route to find the endpoints of the other nodes, it is disabled", id = 14011)
+    void topologyAwareRoutingWithoutHotRod();
+
+    @LogMessage(level = WARN)
+    @Message(value = "Topology-aware routing would reveal the cluster topology to unauthenticated clients, it is disabled when the REST endpoint requires authentication", id = 14012)
+    void topologyAwareRoutingWithAuthentication();
 }
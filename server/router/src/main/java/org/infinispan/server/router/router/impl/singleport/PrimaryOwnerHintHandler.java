@@ -0,0 +1,54 @@
+package org.infinispan.server.router.router.impl.singleport;
+
+import java.net.InetSocketAddress;
+
+import org.infinispan.rest.ResponseHeader;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpStatusClass;
+
+/**
+ * Tells the clients which node is the primary owner of the key of a REST request for a key of a distributed cache, so
+ * that they can send the next requests for the key directly to the owner.
+ * <p>
+ * The request is always served by the local REST server. Its response has the endpoint of the primary owner in the
+ * {@code Cluster-Primary-Owner-Location} header, e.g. {@code http://10.0.0.2:11222}, and the cache topology it was
+ * computed with in the {@code Cluster-Topology-Id} header. A client can keep the owner of a key until a response has a
+ * different topology id. No header is added when the owner is not known, see {@link PrimaryOwnerLocator}.
+ *
+ * @since 12.0
+ */
+class PrimaryOwnerHintHandler extends ChannelDuplexHandler {
+
+   private final PrimaryOwnerLocator locator;
+   private PrimaryOwnerLocator.PrimaryOwner owner;
+
+   PrimaryOwnerHintHandler(PrimaryOwnerLocator locator) {
+      this.locator = locator;
+   }
+
+   @Override
+   public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      if (msg instanceof FullHttpRequest) {
+         owner = locator.primaryOwner((FullHttpRequest) msg, ((InetSocketAddress) ctx.channel().localAddress()).getAddress());
+      }
+      ctx.fireChannelRead(msg);
+   }
+
+   @Override
+   public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+      if (msg instanceof HttpResponse) {
+         HttpResponse response = (HttpResponse) msg;
+         if (owner != null && response.status().codeClass() != HttpStatusClass.INFORMATIONAL) {
+            response.headers().set(ResponseHeader.CLUSTER_PRIMARY_OWNER_LOCATION_HEADER.getValue(), owner.location);
+            response.headers().set(ResponseHeader.CLUSTER_TOPOLOGY_ID_HEADER.getValue(), owner.topologyId);
+            owner = null;
+         }
+      }
+      ctx.write(msg, promise);
+   }
+}
@@ -0,0 +1,186 @@
+package org.infinispan.server.router.router.impl.singleport;
+
+import java.lang.invoke.MethodHandles;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.commons.dataconversion.MediaType;
+import org.infinispan.commons.logging.LogFactory;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.distribution.DistributionInfo;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.LocalizedCacheTopology;
+import org.infinispan.encoding.DataConversion;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.rest.RequestHeader;
+import org.infinispan.rest.RestServer;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.server.hotrod.ServerAddress;
+import org.infinispan.server.router.logging.RouterLogger;
+
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.QueryStringDecoder;
+
+/**
+ * Finds the endpoint of the primary owner of the key of a REST request for a key of a distributed cache.
+ * <p>
+ * The owner is found with the consistent hash of the cache, after converting the key from the request to the storage
+ * format, and its endpoint is taken from the Hot Rod topology: in single port mode, Hot Rod and REST share the address.
+ * No owner is returned when the owner or its endpoint are not known, or while the cache is rebalancing, as the nodes may
+ * disagree on the owner.
+ * <p>
+ * The requests are not authenticated yet, so the owners of the caches with authorization enabled are never returned,
+ * and only the keys sent as strings (see {@link #SUPPORTED_KEY_CONTENT_TYPES}) are looked up.
+ *
+ * @since 12.0
+ */
+class PrimaryOwnerLocator {
+
+   private static final RouterLogger logger = LogFactory.getLog(MethodHandles.lookup().lookupClass(), RouterLogger.class);
+
+   private static final MediaType DEFAULT_KEY_CONTENT_TYPE = MediaType.fromString("application/x-java-object;type=java.lang.String");
+   /**
+    * The key content types whose conversions are cached, the header is controlled by the client.
+    */
+   private static final List<MediaType> SUPPORTED_KEY_CONTENT_TYPES = Arrays.asList(DEFAULT_KEY_CONTENT_TYPE, MediaType.TEXT_PLAIN);
+
+   private final EmbeddedCacheManager cacheManager;
+   private final HotRodServer hotRodServer;
+   private final String keyPathPrefix;
+   private final String scheme;
+   private final ConcurrentMap<String, CacheRoute> routes = new ConcurrentHashMap<>();
+
+   PrimaryOwnerLocator(RestServer restServer, HotRodServer hotRodServer, boolean ssl) {
+      this.cacheManager = restServer.getCacheManager();
+      this.hotRodServer = hotRodServer;
+      this.keyPathPrefix = restServer.getConfiguration().contextPath() + "/v2/caches/";
+      this.scheme = ssl ? "https" : "http";
+   }
+
+   /**
+    * @param localAddress The address the request was received on, used when the owner listens on all the interfaces.
+    * @return The primary owner of the key of the request, or {@code null} if the request is not for a key or the owner
+    * is not known.
+    */
+   PrimaryOwner primaryOwner(HttpRequest request, InetAddress localAddress) {
+      HttpMethod method = request.method();
+      if (method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.PUT &&
+            method != HttpMethod.POST && method != HttpMethod.DELETE) {
+         return null;
+      }
+      String uri = request.uri();
+      int queryStart = uri.indexOf('?');
+      String path = queryStart < 0 ? uri : uri.substring(0, queryStart);
+      if (!path.startsWith(keyPathPrefix)) {
+         return null;
+      }
+      // Only {cacheName}/{cacheKey} is left, the key may not contain an unescaped slash
+      int separator = path.indexOf('/', keyPathPrefix.length());
+      if (separator <= keyPathPrefix.length() || separator == path.length() - 1 || path.indexOf('/', separator + 1) >= 0) {
+         return null;
+      }
+      try {
+         String cacheName = QueryStringDecoder.decodeComponent(path.substring(keyPathPrefix.length(), separator));
+         String key = QueryStringDecoder.decodeComponent(path.substring(separator + 1));
+         String keyContentType = request.headers().get(RequestHeader.KEY_CONTENT_TYPE_HEADER.getValue());
+         MediaType keyMediaType = keyContentType == null ? DEFAULT_KEY_CONTENT_TYPE : MediaType.fromString(keyContentType);
+         if (!SUPPORTED_KEY_CONTENT_TYPES.contains(keyMediaType)) {
+            return null;
+         }
+         PrimaryOwner owner = primaryOwner(cacheName, key, keyMediaType, localAddress);
+         if (owner != null && logger.isTraceEnabled()) {
+            logger.tracef("The primary owner of %s %s is %s", method, uri, owner.location);
+         }
+         return owner;
+      } catch (Exception e) {
+         // Let the REST server report the invalid requests
+         logger.debugf(e, "Unable to find the primary owner for %s", uri);
+         return null;
+      }
+   }
+
+   private PrimaryOwner primaryOwner(String cacheName, String key, MediaType keyMediaType, InetAddress localAddress) {
+      CacheRoute route = routes.get(cacheName);
+      if (route == null || !route.isRunning()) {
+         routes.remove(cacheName);
+         if (!cacheManager.isRunning(cacheName)) {
+            return null;
+         }
+         route = new CacheRoute(SecurityActions.getCache(cacheManager, cacheName));
+         routes.put(cacheName, route);
+      }
+      if (route.secured) {
+         return null;
+      }
+      DistributionManager distributionManager = route.distributionManager;
+      if (distributionManager == null || distributionManager.isRehashInProgress()) {
+         return null;
+      }
+      Object storageKey = route.keyConversion(keyMediaType).toStorage(key);
+      LocalizedCacheTopology topology = distributionManager.getCacheTopology();
+      DistributionInfo distribution = topology.getDistribution(storageKey);
+      Address primary = distribution.primary();
+      if (primary == null) {
+         return null;
+      }
+      Cache<Address, ServerAddress> addressCache = hotRodServer.getAddressCache();
+      ServerAddress endpoint = addressCache == null ? null : addressCache.get(primary);
+      if (endpoint == null) {
+         return null;
+      }
+      String host = endpoint.getHost(localAddress);
+      if (host.indexOf(':') >= 0) {
+         host = "[" + host + "]";
+      }
+      return new PrimaryOwner(scheme + "://" + host + ":" + endpoint.getPort(), topology.getTopologyId());
+   }
+
+   /**
+    * The endpoint of the primary owner of a key, valid as long as the topology of the cache does not change.
+    */
+   static final class PrimaryOwner {
+      final String location;
+      final int topologyId;
+
+      PrimaryOwner(String location, int topologyId) {
+         this.location = location;
+         this.topologyId = topologyId;
+      }
+   }
+
+   /**
+    * The components needed to find the owners of the keys of a cache, created on the first request.
+    */
+   private static final class CacheRoute {
+      final AdvancedCache<?, ?> cache;
+      final boolean secured;
+      final DistributionManager distributionManager;
+      // Bounded by SUPPORTED_KEY_CONTENT_TYPES
+      final ConcurrentMap<MediaType, DataConversion> keyConversions = new ConcurrentHashMap<>(4);
+
+      CacheRoute(Cache<?, ?> cache) {
+         this.cache = cache.getAdvancedCache();
+         Configuration configuration = SecurityActions.getCacheConfiguration(this.cache);
+         // The request is not authenticated yet, do not reveal the owners of a cache with restricted access
+         this.secured = configuration.security().authorization().enabled();
+         boolean distributed = configuration.clustering().cacheMode().isDistributed();
+         this.distributionManager = !secured && distributed ? SecurityActions.getDistributionManager(this.cache) : null;
+      }
+
+      boolean isRunning() {
+         return cache.getStatus().allowInvocations();
+      }
+
+      DataConversion keyConversion(MediaType keyMediaType) {
+         return keyConversions.computeIfAbsent(keyMediaType,
+               mediaType -> cache.withMediaType(mediaType, MediaType.MATCH_ALL).getKeyDataConversion());
+      }
+   }
+}
@@ -0,0 +1,40 @@
+package org.infinispan.server.router.router.impl.singleport;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.security.Security;
+import org.infinispan.security.actions.GetCacheAction;
+import org.infinispan.security.actions.GetCacheConfigurationAction;
+import org.infinispan.security.actions.GetCacheDistributionManagerAction;
+
+/**
+ * SecurityActions for the org.infinispan.server.router.router.impl.singleport package.
+ * <p>
+ * Do not move. Do not change class and method visibility to avoid being called from other {@link
+ * java.security.CodeSource}s, thus granting privilege escalation to external code.
+ */
+final class SecurityActions {
+
+   private static <T> T doPrivileged(PrivilegedAction<T> action) {
+      return System.getSecurityManager() != null ? AccessController.doPrivileged(action) : Security.doPrivileged(action);
+   }
+
+   @SuppressWarnings("unchecked")
+   static <K, V> Cache<K, V> getCache(EmbeddedCacheManager cacheManager, String cacheName) {
+      return (Cache<K, V>) doPrivileged(new GetCacheAction(cacheManager, cacheName));
+   }
+
+   static Configuration getCacheConfiguration(AdvancedCache<?, ?> cache) {
+      return doPrivileged(new GetCacheConfigurationAction(cache));
+   }
+
+   static DistributionManager getDistributionManager(AdvancedCache<?, ?> cache) {
+      return doPrivileged(new GetCacheDistributionManagerAction(cache));
+   }
+}
@@ -1,14 +1,19 @@
 package org.infinispan.server.router.router.impl.singleport;
 
+import java.lang.invoke.MethodHandles;
 import java.util.Map;
+import java.util.function.Supplier;
 
+import org.infinispan.commons.logging.LogFactory;
 import org.infinispan.rest.RestServer;
 import org.infinispan.server.core.ProtocolServer;
 import org.infinispan.server.core.transport.NettyChannelInitializer;
 import org.infinispan.server.core.transport.NettyTransport;
 import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.server.router.logging.RouterLogger;
 
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
 import io.netty.handler.ssl.ApplicationProtocolConfig;
 import io.netty.handler.ssl.ApplicationProtocolNames;
 
@@ -19,11 +24,33 @@
  */
 class SinglePortChannelInitializer extends NettyChannelInitializer {
 
+   private static final RouterLogger logger = LogFactory.getLog(MethodHandles.lookup().lookupClass(), RouterLogger.class);
+
    private final SinglePortUpgradeHandler http11To2UpgradeHandler;
 
    public SinglePortChannelInitializer(SinglePortEndpointRouter server, NettyTransport transport, RestServer restServer, Map<String, ProtocolServer> upgradeServers) {
       super(server, transport, null, null);
-      http11To2UpgradeHandler = new SinglePortUpgradeHandler(server.getConfiguration().ssl().enabled(), restServer, upgradeServers);
+      boolean ssl = server.getConfiguration().ssl().enabled();
+      http11To2UpgradeHandler = new SinglePortUpgradeHandler(ssl, restServer, upgradeServers, routingHandler(server, restServer, upgradeServers, ssl));
+   }
+
+   private static Supplier<ChannelHandler> routingHandler(SinglePortEndpointRouter server, RestServer restServer, Map<String, ProtocolServer> upgradeServers, boolean ssl) {
+      if (!server.getConfiguration().topologyAwareRouting()) {
+         return null;
+      }
+      // The endpoints of the other nodes are only known through the Hot Rod topology
+      ProtocolServer hotRodServer = upgradeServers.get("HR");
+      if (!(hotRodServer instanceof HotRodServer)) {
+         logger.topologyAwareRoutingWithoutHotRod();
+         return null;
+      }
+      // The owner is found before the REST server authenticates the request
+      if (restServer.getConfiguration().authentication().enabled()) {
+         logger.topologyAwareRoutingWithAuthentication();
+         return null;
+      }
+      PrimaryOwnerLocator locator = new PrimaryOwnerLocator(restServer, (HotRodServer) hotRodServer, ssl);
+      return () -> new PrimaryOwnerHintHandler(locator);
    }
 
    @Override
@@ -3,11 +3,14 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import org.infinispan.rest.ALPNHandler;
 import org.infinispan.rest.RestServer;
 import org.infinispan.server.core.ProtocolServer;
 
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelPipeline;
 import io.netty.handler.ssl.ApplicationProtocolConfig;
 import io.netty.handler.ssl.ApplicationProtocolNames;
 
@@ -20,11 +23,25 @@ public class SinglePortUpgradeHandler extends ALPNHandler {
 
    private final boolean useAlpn;
    private final Map<String, ProtocolServer> upgradeServers;
+   private final Supplier<ChannelHandler> routingHandler;
 
    public SinglePortUpgradeHandler(boolean useAlpn, RestServer restServer, Map<String, ProtocolServer> upgradeServers) {
+      this(useAlpn, restServer, upgradeServers, null);
+   }
+
+   public SinglePortUpgradeHandler(boolean useAlpn, RestServer restServer, Map<String, ProtocolServer> upgradeServers,
+                                   Supplier<ChannelHandler> routingHandler) {
       super(restServer);
       this.useAlpn = useAlpn;
       this.upgradeServers = upgradeServers;
+      this.routingHandler = routingHandler;
+   }
+
+   @Override
+   protected void addRoutingHandlers(ChannelPipeline pipeline) {
+      if (routingHandler != null) {
+         pipeline.addLast(routingHandler.get());
+      }
    }
 
    @Override
@@ -2,6 +2,7 @@
 
 import static org.infinispan.commons.dataconversion.MediaType.TEXT_PLAIN;
 import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.infinispan.test.AbstractCacheTest.getDefaultClusteredCacheConfig;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
@@ -9,6 +10,7 @@
 import java.util.concurrent.CompletionStage;
 
 import org.assertj.core.api.Assertions;
+import org.infinispan.AdvancedCache;
 import org.infinispan.client.hotrod.DataFormat;
 import org.infinispan.client.hotrod.RemoteCacheManager;
 import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
@@ -18,8 +20,10 @@
 import org.infinispan.client.rest.RestResponse;
 import org.infinispan.client.rest.configuration.Protocol;
 import org.infinispan.client.rest.configuration.RestClientConfigurationBuilder;
+import org.infinispan.commons.dataconversion.MediaType;
 import org.infinispan.commons.marshall.UTF8StringMarshaller;
 import org.infinispan.commons.test.TestResourceTracker;
+import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.rest.RestServer;
 import org.infinispan.rest.assertion.ResponseAssertion;
@@ -56,6 +60,7 @@ public class SinglePortTest {
     private Router router;
     private RestServer restServer;
     private HotRodServer hotrodServer;
+    private HotRodServer secondHotrodServer;
     private RestClient httpClient;
     private RemoteCacheManager hotRodClient;
 
@@ -76,16 +81,20 @@ public void afterMethod() throws IOException {
         }
         HotRodClientTestingUtil.killRemoteCacheManager(hotRodClient);
         RestTestingUtil.killRouter(router);
-        HotRodClientTestingUtil.killServers(hotrodServer);
+        HotRodClientTestingUtil.killServers(hotrodServer, secondHotrodServer);
         if (hotrodServer != null) {
             TestingUtil.killCacheManagers(hotrodServer.getCacheManager());
         }
+        if (secondHotrodServer != null) {
+            TestingUtil.killCacheManagers(secondHotrodServer.getCacheManager());
+        }
         if (restServer != null) {
             restServer.stop();
             TestingUtil.killCacheManagers(restServer.getCacheManager());
         }
         hotRodClient = null;
         hotrodServer = null;
+        secondHotrodServer = null;
         restServer = null;
     }
 
@@ -176,6 +185,69 @@ public void shouldUpgradeToHotRodThroughHTTP11UpgradeHeaders() {
         Assertions.assertThat(value).isEqualTo("test");
     }
 
+    @Test
+    public void shouldTellPrimaryOwnerOfKeys() {
+        //given
+        org.infinispan.configuration.cache.ConfigurationBuilder cacheBuilder = hotRodCacheConfiguration(getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC));
+        cacheBuilder.clustering().hash().numOwners(1);
+        EmbeddedCacheManager cacheManager = TestCacheManagerFactory.createClusteredCacheManager(cacheBuilder);
+        EmbeddedCacheManager secondCacheManager = TestCacheManagerFactory.createClusteredCacheManager(cacheBuilder);
+        TestingUtil.blockUntilViewsReceived(10000, cacheManager.getCache(), secondCacheManager.getCache());
+        TestingUtil.waitForNoRebalance(cacheManager.getCache(), secondCacheManager.getCache());
+        // Initialize transport-less Hot Rod servers, they advertise the endpoints of the owners
+        hotrodServer = HotRodClientTestingUtil.startHotRodServer(cacheManager, transportlessHotRodBuilder("127.0.0.1", 11411));
+        secondHotrodServer = HotRodClientTestingUtil.startHotRodServer(secondCacheManager, transportlessHotRodBuilder("127.0.0.1", 11412));
+        // Initialize a transport-less REST server on the first node
+        restServer = new RestServer();
+        RestServerConfigurationBuilder restServerConfigurationBuilder = new RestServerConfigurationBuilder();
+        restServerConfigurationBuilder.startTransport(false);
+        restServerConfigurationBuilder.name(TestResourceTracker.getCurrentTestName());
+        restServer.start(restServerConfigurationBuilder.build(), cacheManager);
+
+        SinglePortRouteSource singlePortSource = new SinglePortRouteSource();
+        Route<SinglePortRouteSource, HotRodServerRouteDestination> routeToHotRod = new Route<>(singlePortSource, new HotRodServerRouteDestination("hotrod", hotrodServer));
+        Route<SinglePortRouteSource, RestServerRouteDestination> routeToRest = new Route<>(singlePortSource, new RestServerRouteDestination("rest", restServer));
+        RouterConfigurationBuilder routerConfigurationBuilder = new RouterConfigurationBuilder();
+        routerConfigurationBuilder
+              .singlePort()
+              .port(0)
+              .ip(InetAddress.getLoopbackAddress())
+              .topologyAwareRouting(true)
+              .routing()
+              .add(routeToRest)
+              .add(routeToHotRod);
+
+        router = new Router(routerConfigurationBuilder.build());
+        router.start();
+        EndpointRouter endpointRouter = router.getRouter(EndpointRouter.Protocol.SINGLE_PORT).get();
+
+        RestClientConfigurationBuilder builder = new RestClientConfigurationBuilder();
+        builder.addServer().host(endpointRouter.getHost()).port(endpointRouter.getPort()).protocol(Protocol.HTTP_11);
+        httpClient = RestClient.forConfiguration(builder.build());
+        String cacheName = cacheManager.getCacheManagerConfiguration().defaultCacheName().get();
+        String localKey = keyOwnedBy(cacheManager, "local");
+        String remoteKey = keyOwnedBy(secondCacheManager, "remote");
+
+        //when
+        RestResponse local = join(httpClient.cache(cacheName).put(localKey, VALUE));
+        RestResponse remote = join(httpClient.cache(cacheName).put(remoteKey, VALUE));
+        // Only the conversions of a fixed set of key types are cached, the others are handled by the REST server
+        RestResponse unsupportedKeyType = join(httpClient.cache(cacheName).put(remoteKey, "text/plain; charset=UTF-8", RestEntity.create(TEXT_PLAIN, VALUE)));
+
+        //then
+        // All the requests are served by the first node
+        Assertions.assertThat(local.getStatus()).isEqualTo(204);
+        Assertions.assertThat(remote.getStatus()).isEqualTo(204);
+        Assertions.assertThat(local.getHeader("Cluster-Primary-Owner-Location")).isEqualTo("http://127.0.0.1:11411");
+        Assertions.assertThat(remote.getHeader("Cluster-Primary-Owner-Location")).isEqualTo("http://127.0.0.1:11412");
+        String topologyId = String.valueOf(cacheManager.getCache().getAdvancedCache().getDistributionManager().getCacheTopology().getTopologyId());
+        Assertions.assertThat(local.getHeader("Cluster-Topology-Id")).isEqualTo(topologyId);
+        Assertions.assertThat(remote.getHeader("Cluster-Topology-Id")).isEqualTo(topologyId);
+        Assertions.assertThat(unsupportedKeyType.getStatus()).isEqualTo(204);
+        Assertions.assertThat(unsupportedKeyType.getHeader("Cluster-Primary-Owner-Location")).isNull();
+        Assertions.assertThat(cacheManager.getCache().size()).isEqualTo(2);
+    }
+
     @Test
     public void shouldUpgradeThroughALPN() throws Exception {
         checkForOpenSSL();
@@ -252,6 +324,31 @@ public void shouldUpgradeToHotRodThroughALPN() {
         hotRodClient.getCache("default").put("test", "test");
     }
 
+    private static HotRodServerConfigurationBuilder transportlessHotRodBuilder(String proxyHost, int proxyPort) {
+        HotRodServerConfigurationBuilder hotRodServerBuilder = new HotRodServerConfigurationBuilder();
+        hotRodServerBuilder.startTransport(false);
+        hotRodServerBuilder.name(TestResourceTracker.getCurrentTestName() + proxyPort);
+        hotRodServerBuilder.proxyHost(proxyHost).proxyPort(proxyPort);
+        return hotRodServerBuilder;
+    }
+
+    private static String keyOwnedBy(EmbeddedCacheManager cacheManager, String prefix) {
+        // Convert the keys as the REST server does, from the default key content type to the storage format
+        AdvancedCache<?, ?> cache = cacheManager.getCache().getAdvancedCache()
+              .withMediaType(MediaType.APPLICATION_OBJECT.withClassType(String.class), MediaType.MATCH_ALL);
+        for (int i = 0; ; i++) {
+            String key = prefix + i;
+            Object storageKey = cache.getKeyDataConversion().toStorage(key);
+            if (cache.getDistributionManager().getCacheTopology().getDistribution(storageKey).isPrimary()) {
+                return key;
+            }
+        }
+    }
+
+    private static RestResponse join(CompletionStage<RestResponse> response) {
+        return response.toCompletableFuture().join();
+    }
+
     private void checkForOpenSSL() {
         if (!OpenSSLEngine.isAlpnSupported()) {
             throw new IllegalStateException("OpenSSL is not present, can not test TLS/ALPN support.");
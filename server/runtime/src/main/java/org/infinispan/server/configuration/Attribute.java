@@ -83,6 +83,7 @@ public enum Attribute {
    TCP_KEEPALIVE,
    TCP_NODELAY,
    TO,
+   TOPOLOGY_AWARE_ROUTING,
    URL,
    VALUE,
    VERIFIABLE,
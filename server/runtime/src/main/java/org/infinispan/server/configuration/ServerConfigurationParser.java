@@ -1114,6 +1114,9 @@ private void parseEndpoints(XMLExtendedStreamReader reader, ConfigurationBuilder
             case SOCKET_BINDING:
                // Already seen
                break;
+            case TOPOLOGY_AWARE_ROUTING:
+               builder.endpoint().topologyAwareRouting(Boolean.parseBoolean(value));
+               break;
             case SECURITY_REALM:
                // Set the endpoint security realm and fall-through. Starting with 11.0 we also enable implicit authentication configuration
                endpoints.securityRealm(value).implicitConnectorSecurity(reader.getSchema().since(11, 0));
@@ -85,6 +85,11 @@ public ServerSecurityRealm securityRealm() {
       return securityRealm;
    }
 
+   public SinglePortServerConfigurationBuilder topologyAwareRouting(boolean topologyAwareRouting) {
+      attributes.attribute(SinglePortRouterConfiguration.TOPOLOGY_AWARE_ROUTING).set(topologyAwareRouting);
+      return this;
+   }
+
    public void applyConfigurationToProtocol(ProtocolServerConfigurationBuilder builder) {
       if (attributes.attribute(ProtocolServerConfiguration.HOST).isModified()) {
          builder.host(attributes.attribute(ProtocolServerConfiguration.HOST).get());
@@ -11,6 +11,8 @@ public enum Attribute {
    UNKNOWN(null), // must be first
 
    AWAIT_INITIAL_RETRIEVAL,
+   EVENT_COALESCING,
+   EVENT_QUEUE_MAX_BYTES,
    EXTERNAL_HOST,
    EXTERNAL_PORT,
    HOST_NAME,
@@ -84,6 +84,14 @@ private void parseHotRodConnector(XMLExtendedStreamReader reader, ConfigurationB
                builder.proxyPort(Integer.parseInt(value));
                break;
             }
+            case EVENT_QUEUE_MAX_BYTES: {
+               builder.eventQueueMaxBytes(Long.parseLong(value));
+               break;
+            }
+            case EVENT_COALESCING: {
+               builder.eventCoalescing(Boolean.parseBoolean(value));
+               break;
+            }
             case NAME: {
                builder.name(value);
                break;
@@ -90,6 +90,7 @@ public void testParser() throws IOException {
       SinglePortRouterConfiguration singlePortRouter = server.endpoints().singlePortRouter();
       assertEquals(socketBindings.get("default").getAddress().getAddress().getHostAddress(), singlePortRouter.host());
       assertEquals(socketBindings.get("default").getPort(), singlePortRouter.port());
+      assertTrue(singlePortRouter.topologyAwareRouting());
       assertEquals(socketBindings.get("memcached").getPort(), server.endpoints().connectors().get(2).port());
    }
 }
@@ -108,6 +108,11 @@ private void nearCacheMetrics(MeterRegistry registry) {
                .description("The number of invalidations of near cache entries owned by this client")
                .register(registry);
 
+         Gauge.builder("cache.near.evictions", cache, cache -> cache.clientStatistics().getNearCacheEvictions())
+               .tags(getTagsWithCacheName())
+               .description("The number of evictions of near cache entries owned by this client")
+               .register(registry);
+
          Gauge.builder("cache.near.size", cache, cache -> cache.clientStatistics().getNearCacheSize())
                .tags(getTagsWithCacheName())
                .description("The size of the near cache owned by this client")